@@ -0,0 +1,75 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordLists;
+import org.passay.dictionary.sort.ArraysSort;
+
+/**
+ * Base class for benchmarks that defines the default JMH options, which report throughput in operations per second.
+ * The run script in this module overrides the mode to report latency percentiles and enables the GC profiler to report
+ * allocation rates. The bundled word lists are read from the directory named by the <code>passay.resources</code>
+ * system property, which defaults to <code>src/test/resources</code> relative to the root of the project.
+ *
+ * @author  Middleware Services
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = AbstractBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = AbstractBenchmark.ITERATIONS, time = 1)
+@Fork(AbstractBenchmark.FORKS)
+public abstract class AbstractBenchmark
+{
+
+  /** Number of warmup and measurement iterations. */
+  static final int ITERATIONS = 5;
+
+  /** Number of forked JVMs. */
+  static final int FORKS = 2;
+
+  /** Directory containing the bundled word lists. */
+  static final String RESOURCES = System.getProperty("passay.resources", "src/test/resources");
+
+
+  /**
+   * Returns the path of a bundled resource.
+   *
+   * @param  name  of the resource, e.g. web2 or freebsd
+   *
+   * @return  path to the resource
+   */
+  protected static String resource(final String name)
+  {
+    return Paths.get(RESOURCES, name).toString();
+  }
+
+
+  /**
+   * Reads a sorted word list from a bundled resource.
+   *
+   * @param  name  of the resource
+   * @param  caseSensitive  whether the word list is case-sensitive
+   *
+   * @return  word list
+   *
+   * @throws  IOException  if the resource cannot be read
+   */
+  protected static ArrayWordList wordList(final String name, final boolean caseSensitive) throws IOException
+  {
+    try (Reader reader = Files.newBufferedReader(Paths.get(resource(name)), StandardCharsets.UTF_8)) {
+      return WordLists.createFromReader(new Reader[] {reader}, caseSensitive, new ArraysSort());
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.BinaryFuseFilter;
+import org.passay.dictionary.BinaryFuseFilterDictionary;
+import org.passay.dictionary.BlockedBloomFilter;
+import org.passay.dictionary.BlockedBloomFilterDictionary;
+import org.passay.dictionary.BloomFilterDictionary;
+import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.FileWordList;
+import org.passay.dictionary.MemoryMappedFileWordList;
+import org.passay.dictionary.TernaryTreeDictionary;
+import org.passay.dictionary.WordListDictionary;
+
+/**
+ * Measures searches of each {@link Dictionary} type over the bundled word lists for words that are in the dictionary
+ * and words that are not. The bloom filters are created with the 1/256 false positive probability of the binary fuse
+ * filter so that the filter dictionaries are comparable.
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Benchmark)
+public class DictionaryBenchmark extends AbstractBenchmark
+{
+
+  /** False positive probability of the bloom filters. */
+  private static final double FPP = 1.0 / 256;
+
+  /** Dictionary type. */
+  @Param({
+    "ArrayWordList",
+    "FileWordList",
+    "MemoryMappedFileWordList",
+    "TernaryTree",
+    "BloomFilter",
+    "BlockedBloomFilter",
+    "BinaryFuseFilter"
+  })
+  private String type;
+
+  /** Bundled word list. */
+  @Param({"web2", "freebsd"})
+  private String file;
+
+  /** Sorted file backing the file word lists. */
+  private RandomAccessFile sortedFile;
+
+  /** Dictionary. */
+  private Dictionary dictionary;
+
+  /** Words in the dictionary. */
+  private String[] hits;
+
+  /** Words not in the dictionary. */
+  private String[] misses;
+
+  /** Index of the next word to search for. */
+  private int index;
+
+
+  /**
+   * Creates the dictionary.
+   *
+   * @throws  IOException  if the word list cannot be read
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    final ArrayWordList words = wordList(file, true);
+    switch (type) {
+
+    case "ArrayWordList":
+      dictionary = new WordListDictionary(words);
+      break;
+
+    case "FileWordList":
+      sortedFile = new RandomAccessFile(resource(file + ".sort"), "r");
+      dictionary = new WordListDictionary(new FileWordList(sortedFile, true));
+      break;
+
+    case "MemoryMappedFileWordList":
+      sortedFile = new RandomAccessFile(resource(file + ".sort"), "r");
+      dictionary = new WordListDictionary(new MemoryMappedFileWordList(sortedFile, true));
+      break;
+
+    case "TernaryTree":
+      dictionary = new TernaryTreeDictionary(words);
+      break;
+
+    case "BloomFilter":
+      final BloomFilter<CharSequence> bloomFilter = BloomFilter.create(
+        Funnels.stringFunnel(StandardCharsets.UTF_8), words.size(), FPP);
+      for (int i = 0; i < words.size(); i++) {
+        bloomFilter.put(words.get(i));
+      }
+      dictionary = new BloomFilterDictionary(bloomFilter);
+      break;
+
+    case "BlockedBloomFilter":
+      final BlockedBloomFilter blockedFilter = BlockedBloomFilter.create(words.size(), FPP);
+      for (int i = 0; i < words.size(); i++) {
+        blockedFilter.put(words.get(i));
+      }
+      dictionary = new BlockedBloomFilterDictionary(blockedFilter);
+      break;
+
+    case "BinaryFuseFilter":
+      dictionary = new BinaryFuseFilterDictionary(BinaryFuseFilter.build(words));
+      break;
+
+    default:
+      throw new IllegalArgumentException("Unknown dictionary " + type);
+    }
+    hits = WordListBenchmark.samples(words);
+    misses = new String[hits.length];
+    for (int i = 0; i < misses.length; i++) {
+      misses[i] = "not-a-word-" + i;
+    }
+  }
+
+
+  /**
+   * Closes the sorted file.
+   *
+   * @throws  IOException  if the file cannot be closed
+   */
+  @TearDown
+  public void tearDown() throws IOException
+  {
+    if (sortedFile != null) {
+      sortedFile.close();
+    }
+  }
+
+
+  /**
+   * Searches for a word that is in the dictionary.
+   *
+   * @return  whether the word was found
+   */
+  @Benchmark
+  public boolean searchHit()
+  {
+    return dictionary.search(hits[index++ & (WordListBenchmark.SAMPLES - 1)]);
+  }
+
+
+  /**
+   * Searches for a word that is not in the dictionary.
+   *
+   * @return  whether the word was found
+   */
+  @Benchmark
+  public boolean searchMiss()
+  {
+    return dictionary.search(misses[index++ & (WordListBenchmark.SAMPLES - 1)]);
+  }
+}
@@ -0,0 +1,85 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.passay.UnicodeString;
+import org.passay.data.EnglishCharacterData;
+import org.passay.data.EnglishSequenceData;
+import org.passay.generate.PasswordGenerator;
+import org.passay.rule.CharacterCharacteristicsRule;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.IllegalSequenceRule;
+import org.passay.rule.RepeatCharactersRule;
+import org.passay.rule.Rule;
+
+/**
+ * Measures {@link PasswordGenerator} for passwords of several lengths. The policies are:
+ *
+ * <ul>
+ *   <li>characters - upper case, lower case, digit and special character rules</li>
+ *   <li>characteristics - a characteristics rule requiring three of the four character rules</li>
+ *   <li>complexity - the character rules plus sequence and repeat rules, which cause some passwords to be retried</li>
+ * </ul>
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Thread)
+public class PasswordGeneratorBenchmark extends AbstractBenchmark
+{
+
+  /** Policy of the generated passwords. */
+  @Param({"characters", "characteristics", "complexity"})
+  private String policy;
+
+  /** Length of the generated passwords. */
+  @Param({"12", "32"})
+  private int length;
+
+  /** Password generator, which is not thread safe. */
+  private PasswordGenerator generator;
+
+
+  /** Creates the password generator for the policy. */
+  @Setup
+  public void setup()
+  {
+    final List<Rule> rules = new ArrayList<>();
+    final CharacterRule[] characterRules = {
+      new CharacterRule(EnglishCharacterData.UpperCase, 1),
+      new CharacterRule(EnglishCharacterData.LowerCase, 1),
+      new CharacterRule(EnglishCharacterData.Digit, 1),
+      new CharacterRule(EnglishCharacterData.Special, 1),
+    };
+    if ("characteristics".equals(policy)) {
+      rules.add(new CharacterCharacteristicsRule(3, characterRules));
+    } else {
+      Collections.addAll(rules, characterRules);
+    }
+    if ("complexity".equals(policy)) {
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.Alphabetical));
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.Numerical));
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.USQwerty));
+      rules.add(new RepeatCharactersRule());
+    }
+    generator = new PasswordGenerator(length, rules);
+  }
+
+
+  /**
+   * Generates a password.
+   *
+   * @return  generated password
+   */
+  @Benchmark
+  public UnicodeString generate()
+  {
+    return generator.generate();
+  }
+}
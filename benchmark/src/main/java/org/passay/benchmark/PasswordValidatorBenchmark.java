@@ -0,0 +1,127 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.passay.DefaultPasswordValidator;
+import org.passay.PasswordData;
+import org.passay.ValidationResult;
+import org.passay.data.EnglishCharacterData;
+import org.passay.data.EnglishSequenceData;
+import org.passay.dictionary.TernaryTreeDictionary;
+import org.passay.rule.CharacterCharacteristicsRule;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.DictionarySubstringRule;
+import org.passay.rule.IllegalSequenceRule;
+import org.passay.rule.LengthRule;
+import org.passay.rule.RepeatCharactersRule;
+import org.passay.rule.Rule;
+import org.passay.rule.UsernameRule;
+import org.passay.rule.WhitespaceRule;
+
+/**
+ * Measures {@link DefaultPasswordValidator} across representative policies for a password that satisfies the policy
+ * and one that violates most of its rules. The policies are:
+ *
+ * <ul>
+ *   <li>length - length rule only</li>
+ *   <li>composition - length, character characteristics and whitespace rules</li>
+ *   <li>complexity - composition plus username, sequence and repeat rules</li>
+ *   <li>dictionary - complexity plus a case-insensitive dictionary substring rule over web2</li>
+ * </ul>
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Benchmark)
+public class PasswordValidatorBenchmark extends AbstractBenchmark
+{
+
+  /** Minimum password length. */
+  private static final int MIN_LENGTH = 8;
+
+  /** Maximum password length. */
+  private static final int MAX_LENGTH = 64;
+
+  /** Username of the validated passwords. */
+  private static final String USERNAME = "alfred";
+
+  /** Password that satisfies every policy. */
+  private static final String VALID_PASSWORD = "Zq7#Kv9!mWx2";
+
+  /** Password that violates most rules of every policy. */
+  private static final String INVALID_PASSWORD = "alfred 1234";
+
+  /** Policy to validate with. */
+  @Param({"length", "composition", "complexity", "dictionary"})
+  private String policy;
+
+  /** Validator for the policy. */
+  private DefaultPasswordValidator validator;
+
+
+  /**
+   * Creates the validator for the policy.
+   *
+   * @throws  IOException  if the dictionary cannot be read
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    final List<Rule> rules = new ArrayList<>();
+    rules.add(new LengthRule(MIN_LENGTH, MAX_LENGTH));
+    if (!"length".equals(policy)) {
+      rules.add(
+        new CharacterCharacteristicsRule(
+          3,
+          new CharacterRule(EnglishCharacterData.UpperCase, 1),
+          new CharacterRule(EnglishCharacterData.LowerCase, 1),
+          new CharacterRule(EnglishCharacterData.Digit, 1),
+          new CharacterRule(EnglishCharacterData.Special, 1)));
+      rules.add(new WhitespaceRule());
+    }
+    if ("complexity".equals(policy) || "dictionary".equals(policy)) {
+      rules.add(new UsernameRule(true, true));
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.Alphabetical));
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.Numerical));
+      rules.add(new IllegalSequenceRule(EnglishSequenceData.USQwerty));
+      rules.add(new RepeatCharactersRule());
+    }
+    if ("dictionary".equals(policy)) {
+      rules.add(new DictionarySubstringRule(new TernaryTreeDictionary(wordList("web2-gt3", false)), true));
+    }
+    validator = new DefaultPasswordValidator(rules);
+    if (!validator.validate(new PasswordData(USERNAME, VALID_PASSWORD)).isValid()) {
+      throw new IllegalStateException(VALID_PASSWORD + " does not satisfy the " + policy + " policy");
+    }
+  }
+
+
+  /**
+   * Validates a password that satisfies the policy.
+   *
+   * @return  validation result
+   */
+  @Benchmark
+  public ValidationResult validPassword()
+  {
+    return validator.validate(new PasswordData(USERNAME, VALID_PASSWORD));
+  }
+
+
+  /**
+   * Validates a password that violates the policy.
+   *
+   * @return  validation result
+   */
+  @Benchmark
+  public ValidationResult invalidPassword()
+  {
+    return validator.validate(new PasswordData(USERNAME, INVALID_PASSWORD));
+  }
+}
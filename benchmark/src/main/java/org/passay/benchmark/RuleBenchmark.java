@@ -0,0 +1,106 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.passay.PasswordData;
+import org.passay.RuleResult;
+import org.passay.rule.DigestRuleFixtures;
+import org.passay.rule.Rule;
+import org.passay.rule.RuleFixtures;
+
+/**
+ * Measures each {@link Rule} in isolation against a password that satisfies it and one that violates it. The rules and
+ * password data are the shared fixtures of {@link RuleFixtures} and {@link DigestRuleFixtures}, which the footprint
+ * harness also measures. The password data carries a username and historical and source references so that every rule
+ * has work to do.
+ * {@link org.passay.rule.HaveIBeenPwnedRule} is not measured since its cost is dominated by the remote service.
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Benchmark)
+public class RuleBenchmark extends AbstractBenchmark
+{
+
+  /** Rule to measure. */
+  @Param({
+    "AllowedCharacterRule",
+    "AllowedRegexRule",
+    "CharacterCharacteristicsRule",
+    "CharacterOccurrencesRule",
+    "CharacterRule",
+    "DictionaryRule",
+    "DictionarySubstringRule",
+    "DigestDictionaryRule",
+    "DigestHistoryRule",
+    "DigestSourceRule",
+    "HistoryRule",
+    "IllegalCharacterRule",
+    "IllegalRegexRule",
+    "IllegalSequenceRule",
+    "LengthComplexityRule",
+    "LengthRule",
+    "NumberRangeRule",
+    "RepeatCharactersRule",
+    "SourceRule",
+    "UsernameRule",
+    "WhitespaceRule"
+  })
+  private String rule;
+
+  /** Rule instance. */
+  private Rule instance;
+
+  /** Password data that satisfies the rule. */
+  private PasswordData valid;
+
+  /** Password data that violates the rule. */
+  private PasswordData invalid;
+
+
+  /**
+   * Creates the rule and the password data.
+   *
+   * @throws  IOException  if a dictionary cannot be read
+   * @throws  IllegalStateException  if the valid password fails the rule or the invalid password passes it
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    instance = DigestRuleFixtures.createRule(rule, RESOURCES);
+    valid = RuleFixtures.validPasswordData();
+    invalid = RuleFixtures.invalidPasswordData(rule);
+    // measuring the wrong path would silently report misleading numbers
+    if (!instance.validate(valid).isValid() || instance.validate(invalid).isValid()) {
+      throw new IllegalStateException("Password data does not exercise both paths of " + rule);
+    }
+  }
+
+
+  /**
+   * Validates a password that satisfies the rule.
+   *
+   * @return  rule result
+   */
+  @Benchmark
+  public RuleResult validPassword()
+  {
+    return instance.validate(valid);
+  }
+
+
+  /**
+   * Validates a password that violates the rule.
+   *
+   * @return  rule result
+   */
+  @Benchmark
+  public RuleResult invalidPassword()
+  {
+    return instance.validate(invalid);
+  }
+}
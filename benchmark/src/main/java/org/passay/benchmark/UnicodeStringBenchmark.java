@@ -0,0 +1,152 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.passay.UnicodeString;
+import org.passay.data.EnglishCharacterData;
+
+/**
+ * Measures the {@link UnicodeString} operations used by rules during validation for a password of basic latin
+ * characters and a password that contains supplementary code points.
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Benchmark)
+public class UnicodeStringBenchmark extends AbstractBenchmark
+{
+
+  /** Characters of the password. */
+  @Param({"ascii", "supplementary"})
+  private String text;
+
+  /** Password as a string. */
+  private String password;
+
+  /** Password as characters. */
+  private char[] chars;
+
+  /** Password as a unicode string. */
+  private UnicodeString string;
+
+  /** Suffix of the password. */
+  private UnicodeString suffix;
+
+  /** Special characters. */
+  private UnicodeString special;
+
+  /** Code points of the special characters. */
+  private int[] specialCodePoints;
+
+
+  /** Creates the password. */
+  @Setup
+  public void setup()
+  {
+    password = "ascii".equals(text) ? "Tr0ub4dor&3-Correct#Horse" : "Tr0ub4dor\uD83D\uDE00&3-Correct\uD83D\uDD11Horse";
+    chars = password.toCharArray();
+    string = new UnicodeString(password);
+    suffix = string.substring(string.codePointCount() / 2);
+    special = new UnicodeString(EnglishCharacterData.Special.getCharacters());
+    specialCodePoints = special.toCodePointArray();
+  }
+
+
+  /**
+   * Creates a unicode string from a string.
+   *
+   * @return  unicode string
+   */
+  @Benchmark
+  public UnicodeString fromCharSequence()
+  {
+    return new UnicodeString(password);
+  }
+
+
+  /**
+   * Creates a unicode string from characters.
+   *
+   * @return  unicode string
+   */
+  @Benchmark
+  public UnicodeString fromChars()
+  {
+    return new UnicodeString(chars);
+  }
+
+
+  /**
+   * Converts the password to lower case.
+   *
+   * @return  lower case unicode string
+   */
+  @Benchmark
+  public UnicodeString toLowerCase()
+  {
+    return string.toLowerCase();
+  }
+
+
+  /**
+   * Reverses the password.
+   *
+   * @return  reversed unicode string
+   */
+  @Benchmark
+  public UnicodeString reverse()
+  {
+    return string.reverse();
+  }
+
+
+  /**
+   * Takes a substring of the password.
+   *
+   * @return  substring
+   */
+  @Benchmark
+  public UnicodeString substring()
+  {
+    return string.substring(1, string.codePointCount() - 1);
+  }
+
+
+  /**
+   * Searches the password for its suffix.
+   *
+   * @return  whether the password contains its suffix
+   */
+  @Benchmark
+  public boolean contains()
+  {
+    return string.contains(suffix);
+  }
+
+
+  /**
+   * Intersects the password with the special characters.
+   *
+   * @return  intersection
+   */
+  @Benchmark
+  public UnicodeString intersection()
+  {
+    return string.intersection(special);
+  }
+
+
+  /**
+   * Counts the special characters in the password.
+   *
+   * @return  number of special characters
+   */
+  @Benchmark
+  public int countMatchingCodePoints()
+  {
+    return string.countMatchingCodePoints(specialCodePoints);
+  }
+}
@@ -0,0 +1,122 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.benchmark;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.passay.dictionary.FileWordList;
+import org.passay.dictionary.MemoryMappedFileWordList;
+import org.passay.dictionary.WordList;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Measures random access and binary search of each {@link WordList} type over the bundled word lists.
+ *
+ * @author  Middleware Services
+ */
+@State(Scope.Benchmark)
+public class WordListBenchmark extends AbstractBenchmark
+{
+
+  /** Number of words searched for, which must be a power of two. */
+  static final int SAMPLES = 1024;
+
+  /** Word list type. */
+  @Param({"ArrayWordList", "FileWordList", "MemoryMappedFileWordList"})
+  private String type;
+
+  /** Bundled word list. */
+  @Param({"web2", "freebsd"})
+  private String file;
+
+  /** Sorted file backing the file word lists. */
+  private RandomAccessFile sortedFile;
+
+  /** Word list. */
+  private WordList wordList;
+
+  /** Words to search for, evenly spaced through the word list. */
+  private String[] words;
+
+  /** Index of the next word to search for. */
+  private int index;
+
+
+  /**
+   * Creates the word list.
+   *
+   * @throws  IOException  if the word list cannot be read
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    if ("ArrayWordList".equals(type)) {
+      wordList = wordList(file, true);
+    } else {
+      sortedFile = new RandomAccessFile(resource(file + ".sort"), "r");
+      wordList = "FileWordList".equals(type)
+        ? new FileWordList(sortedFile, true) : new MemoryMappedFileWordList(sortedFile, true);
+    }
+    words = samples(wordList);
+  }
+
+
+  /**
+   * Closes the sorted file.
+   *
+   * @throws  IOException  if the file cannot be closed
+   */
+  @TearDown
+  public void tearDown() throws IOException
+  {
+    if (sortedFile != null) {
+      sortedFile.close();
+    }
+  }
+
+
+  /**
+   * Reads a word at an index that changes on every invocation.
+   *
+   * @return  word
+   */
+  @Benchmark
+  public String get()
+  {
+    return wordList.get((int) ((long) wordList.size() * (index++ & (SAMPLES - 1)) / SAMPLES));
+  }
+
+
+  /**
+   * Searches for a word that is in the word list.
+   *
+   * @return  index of the word
+   */
+  @Benchmark
+  public int binarySearch()
+  {
+    return WordLists.binarySearch(wordList, words[index++ & (SAMPLES - 1)]);
+  }
+
+
+  /**
+   * Returns words evenly spaced through the supplied word list.
+   *
+   * @param  wordList  to sample
+   *
+   * @return  {@link #SAMPLES} words
+   */
+  static String[] samples(final WordList wordList)
+  {
+    final String[] samples = new String[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      samples[i] = wordList.get((int) ((long) wordList.size() * i / SAMPLES));
+    }
+    return samples;
+  }
+}
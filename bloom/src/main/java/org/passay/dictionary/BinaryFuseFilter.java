@@ -0,0 +1,547 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.passay.PassayUtils;
+
+/**
+ * Static filter with 8-bit fingerprints as described in
+ * <a href="https://arxiv.org/abs/2201.01174">Binary Fuse Filters: Fast and Smaller Than Xor Filters</a>. A filter uses
+ * about 9 bits per word for a false positive probability of about 0.4%, and every search reads exactly three
+ * fingerprints. Unlike a bloom filter, words cannot be added once a filter has been built, so this filter suits word
+ * lists that only change between releases: build it once with {@link #build(WordList)}, store it with
+ * {@link #write(OutputStream)} and memory map it with {@link #read(FileChannel)}.
+ *
+ * <p>Building holds about 24 bytes per word on the heap in addition to the word list. Searching is thread-safe.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class BinaryFuseFilter
+{
+
+  /** Number of fingerprints each word is mapped to. */
+  private static final int ARITY = 3;
+
+  /** Log2 of the largest segment length. */
+  private static final int MAX_SEGMENT_SHIFT = 18;
+
+  /** Segment length of an empty filter. */
+  private static final int MIN_SEGMENT_LENGTH = 4;
+
+  /** Base of the logarithm of the number of keys that determines the segment length. */
+  private static final double SEGMENT_LENGTH_BASE = 3.33;
+
+  /** Offset added to the logarithm of the number of keys that determines the segment length. */
+  private static final double SEGMENT_LENGTH_OFFSET = 2.25;
+
+  /** Smallest ratio of fingerprints to keys. */
+  private static final double MIN_SIZE_FACTOR = 1.125;
+
+  /** Ratio of fingerprints to keys for very large filters. */
+  private static final double SIZE_FACTOR_BASE = 0.875;
+
+  /** Weight of the logarithmic term of the ratio of fingerprints to keys. */
+  private static final double SIZE_FACTOR_WEIGHT = 0.25;
+
+  /** Number of keys at which the logarithmic term of the ratio of fingerprints to keys is one. */
+  private static final double SIZE_FACTOR_KEYS = 1000000;
+
+  /** Increment of the count of a fingerprint for each key, the lower bits hold the xor of the key indexes. */
+  private static final int COUNT_INCREMENT = 4;
+
+  /** Shift of the count of a fingerprint. */
+  private static final int COUNT_SHIFT = 2;
+
+  /** Mask of the xor of the key indexes of a fingerprint. */
+  private static final int INDEX_MASK = COUNT_INCREMENT - 1;
+
+  /** Maximum number of attempts to build a filter before giving up. */
+  private static final int MAX_ITERATIONS = 100;
+
+  /** Shift of the hash bits that offset the second fingerprint within its segment. */
+  private static final int SECOND_HASH_SHIFT = 18;
+
+  /** Identifies a stored filter. */
+  private static final int MAGIC = 0x50424646;
+
+  /** Version of the stored filter format. */
+  private static final int VERSION = 1;
+
+  /** Size of the stored header. */
+  private static final int HEADER_BYTES = 32;
+
+  /** Seed of each build attempt is derived from this value. */
+  private static final long SEED_BASIS = 0x726b2b9d438b9d4dL;
+
+  /** Seed applied to the hash of each word. */
+  private final long seed;
+
+  /** Number of fingerprints in each segment. */
+  private final int segmentLength;
+
+  /** Number of segments that the first fingerprint of a word may fall in. */
+  private final int segmentCount;
+
+  /** Number of words in the filter. */
+  private final int count;
+
+  /** Fingerprints, one byte each. */
+  private final ByteBuffer fingerprints;
+
+
+  /**
+   * Creates a new binary fuse filter.
+   *
+   * @param  hashSeed  seed applied to the hash of each word
+   * @param  length  number of fingerprints in each segment
+   * @param  segments  number of segments that the first fingerprint of a word may fall in
+   * @param  words  number of words in the filter
+   * @param  buffer  fingerprints
+   */
+  private BinaryFuseFilter(
+    final long hashSeed, final int length, final int segments, final int words, final ByteBuffer buffer)
+  {
+    seed = hashSeed;
+    segmentLength = length;
+    segmentCount = segments;
+    count = words;
+    fingerprints = buffer;
+  }
+
+
+  /**
+   * Builds a filter containing every word in the supplied word list. Duplicate words are only stored once.
+   *
+   * @param  wordList  list of words
+   *
+   * @return  binary fuse filter
+   *
+   * @throws  IllegalArgumentException  if the word list is too large
+   * @throws  IllegalStateException  if no filter could be built, which is not expected to happen in practice
+   */
+  public static BinaryFuseFilter build(final WordList wordList)
+  {
+    PassayUtils.assertNotNullArg(wordList, "Word list cannot be null");
+    long[] keys = new long[wordList.size()];
+    int size = 0;
+    final Iterator<String> iterator = wordList.iterator();
+    while (iterator.hasNext()) {
+      keys[size++] = WordHash.hash(iterator.next(), 0);
+    }
+    Arrays.sort(keys);
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || keys[i] != keys[unique - 1]) {
+        keys[unique++] = keys[i];
+      }
+    }
+    if (unique < keys.length) {
+      keys = Arrays.copyOf(keys, unique);
+    }
+
+    final int segmentLength = segmentLength(unique);
+    final long capacity = unique <= 1 ? 0 : Math.round(unique * sizeFactor(unique));
+    final long initSegmentCount = (capacity + segmentLength - 1) / segmentLength - (ARITY - 1);
+    long arrayLength = (initSegmentCount + ARITY - 1) * segmentLength;
+    long segmentCount = (arrayLength + segmentLength - 1) / segmentLength;
+    segmentCount = segmentCount <= ARITY - 1 ? 1 : segmentCount - (ARITY - 1);
+    arrayLength = (segmentCount + ARITY - 1) * segmentLength;
+    if (arrayLength > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Word list is too large for a binary fuse filter");
+    }
+
+    final byte[] fingerprints = new byte[(int) arrayLength];
+    for (int attempt = 0; attempt < MAX_ITERATIONS; attempt++) {
+      final BinaryFuseFilter filter = new BinaryFuseFilter(
+        WordHash.mix(SEED_BASIS + attempt), segmentLength, (int) segmentCount, unique, ByteBuffer.wrap(fingerprints));
+      if (filter.populate(keys, fingerprints)) {
+        return filter;
+      }
+    }
+    throw new IllegalStateException("Could not build binary fuse filter after " + MAX_ITERATIONS + " attempts");
+  }
+
+
+  /**
+   * Assigns the fingerprints of this filter so that the fingerprints of each key combine to the fingerprint of its
+   * hash. Every key is mapped to three fingerprints, and keys are repeatedly peeled off fingerprints that no other
+   * remaining key maps to. The fingerprints are then assigned in the reverse order that the keys were peeled.
+   *
+   * @param  keys  unique word hashes
+   * @param  array  fingerprints of this filter
+   *
+   * @return  whether every key could be peeled, false if the filter must be built again with another seed
+   */
+  private boolean populate(final long[] keys, final byte[] array)
+  {
+    final int size = keys.length;
+    final int capacity = array.length;
+    final long[] reverseOrder = new long[size + 1];
+    final byte[] reverseH = new byte[size];
+    final int[] alone = new int[capacity];
+    // number of keys mapped to each fingerprint times four, xor the index of the fingerprint for each key
+    final byte[] t2count = new byte[capacity];
+    final long[] t2hash = new long[capacity];
+
+    // order keys by segment for locality
+    int blockBits = 1;
+    while (1 << blockBits < segmentCount) {
+      blockBits++;
+    }
+    final int block = 1 << blockBits;
+    final int[] startPos = new int[block];
+    for (int i = 0; i < block; i++) {
+      startPos[i] = (int) (((long) i * size) >>> blockBits);
+    }
+    reverseOrder[size] = 1;
+    for (long key : keys) {
+      final long hash = WordHash.mix(key + seed);
+      int segmentIndex = (int) (hash >>> (Long.SIZE - blockBits));
+      while (reverseOrder[startPos[segmentIndex]] != 0) {
+        segmentIndex = (segmentIndex + 1) & (block - 1);
+      }
+      reverseOrder[startPos[segmentIndex]] = hash;
+      startPos[segmentIndex]++;
+    }
+
+    for (int i = 0; i < size; i++) {
+      final long hash = reverseOrder[i];
+      for (int index = 0; index < ARITY; index++) {
+        final int h = hash(index, hash);
+        t2count[h] = (byte) ((t2count[h] + COUNT_INCREMENT) ^ index);
+        t2hash[h] ^= hash;
+        if (Byte.toUnsignedInt(t2count[h]) < COUNT_INCREMENT) {
+          // more keys than the counter can hold
+          return false;
+        }
+      }
+    }
+
+    int queueSize = 0;
+    for (int i = 0; i < capacity; i++) {
+      alone[queueSize] = i;
+      queueSize += Byte.toUnsignedInt(t2count[i]) >> COUNT_SHIFT == 1 ? 1 : 0;
+    }
+    final int[] h012 = new int[ARITY + 2];
+    int stackSize = 0;
+    while (queueSize > 0) {
+      final int index = alone[--queueSize];
+      if (Byte.toUnsignedInt(t2count[index]) >> COUNT_SHIFT == 1) {
+        final long hash = t2hash[index];
+        final int found = t2count[index] & INDEX_MASK;
+        hashes(hash, h012);
+        reverseH[stackSize] = (byte) found;
+        reverseOrder[stackSize] = hash;
+        stackSize++;
+        for (int i = 1; i < ARITY; i++) {
+          final int other = h012[found + i];
+          alone[queueSize] = other;
+          queueSize += Byte.toUnsignedInt(t2count[other]) >> COUNT_SHIFT == 2 ? 1 : 0;
+          t2count[other] = (byte) ((t2count[other] - COUNT_INCREMENT) ^ mod3(found + i));
+          t2hash[other] ^= hash;
+        }
+      }
+    }
+    if (stackSize != size) {
+      return false;
+    }
+
+    for (int i = size - 1; i >= 0; i--) {
+      final long hash = reverseOrder[i];
+      hashes(hash, h012);
+      final int found = reverseH[i];
+      array[h012[found]] = (byte) (fingerprint(hash) ^ array[h012[found + 1]] ^ array[h012[found + 2]]);
+    }
+    return true;
+  }
+
+
+  /**
+   * Returns whether the supplied word might be in this filter.
+   *
+   * @param  word  to search for
+   *
+   * @return  true if the word <i>might</i> be in the filter, false if the word is <i>definitely not</i> in the filter
+   */
+  public boolean mightContain(final CharSequence word)
+  {
+    if (count == 0) {
+      return false;
+    }
+    final long hash = WordHash.mix(WordHash.hash(word, 0) + seed);
+    final int h0 = (int) multiplyHigh(hash, (long) segmentCount * segmentLength);
+    final int h1 = (h0 + segmentLength) ^ (int) (hash >>> SECOND_HASH_SHIFT) & (segmentLength - 1);
+    final int h2 = (h0 + 2 * segmentLength) ^ (int) hash & (segmentLength - 1);
+    return (byte) (fingerprint(hash) ^ fingerprints.get(h0) ^ fingerprints.get(h1) ^ fingerprints.get(h2)) == 0;
+  }
+
+
+  /**
+   * Returns the number of unique words in this filter.
+   *
+   * @return  number of words
+   */
+  public int size()
+  {
+    return count;
+  }
+
+
+  /**
+   * Returns the number of bits used by the fingerprints of this filter.
+   *
+   * @return  number of bits
+   */
+  public long bitSize()
+  {
+    return (long) fingerprints.capacity() * Byte.SIZE;
+  }
+
+
+  /**
+   * Writes this filter to the supplied output stream. The stream is flushed but not closed.
+   *
+   * @param  out  to write to
+   *
+   * @throws  IOException  if an error occurs writing to the stream
+   */
+  public void write(final OutputStream out) throws IOException
+  {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putLong(seed)
+      .putInt(segmentLength).putInt(segmentCount).putInt(fingerprints.capacity()).putInt(count);
+    out.write(header.array());
+    final WritableByteChannel channel = Channels.newChannel(out);
+    final ByteBuffer data = fingerprints.duplicate();
+    data.clear();
+    while (data.hasRemaining()) {
+      channel.write(data);
+    }
+    out.flush();
+  }
+
+
+  /**
+   * Reads a filter written by {@link #write(OutputStream)} onto the heap. The stream is not closed.
+   *
+   * @param  in  to read from
+   *
+   * @return  binary fuse filter
+   *
+   * @throws  IOException  if an error occurs reading the stream or the stream does not contain a filter
+   */
+  public static BinaryFuseFilter read(final InputStream in) throws IOException
+  {
+    final DataInputStream data = new DataInputStream(in);
+    final byte[] header = new byte[HEADER_BYTES];
+    data.readFully(header);
+    return read(ByteBuffer.wrap(header), length -> {
+      final byte[] fingerprints = new byte[length];
+      data.readFully(fingerprints);
+      return ByteBuffer.wrap(fingerprints);
+    });
+  }
+
+
+  /**
+   * Memory maps a file containing a filter written by {@link #write(OutputStream)}. The mapping remains valid after the
+   * channel is closed.
+   *
+   * @param  channel  of the filter file
+   *
+   * @return  binary fuse filter
+   *
+   * @throws  IOException  if an error occurs mapping the file or the file does not contain a filter
+   */
+  public static BinaryFuseFilter read(final FileChannel channel) throws IOException
+  {
+    if (channel.size() < HEADER_BYTES) {
+      throw new IOException("Binary fuse filter is truncated");
+    }
+    return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES), length -> {
+      if (channel.size() != HEADER_BYTES + (long) length) {
+        throw new IOException("Binary fuse filter size does not match its header");
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, length);
+    });
+  }
+
+
+  /**
+   * Reads the header of a stored filter and then its fingerprints.
+   *
+   * @param  header  to read
+   * @param  reader  that reads the supplied number of fingerprints
+   *
+   * @return  binary fuse filter
+   *
+   * @throws  IOException  if an error occurs reading the fingerprints or the header is invalid
+   */
+  private static BinaryFuseFilter read(final ByteBuffer header, final FingerprintReader reader) throws IOException
+  {
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a binary fuse filter");
+    }
+    final int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary fuse filter version " + version);
+    }
+    final long seed = header.getLong();
+    final int segmentLength = header.getInt();
+    final int segmentCount = header.getInt();
+    final int arrayLength = header.getInt();
+    final int count = header.getInt();
+    if (segmentLength <= 0 || Integer.bitCount(segmentLength) != 1 || segmentCount <= 0 || count < 0 ||
+        (long) (segmentCount + ARITY - 1) * segmentLength != arrayLength)
+    {
+      throw new IOException("Binary fuse filter header is invalid");
+    }
+    return new BinaryFuseFilter(seed, segmentLength, segmentCount, count, reader.read(arrayLength));
+  }
+
+
+  /**
+   * Stores the indexes of the three fingerprints of the supplied hash followed by the first two again, so that the
+   * other two fingerprints of a key can be found from the index of any one of them without a modulus.
+   *
+   * @param  hash  of a key
+   * @param  h012  to store the indexes in, of length {@link #ARITY} + 2
+   */
+  private void hashes(final long hash, final int[] h012)
+  {
+    for (int i = 0; i < ARITY; i++) {
+      h012[i] = hash(i, hash);
+    }
+    h012[ARITY] = h012[0];
+    h012[ARITY + 1] = h012[1];
+  }
+
+
+  /**
+   * Returns the index of the fingerprint of the supplied hash for the supplied index. Each index selects a fingerprint
+   * in consecutive segments, offset within the segment by different bits of the hash.
+   *
+   * @param  index  0, 1 or 2
+   * @param  hash  of a key
+   *
+   * @return  index of the fingerprint
+   */
+  private int hash(final int index, final long hash)
+  {
+    long h = multiplyHigh(hash, (long) segmentCount * segmentLength);
+    h += (long) index * segmentLength;
+    final long hh = hash & ((1L << (2 * SECOND_HASH_SHIFT)) - 1);
+    h ^= (hh >>> ((ARITY - 1 - index) * SECOND_HASH_SHIFT)) & (segmentLength - 1);
+    return (int) h;
+  }
+
+
+  /**
+   * Returns the upper 64 bits of the unsigned 128-bit product of the supplied values, the second of which must be less
+   * than 2<sup>32</sup>.
+   *
+   * @param  x  first value
+   * @param  y  second value
+   *
+   * @return  upper 64 bits of the product
+   */
+  private static long multiplyHigh(final long x, final long y)
+  {
+    return ((x >>> Integer.SIZE) * y + ((Integer.toUnsignedLong((int) x) * y) >>> Integer.SIZE)) >>> Integer.SIZE;
+  }
+
+
+  /**
+   * Returns the fingerprint of the supplied hash.
+   *
+   * @param  hash  of a key
+   *
+   * @return  8-bit fingerprint
+   */
+  private static byte fingerprint(final long hash)
+  {
+    return (byte) (hash ^ (hash >>> Integer.SIZE));
+  }
+
+
+  /**
+   * Returns the supplied value modulo 3, for values less than 6.
+   *
+   * @param  x  value
+   *
+   * @return  x mod 3
+   */
+  private static int mod3(final int x)
+  {
+    return x > 2 ? x - 3 : x;
+  }
+
+
+  /**
+   * Returns the segment length for the supplied number of keys.
+   *
+   * @param  size  number of keys
+   *
+   * @return  segment length, a power of two
+   */
+  private static int segmentLength(final int size)
+  {
+    if (size == 0) {
+      return MIN_SEGMENT_LENGTH;
+    }
+    final int shift = (int) Math.floor(Math.log(size) / Math.log(SEGMENT_LENGTH_BASE) + SEGMENT_LENGTH_OFFSET);
+    return 1 << Math.min(shift, MAX_SEGMENT_SHIFT);
+  }
+
+
+  /**
+   * Returns the ratio of fingerprints to keys for the supplied number of keys.
+   *
+   * @param  size  number of keys, greater than one
+   *
+   * @return  size factor
+   */
+  private static double sizeFactor(final int size)
+  {
+    return Math.max(
+      MIN_SIZE_FACTOR, SIZE_FACTOR_BASE + SIZE_FACTOR_WEIGHT * Math.log(SIZE_FACTOR_KEYS) / Math.log(size));
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "size=" + count + ", " +
+      "segmentLength=" + segmentLength + ", " +
+      "segmentCount=" + segmentCount;
+  }
+
+
+  /** Reads the fingerprints of a stored filter. */
+  @FunctionalInterface
+  private interface FingerprintReader
+  {
+
+
+    /**
+     * Reads the supplied number of fingerprints.
+     *
+     * @param  length  number of fingerprints
+     *
+     * @return  buffer containing the fingerprints
+     *
+     * @throws  IOException  if an error occurs reading the fingerprints
+     */
+    ByteBuffer read(int length) throws IOException;
+  }
+}
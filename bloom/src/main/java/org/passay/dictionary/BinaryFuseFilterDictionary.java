@@ -0,0 +1,76 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import org.passay.PassayUtils;
+
+/**
+ * Dictionary that is backed by a {@link BinaryFuseFilter}, which is built once from a static word list and usually
+ * memory mapped from a file with {@link BinaryFuseFilter#read(java.nio.channels.FileChannel)}.
+ * <strong>WARNING</strong> like bloom filters, binary fuse filters may return true for a word that is
+ * <strong>NOT</strong> in the dictionary, with a probability of about 0.4%. This implementation should only be used if
+ * false positives can be tolerated.
+ *
+ * @author  Middleware Services
+ */
+public class BinaryFuseFilterDictionary implements Dictionary
+{
+
+  /** Filter used for searching. */
+  private final BinaryFuseFilter filter;
+
+
+  /**
+   * Creates a new dictionary instance from the supplied {@link BinaryFuseFilter}.
+   *
+   * @param  fuseFilter  filter used to determine if a word exists.
+   */
+  public BinaryFuseFilterDictionary(final BinaryFuseFilter fuseFilter)
+  {
+    filter = PassayUtils.assertNotNullArg(fuseFilter, "Binary fuse filter cannot be null");
+  }
+
+
+  /**
+   * Returns the filter used for searching.
+   *
+   * @return  binary fuse filter
+   */
+  public BinaryFuseFilter getFilter()
+  {
+    return filter;
+  }
+
+
+  /**
+   * Returns the number of unique words the filter was built from. See {@link BinaryFuseFilter#size()}.
+   *
+   * @return  number of words in the dictionary
+   */
+  @Override
+  public long size()
+  {
+    return filter.size();
+  }
+
+
+  /**
+   * <strong>WARNING</strong> binary fuse filters may return true for a word that is <strong>NOT</strong> in the
+   * dictionary. See {@link BinaryFuseFilter#mightContain(CharSequence)}.
+   *
+   * @param  word  to search for
+   *
+   * @return  true if the word <i>might</i> be in the filter, false if the word is <i>definitely not</i> in the filter
+   */
+  @Override
+  public boolean search(final CharSequence word)
+  {
+    return filter.mightContain(word);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::filter=" + filter;
+  }
+}
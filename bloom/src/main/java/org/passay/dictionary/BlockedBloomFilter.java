@@ -0,0 +1,404 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Bloom filter whose bits are divided into blocks of one 64 byte cache line. Every word sets and tests one bit in each
+ * of the eight longs of a single block chosen by its hash, so a search touches one cache line rather than one per hash
+ * function, at the cost of a slightly higher false positive probability than a standard bloom filter of the same size.
+ *
+ * <p>A filter is stored as a header followed by its blocks. {@link #read(FileChannel)} memory maps a stored filter, so
+ * a filter is available as soon as it is mapped, does not occupy the heap, and is shared through the page cache by
+ * every process that maps the same file. Filters larger than 2GB are mapped in several segments.</p>
+ *
+ * <p>Searching is thread-safe. Adding words is not, and filters that were mapped from a file cannot be modified.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class BlockedBloomFilter
+{
+
+  /** Number of bytes in a block. */
+  public static final int BLOCK_BYTES = 64;
+
+  /** Number of bits in a block. */
+  private static final int BLOCK_BITS = BLOCK_BYTES * Byte.SIZE;
+
+  /** Number of longs in a block, each of which has one bit set per word. */
+  private static final int LONGS_PER_BLOCK = BLOCK_BYTES / Long.BYTES;
+
+  /** Number of hash bits that select the bit of a word in each long. */
+  private static final int BITS_PER_LONG_INDEX = 6;
+
+  /** Mask of the hash bits that select the bit of a word in a long. */
+  private static final int LONG_INDEX_MASK = (1 << BITS_PER_LONG_INDEX) - 1;
+
+  /** Identifies a stored filter. */
+  private static final int MAGIC = 0x50424246;
+
+  /** Version of the stored filter format. */
+  private static final int VERSION = 1;
+
+  /** Size of the stored header, which keeps the blocks that follow it aligned. */
+  private static final int HEADER_BYTES = BLOCK_BYTES;
+
+  /** Log2 of the number of bytes in each segment. */
+  private static final int SEGMENT_SHIFT = 30;
+
+  /** Number of bytes in each segment but the last. */
+  private static final int SEGMENT_BYTES = 1 << SEGMENT_SHIFT;
+
+  /** Blocks of the filter, split into segments of {@link #SEGMENT_BYTES}. */
+  private final ByteBuffer[] segments;
+
+  /** Number of blocks. */
+  private final int blockCount;
+
+  /** Estimated number of words in the filter, or -1 if the filter changed since it was last estimated. */
+  private long count;
+
+
+  /**
+   * Creates a new blocked bloom filter.
+   *
+   * @param  buffers  containing the blocks of the filter
+   * @param  blocks  number of blocks
+   * @param  words  estimated number of words in the filter, or -1 if unknown
+   */
+  private BlockedBloomFilter(final ByteBuffer[] buffers, final int blocks, final long words)
+  {
+    segments = buffers;
+    blockCount = blocks;
+    count = words;
+  }
+
+
+  /**
+   * Creates an empty filter on the heap, sized so that the false positive probability is approximately the supplied
+   * probability once the expected number of words has been added.
+   *
+   * @param  expectedInsertions  number of words that will be added to the filter
+   * @param  fpp  desired false positive probability, between 0 and 1 exclusive
+   *
+   * @return  empty blocked bloom filter
+   *
+   * @throws  IllegalArgumentException  if the arguments are invalid or the filter would be too large
+   */
+  public static BlockedBloomFilter create(final long expectedInsertions, final double fpp)
+  {
+    if (expectedInsertions < 0) {
+      throw new IllegalArgumentException("Expected insertions cannot be negative");
+    }
+    if (!(fpp > 0 && fpp < 1)) {
+      throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+    }
+    // probability that all eight bits of a word are set: (1 - e^(-8n/m))^8
+    final double bits = -LONGS_PER_BLOCK * Math.max(1, expectedInsertions) /
+      Math.log(1 - Math.pow(fpp, 1.0 / LONGS_PER_BLOCK));
+    final double blocks = Math.ceil(bits / BLOCK_BITS);
+    if (blocks > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Blocked bloom filter would exceed " + Integer.MAX_VALUE + " blocks");
+    }
+    final int blockCount = (int) blocks;
+    final ByteBuffer[] segments = new ByteBuffer[segmentCount(blockCount)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocate(segmentBytes(blockCount, i));
+    }
+    return new BlockedBloomFilter(segments, blockCount, 0);
+  }
+
+
+  /**
+   * Adds the supplied word to this filter.
+   *
+   * @param  word  to add
+   *
+   * @return  whether any bit of the filter changed, which is false if the word may already have been added
+   *
+   * @throws  java.nio.ReadOnlyBufferException  if this filter was mapped from a file
+   */
+  public boolean put(final CharSequence word)
+  {
+    final long hash = WordHash.hash(word, 0);
+    final long offset = blockOffset(hash);
+    final ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+    final int position = (int) (offset & (SEGMENT_BYTES - 1));
+    long bits = WordHash.mix(hash);
+    boolean changed = false;
+    for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+      final int index = position + i * Long.BYTES;
+      final long value = segment.getLong(index);
+      final long updated = value | 1L << (bits & LONG_INDEX_MASK);
+      if (updated != value) {
+        segment.putLong(index, updated);
+        changed = true;
+      }
+      bits >>>= BITS_PER_LONG_INDEX;
+    }
+    if (changed) {
+      count = -1;
+    }
+    return changed;
+  }
+
+
+  /**
+   * Returns whether the supplied word might have been added to this filter.
+   *
+   * @param  word  to search for
+   *
+   * @return  true if the word <i>might</i> be in the filter, false if the word is <i>definitely not</i> in the filter
+   */
+  public boolean mightContain(final CharSequence word)
+  {
+    final long hash = WordHash.hash(word, 0);
+    final long offset = blockOffset(hash);
+    final ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+    final int position = (int) (offset & (SEGMENT_BYTES - 1));
+    long bits = WordHash.mix(hash);
+    for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+      if ((segment.getLong(position + i * Long.BYTES) & 1L << (bits & LONG_INDEX_MASK)) == 0) {
+        return false;
+      }
+      bits >>>= BITS_PER_LONG_INDEX;
+    }
+    return true;
+  }
+
+
+  /**
+   * Adds every word of the supplied filter to this filter by combining their blocks with a bitwise OR. Both filters
+   * must have the same number of blocks, which is the case for filters created with the same arguments.
+   *
+   * @param  other  filter to add
+   *
+   * @throws  IllegalArgumentException  if the filters have a different number of blocks
+   * @throws  java.nio.ReadOnlyBufferException  if this filter was mapped from a file
+   */
+  public void putAll(final BlockedBloomFilter other)
+  {
+    if (other.blockCount != blockCount) {
+      throw new IllegalArgumentException("Blocked bloom filters must have the same number of blocks");
+    }
+    for (int i = 0; i < segments.length; i++) {
+      final ByteBuffer segment = segments[i];
+      final ByteBuffer otherSegment = other.segments[i];
+      for (int index = 0; index < segment.capacity(); index += Long.BYTES) {
+        segment.putLong(index, segment.getLong(index) | otherSegment.getLong(index));
+      }
+    }
+    count = -1;
+  }
+
+
+  /**
+   * Returns an estimate of the number of distinct words added to this filter, computed from the number of bits that
+   * are set. The estimate depends on nothing but the bits, so filters that contain the same words have the same count
+   * regardless of the order in which the words were added, of duplicates, and of how filters were merged.
+   *
+   * @return  approximate number of words in the filter
+   */
+  public long approximateElementCount()
+  {
+    if (count < 0) {
+      count = estimateCount();
+    }
+    return count;
+  }
+
+
+  /**
+   * Estimates the number of words in this filter from the fraction of bits that are set. Each word sets one bit in
+   * each of the eight longs of its block, so the expected fraction after n words in m bits is 1 - e^(-8n/m).
+   *
+   * @return  estimated number of words
+   */
+  private long estimateCount()
+  {
+    long setBits = 0;
+    for (ByteBuffer segment : segments) {
+      for (int index = 0; index < segment.capacity(); index += Long.BYTES) {
+        setBits += Long.bitCount(segment.getLong(index));
+      }
+    }
+    final double bits = bitSize();
+    return Math.round(-bits / LONGS_PER_BLOCK * Math.log1p(-setBits / bits));
+  }
+
+
+  /**
+   * Returns the number of bits in this filter.
+   *
+   * @return  number of bits
+   */
+  public long bitSize()
+  {
+    return (long) blockCount * BLOCK_BITS;
+  }
+
+
+  /**
+   * Writes this filter to the supplied output stream. The stream is flushed but not closed.
+   *
+   * @param  out  to write to
+   *
+   * @throws  IOException  if an error occurs writing to the stream
+   */
+  public void write(final OutputStream out) throws IOException
+  {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putInt(blockCount).putInt(0).putLong(approximateElementCount());
+    out.write(header.array());
+    final WritableByteChannel channel = Channels.newChannel(out);
+    for (ByteBuffer segment : segments) {
+      final ByteBuffer data = segment.duplicate();
+      data.clear();
+      while (data.hasRemaining()) {
+        channel.write(data);
+      }
+    }
+    out.flush();
+  }
+
+
+  /**
+   * Reads a filter written by {@link #write(OutputStream)} onto the heap. The stream is not closed.
+   *
+   * @param  in  to read from
+   *
+   * @return  blocked bloom filter
+   *
+   * @throws  IOException  if an error occurs reading the stream or the stream does not contain a filter
+   */
+  public static BlockedBloomFilter read(final InputStream in) throws IOException
+  {
+    final DataInputStream data = new DataInputStream(in);
+    final byte[] headerBytes = new byte[HEADER_BYTES];
+    data.readFully(headerBytes);
+    final ByteBuffer header = ByteBuffer.wrap(headerBytes);
+    final int blockCount = readHeader(header);
+    final ByteBuffer[] segments = new ByteBuffer[segmentCount(blockCount)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocate(segmentBytes(blockCount, i));
+      data.readFully(segments[i].array());
+    }
+    return new BlockedBloomFilter(segments, blockCount, header.getLong());
+  }
+
+
+  /**
+   * Memory maps a file containing a filter written by {@link #write(OutputStream)}. The mapping remains valid after the
+   * channel is closed.
+   *
+   * @param  channel  of the filter file
+   *
+   * @return  read-only blocked bloom filter
+   *
+   * @throws  IOException  if an error occurs mapping the file or the file does not contain a filter
+   */
+  public static BlockedBloomFilter read(final FileChannel channel) throws IOException
+  {
+    if (channel.size() < HEADER_BYTES) {
+      throw new IOException("Blocked bloom filter is truncated");
+    }
+    final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+    final int blockCount = readHeader(header);
+    if (channel.size() != HEADER_BYTES + (long) blockCount * BLOCK_BYTES) {
+      throw new IOException("Blocked bloom filter size does not match its header");
+    }
+    final ByteBuffer[] segments = new ByteBuffer[segmentCount(blockCount)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = channel.map(
+        FileChannel.MapMode.READ_ONLY,
+        HEADER_BYTES + ((long) i << SEGMENT_SHIFT),
+        segmentBytes(blockCount, i));
+    }
+    return new BlockedBloomFilter(segments, blockCount, header.getLong());
+  }
+
+
+  /**
+   * Reads the magic number, version and block count of a stored filter, leaving the buffer positioned at the word
+   * count.
+   *
+   * @param  header  to read
+   *
+   * @return  number of blocks
+   *
+   * @throws  IOException  if the header is invalid
+   */
+  private static int readHeader(final ByteBuffer header) throws IOException
+  {
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a blocked bloom filter");
+    }
+    final int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported blocked bloom filter version " + version);
+    }
+    final int blockCount = header.getInt();
+    if (blockCount <= 0) {
+      throw new IOException("Invalid blocked bloom filter block count " + blockCount);
+    }
+    header.getInt();
+    return blockCount;
+  }
+
+
+  /**
+   * Returns the byte offset of the block of the supplied hash. The block is chosen from the high bits of the hash
+   * with a multiply and shift rather than a modulus.
+   *
+   * @param  hash  of a word
+   *
+   * @return  byte offset of the block
+   */
+  private long blockOffset(final long hash)
+  {
+    return (((hash >>> Integer.SIZE) * blockCount) >>> Integer.SIZE) * BLOCK_BYTES;
+  }
+
+
+  /**
+   * Returns the number of segments needed for the supplied number of blocks.
+   *
+   * @param  blockCount  number of blocks
+   *
+   * @return  number of segments
+   */
+  private static int segmentCount(final int blockCount)
+  {
+    return (int) ((((long) blockCount * BLOCK_BYTES) + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT);
+  }
+
+
+  /**
+   * Returns the number of bytes in the supplied segment.
+   *
+   * @param  blockCount  number of blocks
+   * @param  segment  index of the segment
+   *
+   * @return  number of bytes
+   */
+  private static int segmentBytes(final int blockCount, final int segment)
+  {
+    return (int) Math.min(SEGMENT_BYTES, (long) blockCount * BLOCK_BYTES - ((long) segment << SEGMENT_SHIFT));
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "blockCount=" + blockCount + ", " +
+      "approximateElementCount=" + approximateElementCount();
+  }
+}
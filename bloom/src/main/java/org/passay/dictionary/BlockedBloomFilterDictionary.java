@@ -0,0 +1,79 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import org.passay.PassayUtils;
+
+/**
+ * Dictionary that is backed by a {@link BlockedBloomFilter}, which is usually memory mapped from a file with
+ * {@link BlockedBloomFilter#read(java.nio.channels.FileChannel)}. <strong>WARNING</strong> bloom filters may return
+ * true for a word that is <strong>NOT</strong> in the dictionary. This implementation should only be used if false
+ * positives can be tolerated.
+ *
+ * @author  Middleware Services
+ */
+public class BlockedBloomFilterDictionary implements Dictionary
+{
+
+  /** Filter used for searching. */
+  private final BlockedBloomFilter bloomFilter;
+
+
+  /**
+   * Creates a new dictionary instance from the supplied {@link BlockedBloomFilter}. As with
+   * {@link BloomFilterDictionary}, the false positive probability the filter was created with should be chosen
+   * carefully, since it trades rejected valid passwords against storage costs.
+   *
+   * @param  filter  bloom filter used to determine if a word exists.
+   */
+  public BlockedBloomFilterDictionary(final BlockedBloomFilter filter)
+  {
+    bloomFilter = PassayUtils.assertNotNullArg(filter, "Bloom filter cannot be null");
+  }
+
+
+  /**
+   * Returns the bloom filter used for searching.
+   *
+   * @return  bloom filter
+   */
+  public BlockedBloomFilter getBloomFilter()
+  {
+    return bloomFilter;
+  }
+
+
+  /**
+   * Returns an estimate for the number of words added to the dictionary. See {@link
+   * BlockedBloomFilter#approximateElementCount()}.
+   *
+   * @return  approximate number of words in the dictionary
+   */
+  @Override
+  public long size()
+  {
+    return bloomFilter.approximateElementCount();
+  }
+
+
+  /**
+   * <strong>WARNING</strong> bloom filters may return true for a word that is <strong>NOT</strong> in the dictionary.
+   * See {@link BlockedBloomFilter#mightContain(CharSequence)}.
+   *
+   * @param  word  to search for
+   *
+   * @return  true if the word <i>might</i> be in the bloom filter, false if the word is <i>definitely not</i> in the
+   * bloom filter
+   */
+  @Override
+  public boolean search(final CharSequence word)
+  {
+    return bloomFilter.mightContain(word);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::bloomFilter=" + bloomFilter;
+  }
+}
@@ -0,0 +1,509 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.passay.PassayUtils;
+
+/**
+ * Utility methods that populate bloom filters by streaming words, one per line, from readers, zip files and memory
+ * mapped files. Unlike {@link WordLists#createFromReader(Reader[])}, words are never collected: each line is passed to
+ * the filter from a reused buffer, so building a filter needs little more heap than the filter itself. Filters can be
+ * built from several sources in parallel, in which case each thread populates its own filter and the filters are
+ * combined with a bitwise OR, so a parallel build needs one filter per thread.
+ *
+ * @author  Middleware Services
+ */
+public final class BloomFilters
+{
+
+  /** Initial number of chars buffered while splitting lines. */
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Number of bytes of a file that are mapped at once. */
+  private static final long MAP_WINDOW_SIZE = 1L << 30;
+
+
+  /** Private constructor for utility class. */
+  private BloomFilters() {}
+
+
+  /**
+   * Creates a bloom filter suitable for {@link BloomFilterDictionary} containing every word of the supplied sources.
+   * The filter uses the UTF-8 string funnel.
+   *
+   * @param  sources  of words
+   * @param  expectedInsertions  number of words the filter is sized for
+   * @param  fpp  desired false positive probability
+   *
+   * @return  bloom filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  public static BloomFilter<CharSequence> createBloomFilter(
+    final List<WordSource> sources, final long expectedInsertions, final double fpp)
+    throws IOException
+  {
+    return createBloomFilter(sources, expectedInsertions, fpp, null);
+  }
+
+
+  /**
+   * Creates a bloom filter suitable for {@link BloomFilterDictionary} containing every word of the supplied sources,
+   * reading the sources in parallel on the supplied pool. The filter uses the UTF-8 string funnel.
+   *
+   * @param  sources  of words
+   * @param  expectedInsertions  number of words the filter is sized for
+   * @param  fpp  desired false positive probability
+   * @param  pool  to read sources with, or null to read them in the current thread
+   *
+   * @return  bloom filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  public static BloomFilter<CharSequence> createBloomFilter(
+    final List<WordSource> sources, final long expectedInsertions, final double fpp, final ForkJoinPool pool)
+    throws IOException
+  {
+    return create(
+      sources,
+      () -> BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp),
+      BloomFilter::put,
+      BloomFilter::putAll,
+      pool);
+  }
+
+
+  /**
+   * Creates a blocked bloom filter suitable for {@link BlockedBloomFilterDictionary} containing every word of the
+   * supplied sources.
+   *
+   * @param  sources  of words
+   * @param  expectedInsertions  number of words the filter is sized for
+   * @param  fpp  desired false positive probability
+   *
+   * @return  blocked bloom filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  public static BlockedBloomFilter createBlockedBloomFilter(
+    final List<WordSource> sources, final long expectedInsertions, final double fpp)
+    throws IOException
+  {
+    return createBlockedBloomFilter(sources, expectedInsertions, fpp, null);
+  }
+
+
+  /**
+   * Creates a blocked bloom filter suitable for {@link BlockedBloomFilterDictionary} containing every word of the
+   * supplied sources, reading the sources in parallel on the supplied pool.
+   *
+   * @param  sources  of words
+   * @param  expectedInsertions  number of words the filter is sized for
+   * @param  fpp  desired false positive probability
+   * @param  pool  to read sources with, or null to read them in the current thread
+   *
+   * @return  blocked bloom filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  public static BlockedBloomFilter createBlockedBloomFilter(
+    final List<WordSource> sources, final long expectedInsertions, final double fpp, final ForkJoinPool pool)
+    throws IOException
+  {
+    return create(
+      sources,
+      () -> BlockedBloomFilter.create(expectedInsertions, fpp),
+      BlockedBloomFilter::put,
+      BlockedBloomFilter::putAll,
+      pool);
+  }
+
+
+  /**
+   * Returns a source that reads words from the supplied reader. The reader is closed once it has been read.
+   *
+   * @param  reader  containing words, one per line
+   *
+   * @return  word source
+   */
+  public static WordSource fromReader(final Reader reader)
+  {
+    PassayUtils.assertNotNullArg(reader, "Reader cannot be null");
+    return consumer -> {
+      try {
+        return readWords(reader, consumer);
+      } finally {
+        reader.close();
+      }
+    };
+  }
+
+
+  /**
+   * Returns a source that reads words from the supplied file, which is memory mapped rather than read through a stream.
+   *
+   * @param  file  containing words, one per line
+   * @param  charset  of the file
+   *
+   * @return  word source
+   */
+  public static WordSource fromFile(final Path file, final Charset charset)
+  {
+    PassayUtils.assertNotNullArg(file, "File cannot be null");
+    PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+    return consumer -> {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        return readWords(channel, charset, consumer);
+      }
+    };
+  }
+
+
+  /**
+   * Returns a source that reads words from the entries of the supplied zip file.
+   *
+   * @param  file  zip file containing words, one per line
+   * @param  charset  of the entries
+   * @param  regex  that matches the names of the entries to read, or null to read every entry
+   *
+   * @return  word source
+   */
+  public static WordSource fromZipFile(final Path file, final Charset charset, final String regex)
+  {
+    PassayUtils.assertNotNullArg(file, "File cannot be null");
+    PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+    return consumer -> {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+        return readZippedWords(in, charset, regex, consumer);
+      }
+    };
+  }
+
+
+  /**
+   * Reads words, one per line, from a reader and passes each non-empty line to the supplied consumer. Lines end with
+   * a line feed, a carriage return or both, as for {@link java.io.BufferedReader#readLine()}. The character sequence
+   * passed to the consumer is reused for the next word, so it is only valid until the consumer returns.
+   *
+   * <p>This method does <em>not</em> close the reader.</p>
+   *
+   * @param  reader  to read words from
+   * @param  consumer  to pass each word to
+   *
+   * @return  number of words read
+   *
+   * @throws  IOException  if an error occurs reading from the reader
+   */
+  public static long readWords(final Reader reader, final Consumer<? super CharSequence> consumer) throws IOException
+  {
+    PassayUtils.assertNotNullArg(reader, "Reader cannot be null");
+    PassayUtils.assertNotNullArg(consumer, "Consumer cannot be null");
+    final LineSplitter splitter = new LineSplitter(consumer);
+    while (reader.read(splitter.buffer()) != -1) {
+      splitter.split(false);
+    }
+    splitter.split(true);
+    return splitter.count;
+  }
+
+
+  /**
+   * Reads words, one per line, from the entries of a zip stream and passes each non-empty line to the supplied
+   * consumer, as for {@link #readWords(Reader, Consumer)}.
+   *
+   * <p>This method does <em>not</em> close the input stream.</p>
+   *
+   * @param  in  containing compressed data in the ZIP format
+   * @param  charset  used to decode the entries
+   * @param  regex  that matches the names of the entries to read, or null to read every entry
+   * @param  consumer  to pass each word to
+   *
+   * @return  number of words read
+   *
+   * @throws  IOException  if an error occurs reading from the stream
+   */
+  public static long readZippedWords(
+    final InputStream in, final Charset charset, final String regex, final Consumer<? super CharSequence> consumer)
+    throws IOException
+  {
+    PassayUtils.assertNotNullArg(in, "Input stream cannot be null");
+    PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+    final Pattern pattern = regex == null ? null : Pattern.compile(regex);
+    final ZipInputStream zin = new ZipInputStream(in);
+    long count = 0;
+    ZipEntry entry;
+    while ((entry = zin.getNextEntry()) != null) {
+      if (!entry.isDirectory() && (pattern == null || pattern.matcher(entry.getName()).matches())) {
+        // don't close the reader, since that will close the entire zip input stream
+        count += readWords(new InputStreamReader(zin, charset), consumer);
+      }
+      zin.closeEntry();
+    }
+    return count;
+  }
+
+
+  /**
+   * Reads words, one per line, from a file and passes each non-empty line to the supplied consumer, as for
+   * {@link #readWords(Reader, Consumer)}. The file is memory mapped in windows of at most 1GB and decoded directly
+   * from the mapping. Malformed input is replaced rather than reported.
+   *
+   * <p>This method does <em>not</em> close the channel.</p>
+   *
+   * @param  channel  of the file to read words from
+   * @param  charset  of the file
+   * @param  consumer  to pass each word to
+   *
+   * @return  number of words read
+   *
+   * @throws  IOException  if an error occurs reading from the file
+   */
+  public static long readWords(
+    final FileChannel channel, final Charset charset, final Consumer<? super CharSequence> consumer)
+    throws IOException
+  {
+    PassayUtils.assertNotNullArg(channel, "Channel cannot be null");
+    PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+    PassayUtils.assertNotNullArg(consumer, "Consumer cannot be null");
+    final CharsetDecoder decoder = charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    final LineSplitter splitter = new LineSplitter(consumer);
+    final long size = channel.size();
+    long position = 0;
+    boolean endOfInput = size == 0;
+    while (!endOfInput) {
+      final long windowSize = Math.min(MAP_WINDOW_SIZE, size - position);
+      endOfInput = position + windowSize == size;
+      final ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+      CoderResult result;
+      do {
+        result = decoder.decode(bytes, splitter.buffer(), endOfInput);
+        splitter.split(false);
+      } while (result.isOverflow());
+      // bytes of a character split across windows are mapped again with the next window
+      position += bytes.position();
+    }
+    while (size > 0 && decoder.flush(splitter.buffer()).isOverflow()) {
+      splitter.split(false);
+    }
+    splitter.split(true);
+    return splitter.count;
+  }
+
+
+  /**
+   * Creates a filter containing every word of the supplied sources. When reading in parallel, each task populates its
+   * own filter from the sources it takes from a shared index, and the filters are merged once every source has been
+   * read.
+   *
+   * @param  <F>  type of filter
+   * @param  sources  of words
+   * @param  factory  that creates empty filters
+   * @param  put  adds a word to a filter
+   * @param  merge  adds every word of the second filter to the first
+   * @param  pool  to read sources with, or null to read them in the current thread
+   *
+   * @return  filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  private static <F> F create(
+    final List<WordSource> sources,
+    final Supplier<F> factory,
+    final BiConsumer<F, CharSequence> put,
+    final BiConsumer<F, F> merge,
+    final ForkJoinPool pool)
+    throws IOException
+  {
+    PassayUtils.assertNotNullArgOr(
+      sources,
+      v -> v.stream().anyMatch(Objects::isNull),
+      "Sources cannot be null or contain null");
+    final int tasks = pool == null ? 1 : Math.max(1, Math.min(pool.getParallelism(), sources.size()));
+    final AtomicInteger next = new AtomicInteger();
+    if (tasks == 1) {
+      return populate(sources, next, factory.get(), put);
+    }
+    final List<ForkJoinTask<F>> forks = new ArrayList<>(tasks);
+    for (int i = 0; i < tasks; i++) {
+      forks.add(pool.submit(() -> populate(sources, next, factory.get(), put)));
+    }
+    F filter = null;
+    try {
+      for (ForkJoinTask<F> fork : forks) {
+        final F partial = fork.get();
+        if (filter == null) {
+          filter = partial;
+        } else {
+          merge.accept(filter, partial);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading word sources", e);
+    } catch (ExecutionException e) {
+      // checked exceptions of a task are wrapped in runtime exceptions
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Could not read word sources", e.getCause());
+    } finally {
+      // stop reading sources once any task has failed
+      next.set(sources.size());
+    }
+    return filter;
+  }
+
+
+  /**
+   * Adds the words of sources taken from a shared index to the supplied filter until every source has been taken.
+   *
+   * @param  <F>  type of filter
+   * @param  sources  of words
+   * @param  next  index of the next source to read
+   * @param  filter  to add words to
+   * @param  put  adds a word to a filter
+   *
+   * @return  the supplied filter
+   *
+   * @throws  IOException  if an error occurs reading a source
+   */
+  private static <F> F populate(
+    final List<WordSource> sources, final AtomicInteger next, final F filter, final BiConsumer<F, CharSequence> put)
+    throws IOException
+  {
+    int i;
+    while ((i = next.getAndIncrement()) < sources.size()) {
+      sources.get(i).read(word -> put.accept(filter, word));
+    }
+    return filter;
+  }
+
+
+  /**
+   * Splits buffered chars into lines and passes each non-empty line to a consumer as a view of the buffer.
+   */
+  private static final class LineSplitter
+  {
+
+    /** To pass each line to. */
+    private final Consumer<? super CharSequence> consumer;
+
+    /** Chars that have not been split into lines, in write mode. */
+    private CharBuffer input = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** View of the current line. */
+    private CharBuffer line = input.duplicate();
+
+    /** Number of lines passed to the consumer. */
+    private long count;
+
+
+    /**
+     * Creates a new line splitter.
+     *
+     * @param  c  to pass each line to
+     */
+    LineSplitter(final Consumer<? super CharSequence> c)
+    {
+      consumer = c;
+    }
+
+
+    /**
+     * Returns the buffer to read chars into, which is grown if a line does not fit in it.
+     *
+     * @return  buffer with space remaining
+     */
+    CharBuffer buffer()
+    {
+      if (!input.hasRemaining()) {
+        final CharBuffer larger = CharBuffer.allocate(input.capacity() * 2);
+        ((Buffer) input).flip();
+        larger.put(input);
+        input = larger;
+        line = input.duplicate();
+      }
+      return input;
+    }
+
+
+    /**
+     * Passes every complete line in the buffer to the consumer and keeps the chars of an incomplete line.
+     *
+     * @param  endOfInput  whether no more chars will be read, in which case any remaining chars are a line
+     */
+    void split(final boolean endOfInput)
+    {
+      ((Buffer) input).flip();
+      final char[] chars = input.array();
+      final int end = input.limit();
+      int start = 0;
+      for (int i = 0; i < end; i++) {
+        if (chars[i] == '\n' || chars[i] == '\r') {
+          accept(start, i);
+          start = i + 1;
+        }
+      }
+      if (endOfInput) {
+        accept(start, end);
+        start = end;
+      }
+      ((Buffer) input).position(start);
+      input.compact();
+    }
+
+
+    /**
+     * Passes the supplied range of the buffer to the consumer, unless it is empty.
+     *
+     * @param  start  of the line, inclusive
+     * @param  end  of the line, exclusive
+     */
+    private void accept(final int start, final int end)
+    {
+      if (end > start) {
+        ((Buffer) line).limit(end).position(start);
+        consumer.accept(line);
+        count++;
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+/**
+ * 64-bit hash of the UTF-16 code units of a character sequence. Words are hashed without being encoded or copied, so
+ * hashing does not allocate. The hash is part of the file formats of the filters in this module and must not change.
+ *
+ * @author  Middleware Services
+ */
+final class WordHash
+{
+
+  /** FNV-1a 64-bit offset basis. */
+  private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+  /** FNV-1a 64-bit prime. */
+  private static final long PRIME = 0x100000001b3L;
+
+  /** First multiplier of the MurmurHash3 finalizer. */
+  private static final long MIX_1 = 0xff51afd7ed558ccdL;
+
+  /** Second multiplier of the MurmurHash3 finalizer. */
+  private static final long MIX_2 = 0xc4ceb9fe1a85ec53L;
+
+  /** Shift of the MurmurHash3 finalizer. */
+  private static final int MIX_SHIFT = 33;
+
+
+  /** Private constructor for utility class. */
+  private WordHash() {}
+
+
+  /**
+   * Returns the hash of the supplied word.
+   *
+   * @param  word  to hash
+   * @param  seed  of the hash
+   *
+   * @return  64-bit hash
+   */
+  static long hash(final CharSequence word, final long seed)
+  {
+    long h = OFFSET_BASIS ^ seed;
+    final int length = word.length();
+    for (int i = 0; i < length; i++) {
+      h ^= word.charAt(i);
+      h *= PRIME;
+    }
+    return mix(h ^ length);
+  }
+
+
+  /**
+   * Mixes the bits of the supplied value with the MurmurHash3 finalizer, so that every input bit affects every output
+   * bit.
+   *
+   * @param  value  to mix
+   *
+   * @return  mixed value
+   */
+  static long mix(final long value)
+  {
+    long h = value;
+    h ^= h >>> MIX_SHIFT;
+    h *= MIX_1;
+    h ^= h >>> MIX_SHIFT;
+    h *= MIX_2;
+    h ^= h >>> MIX_SHIFT;
+    return h;
+  }
+}
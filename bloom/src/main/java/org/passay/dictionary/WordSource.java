@@ -0,0 +1,29 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Source of words, one per line, that streams each word to a consumer rather than collecting the words. See
+ * {@link BloomFilters} for sources backed by readers, zip files and memory mapped files.
+ *
+ * @author  Middleware Services
+ */
+@FunctionalInterface
+public interface WordSource
+{
+
+
+  /**
+   * Reads every word of this source and passes it to the supplied consumer. The character sequence passed to the
+   * consumer is reused for the next word, so it is only valid until the consumer returns.
+   *
+   * @param  consumer  to pass each word to
+   *
+   * @return  number of words read
+   *
+   * @throws  IOException  if an error occurs reading the words
+   */
+  long read(Consumer<? super CharSequence> consumer) throws IOException;
+}
@@ -0,0 +1,150 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.passay.PasswordData;
+import org.passay.dictionary.sort.ArraysSort;
+import org.passay.rule.DictionaryRule;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link BinaryFuseFilterDictionary}.
+ *
+ * @author  Middleware Services
+ */
+public class BinaryFuseFilterDictionaryTest extends AbstractDictionaryTest
+{
+
+  /** Words of the test dictionary. */
+  private ArrayWordList words;
+
+  /** Test dictionary. */
+  private BinaryFuseFilterDictionary dictionary;
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass
+  public void createDictionary() throws Exception
+  {
+    words = WordLists.createFromReader(new FileReader[] {new FileReader(webFile)}, true, new ArraysSort());
+    dictionary = new BinaryFuseFilterDictionary(BinaryFuseFilter.build(words));
+  }
+
+
+  /**
+   * Close test resources.
+   */
+  @AfterClass
+  public void closeDictionary()
+  {
+    words = null;
+    dictionary = null;
+  }
+
+
+  /**
+   * Test search.
+   */
+  @Test
+  public void search()
+  {
+    assertThat(dictionary.search("manipular")).isTrue();
+    assertThat(dictionary.search(new StringBuilder("manipular"))).isTrue();
+    assertThat(dictionary.search(FALSE_SEARCH)).isFalse();
+    assertThat(dictionary.search("z")).isTrue();
+    for (int i = 0; i < words.size(); i++) {
+      assertThat(dictionary.search(words.get(i))).isTrue();
+    }
+    assertThat(dictionary.size()).isEqualTo(words.size());
+    assertThat((double) dictionary.getFilter().bitSize() / words.size()).isLessThan(10);
+    assertThat(new DictionaryRule(dictionary).validate(new PasswordData("manipular")).isValid()).isFalse();
+  }
+
+
+  /**
+   * Test that the false positive rate is close to 1/256.
+   */
+  @Test
+  public void falsePositives()
+  {
+    final int trials = 200_000;
+    int positives = 0;
+    for (int i = 0; i < trials; i++) {
+      if (dictionary.search("not-a-word-" + i)) {
+        positives++;
+      }
+    }
+    assertThat((double) positives / trials).isLessThan(0.006);
+  }
+
+
+  /**
+   * Test filters of small and duplicate word lists.
+   */
+  @Test
+  public void smallFilters()
+  {
+    final BinaryFuseFilter empty = BinaryFuseFilter.build(new ArrayWordList(new String[0]));
+    assertThat(empty.size()).isEqualTo(0);
+    assertThat(empty.mightContain("a")).isFalse();
+    for (String[] list : new String[][] {{"a"}, {"a", "b"}, {"a", "a", "b", "c"}}) {
+      final BinaryFuseFilter filter = BinaryFuseFilter.build(new ArrayWordList(list));
+      for (String word : list) {
+        assertThat(filter.mightContain(word)).isTrue();
+      }
+    }
+    assertThat(BinaryFuseFilter.build(new ArrayWordList(new String[] {"a", "a", "b", "c"})).size()).isEqualTo(3);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void readWrite() throws Exception
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    dictionary.getFilter().write(out);
+    final BinaryFuseFilter streamed = BinaryFuseFilter.read(new ByteArrayInputStream(out.toByteArray()));
+    assertThat(streamed.size()).isEqualTo(words.size());
+    assertThat(streamed.mightContain("manipular")).isTrue();
+    assertThat(streamed.mightContain(FALSE_SEARCH)).isFalse();
+
+    final Path file = Files.createTempFile("passay-fuse", ".bin");
+    try {
+      try (OutputStream fileOut = Files.newOutputStream(file)) {
+        dictionary.getFilter().write(fileOut);
+      }
+      final BinaryFuseFilterDictionary mapped;
+      try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+        mapped = new BinaryFuseFilterDictionary(BinaryFuseFilter.read(raf.getChannel()));
+      }
+      assertThat(mapped.size()).isEqualTo(words.size());
+      for (int i = 0; i < words.size(); i++) {
+        assertThat(mapped.search(words.get(i))).isTrue();
+      }
+      assertThat(mapped.search(FALSE_SEARCH)).isFalse();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    final byte[] truncated = new byte[out.size() - 1];
+    System.arraycopy(out.toByteArray(), 0, truncated, 0, truncated.length);
+    assertThatThrownBy(() -> BinaryFuseFilter.read(new ByteArrayInputStream(truncated)))
+      .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> BinaryFuseFilter.read(new ByteArrayInputStream(new byte[32])))
+      .isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,160 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.passay.dictionary.sort.ArraysSort;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link BlockedBloomFilterDictionary}.
+ *
+ * @author  Middleware Services
+ */
+public class BlockedBloomFilterDictionaryTest extends AbstractDictionaryTest
+{
+
+  /** False positive probability of the test filter. */
+  private static final double FPP = 0.001;
+
+  /** Words of the test dictionary. */
+  private ArrayWordList words;
+
+  /** Test dictionary. */
+  private BlockedBloomFilterDictionary dictionary;
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass
+  public void createDictionary() throws Exception
+  {
+    words = WordLists.createFromReader(new FileReader[] {new FileReader(webFile)}, true, new ArraysSort());
+    final BlockedBloomFilter filter = BlockedBloomFilter.create(words.size(), FPP);
+    for (int i = 0; i < words.size(); i++) {
+      filter.put(words.get(i));
+    }
+    dictionary = new BlockedBloomFilterDictionary(filter);
+  }
+
+
+  /**
+   * Close test resources.
+   */
+  @AfterClass
+  public void closeDictionary()
+  {
+    words = null;
+    dictionary = null;
+  }
+
+
+  /**
+   * Test search.
+   */
+  @Test
+  public void search()
+  {
+    assertThat(dictionary.search("manipular")).isTrue();
+    assertThat(dictionary.search(new StringBuilder("manipular"))).isTrue();
+    assertThat(dictionary.search(FALSE_SEARCH)).isFalse();
+    assertThat(dictionary.search("z")).isTrue();
+    for (int i = 0; i < words.size(); i++) {
+      assertThat(dictionary.search(words.get(i))).isTrue();
+    }
+    assertThat(dictionary.size()).isGreaterThan(words.size() * 99L / 100).isLessThanOrEqualTo(words.size());
+  }
+
+
+  /**
+   * Test that the false positive rate is close to the rate the filter was created with.
+   */
+  @Test
+  public void falsePositives()
+  {
+    final int trials = 200_000;
+    int positives = 0;
+    for (int i = 0; i < trials; i++) {
+      if (dictionary.search("not-a-word-" + i)) {
+        positives++;
+      }
+    }
+    assertThat((double) positives / trials).isLessThan(FPP * 2);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void readWrite() throws Exception
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    dictionary.getBloomFilter().write(out);
+    assertThat((long) out.size())
+      .isEqualTo(BlockedBloomFilter.BLOCK_BYTES + dictionary.getBloomFilter().bitSize() / Byte.SIZE);
+    final BlockedBloomFilter streamed = BlockedBloomFilter.read(new ByteArrayInputStream(out.toByteArray()));
+    assertThat(streamed.approximateElementCount()).isEqualTo(dictionary.size());
+    assertThat(streamed.mightContain("manipular")).isTrue();
+    assertThat(streamed.mightContain(FALSE_SEARCH)).isFalse();
+
+    final Path file = Files.createTempFile("passay-bloom", ".bin");
+    try {
+      try (OutputStream fileOut = Files.newOutputStream(file)) {
+        dictionary.getBloomFilter().write(fileOut);
+      }
+      final BlockedBloomFilterDictionary mapped;
+      try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+        mapped = new BlockedBloomFilterDictionary(BlockedBloomFilter.read(raf.getChannel()));
+      }
+      assertThat(mapped.size()).isEqualTo(dictionary.size());
+      for (int i = 0; i < words.size(); i += 11) {
+        assertThat(mapped.search(words.get(i))).isTrue();
+      }
+      assertThat(mapped.search(FALSE_SEARCH)).isFalse();
+      assertThatThrownBy(() -> mapped.getBloomFilter().put(FALSE_SEARCH))
+        .isInstanceOf(ReadOnlyBufferException.class);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    final byte[] truncated = new byte[out.size() - 1];
+    System.arraycopy(out.toByteArray(), 0, truncated, 0, truncated.length);
+    assertThatThrownBy(() -> BlockedBloomFilter.read(new ByteArrayInputStream(truncated)))
+      .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> BlockedBloomFilter.read(new ByteArrayInputStream(new byte[64])))
+      .isInstanceOf(IOException.class);
+  }
+
+
+  /**
+   * Test merging filters.
+   */
+  @Test
+  public void putAll()
+  {
+    final BlockedBloomFilter even = BlockedBloomFilter.create(words.size(), FPP);
+    final BlockedBloomFilter odd = BlockedBloomFilter.create(words.size(), FPP);
+    for (int i = 0; i < words.size(); i++) {
+      (i % 2 == 0 ? even : odd).put(words.get(i));
+    }
+    even.putAll(odd);
+    for (int i = 0; i < words.size(); i++) {
+      assertThat(even.mightContain(words.get(i))).isTrue();
+    }
+    assertThatThrownBy(() -> even.putAll(BlockedBloomFilter.create(10, FPP)))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> BlockedBloomFilter.create(10, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
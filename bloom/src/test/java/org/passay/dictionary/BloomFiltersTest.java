@@ -0,0 +1,247 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link BloomFilters}.
+ *
+ * @author  Middleware Services
+ */
+public class BloomFiltersTest extends AbstractDictionaryTest
+{
+
+  /** False positive probability of the test filters. */
+  private static final double FPP = 0.001;
+
+  /** Words of the test dictionary. */
+  private final List<String> words = new ArrayList<>();
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass
+  public void readWords() throws Exception
+  {
+    WordLists.readWordList(new FileReader(webFile), words);
+    WordLists.readWordList(new FileReader(fbsdFile), words);
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void splitLines() throws Exception
+  {
+    final char[] longWord = new char[20_000];
+    Arrays.fill(longWord, 'x');
+    final String text = "a\nbb\r\nccc\r\rdddd\n\n" + new String(longWord) + "\ne";
+    final List<String> expected = new ArrayList<>();
+    WordLists.readWords(new StringReader(text), expected);
+
+    final List<String> actual = new ArrayList<>();
+    assertThat(BloomFilters.readWords(new StringReader(text), word -> actual.add(word.toString()))).isEqualTo(6);
+    assertThat(actual).isEqualTo(expected);
+
+    final Path file = Files.createTempFile("passay-words", ".txt");
+    try {
+      // multi-byte characters are decoded from the mapped file
+      Files.write(file, (text + "\n\u00DFtra\u00DFe\uD83D\uDE00").getBytes(StandardCharsets.UTF_8));
+      actual.clear();
+      BloomFilters.fromFile(file, StandardCharsets.UTF_8).read(word -> actual.add(word.toString()));
+      expected.add("\u00DFtra\u00DFe\uD83D\uDE00");
+      assertThat(actual).isEqualTo(expected);
+
+      Files.write(file, new byte[0]);
+      assertThat(BloomFilters.fromFile(file, StandardCharsets.UTF_8).read(word -> fail("Empty file"))).isEqualTo(0);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void zippedWords() throws Exception
+  {
+    final List<String> expected = new ArrayList<>();
+    try (InputStream in = getClass().getResourceAsStream("/eign.zip")) {
+      WordLists.readZippedWords(in, "UTF-8", null, expected);
+    }
+    final List<String> actual = new ArrayList<>();
+    try (InputStream in = getClass().getResourceAsStream("/eign.zip")) {
+      BloomFilters.readZippedWords(in, StandardCharsets.UTF_8, null, word -> actual.add(word.toString()));
+    }
+    assertThat(actual).isEqualTo(expected);
+
+    actual.clear();
+    try (InputStream in = getClass().getResourceAsStream("/eign.zip")) {
+      assertThat(BloomFilters.readZippedWords(in, StandardCharsets.UTF_8, "eign", word -> actual.add(word.toString())))
+        .isEqualTo(actual.size())
+        .isLessThan(expected.size());
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void createBloomFilter() throws Exception
+  {
+    final BloomFilter<CharSequence> expected = BloomFilter.create(
+      Funnels.stringFunnel(StandardCharsets.UTF_8), words.size(), FPP);
+    words.forEach(expected::put);
+
+    final BloomFilter<CharSequence> streamed = BloomFilters.createBloomFilter(sources(), words.size(), FPP);
+    assertThat(streamed).isEqualTo(expected);
+
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      final BloomFilter<CharSequence> parallel = BloomFilters.createBloomFilter(sources(), words.size(), FPP, pool);
+      assertThat(parallel).isEqualTo(expected);
+      assertThat(new BloomFilterDictionary(parallel).search("manipular")).isTrue();
+
+      assertThatThrownBy(() -> BloomFilters.createBloomFilter(
+        Arrays.asList(
+          BloomFilters.fromFile(Paths.get(webFile), StandardCharsets.UTF_8),
+          BloomFilters.fromFile(Paths.get("does-not-exist"), StandardCharsets.UTF_8)),
+        words.size(),
+        FPP,
+        pool)).isInstanceOf(java.nio.file.NoSuchFileException.class);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void createBlockedBloomFilter() throws Exception
+  {
+    final BlockedBloomFilter expected = BlockedBloomFilter.create(words.size(), FPP);
+    words.forEach(expected::put);
+
+    final BlockedBloomFilter streamed = BloomFilters.createBlockedBloomFilter(sources(), words.size(), FPP);
+    assertThat(blocks(streamed)).isEqualTo(blocks(expected));
+    assertThat(streamed.approximateElementCount()).isEqualTo(expected.approximateElementCount());
+
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      final BlockedBloomFilter parallel = BloomFilters.createBlockedBloomFilter(sources(), words.size(), FPP, pool);
+      assertThat(blocks(parallel)).isEqualTo(blocks(expected));
+      for (String word : words) {
+        assertThat(parallel.mightContain(word)).isTrue();
+      }
+      assertThat(BloomFilters.createBlockedBloomFilter(Collections.emptyList(), 1, FPP, pool).mightContain("a"))
+        .isFalse();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+
+  /**
+   * Words present in several sources are counted once, so a parallel build writes the same filter, header included,
+   * as a sequential build.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void createBlockedBloomFilterFromOverlappingSources() throws Exception
+  {
+    final List<WordSource> sources = new ArrayList<>(sources());
+    sources.addAll(sources());
+    sources.add(BloomFilters.fromFile(Paths.get(webFile), StandardCharsets.UTF_8));
+    final BlockedBloomFilter sequential = BloomFilters.createBlockedBloomFilter(sources, words.size(), FPP);
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final List<WordSource> parallelSources = new ArrayList<>(sources());
+      parallelSources.addAll(sources());
+      parallelSources.add(BloomFilters.fromFile(Paths.get(webFile), StandardCharsets.UTF_8));
+      final BlockedBloomFilter parallel = BloomFilters.createBlockedBloomFilter(
+        parallelSources, words.size(), FPP, pool);
+      assertThat(serialize(parallel)).isEqualTo(serialize(sequential));
+    } finally {
+      pool.shutdown();
+    }
+
+    final BlockedBloomFilter expected = BlockedBloomFilter.create(words.size(), FPP);
+    words.forEach(expected::put);
+    assertThat(serialize(sequential)).isEqualTo(serialize(expected));
+    assertThat((double) expected.approximateElementCount()).isCloseTo(new HashSet<>(words).size(), withinPercentage(1));
+  }
+
+
+  /**
+   * Returns a mapped file source and a reader source for the test words.
+   *
+   * @return  word sources
+   *
+   * @throws  Exception  On test failure.
+   */
+  private List<WordSource> sources() throws Exception
+  {
+    return Arrays.asList(
+      BloomFilters.fromFile(Paths.get(webFile), StandardCharsets.UTF_8),
+      BloomFilters.fromReader(new FileReader(fbsdFile)));
+  }
+
+
+  /**
+   * Returns the blocks of the supplied filter without its header.
+   *
+   * @param  filter  to serialize
+   *
+   * @return  serialized blocks
+   *
+   * @throws  Exception  On test failure.
+   */
+  private static byte[] blocks(final BlockedBloomFilter filter) throws Exception
+  {
+    final byte[] bytes = serialize(filter);
+    return Arrays.copyOfRange(bytes, BlockedBloomFilter.BLOCK_BYTES, bytes.length);
+  }
+
+
+  /**
+   * Returns the supplied filter as written by {@link BlockedBloomFilter#write(java.io.OutputStream)}.
+   *
+   * @param  filter  to serialize
+   *
+   * @return  serialized filter
+   *
+   * @throws  Exception  On test failure.
+   */
+  private static byte[] serialize(final BlockedBloomFilter filter) throws Exception
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.write(out);
+    return out.toByteArray();
+  }
+}
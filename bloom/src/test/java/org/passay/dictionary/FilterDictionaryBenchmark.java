@@ -0,0 +1,177 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.passay.dictionary.sort.ArraysSort;
+
+/**
+ * Compares the size, build time, search time and false positive rate of {@link BloomFilterDictionary},
+ * {@link BlockedBloomFilterDictionary} and {@link BinaryFuseFilterDictionary} built from the same word list. Execute
+ * this class from the bloom module by invoking:
+ * <pre>
+   java -cp $PATH_TO_DEPENDENCIES org.passay.dictionary.FilterDictionaryBenchmark [WORD_FILE] [FPP]
+ * </pre>
+ * The bloom filters are created with the supplied false positive probability, which defaults to the 1/256 probability
+ * of the binary fuse filter.
+ *
+ * @author  Middleware Services
+ */
+public final class FilterDictionaryBenchmark
+{
+
+  /** Number of searches for words that are not in the list. */
+  private static final int MISSES = 1_000_000;
+
+  /** Number of times each measurement is repeated, the fastest of which is reported. */
+  private static final int ROUNDS = 5;
+
+  /** Words to build the dictionaries from. */
+  private final ArrayWordList words;
+
+  /** Words that are not in the list. */
+  private final String[] misses = new String[MISSES];
+
+  /** Prevents searches from being optimized away. */
+  private int found;
+
+
+  /**
+   * Creates a new benchmark.
+   *
+   * @param  wordList  to build the dictionaries from
+   */
+  private FilterDictionaryBenchmark(final ArrayWordList wordList)
+  {
+    words = wordList;
+    for (int i = 0; i < misses.length; i++) {
+      misses[i] = "not-a-word-" + i;
+    }
+  }
+
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param  args  word file and false positive probability
+   *
+   * @throws  Exception  if the word file cannot be read
+   */
+  public static void main(final String[] args) throws Exception
+  {
+    final String file = args.length > 0 ? args[0] : Dictionaries.WEB_FILE;
+    final double fpp = args.length > 1 ? Double.parseDouble(args[1]) : 1.0 / 256;
+    final FilterDictionaryBenchmark benchmark = new FilterDictionaryBenchmark(
+      WordLists.createFromReader(new FileReader[] {new FileReader(file)}, true, new ArraysSort()));
+    System.out.printf(
+      "%,d words, fpp %.4f%n%-30s %10s %10s %10s %10s %10s%n",
+      benchmark.words.size(),
+      fpp,
+      "dictionary",
+      "bits/word",
+      "build ms",
+      "hit ns",
+      "miss ns",
+      "fpp");
+    benchmark.run("BloomFilterDictionary", () -> {
+      final BloomFilter<CharSequence> filter = BloomFilter.create(
+        Funnels.stringFunnel(StandardCharsets.UTF_8), benchmark.words.size(), fpp);
+      for (int i = 0; i < benchmark.words.size(); i++) {
+        filter.put(benchmark.words.get(i));
+      }
+      return new BloomFilterDictionary(filter);
+    }, d -> {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ((BloomFilterDictionary) d).getBloomFilter().writeTo(out);
+      return out.size() * (long) Byte.SIZE;
+    });
+    benchmark.run("BlockedBloomFilterDictionary", () -> {
+      final BlockedBloomFilter filter = BlockedBloomFilter.create(benchmark.words.size(), fpp);
+      for (int i = 0; i < benchmark.words.size(); i++) {
+        filter.put(benchmark.words.get(i));
+      }
+      return new BlockedBloomFilterDictionary(filter);
+    }, d -> ((BlockedBloomFilterDictionary) d).getBloomFilter().bitSize());
+    benchmark.run(
+      "BinaryFuseFilterDictionary",
+      () -> new BinaryFuseFilterDictionary(BinaryFuseFilter.build(benchmark.words)),
+      d -> ((BinaryFuseFilterDictionary) d).getFilter().bitSize());
+  }
+
+
+  /**
+   * Builds a dictionary and prints its measurements.
+   *
+   * @param  name  of the dictionary
+   * @param  factory  that builds the dictionary
+   * @param  bits  function that returns the size of the dictionary in bits
+   *
+   * @throws  IOException  if the size of the dictionary cannot be determined
+   */
+  private void run(final String name, final Supplier<Dictionary> factory, final BitSize bits) throws IOException
+  {
+    Dictionary dictionary = null;
+    long build = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      final long start = System.nanoTime();
+      dictionary = factory.get();
+      build = Math.min(build, System.nanoTime() - start);
+    }
+    long hit = Long.MAX_VALUE;
+    long miss = Long.MAX_VALUE;
+    int falsePositives = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      for (int j = 0; j < words.size(); j++) {
+        found += dictionary.search(words.get(j)) ? 1 : 0;
+      }
+      hit = Math.min(hit, System.nanoTime() - start);
+      falsePositives = 0;
+      start = System.nanoTime();
+      for (String word : misses) {
+        falsePositives += dictionary.search(word) ? 1 : 0;
+      }
+      miss = Math.min(miss, System.nanoTime() - start);
+    }
+    System.out.printf(
+      "%-30s %10.2f %10d %10.1f %10.1f %10.5f%n",
+      name,
+      (double) bits.get(dictionary) / words.size(),
+      TimeUnit.NANOSECONDS.toMillis(build),
+      (double) hit / words.size(),
+      (double) miss / misses.length,
+      (double) falsePositives / misses.length);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" + "found=" + found;
+  }
+
+
+  /** Returns the size of a dictionary in bits. */
+  @FunctionalInterface
+  private interface BitSize
+  {
+
+
+    /**
+     * Returns the size of the supplied dictionary.
+     *
+     * @param  dictionary  to measure
+     *
+     * @return  size in bits
+     *
+     * @throws  IOException  if the dictionary cannot be serialized
+     */
+    long get(Dictionary dictionary) throws IOException;
+  }
+}
@@ -3,6 +3,7 @@ package org.passay;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.DoubleSupplier;
 
 /**
  * Base class for validation results.
@@ -16,7 +17,10 @@ public abstract class AbstractValidationResult implements ValidationResult
   private final boolean valid;
 
   /** Entropy of the password used for validation. */
-  private final double entropy;
+  private volatile double entropy;
+
+  /** Computes the entropy on first access. Null once the entropy has been computed. */
+  private volatile DoubleSupplier entropySupplier;
 
   /** Metadata produced by a password rule. */
   private final RuleResultMetadata metadata;
@@ -51,6 +55,22 @@ public abstract class AbstractValidationResult implements ValidationResult
   }
 
 
+  /**
+   * Creates a new abstract validation result. The entropy is not computed until {@link #getEntropy()} is first invoked,
+   * the result is then retained for subsequent invocations.
+   *
+   * @param  valid  whether validation was successful
+   * @param  entropy  supplies the calculated entropy of the password
+   * @param  metadata  metadata associated by the rule with the password
+   */
+  public AbstractValidationResult(final boolean valid, final DoubleSupplier entropy, final RuleResultMetadata metadata)
+  {
+    this.valid = valid;
+    this.entropySupplier = PassayUtils.assertNotNullArg(entropy, "Entropy supplier cannot be null");
+    this.metadata = metadata;
+  }
+
+
   @Override
   public boolean isValid()
   {
@@ -61,6 +81,16 @@ public abstract class AbstractValidationResult implements ValidationResult
   @Override
   public double getEntropy()
   {
+    if (entropySupplier != null) {
+      synchronized (this) {
+        final DoubleSupplier supplier = entropySupplier;
+        if (supplier != null) {
+          entropy = supplier.getAsDouble();
+          // release the supplier and any password data it references
+          entropySupplier = null;
+        }
+      }
+    }
     return entropy;
   }
 
@@ -93,7 +123,8 @@ public abstract class AbstractValidationResult implements ValidationResult
       "valid=" + isValid() + ", " +
       "details=" + getDetails() + ", " +
       "metadata=" + getMetadata() + ", " +
-      "entropy=" + getEntropy() + ", " +
+      // describing a result does not force a lazy entropy estimate
+      "entropy=" + (entropySupplier != null ? "<not estimated>" : String.valueOf(entropy)) + ", " +
       "messages=" + getMessages();
   }
 }
@@ -7,7 +7,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.function.DoubleSupplier;
 import org.passay.entropy.Entropy;
 import org.passay.entropy.RandomPasswordEntropyFactory;
 import org.passay.entropy.ShannonEntropyFactory;
@@ -17,7 +17,10 @@ import org.passay.support.Origin;
 
 /**
  * Default implementation for evaluating multiple password rules against a candidate password. Supports a fail fast flag
- * to indicate that rule validation should stop if any rule fails.
+ * to indicate that rule validation should stop if any rule fails. Messages of a validation result are resolved when
+ * they are first accessed, with the state the message resolver had on the validating thread. Results never hold the
+ * password data: the entropy of a user password is estimated during validation, and that of a generated password only
+ * retains the number of unique characters of the rules and the length of the password.
  *
  * @author  Middleware Services
  */
@@ -86,9 +89,28 @@ public class DefaultPasswordValidator implements PasswordValidator
       }
     };
 
+  /** Validation listener that is never invoked, validation is not timed when it is used. */
+  public static final ValidationListener NO_VALIDATION_LISTENER = new ValidationListener()
+  {
+    @Override
+    public void ruleValidated(final Rule rule, final RuleResult result, final long duration) {}
+
+    @Override
+    public String toString()
+    {
+      return "NO_VALIDATION_LISTENER";
+    }
+  };
+
+  /** Entropy of validators without an entropy provider. */
+  private static final DoubleSupplier NO_ENTROPY = () -> -1;
+
   /** Password rules. */
   private final List<Rule> passwordRules = new ArrayList<>();
 
+  /** Rules supplied to the entropy provider. */
+  private List<? extends Rule> entropyRules = passwordRules;
+
   /** Whether password validation should fail fast. */
   private final boolean failFast;
 
@@ -98,6 +120,12 @@ public class DefaultPasswordValidator implements PasswordValidator
   /** Entropy provider. */
   private final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider;
 
+  /** Validation listener. */
+  private final ValidationListener validationListener;
+
+  /** Number of unique characters of the rules for random password entropy, computed when first needed. */
+  private volatile int uniqueCharacters = -1;
+
 
   /**
    * Creates a new default password validator.
@@ -318,10 +346,31 @@ public class DefaultPasswordValidator implements PasswordValidator
     final MessageResolver resolver,
     final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider,
     final List<? extends Rule> rules)
+  {
+    this(failFast, resolver, entropyProvider, NO_VALIDATION_LISTENER, rules);
+  }
+
+
+  /**
+   * Creates a new default password validator.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  resolver  message resolver.
+   * @param  entropyProvider  to calculate entropy estimate
+   * @param  listener  notified of the outcome and duration of each rule
+   * @param  rules  to validate
+   */
+  public DefaultPasswordValidator(
+    final boolean failFast,
+    final MessageResolver resolver,
+    final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider,
+    final ValidationListener listener,
+    final List<? extends Rule> rules)
   {
     this.failFast = failFast;
     this.messageResolver = PassayUtils.assertNotNullArg(resolver, "Message resolver cannot be null");
     this.entropyProvider = PassayUtils.assertNotNullArg(entropyProvider, "Entropy supplier cannot be null");
+    this.validationListener = PassayUtils.assertNotNullArg(listener, "Validation listener cannot be null");
     this.passwordRules.addAll(
       PassayUtils.assertNotNullArgOr(
         rules,
@@ -330,6 +379,34 @@ public class DefaultPasswordValidator implements PasswordValidator
   }
 
 
+  /**
+   * Creates a new default password validator that evaluates rules derived from the rules supplied to the entropy
+   * provider, with the number of unique characters of those rules already counted, see
+   * {@link RandomPasswordEntropyFactory#countUniqueCharacters(List)}.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  resolver  message resolver.
+   * @param  entropyProvider  to calculate entropy estimate
+   * @param  listener  notified of the outcome and duration of each rule
+   * @param  rules  to validate
+   * @param  providerRules  rules supplied to the entropy provider
+   * @param  uniqueCharacters  number of unique characters of the provider rules
+   */
+  DefaultPasswordValidator(
+    final boolean failFast,
+    final MessageResolver resolver,
+    final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider,
+    final ValidationListener listener,
+    final List<? extends Rule> rules,
+    final List<? extends Rule> providerRules,
+    final int uniqueCharacters)
+  {
+    this(failFast, resolver, entropyProvider, listener, rules);
+    this.entropyRules = providerRules;
+    this.uniqueCharacters = uniqueCharacters;
+  }
+
+
   @Override
   public List<? extends Rule> getRules()
   {
@@ -351,31 +428,109 @@ public class DefaultPasswordValidator implements PasswordValidator
   }
 
 
+  /**
+   * Returns the validation listener.
+   *
+   * @return  validation listener
+   */
+  public ValidationListener getValidationListener()
+  {
+    return validationListener;
+  }
+
+
   @Override
   public ValidationResult validate(final PasswordData passwordData)
+  {
+    return validate(passwordData, Rule::validate);
+  }
+
+
+  /**
+   * Validates the supplied password data with the supplied rule evaluation, which must produce the same result as
+   * {@link Rule#validate(PasswordData)}.
+   *
+   * @param  passwordData  to validate
+   * @param  evaluation  that validates the password data with each rule
+   *
+   * @return  validation result
+   */
+  ValidationResult validate(
+    final PasswordData passwordData,
+    final BiFunction<Rule, PasswordData, RuleResult> evaluation)
   {
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+    // skip reading the clock entirely when nothing is listening
+    final boolean listening = validationListener != NO_VALIDATION_LISTENER;
+    if (listening) {
+      validationListener.validationStarted();
+    }
+    final long start = listening ? System.nanoTime() : 0;
     boolean success = true;
     final List<RuleResultDetail> details = new ArrayList<>();
     final List<RuleResultMetadata> metadata = new ArrayList<>();
-    for (Rule rule : passwordRules) {
-      final RuleResult result = rule.validate(passwordData);
-      if (success && !result.isValid()) {
-        success = false;
-      }
-      details.addAll(result.getDetails());
-      metadata.add(result.getMetadata());
-      if (!success && failFast) {
-        break;
+    // rules share the encodings and digests of the password until every rule is evaluated
+    passwordData.getDigestContext().open();
+    try {
+      for (Rule rule : passwordRules) {
+        if (listening) {
+          validationListener.ruleStarted(rule);
+        }
+        final long ruleStart = listening ? System.nanoTime() : 0;
+        final RuleResult result = evaluation.apply(rule, passwordData);
+        if (listening) {
+          validationListener.ruleValidated(rule, result, System.nanoTime() - ruleStart);
+        }
+        if (success && !result.isValid()) {
+          success = false;
+        }
+        details.addAll(result.getDetails());
+        metadata.add(result.getMetadata());
+        if (!success && failFast) {
+          break;
+        }
       }
+    } finally {
+      passwordData.getDigestContext().close();
     }
-    final double entropy = entropyProvider.apply(passwordRules, passwordData).estimate();
-    final List<String> messages = success ?
-      Collections.emptyList() :
-      details.stream().map(messageResolver::resolve).filter(Objects::nonNull).collect(Collectors.toList());
-    return success ?
+    // messages are resolved on first access of the result, the entropy keeps none of the password data
+    final DoubleSupplier entropy = createEntropy(passwordData);
+    final ValidationResult result = success ?
       new SuccessValidationResult(entropy, new RuleResultMetadata(metadata)) :
-      new FailureValidationResult(entropy, new RuleResultMetadata(metadata), details, messages);
+      new FailureValidationResult(
+        entropy, new RuleResultMetadata(metadata), details, messageResolver.forCurrentThread());
+    if (listening) {
+      validationListener.validated(result, System.nanoTime() - start);
+    }
+    return result;
+  }
+
+
+  /**
+   * Creates the entropy of the supplied password data with the entropy provider. The unique characters counted by
+   * {@link #DEFAULT_ENTROPY_PROVIDER} for generated passwords depend only on the rules, so they are counted once, and
+   * the estimate only needs that count and the length of the password. Any other estimate is computed here, so that
+   * the result does not retain the password data.
+   *
+   * @param  passwordData  to estimate entropy of
+   *
+   * @return  supplier of the entropy estimate
+   */
+  private DoubleSupplier createEntropy(final PasswordData passwordData)
+  {
+    if (entropyProvider == NO_ENTROPY_PROVIDER) {
+      return NO_ENTROPY;
+    }
+    if (entropyProvider == DEFAULT_ENTROPY_PROVIDER && Origin.Generated.equals(passwordData.getOrigin())) {
+      int count = uniqueCharacters;
+      if (count < 0) {
+        count = RandomPasswordEntropyFactory.countUniqueCharacters(entropyRules);
+        uniqueCharacters = count;
+      }
+      return RandomPasswordEntropyFactory.createEntropy(count, passwordData)::estimate;
+    }
+    final double estimate = entropyProvider.apply(entropyRules, passwordData).estimate();
+    return () -> estimate;
   }
 
 
@@ -385,6 +540,7 @@ public class DefaultPasswordValidator implements PasswordValidator
     return getClass().getName() + "@" + hashCode() + "::" +
       "passwordRules=" + passwordRules + ", " +
       "messageResolver=" + messageResolver + ", " +
-      "entropyProvider=" + entropyProvider;
+      "entropyProvider=" + entropyProvider + ", " +
+      "validationListener=" + validationListener;
   }
 }
@@ -0,0 +1,264 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.passay.support.Salt;
+
+/**
+ * Memoizes the encoded bytes and digests of a password for the duration of a validation, so that rules which digest
+ * the same password with the same algorithm, character set and salt do so once. Every password data has a context,
+ * see {@link PasswordData#getDigestContext()}. A {@link DefaultPasswordValidator} keeps the context of the password
+ * data open while it validates, and memoized values are wiped when the last validation of the password data completes.
+ * Outside of a validation values are computed, supplied to the caller and wiped each time they are requested.
+ *
+ * <p>Memoized values are shared, so callers must not modify or retain them beyond the function they are supplied
+ * to. This class is thread safe.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class DigestContext
+{
+
+  /** Index of the text in a key. */
+  private static final int TEXT_INDEX = 1;
+
+  /** Memoized values by algorithm, text, salt and character set, null if no validation is in progress. */
+  private Map<List<Object>, Object> values;
+
+  /** Number of validations in progress. */
+  private int validations;
+
+
+  /**
+   * Opens this context for a validation.
+   */
+  synchronized void open()
+  {
+    if (validations++ == 0) {
+      values = new HashMap<>();
+    }
+  }
+
+
+  /**
+   * Closes this context for a validation, wiping memoized values when no validation remains in progress.
+   */
+  void close()
+  {
+    final Map<List<Object>, Object> wipe;
+    synchronized (this) {
+      if (--validations > 0) {
+        return;
+      }
+      wipe = values;
+      values = null;
+    }
+    for (Map.Entry<List<Object>, Object> entry : wipe.entrySet()) {
+      ((UnicodeString) entry.getKey().get(TEXT_INDEX)).clear();
+      clear(entry.getValue());
+    }
+  }
+
+
+  /**
+   * Returns whether a validation is in progress, in which case values are memoized. Callers may skip the memoization
+   * and digest directly when it is not.
+   *
+   * @return  whether this context is open
+   */
+  public synchronized boolean isOpen()
+  {
+    return values != null;
+  }
+
+
+  /**
+   * Applies the supplied function to the bytes of the salted text in the supplied character set.
+   *
+   * @param  <R>  type of result
+   * @param  text  to encode
+   * @param  salt  to apply to the text or null
+   * @param  charset  to encode the text with
+   * @param  function  to apply to the encoded bytes
+   *
+   * @return  result of the function
+   */
+  public <R> R withBytes(
+    final UnicodeString text,
+    final Salt salt,
+    final Charset charset,
+    final Function<byte[], R> function)
+  {
+    if (!isOpen()) {
+      // nothing is memoized outside of a validation, so skip building a key
+      PassayUtils.assertNotNullArg(text, "Text cannot be null");
+      PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+      return apply(encode(text, salt, charset), function);
+    }
+    return with(null, text, salt, charset, () -> encode(text, salt, charset), function);
+  }
+
+
+  /**
+   * Applies the supplied function to the digest of the bytes of the salted text in the supplied character set.
+   * Digests are memoized by algorithm, so the supplied algorithm must identify the digest function. Digests of type
+   * byte[], char[] or {@link UnicodeString} are wiped with the context.
+   *
+   * @param  <D>  type of digest
+   * @param  <R>  type of result
+   * @param  algorithm  that identifies the digest function
+   * @param  text  to digest
+   * @param  salt  to apply to the text or null
+   * @param  charset  to encode the text with
+   * @param  digest  function that digests the encoded bytes, which must not return them
+   * @param  function  to apply to the digest
+   *
+   * @return  result of the function
+   */
+  public <D, R> R withDigest(
+    final Object algorithm,
+    final UnicodeString text,
+    final Salt salt,
+    final Charset charset,
+    final Function<byte[], D> digest,
+    final Function<? super D, R> function)
+  {
+    PassayUtils.assertNotNullArg(algorithm, "Algorithm cannot be null");
+    if (!isOpen()) {
+      PassayUtils.assertNotNullArg(text, "Text cannot be null");
+      PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+      return apply(apply(encode(text, salt, charset), digest), function);
+    }
+    return with(algorithm, text, salt, charset, () -> withBytes(text, salt, charset, digest), function);
+  }
+
+
+  /**
+   * Applies the supplied function to the memoized value of the supplied key, computing it if necessary.
+   *
+   * @param  <T>  type of value
+   * @param  <R>  type of result
+   * @param  algorithm  of the value or null for encoded bytes
+   * @param  text  of the value
+   * @param  salt  of the value or null
+   * @param  charset  of the value
+   * @param  compute  the value
+   * @param  function  to apply to the value
+   *
+   * @return  result of the function
+   */
+  @SuppressWarnings("unchecked")
+  private <T, R> R with(
+    final Object algorithm,
+    final UnicodeString text,
+    final Salt salt,
+    final Charset charset,
+    final Supplier<T> compute,
+    final Function<? super T, R> function)
+  {
+    PassayUtils.assertNotNullArg(text, "Text cannot be null");
+    PassayUtils.assertNotNullArg(charset, "Character set cannot be null");
+    final List<Object> key = Arrays.asList(algorithm, text, salt, charset);
+    T value;
+    synchronized (this) {
+      value = values != null ? (T) values.get(key) : null;
+    }
+    boolean memoized = value != null;
+    if (!memoized) {
+      final T computed = compute.get();
+      synchronized (this) {
+        if (values != null) {
+          memoized = true;
+          // the key retains a copy of the text, since callers may wipe theirs
+          value = (T) values.putIfAbsent(Arrays.asList(algorithm, UnicodeString.copy(text), salt, charset), computed);
+        }
+      }
+      if (value == null) {
+        value = computed;
+      } else {
+        // another thread memoized the value first
+        clear(computed);
+      }
+    }
+    try {
+      return function.apply(value);
+    } finally {
+      if (!memoized) {
+        clear(value);
+      }
+    }
+  }
+
+
+  /**
+   * Applies the supplied function to a value that is not memoized and wipes the value.
+   *
+   * @param  <T>  type of value
+   * @param  <R>  type of result
+   * @param  value  to apply the function to
+   * @param  function  to apply
+   *
+   * @return  result of the function
+   */
+  private static <T, R> R apply(final T value, final Function<? super T, R> function)
+  {
+    try {
+      return function.apply(value);
+    } finally {
+      clear(value);
+    }
+  }
+
+
+  /**
+   * Applies the supplied salt to the text and encodes it with the character set.
+   *
+   * @param  text  to encode
+   * @param  salt  to apply to the text or null
+   * @param  charset  to encode the text with
+   *
+   * @return  encoded bytes
+   */
+  private static byte[] encode(final UnicodeString text, final Salt salt, final Charset charset)
+  {
+    final CharBuffer buffer = CharBuffer.wrap(text.toCharArray());
+    final CharBuffer salted = salt == null ? buffer : salt.applyTo(buffer);
+    try {
+      return PassayUtils.toByteArray(salted, charset);
+    } finally {
+      PassayUtils.clear(buffer);
+      PassayUtils.clear(salted);
+    }
+  }
+
+
+  /**
+   * Wipes the supplied value if it holds sensitive data.
+   *
+   * @param  value  to wipe
+   */
+  private static void clear(final Object value)
+  {
+    if (value instanceof UnicodeString) {
+      ((UnicodeString) value).clear();
+    } else if (value instanceof byte[] || value instanceof char[]) {
+      PassayUtils.clear(value);
+    }
+  }
+
+
+  @Override
+  public synchronized String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "validations=" + validations + ", " +
+      "values=" + (values != null ? values.size() : 0);
+  }
+}
@@ -4,6 +4,10 @@ package org.passay;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+import org.passay.resolver.MessageResolver;
 
 /**
  * Result of a password validator failure.
@@ -17,7 +21,10 @@ public final class FailureValidationResult extends AbstractValidationResult
   private final List<RuleResultDetail> details = new ArrayList<>();
 
   /** Messages produced by a message resolver. */
-  private final List<String> messages = new ArrayList<>();
+  private volatile List<String> messages = Collections.emptyList();
+
+  /** Resolves messages on first access. Null once the messages have been resolved. */
+  private volatile MessageResolver messageResolver;
 
 
   /**
@@ -105,7 +112,7 @@ public final class FailureValidationResult extends AbstractValidationResult
   {
     super(false, metadata);
     this.details.addAll(details);
-    this.messages.addAll(messages);
+    this.messages = Collections.unmodifiableList(new ArrayList<>(messages));
   }
 
 
@@ -125,7 +132,29 @@ public final class FailureValidationResult extends AbstractValidationResult
   {
     super(false, entropy, metadata);
     this.details.addAll(details);
-    this.messages.addAll(messages);
+    this.messages = Collections.unmodifiableList(new ArrayList<>(messages));
+  }
+
+
+  /**
+   * Creates a new failure validation result. Neither the entropy nor the messages are computed until they are first
+   * accessed, the results are then retained for subsequent invocations. Callers that only inspect
+   * {@link #getDetails()} never pay for message resolution.
+   *
+   * @param  entropy  supplies the calculation, invoked on first access
+   * @param  metadata  metadata associated by the rule with the password
+   * @param  details  associated with this result
+   * @param  resolver  to produce messages from the details, invoked on first access
+   */
+  public FailureValidationResult(
+    final DoubleSupplier entropy,
+    final RuleResultMetadata metadata,
+    final List<RuleResultDetail> details,
+    final MessageResolver resolver)
+  {
+    super(false, entropy, metadata);
+    this.details.addAll(details);
+    this.messageResolver = PassayUtils.assertNotNullArg(resolver, "Message resolver cannot be null");
   }
 
 
@@ -139,6 +168,16 @@ public final class FailureValidationResult extends AbstractValidationResult
   @Override
   public List<String> getMessages()
   {
-    return Collections.unmodifiableList(messages);
+    if (messageResolver != null) {
+      synchronized (this) {
+        final MessageResolver resolver = messageResolver;
+        if (resolver != null) {
+          messages = Collections.unmodifiableList(
+            details.stream().map(resolver::resolve).filter(Objects::nonNull).collect(Collectors.toList()));
+          messageResolver = null;
+        }
+      }
+    }
+    return messages;
   }
 }
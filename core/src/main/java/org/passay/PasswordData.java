@@ -30,6 +30,9 @@ public class PasswordData
   /** Origin of this password. */
   private final Origin origin;
 
+  /** Memoized encodings and digests of this password. */
+  private final DigestContext digestContext = new DigestContext();
+
 
   /**
    * Creates a new password data. The origin of this data is {@link Origin#User} by default.
@@ -248,6 +251,17 @@ public class PasswordData
   }
 
 
+  /**
+   * Returns the context that memoizes encodings and digests of this password while it is validated.
+   *
+   * @return  digest context
+   */
+  public DigestContext getDigestContext()
+  {
+    return digestContext;
+  }
+
+
   /**
    * Returns the password.
    *
@@ -0,0 +1,357 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import org.passay.entropy.Entropy;
+import org.passay.entropy.RandomPasswordEntropyFactory;
+import org.passay.resolver.MessageResolver;
+import org.passay.rule.AllowedCharacterRule;
+import org.passay.rule.AllowedRegexRule;
+import org.passay.rule.CharacterCharacteristicsRule;
+import org.passay.rule.CharacterOccurrencesRule;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.DictionaryRule;
+import org.passay.rule.DictionarySubstringRule;
+import org.passay.rule.HistoryRule;
+import org.passay.rule.IllegalCharacterRule;
+import org.passay.rule.IllegalRegexRule;
+import org.passay.rule.IllegalSequenceRule;
+import org.passay.rule.LengthComplexityRule;
+import org.passay.rule.LengthRule;
+import org.passay.rule.NumberRangeRule;
+import org.passay.rule.RepeatCharactersRule;
+import org.passay.rule.Rule;
+import org.passay.rule.SourceRule;
+import org.passay.rule.UsernameRule;
+import org.passay.rule.WhitespaceRule;
+
+/**
+ * Immutable password validator compiled from a list of rules. Everything that depends only on the rules is computed
+ * once when the policy is compiled, so a policy should be cached and shared by every thread that validates against the
+ * same rules:
+ *
+ * <ul>
+ *   <li>the bounds of several {@link LengthRule} are folded into a single length rule that is evaluated in place of
+ *     them</li>
+ *   <li>the characters of every character rule are counted once for the random password entropy estimate of every
+ *     validation</li>
+ *   <li>when failing fast, rules are evaluated in order of increasing cost, so that a password that fails a cheap rule
+ *     never reaches a dictionary or digest rule</li>
+ * </ul>
+ *
+ * <p>Since the evaluation order of a fail fast policy is not the order in which rules are supplied, the failure that
+ * is reported for a password may differ from that of a {@link DefaultPasswordValidator} over the same rules. Likewise a
+ * password that violates several length rules is reported once, against the folded bounds. Every other rule that is
+ * evaluated is always evaluated completely and in the same way. The entropy provider is given the rules in the order
+ * they were supplied, without folding.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class PasswordPolicy implements PasswordValidator
+{
+
+  /** Relative cost of evaluating the rules in this package, rules of any other class are evaluated last. */
+  private static final Map<Class<? extends Rule>, Integer> RULE_COSTS = new HashMap<>();
+
+  /** Cost of rules not listed in {@link #RULE_COSTS}. */
+  private static final int UNKNOWN_RULE_COST = 4;
+
+  static {
+    RULE_COSTS.put(LengthRule.class, 0);
+    RULE_COSTS.put(AllowedCharacterRule.class, 1);
+    RULE_COSTS.put(CharacterCharacteristicsRule.class, 1);
+    RULE_COSTS.put(CharacterOccurrencesRule.class, 1);
+    RULE_COSTS.put(CharacterRule.class, 1);
+    RULE_COSTS.put(IllegalCharacterRule.class, 1);
+    RULE_COSTS.put(RepeatCharactersRule.class, 1);
+    RULE_COSTS.put(WhitespaceRule.class, 1);
+    RULE_COSTS.put(AllowedRegexRule.class, 2);
+    RULE_COSTS.put(DictionaryRule.class, 2);
+    RULE_COSTS.put(HistoryRule.class, 2);
+    RULE_COSTS.put(IllegalRegexRule.class, 2);
+    RULE_COSTS.put(IllegalSequenceRule.class, 2);
+    RULE_COSTS.put(LengthComplexityRule.class, 2);
+    RULE_COSTS.put(NumberRangeRule.class, 2);
+    RULE_COSTS.put(SourceRule.class, 2);
+    RULE_COSTS.put(UsernameRule.class, 2);
+    RULE_COSTS.put(DictionarySubstringRule.class, 3);
+  }
+
+  /** Rules in the order they were supplied. */
+  private final List<Rule> rules;
+
+  /** Rules in the order they are evaluated. */
+  private final List<Rule> evaluationOrder;
+
+  /** Largest minimum length of the length rules. */
+  private final int minimumLength;
+
+  /** Smallest maximum length of the length rules. */
+  private final int maximumLength;
+
+  /** Number of unique characters of the character rules. */
+  private final int uniqueCharacters;
+
+  /** Validator that evaluates the rules. */
+  private final DefaultPasswordValidator validator;
+
+
+  /**
+   * Creates a new password policy.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  resolver  message resolver
+   * @param  provider  to calculate entropy estimate
+   * @param  listener  notified of the outcome and duration of each rule
+   * @param  passwordRules  to validate
+   */
+  private PasswordPolicy(
+    final boolean failFast,
+    final MessageResolver resolver,
+    final BiFunction<List<? extends Rule>, PasswordData, Entropy> provider,
+    final ValidationListener listener,
+    final List<? extends Rule> passwordRules)
+  {
+    PassayUtils.assertNotNullArgOr(
+      passwordRules,
+      v -> v.stream().anyMatch(Objects::isNull),
+      "Password rules cannot be null or contain null");
+    rules = Collections.unmodifiableList(new ArrayList<>(passwordRules));
+
+    int min = 0;
+    int max = Integer.MAX_VALUE;
+    int lengthRules = 0;
+    for (Rule rule : rules) {
+      if (isFoldable(rule)) {
+        min = Math.max(min, ((LengthRule) rule).getMinimumLength());
+        max = Math.min(max, ((LengthRule) rule).getMaximumLength());
+        lengthRules++;
+      }
+    }
+    if (min > max) {
+      throw new IllegalArgumentException("Length rules cannot be satisfied by any password");
+    }
+    minimumLength = min;
+    maximumLength = max;
+    uniqueCharacters = RandomPasswordEntropyFactory.countUniqueCharacters(rules);
+
+    // several length rules are evaluated as one with the folded bounds, in place of the first of them
+    final List<Rule> order = new ArrayList<>(rules.size());
+    boolean folded = false;
+    for (Rule rule : rules) {
+      if (lengthRules > 1 && isFoldable(rule)) {
+        if (!folded) {
+          order.add(new LengthRule(minimumLength, maximumLength));
+          folded = true;
+        }
+      } else {
+        order.add(rule);
+      }
+    }
+    // a validator that does not fail fast reports every failure in the order the rules were supplied
+    if (failFast) {
+      order.sort(Comparator.comparingInt(r -> RULE_COSTS.getOrDefault(r.getClass(), UNKNOWN_RULE_COST)));
+    }
+    evaluationOrder = Collections.unmodifiableList(order);
+    validator = new DefaultPasswordValidator(
+      failFast,
+      resolver,
+      provider,
+      listener,
+      evaluationOrder,
+      rules,
+      uniqueCharacters);
+  }
+
+
+  /**
+   * Compiles a policy that reports every rule failure.
+   *
+   * @param  rules  to validate
+   *
+   * @return  password policy
+   */
+  public static PasswordPolicy compile(final List<? extends Rule> rules)
+  {
+    return compile(false, rules);
+  }
+
+
+  /**
+   * Compiles a policy.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  rules  to validate
+   *
+   * @return  password policy
+   */
+  public static PasswordPolicy compile(final boolean failFast, final List<? extends Rule> rules)
+  {
+    return compile(
+      failFast,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      rules);
+  }
+
+
+  /**
+   * Compiles a policy.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  resolver  message resolver
+   * @param  entropyProvider  to calculate entropy estimate
+   * @param  rules  to validate
+   *
+   * @return  password policy
+   */
+  public static PasswordPolicy compile(
+    final boolean failFast,
+    final MessageResolver resolver,
+    final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider,
+    final List<? extends Rule> rules)
+  {
+    return compile(failFast, resolver, entropyProvider, DefaultPasswordValidator.NO_VALIDATION_LISTENER, rules);
+  }
+
+
+  /**
+   * Compiles a policy.
+   *
+   * @param  failFast  whether rule validation should fail fast
+   * @param  resolver  message resolver
+   * @param  entropyProvider  to calculate entropy estimate
+   * @param  listener  notified of the outcome and duration of each rule
+   * @param  rules  to validate
+   *
+   * @return  password policy
+   */
+  public static PasswordPolicy compile(
+    final boolean failFast,
+    final MessageResolver resolver,
+    final BiFunction<List<? extends Rule>, PasswordData, Entropy> entropyProvider,
+    final ValidationListener listener,
+    final List<? extends Rule> rules)
+  {
+    return new PasswordPolicy(failFast, resolver, entropyProvider, listener, rules);
+  }
+
+
+  @Override
+  public List<? extends Rule> getRules()
+  {
+    return rules;
+  }
+
+
+  /**
+   * Returns the rules in the order they are evaluated, which includes the folded length rule in place of the supplied
+   * length rules.
+   *
+   * @return  unmodifiable list of password rules
+   */
+  public List<? extends Rule> getEvaluationOrder()
+  {
+    return evaluationOrder;
+  }
+
+
+  @Override
+  public MessageResolver getMessageResolver()
+  {
+    return validator.getMessageResolver();
+  }
+
+
+  @Override
+  public BiFunction<List<? extends Rule>, PasswordData, Entropy> getEntropyProvider()
+  {
+    return validator.getEntropyProvider();
+  }
+
+
+  /**
+   * Returns the largest minimum length of the length rules of this policy, which is the minimum length of the folded
+   * length rule.
+   *
+   * @return  minimum password length or zero if there are no length rules
+   */
+  public int getMinimumLength()
+  {
+    return minimumLength;
+  }
+
+
+  /**
+   * Returns the smallest maximum length of the length rules of this policy, which is the maximum length of the folded
+   * length rule.
+   *
+   * @return  maximum password length or {@link Integer#MAX_VALUE} if there are no length rules
+   */
+  public int getMaximumLength()
+  {
+    return maximumLength;
+  }
+
+
+  /**
+   * Returns the number of unique characters allowed by the character rules of this policy.
+   *
+   * @return  number of unique characters
+   */
+  public int getUniqueCharacters()
+  {
+    return uniqueCharacters;
+  }
+
+
+  /**
+   * Returns whether the supplied rule is folded with the other length rules. Subclasses of {@link LengthRule} may
+   * report their failures differently and are evaluated as supplied.
+   *
+   * @param  rule  to test
+   *
+   * @return  whether rule is a length rule
+   */
+  private static boolean isFoldable(final Rule rule)
+  {
+    return rule.getClass() == LengthRule.class;
+  }
+
+
+  /**
+   * Returns the validator that evaluates the rules of this policy.
+   *
+   * @return  validator
+   */
+  DefaultPasswordValidator getValidator()
+  {
+    return validator;
+  }
+
+
+  @Override
+  public ValidationResult validate(final PasswordData passwordData)
+  {
+    return validator.validate(passwordData);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "rules=" + rules + ", " +
+      "evaluationOrder=" + evaluationOrder + ", " +
+      "minimumLength=" + minimumLength + ", " +
+      "maximumLength=" + maximumLength + ", " +
+      "uniqueCharacters=" + uniqueCharacters;
+  }
+}
@@ -1,6 +1,8 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay;
 
+import java.util.function.DoubleSupplier;
+
 /**
  * Result of a password validator success.
  *
@@ -51,4 +53,16 @@ public final class SuccessValidationResult extends AbstractValidationResult
   {
     super(true, entropy, metadata);
   }
+
+
+  /**
+   * Creates a new success validation result.
+   *
+   * @param  entropy  supplies the calculation, invoked on first access
+   * @param  metadata  metadata associated by the rule with the password
+   */
+  public SuccessValidationResult(final DoubleSupplier entropy, final RuleResultMetadata metadata)
+  {
+    super(true, entropy, metadata);
+  }
 }
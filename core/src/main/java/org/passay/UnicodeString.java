@@ -3,7 +3,6 @@ package org.passay;
 
 import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.Objects;
 import java.util.Set;
 import java.util.stream.IntStream;
 
@@ -556,7 +555,7 @@ public final class UnicodeString implements CharSequence
   public int hashCode()
   {
     // CheckStyle:MagicNumber OFF
-    return 31 * Objects.hashCode(codePoints);
+    return 31 * Arrays.hashCode(codePoints);
     // CheckStyle:MagicNumber ON
   }
 
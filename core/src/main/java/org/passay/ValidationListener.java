@@ -0,0 +1,62 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import org.passay.rule.Rule;
+
+/**
+ * Receives the outcome and duration of each rule evaluated by a {@link DefaultPasswordValidator}. Implementations are
+ * invoked on the validating thread and must be thread safe when the validator is shared. Each validation invokes
+ * {@link #validationStarted()}, then {@link #ruleStarted(Rule)} and {@link #ruleValidated(Rule, RuleResult, long)}
+ * for each evaluated rule, then {@link #validated(ValidationResult, long)}; no callback follows a rule that throws.
+ * <strong>Rule results and validation results may contain password material:</strong> the parameters of a detail,
+ * such as the <code>matchingWord</code> of {@link org.passay.rule.DictionaryRule}, can hold the whole password or a
+ * fragment of it. Listeners must not record or log detail parameters.
+ *
+ * @author  Middleware Services
+ */
+public interface ValidationListener
+{
+
+
+  /**
+   * Invoked before the first rule of a validator is evaluated. The default implementation does nothing.
+   */
+  default void validationStarted()
+  {
+    // no-op
+  }
+
+
+  /**
+   * Invoked before a rule validates a password. The default implementation does nothing.
+   *
+   * @param  rule  that is about to be evaluated
+   */
+  default void ruleStarted(final Rule rule)
+  {
+    // no-op
+  }
+
+
+  /**
+   * Invoked after a rule has validated a password.
+   *
+   * @param  rule  that was evaluated
+   * @param  result  of the rule
+   * @param  duration  of the rule evaluation in nanoseconds
+   */
+  void ruleValidated(Rule rule, RuleResult result, long duration);
+
+
+  /**
+   * Invoked after every rule of a validator has been evaluated, or after the first failure when the validator fails
+   * fast. The default implementation does nothing.
+   *
+   * @param  result  of the validation
+   * @param  duration  of the validation in nanoseconds
+   */
+  default void validated(final ValidationResult result, final long duration)
+  {
+    // no-op
+  }
+}
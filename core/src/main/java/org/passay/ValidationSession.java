@@ -0,0 +1,266 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.passay.rule.IncrementalRule;
+import org.passay.rule.Rule;
+import org.passay.support.Origin;
+import org.passay.support.Reference;
+
+/**
+ * Validates a password while it is typed. Code points are appended to and deleted from the end of the password one
+ * keystroke at a time, and the state of each {@link IncrementalRule} is updated with them, so that validating after a
+ * keystroke does not evaluate those rules over the whole password again. Rules that are not incremental are validated
+ * completely. Validation results are the same as those of the validator of this session for the same password data.
+ *
+ * <p>Sessions are not thread safe. Invoke {@link #clear()} when a session is no longer needed to erase the password it
+ * holds. Validation results hold no copy of the password beyond what rules report in their details, such as the
+ * <code>matchingWord</code> of a {@link org.passay.rule.DictionaryRule}, which may be the whole password.</p>
+ *
+ * @author  Middleware Services
+ */
+public final class ValidationSession
+{
+
+  /** Initial capacity of the password buffer. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Validator that evaluates the rules. */
+  private final DefaultPasswordValidator validator;
+
+  /** State of each rule of the validator. */
+  private final Map<Rule, IncrementalRule.State> states = new IdentityHashMap<>();
+
+  /** Username of the password data. */
+  private final UnicodeString username;
+
+  /** Origin of the password data. */
+  private final Origin origin;
+
+  /** References of the password data. */
+  private final List<Reference> references;
+
+  /** Code points of the password. */
+  private int[] codePoints = new int[INITIAL_CAPACITY];
+
+  /** Number of code points of the password. */
+  private int length;
+
+  /** View of the password supplied to the rule states. */
+  private final IncrementalRule.CodePoints view = new CodePointsView();
+
+
+  /**
+   * Creates a new validation session with an empty password.
+   *
+   * @param  passwordValidator  default password validator or password policy
+   */
+  public ValidationSession(final PasswordValidator passwordValidator)
+  {
+    this(passwordValidator, new PasswordData(""));
+  }
+
+
+  /**
+   * Creates a new validation session. The username, origin and references of the supplied password data are used for
+   * every validation of this session, and its password is appended to the empty password of this session.
+   *
+   * @param  passwordValidator  default password validator or password policy
+   * @param  passwordData  initial password data
+   *
+   * @throws  IllegalArgumentException  if the validator is neither a default password validator nor a password policy
+   */
+  public ValidationSession(final PasswordValidator passwordValidator, final PasswordData passwordData)
+  {
+    PassayUtils.assertNotNullArg(passwordValidator, "Password validator cannot be null");
+    PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+    if (passwordValidator instanceof PasswordPolicy) {
+      validator = ((PasswordPolicy) passwordValidator).getValidator();
+    } else if (passwordValidator instanceof DefaultPasswordValidator) {
+      validator = (DefaultPasswordValidator) passwordValidator;
+    } else {
+      throw new IllegalArgumentException("Unsupported password validator: " + passwordValidator.getClass().getName());
+    }
+    for (Rule rule : validator.getRules()) {
+      states.computeIfAbsent(rule, IncrementalRule.State::of);
+    }
+    username = passwordData.getUsername();
+    origin = passwordData.getOrigin();
+    references = passwordData.getPasswordReferences();
+    append(passwordData.getPassword());
+  }
+
+
+  /**
+   * Returns the number of code points of the password.
+   *
+   * @return  password length in code points
+   */
+  public int length()
+  {
+    return length;
+  }
+
+
+  /**
+   * Appends a code point to the password.
+   *
+   * @param  codePoint  to append
+   *
+   * @throws  IllegalArgumentException  if the code point is not valid
+   */
+  public void append(final int codePoint)
+  {
+    if (!Character.isValidCodePoint(codePoint)) {
+      throw new IllegalArgumentException("Invalid code point: " + codePoint);
+    }
+    if (length == codePoints.length) {
+      final int[] grown = Arrays.copyOf(codePoints, length * 2);
+      PassayUtils.clear(codePoints);
+      codePoints = grown;
+    }
+    codePoints[length++] = codePoint;
+    for (IncrementalRule.State state : states.values()) {
+      state.append(codePoint, view);
+    }
+  }
+
+
+  /**
+   * Appends each code point of the supplied characters to the password.
+   *
+   * @param  chars  to append
+   */
+  public void append(final CharSequence chars)
+  {
+    PassayUtils.assertNotNullArg(chars, "Characters cannot be null");
+    chars.codePoints().forEach(this::append);
+  }
+
+
+  /**
+   * Deletes the last code point of the password.
+   *
+   * @throws  IllegalStateException  if the password is empty
+   */
+  public void delete()
+  {
+    if (length == 0) {
+      throw new IllegalStateException("Password is empty");
+    }
+    codePoints[--length] = 0;
+    for (IncrementalRule.State state : states.values()) {
+      state.delete();
+    }
+  }
+
+
+  /**
+   * Deletes every code point of the password.
+   */
+  public void clear()
+  {
+    while (length > 0) {
+      delete();
+    }
+  }
+
+
+  /**
+   * Validates the password of this session. The copy of the password that is validated is erased before this method
+   * returns.
+   *
+   * @return  validation result
+   */
+  public ValidationResult validate()
+  {
+    final UnicodeString password = password();
+    final PasswordData passwordData = new PasswordData(
+      username,
+      password,
+      origin,
+      references);
+    try {
+      return validator.validate(passwordData, (rule, data) -> states.get(rule).validate(data));
+    } finally {
+      // the username and references belong to the session and are not erased
+      password.clear();
+    }
+  }
+
+
+  /**
+   * Returns a copy of the password of this session.
+   *
+   * @return  password
+   */
+  private UnicodeString password()
+  {
+    return substring(0, length);
+  }
+
+
+  /**
+   * Returns a copy of the code points of the password between the supplied indexes.
+   *
+   * @param  start  index, inclusive
+   * @param  end  index, exclusive
+   *
+   * @return  substring of the password
+   */
+  private UnicodeString substring(final int start, final int end)
+  {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("Invalid range [" + start + "," + end + ") of length " + length);
+    }
+    final int[] copy = Arrays.copyOfRange(codePoints, start, end);
+    try {
+      return new UnicodeString(copy);
+    } finally {
+      PassayUtils.clear(copy);
+    }
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "validator=" + validator + ", " +
+      "length=" + length + ", " +
+      "states=" + states.values();
+  }
+
+
+  /** View of the code points of this session. */
+  private final class CodePointsView implements IncrementalRule.CodePoints
+  {
+
+
+    @Override
+    public int length()
+    {
+      return length;
+    }
+
+
+    @Override
+    public int codePointAt(final int index)
+    {
+      if (index >= length) {
+        throw new IndexOutOfBoundsException("Invalid index " + index + " of length " + length);
+      }
+      return codePoints[index];
+    }
+
+
+    @Override
+    public UnicodeString substring(final int start, final int end)
+    {
+      return ValidationSession.this.substring(start, end);
+    }
+  }
+}
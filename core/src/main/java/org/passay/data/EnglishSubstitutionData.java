@@ -0,0 +1,54 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.data;
+
+import java.util.Arrays;
+
+/**
+ * English character substitutions.
+ *
+ * @author  Middleware Services
+ */
+public enum EnglishSubstitutionData implements SubstitutionData {
+
+  /**
+   * Leetspeak substitutions of digits and symbols for lower case letters. Each entry is a substitute followed by the
+   * letters it may stand for.
+   */
+  Leetspeak(
+    "0o", "1il", "2z", "3e", "4a", "5s", "6g", "7t", "8b", "9g",
+    "@a", "$s", "!il", "|li", "+t", "(c", "<c", "#h", "%x", "&e");
+
+  /** Empty substitutions. */
+  private static final int[] NO_SUBSTITUTIONS = new int[0];
+
+  /** Sorted substitute code points. */
+  private final int[] substitutes;
+
+  /** Code points that each substitute may stand for. */
+  private final int[][] substitutions;
+
+  /**
+   * Creates new english substitution data.
+   *
+   * @param  entries  each a substitute code point followed by the code points it may stand for
+   */
+  EnglishSubstitutionData(final String... entries)
+  {
+    final String[] sorted = entries.clone();
+    Arrays.sort(sorted, (a, b) -> Integer.compare(a.codePointAt(0), b.codePointAt(0)));
+    substitutes = new int[sorted.length];
+    substitutions = new int[sorted.length][];
+    for (int i = 0; i < sorted.length; i++) {
+      final int[] codePoints = sorted[i].codePoints().toArray();
+      substitutes[i] = codePoints[0];
+      substitutions[i] = Arrays.copyOfRange(codePoints, 1, codePoints.length);
+    }
+  }
+
+  @Override
+  public int[] getSubstitutions(final int codePoint)
+  {
+    final int i = Arrays.binarySearch(substitutes, codePoint);
+    return i >= 0 ? substitutions[i] : NO_SUBSTITUTIONS;
+  }
+}
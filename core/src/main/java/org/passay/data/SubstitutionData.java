@@ -0,0 +1,23 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.data;
+
+/**
+ * Table of characters that are commonly substituted for other characters, such as <code>@</code> for <code>a</code>
+ * or <code>0</code> for <code>o</code>.
+ *
+ * @author  Middleware Services
+ */
+public interface SubstitutionData
+{
+
+
+  /**
+   * Returns the code points that the supplied code point may have been substituted for. The supplied code point itself
+   * is not included.
+   *
+   * @param  codePoint  found in a password
+   *
+   * @return  code points the supplied code point may stand for, never null
+   */
+  int[] getSubstitutions(int codePoint);
+}
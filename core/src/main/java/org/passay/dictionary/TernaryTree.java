@@ -1,20 +1,44 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import org.passay.PassayUtils;
+import org.passay.data.SubstitutionData;
 
 /**
- * Implementation of a ternary tree. Methods are provided for inserting strings and searching for strings. The
- * algorithms in this class are all recursive, and have not been optimized for any particular purpose. Data which is
- * inserted is not sorted before insertion, however data can be inserted beginning with the median of the supplied data.
+ * Implementation of a ternary tree. Methods are provided for inserting strings and searching for strings. Nodes are
+ * stored in parallel arrays of split code points, child indexes and flags rather than as individual objects, and
+ * inserts and searches are iterative, so searching does not allocate and is not limited by the depth of the call stack.
+ * Code points are compared directly; case-insensitive trees compare the simple case folding of each code point. Data
+ * which is inserted is not sorted before insertion, however data can be inserted beginning with the median of the
+ * supplied data. A tree can be written to a binary snapshot with {@link #write(OutputStream)} and loaded again with
+ * {@link #read(FileChannel)}, which avoids rebuilding large trees from their word lists. The number of words is
+ * maintained as words are inserted, and words can be visited with {@link #forEachWord(Consumer)} or
+ * {@link #spliterator()} without collecting them into a list.
  *
  * @author  Middleware Services
  */
@@ -36,11 +60,65 @@ public class TernaryTree
    */
   private static final String[] EMPTY_ARRAY = new String[0];
 
+  /** Index of the null node, the node arrays begin at index 1. */
+  private static final int NIL = 0;
+
+  /** Flag set on nodes that end a word. */
+  private static final int END_OF_WORD = 1;
+
+  /** Initial capacity of the node arrays. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Identifies a ternary tree snapshot, the bytes "PTT" followed by a zero byte. */
+  private static final int SNAPSHOT_MAGIC = 0x50545400;
+
+  /** Version of the snapshot format. */
+  private static final int SNAPSHOT_VERSION = 1;
+
+  /** Snapshot option set on case sensitive trees. */
+  private static final int SNAPSHOT_CASE_SENSITIVE = 1;
+
+  /** Number of ints in the snapshot header: magic, version, options, root and node count. */
+  private static final int SNAPSHOT_HEADER_INTS = 5;
+
+  /** Number of node arrays in a snapshot. */
+  private static final int SNAPSHOT_NODE_ARRAYS = 5;
+
+  /** Size of the buffer used to write snapshots. */
+  private static final int SNAPSHOT_BUFFER_SIZE = 8192;
+
+  /** Number of words below which a bulk build task builds its subtree without forking. */
+  private static final int BUILD_THRESHOLD = 4096;
+
   /** Character comparator. */
   protected final Comparator<String> comparator;
 
+  /** Whether code points are compared with regard to case. */
+  private final boolean caseSensitive;
+
+  /** Split code point of each node. */
+  private int[] split = new int[INITIAL_CAPACITY];
+
+  /** Low child of each node. */
+  private int[] lo = new int[INITIAL_CAPACITY];
+
+  /** Equal child of each node. */
+  private int[] eq = new int[INITIAL_CAPACITY];
+
+  /** High child of each node. */
+  private int[] hi = new int[INITIAL_CAPACITY];
+
+  /** Flags of each node. */
+  private int[] flags = new int[INITIAL_CAPACITY];
+
+  /** Index of the next node to allocate. */
+  private int nextNode = NIL + 1;
+
   /** root node of the ternary tree. */
-  private TernaryNode root;
+  private int root = NIL;
+
+  /** Number of words in the ternary tree. */
+  private int wordCount;
 
 
   /** Creates an empty case-sensitive ternary tree. */
@@ -57,6 +135,7 @@ public class TernaryTree
    */
   public TernaryTree(final boolean caseSensitive)
   {
+    this.caseSensitive = caseSensitive;
     comparator = caseSensitive ? CASE_SENSITIVE_COMPARATOR : CASE_INSENSITIVE_COMPARATOR;
   }
 
@@ -68,8 +147,46 @@ public class TernaryTree
    */
   public void insert(final CharSequence word)
   {
-    if (word != null) {
-      root = insertNode(root, word, 0);
+    if (word == null || word.length() == 0) {
+      return;
+    }
+    int i = 0;
+    int cp = Character.codePointAt(word, i);
+    if (root == NIL) {
+      root = newNode(cp);
+    }
+    int node = root;
+    while (node != NIL) {
+      final int cmp = compare(cp, split[node]);
+      if (cmp < 0) {
+        if (lo[node] == NIL) {
+          final int child = newNode(cp);
+          lo[node] = child;
+        }
+        node = lo[node];
+      } else if (cmp > 0) {
+        if (hi[node] == NIL) {
+          final int child = newNode(cp);
+          hi[node] = child;
+        }
+        node = hi[node];
+      } else {
+        i += Character.charCount(cp);
+        if (i == word.length()) {
+          if ((flags[node] & END_OF_WORD) == 0) {
+            flags[node] |= END_OF_WORD;
+            wordCount++;
+          }
+          node = NIL;
+        } else {
+          cp = Character.codePointAt(word, i);
+          if (eq[node] == NIL) {
+            final int child = newNode(cp);
+            eq[node] = child;
+          }
+          node = eq[node];
+        }
+      }
     }
   }
 
@@ -98,7 +215,77 @@ public class TernaryTree
    */
   public boolean search(final CharSequence word)
   {
-    return searchNode(root, word.codePoints().toArray(), 0);
+    final int length = word.length();
+    boolean found = false;
+    int i = 0;
+    int cp = length > 0 ? Character.codePointAt(word, i) : 0;
+    int node = length > 0 ? root : NIL;
+    while (node != NIL) {
+      final int cmp = compare(cp, split[node]);
+      if (cmp < 0) {
+        node = lo[node];
+      } else if (cmp > 0) {
+        node = hi[node];
+      } else {
+        i += Character.charCount(cp);
+        if (i >= length) {
+          found = (flags[node] & END_OF_WORD) != 0;
+          node = NIL;
+        } else {
+          cp = Character.codePointAt(word, i);
+          node = eq[node];
+        }
+      }
+    }
+    return found;
+  }
+
+
+  /**
+   * Builds a balanced ternary tree from the supplied word list. The tree is built by recursively splitting each range
+   * of words that share a prefix on the median word, rather than by inserting each word in turn, and disjoint ranges
+   * are built in parallel on the supplied pool. The shape and node layout of the resulting tree depend only on the
+   * words, not on the pool or on the order in which tasks complete. The words are read into memory once; if they are
+   * not already in the code point order of the tree they are sorted first, so a word list sorted by its comparator
+   * avoids that cost. The tree is case-sensitive if the comparator of the word list is case-sensitive.
+   *
+   * @param  wordList  list of words
+   * @param  pool  to build the tree with
+   *
+   * @return  ternary tree containing every word in the word list
+   */
+  public static TernaryTree build(final WordList wordList, final ForkJoinPool pool)
+  {
+    PassayUtils.assertNotNullArg(wordList, "Word list cannot be null");
+    PassayUtils.assertNotNullArg(pool, "Pool cannot be null");
+    final boolean caseSensitive = wordList.getComparator().compare("A", "a") != 0;
+    final TernaryTree tree = new TernaryTree(caseSensitive);
+    String[] words = new String[wordList.size()];
+    int count = 0;
+    boolean sorted = true;
+    final Iterator<String> iterator = wordList.iterator();
+    while (iterator.hasNext()) {
+      final String word = iterator.next();
+      if (word != null && !word.isEmpty()) {
+        sorted &= count == 0 || tree.compareWords(words[count - 1], word) <= 0;
+        words[count++] = word;
+      }
+    }
+    if (count < words.length) {
+      words = Arrays.copyOf(words, count);
+    }
+    if (!sorted) {
+      Arrays.sort(words, tree::compareWords);
+    }
+    if (count > 0) {
+      final String[] sortedWords = words;
+      final Fragment fragment = pool.invoke(
+        ForkJoinTask.adapt(() -> buildFragment(caseSensitive, sortedWords, 0, sortedWords.length, 0)));
+      tree.ensureCapacity(fragment.size + NIL + 1);
+      tree.root = tree.append(fragment);
+      tree.wordCount = tree.countWords();
+    }
+    return tree;
   }
 
 
@@ -119,12 +306,13 @@ public class TernaryTree
    */
   public CharSequence[] partialSearch(final CharSequence word)
   {
-    if (comparator == CASE_INSENSITIVE_COMPARATOR) {
+    if (!caseSensitive) {
       throw new UnsupportedOperationException("Partial search is not supported for case insensitive ternary trees");
     }
 
-    final List<CharSequence> matches = partialSearchNode(root, null, "", word, 0);
-    return matches == null ? EMPTY_ARRAY : matches.toArray(new CharSequence[0]);
+    final List<CharSequence> matches = new ArrayList<>();
+    partialSearchNode(root, word.codePoints().toArray(), 0, new StringBuilder(), matches);
+    return matches.isEmpty() ? EMPTY_ARRAY : matches.toArray(new CharSequence[0]);
   }
 
 
@@ -145,28 +333,202 @@ public class TernaryTree
    */
   public CharSequence[] nearSearch(final CharSequence word, final int distance)
   {
-    if (comparator == CASE_INSENSITIVE_COMPARATOR) {
+    if (!caseSensitive) {
       throw new UnsupportedOperationException("Near search is not supported for case insensitive ternary trees");
     }
 
-    final List<CharSequence> matches = nearSearchNode(root, distance, null, "", word, 0);
-    return matches == null ? EMPTY_ARRAY : matches.toArray(new CharSequence[0]);
+    final List<CharSequence> matches = new ArrayList<>();
+    nearSearchNode(root, distance, word.codePoints().toArray(), 0, new StringBuilder(), matches);
+    return matches.isEmpty() ? EMPTY_ARRAY : matches.toArray(new CharSequence[0]);
+  }
+
+
+  /**
+   * Returns the words in this ternary tree whose Levenshtein distance from the supplied word is at most the supplied
+   * distance, in the order of the tree. The tree is walked once while the rows of the edit distance matrix are computed
+   * for each node, which simulates a Levenshtein automaton for the supplied word; subtrees are skipped as soon as every
+   * prefix in them is further than the distance from the word, and a result is only built as a string when its word
+   * matches. Case-insensitive trees compare code points without regard to case and return words with the case in which
+   * they were inserted.
+   *
+   * @param  word  to search for
+   * @param  distance  maximum number of insertions, deletions and substitutions of a match
+   * @param  limit  maximum number of matches to return
+   *
+   * @return  array of matching words
+   *
+   * @throws  IllegalArgumentException  if distance is negative or limit is not positive
+   */
+  public CharSequence[] editDistanceSearch(final CharSequence word, final int distance, final int limit)
+  {
+    if (distance < 0) {
+      throw new IllegalArgumentException("Distance must be greater than or equal to zero");
+    }
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be greater than zero");
+    }
+    final int[] codePoints = word.codePoints().toArray();
+    if (!caseSensitive) {
+      for (int i = 0; i < codePoints.length; i++) {
+        codePoints[i] = foldCase(codePoints[i]);
+      }
+    }
+    final int[][] rows = new int[Math.min(codePoints.length + distance, INITIAL_CAPACITY) + 1][];
+    rows[0] = new int[codePoints.length + 1];
+    for (int i = 0; i < rows[0].length; i++) {
+      rows[0][i] = i;
+    }
+    final List<CharSequence> matches = new ArrayList<>();
+    editDistanceSearchNode(root, 0, codePoints, distance, limit, rows, new StringBuilder(), matches);
+    return matches.isEmpty() ? EMPTY_ARRAY : matches.toArray(new CharSequence[0]);
+  }
+
+
+  /**
+   * Returns the word in this ternary tree that the supplied word matches when any of its code points may stand for one
+   * of their substitutions, for example <code>p@55w0rd</code> matches <code>password</code> with leetspeak
+   * substitutions. Substitutions are expanded while the tree is walked, so only the substitutions that continue a
+   * prefix of some word in the tree are followed, rather than every variant of the supplied word being searched for.
+   *
+   * @param  word  to search for
+   * @param  substitutions  code points that each code point of the word may stand for
+   *
+   * @return  matching word as it was inserted into the tree or null if no word matches
+   */
+  public CharSequence substitutionSearch(final CharSequence word, final SubstitutionData substitutions)
+  {
+    final int[] codePoints = word.codePoints().toArray();
+    final int[] match = new int[codePoints.length];
+    try {
+      return codePoints.length > 0 && substitutionSearchNode(root, codePoints, 0, substitutions, match) ?
+        PassayUtils.toString(match) : null;
+    } finally {
+      Arrays.fill(codePoints, 0);
+      Arrays.fill(match, 0);
+    }
+  }
+
+
+  /**
+   * Returns the shortest word in this ternary tree that a substring of the supplied text matches when any of its code
+   * points may stand for one of their substitutions. If several words of the same length match, the word matched
+   * nearest the start of the text is returned. See {@link #substitutionSearch(CharSequence, SubstitutionData)}.
+   *
+   * @param  text  to search in
+   * @param  maxLength  maximum number of code points in a matching substring
+   * @param  substitutions  code points that each code point of the text may stand for
+   *
+   * @return  matching word as it was inserted into the tree or null if no substring matches
+   */
+  public CharSequence substitutionSubstringSearch(
+    final CharSequence text, final int maxLength, final SubstitutionData substitutions)
+  {
+    final int[] codePoints = text.codePoints().toArray();
+    final int[] path = new int[codePoints.length];
+    final int[] match = new int[codePoints.length];
+    try {
+      int length = Math.min(maxLength, codePoints.length) + 1;
+      for (int start = 0; start < codePoints.length && length > 1; start++) {
+        final int end = substitutionPrefixNode(
+          root, codePoints, start, start, Math.min(codePoints.length, start + length - 1), substitutions, path, match);
+        if (end > 0) {
+          length = end - start;
+        }
+      }
+      return length <= Math.min(maxLength, codePoints.length) ? new String(match, 0, length) : null;
+    } finally {
+      Arrays.fill(codePoints, 0);
+      Arrays.fill(path, 0);
+      Arrays.fill(match, 0);
+    }
+  }
+
+
+  /**
+   * Returns the number of words in this ternary tree. The count is maintained as words are inserted, so no nodes are
+   * traversed.
+   *
+   * @return  number of words
+   */
+  public int size()
+  {
+    return wordCount;
   }
 
 
   /**
    * Returns a list of all the words in this ternary tree. This is a very expensive operation, every node in the tree is
-   * traversed. The returned list cannot be modified.
+   * traversed and every word is copied into the list. The returned list cannot be modified. Use
+   * {@link #forEachWord(Consumer)} or {@link #spliterator()} to visit the words without collecting them.
    *
    * @return  unmodifiable list of words
    */
   public List<CharSequence> getWords()
   {
-    final List<CharSequence> words = traverseNode(root, "", new ArrayList<>());
+    final List<CharSequence> words = new ArrayList<>(wordCount);
+    forEachWord(word -> words.add(word.toString()));
     return Collections.unmodifiableList(words);
   }
 
 
+  /**
+   * Performs the supplied action for every word in this ternary tree, in the same order as {@link #getWords()}. Every
+   * node in the tree is traversed, but no word is copied: the character sequence passed to the action is reused for
+   * the next word, so it is only valid until the action returns. The tree must not be modified during the traversal.
+   *
+   * @param  action  to perform for each word
+   */
+  public void forEachWord(final Consumer<? super CharSequence> action)
+  {
+    PassayUtils.assertNotNullArg(action, "Action cannot be null");
+    final WordCursor cursor = new WordCursor();
+    while (cursor.advance()) {
+      action.accept(cursor.word);
+    }
+  }
+
+
+  /**
+   * Returns a spliterator over the words in this ternary tree, in the same order as {@link #getWords()}. Words are
+   * traversed lazily and each word is returned as a new string. The tree must not be modified while the spliterator is
+   * in use.
+   *
+   * @return  sized spliterator of words
+   */
+  public Spliterator<CharSequence> spliterator()
+  {
+    final WordCursor cursor = new WordCursor();
+    final Iterator<CharSequence> iterator = new Iterator<CharSequence>()
+    {
+      /** Whether the cursor is positioned at a word that has not been returned. */
+      private boolean pending;
+
+      @Override
+      public boolean hasNext()
+      {
+        if (!pending) {
+          pending = cursor.advance();
+        }
+        return pending;
+      }
+
+      @Override
+      public CharSequence next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        pending = false;
+        return cursor.word.toString();
+      }
+    };
+    return Spliterators.spliterator(
+      iterator,
+      wordCount,
+      Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+  }
+
+
   /**
    * Prints an ASCII representation of this ternary tree to the supplied writer. This is a very expensive operation,
    * every node in the tree is traversed. The output produced is hard to read, but it should give an indication of
@@ -202,123 +564,539 @@ public class TernaryTree
 
 
   /**
-   * Recursively inserts a word into the ternary tree one node at a time beginning at the supplied node.
+   * Writes a snapshot of this ternary tree to the supplied output stream. The snapshot consists of a header with a
+   * format version, the node arrays of this tree and a CRC-32 checksum of the preceding bytes. The stream is flushed
+   * but not closed.
    *
-   * @param  node  to put character in
-   * @param  word  to be inserted
-   * @param  index  of character in word
+   * @param  out  to write to
    *
-   * @return  ternary node to insert
+   * @throws  IOException  if an error occurs writing to the stream
    */
-  // CheckStyle:FinalParametersCheck OFF
-  private TernaryNode insertNode(TernaryNode node, final CharSequence word, final int index)
-  // CheckStyle:FinalParametersCheck ON
+  public void write(final OutputStream out) throws IOException
   {
-    if (index < word.length()) {
-      final int[] codePoints = word.codePoints().toArray();
-      final int cp = codePoints[index];
-      if (node == null) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        node = new TernaryNode(cp);
-        // CheckStyle:ParameterAssignmentCheck ON
-      }
+    final CRC32 crc = new CRC32();
+    final CheckedOutputStream checked = new CheckedOutputStream(out, crc);
+    final int[] header = {
+      SNAPSHOT_MAGIC,
+      SNAPSHOT_VERSION,
+      caseSensitive ? SNAPSHOT_CASE_SENSITIVE : 0,
+      root,
+      nextNode,
+    };
+    writeInts(checked, header, header.length);
+    for (int[] array : new int[][] {split, lo, eq, hi, flags}) {
+      writeInts(checked, array, nextNode);
+    }
+    out.write(ByteBuffer.allocate(Long.BYTES).putLong(0, crc.getValue()).array());
+    out.flush();
+  }
 
-      final String split = PassayUtils.toString(node.getSplitChar());
-      final int cmp = comparator.compare(PassayUtils.toString(cp), split);
-      if (cmp < 0) {
-        node.setLokid(insertNode(node.getLokid(), word, index));
-      } else if (cmp > 0) {
-        node.setHikid(insertNode(node.getHikid(), word, index));
-      } else if (index == word.length() - 1) {
-        node.setEndOfWord(true);
-      } else {
-        node.setEqkid(insertNode(node.getEqkid(), word, index + Character.charCount(cp)));
+
+  /**
+   * Reads a ternary tree from a snapshot created by {@link #write(OutputStream)}. The stream is read to its end but not
+   * closed.
+   *
+   * @param  in  to read from
+   *
+   * @return  ternary tree
+   *
+   * @throws  IOException  if an error occurs reading the stream or the snapshot is invalid
+   */
+  public static TernaryTree read(final InputStream in) throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[SNAPSHOT_BUFFER_SIZE];
+    int count;
+    while ((count = in.read(buffer)) != -1) {
+      out.write(buffer, 0, count);
+    }
+    return read(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+
+  /**
+   * Reads a ternary tree from a file containing a snapshot created by {@link #write(OutputStream)}. The file is memory
+   * mapped and its node arrays are copied in bulk, so loading takes time proportional to the size of the file rather
+   * than the number of words. The channel is not closed.
+   *
+   * @param  channel  of the snapshot file
+   *
+   * @return  ternary tree
+   *
+   * @throws  IOException  if an error occurs reading the file or the snapshot is invalid
+   */
+  public static TernaryTree read(final FileChannel channel) throws IOException
+  {
+    return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+  }
+
+
+  /**
+   * Reads a ternary tree from the remaining bytes of the supplied buffer, which must contain exactly one snapshot
+   * created by {@link #write(OutputStream)}. The position of the buffer is not changed.
+   *
+   * @param  buffer  containing the snapshot
+   *
+   * @return  ternary tree
+   *
+   * @throws  IOException  if the snapshot is invalid
+   */
+  public static TernaryTree read(final ByteBuffer buffer) throws IOException
+  {
+    final ByteBuffer snapshot = buffer.slice();
+    final int headerSize = SNAPSHOT_HEADER_INTS * Integer.BYTES;
+    if (snapshot.remaining() < headerSize + Long.BYTES) {
+      throw new IOException("Ternary tree snapshot is truncated");
+    }
+    final IntBuffer header = snapshot.asIntBuffer();
+    if (header.get() != SNAPSHOT_MAGIC) {
+      throw new IOException("Not a ternary tree snapshot");
+    }
+    final int version = header.get();
+    if (version != SNAPSHOT_VERSION) {
+      throw new IOException("Unsupported ternary tree snapshot version " + version);
+    }
+    final int options = header.get();
+    final int root = header.get();
+    final int nodeCount = header.get();
+    final int end = snapshot.limit() - Long.BYTES;
+    if (nodeCount <= NIL || (long) nodeCount * SNAPSHOT_NODE_ARRAYS * Integer.BYTES != end - headerSize) {
+      throw new IOException("Ternary tree snapshot size does not match its header");
+    }
+
+    final CRC32 crc = new CRC32();
+    final ByteBuffer data = snapshot.duplicate();
+    ((Buffer) data).limit(end);
+    crc.update(data);
+    if (crc.getValue() != snapshot.getLong(end)) {
+      throw new IOException("Ternary tree snapshot checksum does not match");
+    }
+
+    final TernaryTree tree = new TernaryTree((options & SNAPSHOT_CASE_SENSITIVE) != 0);
+    final ByteBuffer body = snapshot.duplicate();
+    ((Buffer) body).position(headerSize).limit(end);
+    final IntBuffer nodes = body.asIntBuffer();
+    tree.split = readInts(nodes, nodeCount);
+    tree.lo = readInts(nodes, nodeCount);
+    tree.eq = readInts(nodes, nodeCount);
+    tree.hi = readInts(nodes, nodeCount);
+    tree.flags = readInts(nodes, nodeCount);
+    tree.root = root;
+    tree.nextNode = nodeCount;
+    if (!tree.isConsistent()) {
+      throw new IOException("Ternary tree snapshot contains invalid nodes");
+    }
+    tree.wordCount = tree.countWords();
+    return tree;
+  }
+
+
+  /**
+   * Writes the first count values of the supplied array to the supplied stream in big-endian order.
+   *
+   * @param  out  to write to
+   * @param  values  to write
+   * @param  count  number of values to write
+   *
+   * @throws  IOException  if an error occurs writing to the stream
+   */
+  private static void writeInts(final OutputStream out, final int[] values, final int count) throws IOException
+  {
+    final ByteBuffer buffer = ByteBuffer.allocate(Math.min(SNAPSHOT_BUFFER_SIZE, count * Integer.BYTES));
+    final IntBuffer ints = buffer.asIntBuffer();
+    int i = 0;
+    while (i < count) {
+      final int n = Math.min(ints.capacity(), count - i);
+      ((Buffer) ints).clear();
+      ints.put(values, i, n);
+      out.write(buffer.array(), 0, n * Integer.BYTES);
+      i += n;
+    }
+  }
+
+
+  /**
+   * Reads count values from the supplied buffer.
+   *
+   * @param  ints  to read from
+   * @param  count  number of values to read
+   *
+   * @return  array of values
+   */
+  private static int[] readInts(final IntBuffer ints, final int count)
+  {
+    final int[] values = new int[count];
+    ints.get(values);
+    return values;
+  }
+
+
+  /**
+   * Returns whether every node of this tree has a valid split code point and child indexes that refer to allocated
+   * nodes, and whether those nodes form a tree: no node is the child of more than one node and the root is the child of
+   * no node. The first node of a cycle reachable from the root would have two parents, so a consistent tree is acyclic
+   * and searches on it terminate. The checksum only detects accidental corruption, not a crafted snapshot.
+   *
+   * @return  whether the node arrays are consistent
+   */
+  private boolean isConsistent()
+  {
+    if (root < NIL || root >= nextNode) {
+      return false;
+    }
+    final boolean[] referenced = new boolean[nextNode];
+    referenced[root] = true;
+    for (int i = NIL + 1; i < nextNode; i++) {
+      if (!Character.isValidCodePoint(split[i]) ||
+        !reference(referenced, lo[i]) || !reference(referenced, eq[i]) || !reference(referenced, hi[i]))
+      {
+        return false;
       }
     }
+    return true;
+  }
+
+
+  /**
+   * Marks the supplied child index as referenced.
+   *
+   * @param  referenced  whether each node has been referenced, including the root
+   * @param  child  index of a child node or {@link #NIL}
+   *
+   * @return  whether the index refers to an allocated node that was not referenced before, or is {@link #NIL}
+   */
+  private static boolean reference(final boolean[] referenced, final int child)
+  {
+    if (child == NIL) {
+      return true;
+    }
+    if (child < NIL || child >= referenced.length || referenced[child]) {
+      return false;
+    }
+    referenced[child] = true;
+    return true;
+  }
+
+
+  /**
+   * Returns the simple case folding of the supplied code point, which is equal for any two code points that
+   * {@link String#compareToIgnoreCase(String)} considers equal.
+   *
+   * @param  cp  code point
+   *
+   * @return  folded code point
+   */
+  static int foldCase(final int cp)
+  {
+    return Character.toLowerCase(Character.toUpperCase(cp));
+  }
+
+
+  /**
+   * Compares two code points according to the case sensitivity of this tree.
+   *
+   * @param  cp1  first code point
+   * @param  cp2  second code point
+   *
+   * @return  negative, zero or positive if the first code point is less than, equal to or greater than the second
+   */
+  private int compare(final int cp1, final int cp2)
+  {
+    if (cp1 == cp2) {
+      return 0;
+    }
+    return caseSensitive ? cp1 - cp2 : foldCase(cp1) - foldCase(cp2);
+  }
+
+
+  /**
+   * Allocates a new node for the supplied code point, growing the node arrays if necessary.
+   *
+   * @param  cp  split code point of the node
+   *
+   * @return  index of the new node
+   */
+  private int newNode(final int cp)
+  {
+    ensureCapacity(nextNode + 1);
+    split[nextNode] = cp;
+    return nextNode++;
+  }
+
+
+  /**
+   * Grows the node arrays so that they can hold at least the supplied number of nodes.
+   *
+   * @param  size  number of nodes, including the null node
+   */
+  private void ensureCapacity(final int size)
+  {
+    if (size > split.length) {
+      final int capacity = Math.max(size, split.length * 2);
+      split = Arrays.copyOf(split, capacity);
+      lo = Arrays.copyOf(lo, capacity);
+      eq = Arrays.copyOf(eq, capacity);
+      hi = Arrays.copyOf(hi, capacity);
+      flags = Arrays.copyOf(flags, capacity);
+    }
+  }
+
+
+  /**
+   * Appends the nodes of the supplied tree to the node arrays of this tree.
+   *
+   * @param  fragment  tree to append, may be null
+   *
+   * @return  index of the root of the appended nodes in this tree or {@link #NIL} if the fragment is empty
+   */
+  private int graft(final TernaryTree fragment)
+  {
+    if (fragment == null || fragment.root == NIL) {
+      return NIL;
+    }
+    final int offset = nextNode - (NIL + 1);
+    final int count = fragment.nextNode - (NIL + 1);
+    ensureCapacity(nextNode + count);
+    System.arraycopy(fragment.split, NIL + 1, split, nextNode, count);
+    System.arraycopy(fragment.flags, NIL + 1, flags, nextNode, count);
+    for (int i = NIL + 1; i < fragment.nextNode; i++) {
+      final int node = i + offset;
+      lo[node] = fragment.lo[i] == NIL ? NIL : fragment.lo[i] + offset;
+      eq[node] = fragment.eq[i] == NIL ? NIL : fragment.eq[i] + offset;
+      hi[node] = fragment.hi[i] == NIL ? NIL : fragment.hi[i] + offset;
+    }
+    nextNode += count;
+    return fragment.root + offset;
+  }
+
+
+  /**
+   * Builds the subtree for a range of sorted words that share a prefix. Small ranges are built into their own tree
+   * without forking. Large ranges fork tasks for their low and high subtrees and build their equal subtree in the
+   * current thread.
+   *
+   * @param  caseSensitive  whether the tree is case-sensitive
+   * @param  words  sorted words
+   * @param  from  first word, inclusive
+   * @param  to  last word, exclusive
+   * @param  offset  length in chars of the prefix shared by every word in the range
+   *
+   * @return  fragment containing the words of the range
+   */
+  private static Fragment buildFragment(
+    final boolean caseSensitive, final String[] words, final int from, final int to, final int offset)
+  {
+    final TernaryTree tree = new TernaryTree(caseSensitive);
+    if (to - from < BUILD_THRESHOLD) {
+      tree.root = tree.buildNode(words, from, to, offset);
+      return new Fragment(tree);
+    }
+    final int mid = (from + to) >>> 1;
+    final int start = tree.groupStart(words, from, mid, offset);
+    final int end = tree.groupEnd(words, mid, to, offset);
+    final int next = offset + Character.charCount(words[mid].codePointAt(offset));
+    final int eqFrom = endOfWords(words, start, end, next);
+
+    final ForkJoinTask<Fragment> loTask = from < start ?
+      ForkJoinTask.adapt(() -> buildFragment(caseSensitive, words, from, start, offset)).fork() : null;
+    final ForkJoinTask<Fragment> hiTask = end < to ?
+      ForkJoinTask.adapt(() -> buildFragment(caseSensitive, words, end, to, offset)).fork() : null;
+    final Fragment eqFragment = eqFrom < end ? buildFragment(caseSensitive, words, eqFrom, end, next) : null;
+    return new Fragment(
+      words[start].codePointAt(offset),
+      eqFrom > start,
+      loTask != null ? loTask.join() : null,
+      eqFragment,
+      hiTask != null ? hiTask.join() : null);
+  }
+
+
+  /**
+   * Appends the nodes of the supplied fragment to the node arrays of this tree in the same order that
+   * {@link #buildNode(String[], int, int, int)} allocates them, so the layout of the tree does not depend on which
+   * ranges were built in parallel.
+   *
+   * @param  fragment  to append, may be null
+   *
+   * @return  index of the root of the appended nodes in this tree or {@link #NIL} if the fragment is null
+   */
+  private int append(final Fragment fragment)
+  {
+    if (fragment == null) {
+      return NIL;
+    }
+    if (fragment.tree != null) {
+      return graft(fragment.tree);
+    }
+    final int node = newNode(fragment.splitChar);
+    if (fragment.endOfWord) {
+      flags[node] |= END_OF_WORD;
+    }
+    final int loChild = append(fragment.lokid);
+    lo[node] = loChild;
+    final int eqChild = append(fragment.eqkid);
+    eq[node] = eqChild;
+    final int hiChild = append(fragment.hikid);
+    hi[node] = hiChild;
     return node;
   }
 
 
   /**
-   * Recursively searches for a word in the ternary tree one node at a time beginning at the supplied node.
+   * Builds a balanced subtree for a range of sorted words that share a prefix. The words whose next code point matches
+   * the median word become the root of the subtree, the words before and after them become its low and high subtrees,
+   * and the words that continue past the code point become its equal subtree.
    *
-   * @param  node  to search in
-   * @param  word  to search for
-   * @param  index  of character in word
+   * @param  words  sorted words
+   * @param  from  first word, inclusive
+   * @param  to  last word, exclusive
+   * @param  offset  length in chars of the prefix shared by every word in the range
    *
-   * @return  whether the word was found
+   * @return  index of the root of the subtree or {@link #NIL} if the range is empty
    */
-  // CheckStyle:ReturnCount OFF
-  private boolean searchNode(final TernaryNode node, final int[] word, final int index)
+  private int buildNode(final String[] words, final int from, final int to, final int offset)
   {
-    if (node != null && index < word.length) {
-      final int cp = word[index];
-      final String split = PassayUtils.toString(node.getSplitChar());
-      final int cmp = comparator.compare(PassayUtils.toString(cp), split);
-      if (cmp < 0) {
-        return searchNode(node.getLokid(), word, index);
-      } else if (cmp > 0) {
-        return searchNode(node.getHikid(), word, index);
-      } else if (index == word.length - 1) {
-        return node.isEndOfWord();
-      } else {
-        return searchNode(node.getEqkid(), word, index + Character.charCount(cp));
-      }
+    if (from >= to) {
+      return NIL;
+    }
+    final int mid = (from + to) >>> 1;
+    final int start = groupStart(words, from, mid, offset);
+    final int end = groupEnd(words, mid, to, offset);
+    final int next = offset + Character.charCount(words[mid].codePointAt(offset));
+    final int eqFrom = endOfWords(words, start, end, next);
+    final int node = newNode(words[start].codePointAt(offset));
+    if (eqFrom > start) {
+      flags[node] |= END_OF_WORD;
+    }
+    final int loChild = buildNode(words, from, start, offset);
+    lo[node] = loChild;
+    final int eqChild = buildNode(words, eqFrom, end, next);
+    eq[node] = eqChild;
+    final int hiChild = buildNode(words, end, to, offset);
+    hi[node] = hiChild;
+    return node;
+  }
+
+
+  /**
+   * Returns the index of the first word before the supplied word with the same code point at the supplied offset.
+   *
+   * @param  words  sorted words
+   * @param  from  first word that may be returned
+   * @param  index  of the word
+   * @param  offset  of the code point
+   *
+   * @return  index of the first word of the group
+   */
+  private int groupStart(final String[] words, final int from, final int index, final int offset)
+  {
+    final int cp = words[index].codePointAt(offset);
+    int i = index;
+    while (i > from && compare(words[i - 1].codePointAt(offset), cp) == 0) {
+      i--;
+    }
+    return i;
+  }
+
+
+  /**
+   * Returns the index after the last word after the supplied word with the same code point at the supplied offset.
+   *
+   * @param  words  sorted words
+   * @param  index  of the word
+   * @param  to  index after the last word that may be included
+   * @param  offset  of the code point
+   *
+   * @return  index after the last word of the group
+   */
+  private int groupEnd(final String[] words, final int index, final int to, final int offset)
+  {
+    final int cp = words[index].codePointAt(offset);
+    int i = index + 1;
+    while (i < to && compare(words[i].codePointAt(offset), cp) == 0) {
+      i++;
+    }
+    return i;
+  }
+
+
+  /**
+   * Returns the index of the first word in the supplied range that is longer than the supplied length. Shorter words
+   * sort first, so these are the words that end with the code point of the group.
+   *
+   * @param  words  sorted words
+   * @param  from  first word, inclusive
+   * @param  to  last word, exclusive
+   * @param  length  of the words that end
+   *
+   * @return  index of the first word longer than length
+   */
+  private static int endOfWords(final String[] words, final int from, final int to, final int length)
+  {
+    int i = from;
+    while (i < to && words[i].length() == length) {
+      i++;
+    }
+    return i;
+  }
+
+
+  /**
+   * Compares two words code point by code point according to the case sensitivity of this tree.
+   *
+   * @param  word1  first word
+   * @param  word2  second word
+   *
+   * @return  negative, zero or positive if the first word is less than, equal to or greater than the second
+   */
+  private int compareWords(final String word1, final String word2)
+  {
+    int i = 0;
+    int cmp = 0;
+    while (cmp == 0 && i < word1.length() && i < word2.length()) {
+      final int cp1 = word1.codePointAt(i);
+      final int cp2 = word2.codePointAt(i);
+      cmp = compare(cp1, cp2);
+      i += Character.charCount(cp1);
     }
-    return false;
+    return cmp != 0 ? cmp : Integer.compare(word1.length() - i, word2.length() - i);
   }
-  // CheckStyle:ReturnCount ON
 
 
   /**
    * Recursively searches for a partial word in the ternary tree one node at a time beginning at the supplied node.
    *
    * @param  node  to search in
-   * @param  matches  of partial matches
+   * @param  word  code points to search for
+   * @param  index  of code point in word
    * @param  match  the current word being examined
-   * @param  word  to search for
-   * @param  index  of character in word
-   *
-   * @return  list of matches
+   * @param  matches  of partial matches
    */
-  // CheckStyle:FinalParametersCheck OFF
-  private List<CharSequence> partialSearchNode(final TernaryNode node, List<CharSequence> matches,
-    final CharSequence match, final CharSequence word, final int index)
-  // CheckStyle:FinalParametersCheck ON
+  private void partialSearchNode(
+    final int node, final int[] word, final int index, final StringBuilder match, final List<CharSequence> matches)
   {
-    final int[] codePoints = word.codePoints().toArray();
-    if (node != null && index < word.length()) {
-      final int cp = codePoints[index];
-      final String split = PassayUtils.toString(node.getSplitChar());
-      final int cmp = comparator.compare(PassayUtils.toString(cp), split);
+    if (node != NIL && index < word.length) {
+      final int cp = word[index];
+      final int cmp = compare(cp, split[node]);
       if (cp == '.' || cmp < 0) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = partialSearchNode(node.getLokid(), matches, match, word, index);
-        // CheckStyle:ParameterAssignmentCheck ON
+        partialSearchNode(lo[node], word, index, match, matches);
       }
       if (cp == '.' || cmp == 0) {
-        if (index == word.length() - 1) {
-          if (node.isEndOfWord()) {
-            if (matches == null) {
-              // CheckStyle:ParameterAssignmentCheck OFF
-              matches = new ArrayList<>();
-              // CheckStyle:ParameterAssignmentCheck ON
-            }
-            matches.add(match + split);
+        final int length = match.length();
+        match.appendCodePoint(split[node]);
+        if (index == word.length - 1) {
+          if ((flags[node] & END_OF_WORD) != 0) {
+            matches.add(match.toString());
           }
         } else {
-          // CheckStyle:ParameterAssignmentCheck OFF
-          matches = partialSearchNode(node.getEqkid(), matches, match + split, word, index + Character.charCount(cp));
-          // CheckStyle:ParameterAssignmentCheck ON
+          partialSearchNode(eq[node], word, index + 1, match, matches);
         }
+        match.setLength(length);
       }
       if (cp == '.' || cmp > 0) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = partialSearchNode(node.getHikid(), matches, match, word, index);
-        // CheckStyle:ParameterAssignmentCheck ON
+        partialSearchNode(hi[node], word, index, match, matches);
       }
     }
-    return matches;
   }
 
 
@@ -327,107 +1105,253 @@ public class TernaryTree
    *
    * @param  node  to search in
    * @param  distance  of a valid match, must be > 0
-   * @param  matches  list of near matches
+   * @param  word  code points to search for
+   * @param  index  of code point in word, which is also the number of code points in the current match
    * @param  match  the current word being examined
-   * @param  word  to search for
-   * @param  index  of character in word
-   *
-   * @return  list of matches
+   * @param  matches  list of near matches
    */
-  // CheckStyle:FinalParametersCheck OFF
-  private List<CharSequence> nearSearchNode(final TernaryNode node, final int distance, List<CharSequence> matches,
-    final CharSequence match, final CharSequence word, final int index)
-  // CheckStyle:FinalParametersCheck ON
+  private void nearSearchNode(
+    final int node,
+    final int distance,
+    final int[] word,
+    final int index,
+    final StringBuilder match,
+    final List<CharSequence> matches)
   {
-    if (node != null && distance >= 0) {
+    if (node != NIL && distance >= 0) {
 
-      final int[] codePoints = word.codePoints().toArray();
-      final int cp = index < word.length() ? codePoints[index] : Character.MAX_VALUE;
-      final String split = PassayUtils.toString(node.getSplitChar());
-      final int cmp = comparator.compare(PassayUtils.toString(cp), split);
+      final int cp = index < word.length ? word[index] : Character.MAX_VALUE;
+      final int cmp = compare(cp, split[node]);
 
       if (distance > 0 || cmp < 0) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = nearSearchNode(node.getLokid(), distance, matches, match, word, index);
-        // CheckStyle:ParameterAssignmentCheck ON
+        nearSearchNode(lo[node], distance, word, index, match, matches);
       }
 
-      final String newMatch = match + split;
+      final int length = match.length();
+      match.appendCodePoint(split[node]);
+      final boolean endOfWord = (flags[node] & END_OF_WORD) != 0;
       if (cmp == 0) {
-        if (node.isEndOfWord() && newMatch.length() + distance >= word.length()) {
-          if (matches == null) {
-            // CheckStyle:ParameterAssignmentCheck OFF
-            matches = new ArrayList<>();
-            // CheckStyle:ParameterAssignmentCheck ON
-          }
-          matches.add(newMatch);
+        if (endOfWord && index + 1 + distance >= word.length) {
+          matches.add(match.toString());
         }
-
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = nearSearchNode(node.getEqkid(), distance, matches, newMatch, word, index + Character.charCount(cp));
-        // CheckStyle:ParameterAssignmentCheck ON
+        nearSearchNode(eq[node], distance, word, index + 1, match, matches);
       } else {
-        if (node.isEndOfWord() && distance - 1 >= 0 && newMatch.length() + distance - 1 >= word.length()) {
-          if (matches == null) {
-            // CheckStyle:ParameterAssignmentCheck OFF
-            matches = new ArrayList<>();
-            // CheckStyle:ParameterAssignmentCheck ON
-          }
-          matches.add(newMatch);
+        if (endOfWord && distance - 1 >= 0 && index + 1 + distance - 1 >= word.length) {
+          matches.add(match.toString());
         }
-
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = nearSearchNode(
-          node.getEqkid(), distance - 1, matches, newMatch, word, index + Character.charCount(cp));
-        // CheckStyle:ParameterAssignmentCheck ON
+        nearSearchNode(eq[node], distance - 1, word, index + 1, match, matches);
       }
+      match.setLength(length);
 
       if (distance > 0 || cmp > 0) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        matches = nearSearchNode(node.getHikid(), distance, matches, match, word, index);
-        // CheckStyle:ParameterAssignmentCheck ON
+        nearSearchNode(hi[node], distance, word, index, match, matches);
       }
     }
-    return matches;
   }
 
 
   /**
-   * Recursively traverses every node in the ternary tree one node at a time beginning at the supplied node. The result
-   * is a string representing every word, which is delimited by the LINE_SEPARATOR character.
+   * Searches the supplied node and its low and high siblings for words within the supplied edit distance. The row of
+   * the edit distance matrix for each node is computed from the row of its parent, limited to the band of cells within
+   * the distance of the diagonal, and the equal subtree of a node is only searched if some cell of its row is within
+   * the distance.
    *
-   * @param  node  to begin traversing
-   * @param  s  string of words found at the supplied node
-   * @param  words  which will be returned (recursive function)
+   * @param  first  node to search
+   * @param  depth  number of code points in the current match, which is the index of the parent row
+   * @param  word  code points to search for, case folded for case-insensitive trees
+   * @param  distance  maximum edit distance of a match
+   * @param  limit  maximum number of matches
+   * @param  rows  of the edit distance matrix, indexed by depth
+   * @param  match  the current word being examined
+   * @param  matches  list of matches
+   *
+   * @return  rows of the edit distance matrix, which may have been reallocated
+   */
+  // CheckStyle:ParameterNumber OFF
+  private int[][] editDistanceSearchNode(
+    final int first,
+    final int depth,
+    final int[] word,
+    final int distance,
+    final int limit,
+    final int[][] rows,
+    final StringBuilder match,
+    final List<CharSequence> matches)
+  // CheckStyle:ParameterNumber ON
+  {
+    int[][] matrix = rows;
+    int node = first;
+    while (node != NIL && matches.size() < limit) {
+      matrix = editDistanceSearchNode(lo[node], depth, word, distance, limit, matrix, match, matches);
+      if (matches.size() >= limit) {
+        break;
+      }
+      if (depth + 1 == matrix.length) {
+        matrix = Arrays.copyOf(matrix, matrix.length * 2);
+      }
+      if (matrix[depth + 1] == null) {
+        matrix[depth + 1] = new int[word.length + 1];
+      }
+      final int[] previous = matrix[depth];
+      final int[] row = matrix[depth + 1];
+      final int cp = caseSensitive ? split[node] : foldCase(split[node]);
+      // only cells within distance of the diagonal can be within distance, cells outside the band are capped
+      final int far = distance + 1;
+      final int from = Math.max(1, depth + 1 - distance);
+      final int to = (int) Math.min(word.length, (long) depth + 1 + distance);
+      row[0] = Math.min(previous[0] + 1, far);
+      row[from - 1] = from == 1 ? row[0] : far;
+      int min = from == 1 ? row[0] : far;
+      for (int j = from; j <= to; j++) {
+        final int substitution = previous[j - 1] + (word[j - 1] == cp ? 0 : 1);
+        row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+        min = Math.min(min, row[j]);
+      }
+      if (to < word.length) {
+        row[to + 1] = far;
+      }
+
+      final int length = match.length();
+      match.appendCodePoint(split[node]);
+      if ((flags[node] & END_OF_WORD) != 0 && to == word.length && row[word.length] <= distance) {
+        matches.add(match.toString());
+      }
+      if (min <= distance) {
+        matrix = editDistanceSearchNode(eq[node], depth + 1, word, distance, limit, matrix, match, matches);
+      }
+      match.setLength(length);
+      node = hi[node];
+    }
+    return matrix;
+  }
+
+
+  /**
+   * Returns the node among the supplied node and its low and high descendants whose split code point is equal to the
+   * supplied code point.
    *
-   * @return  list of strings containing all words from the supplied node
+   * @param  first  node to begin at
+   * @param  cp  code point to find
+   *
+   * @return  matching node or {@link #NIL}
    */
-  // CheckStyle:FinalParametersCheck OFF
-  private List<CharSequence> traverseNode(final TernaryNode node, final String s, List<CharSequence> words)
-  // CheckStyle:FinalParametersCheck ON
+  private int findNode(final int first, final int cp)
   {
-    if (node != null) {
+    int node = first;
+    while (node != NIL) {
+      final int cmp = compare(cp, split[node]);
+      if (cmp < 0) {
+        node = lo[node];
+      } else if (cmp > 0) {
+        node = hi[node];
+      } else {
+        break;
+      }
+    }
+    return node;
+  }
 
-      // CheckStyle:ParameterAssignmentCheck OFF
-      words = traverseNode(node.getLokid(), s, words);
-      // CheckStyle:ParameterAssignmentCheck ON
 
-      final String split = PassayUtils.toString(node.getSplitChar());
-      if (node.getEqkid() != null) {
-        // CheckStyle:ParameterAssignmentCheck OFF
-        words = traverseNode(node.getEqkid(), s + split, words);
-        // CheckStyle:ParameterAssignmentCheck ON
+  /**
+   * Recursively searches for a word whose code points from the supplied index, or their substitutions, match the
+   * words below the supplied node.
+   *
+   * @param  first  node to search in
+   * @param  word  code points to search for
+   * @param  index  of code point in word
+   * @param  substitutions  code points that each code point of the word may stand for
+   * @param  match  split code points of the matching path
+   *
+   * @return  whether a word was found
+   */
+  private boolean substitutionSearchNode(
+    final int first, final int[] word, final int index, final SubstitutionData substitutions, final int[] match)
+  {
+    final int[] candidates = substitutions.getSubstitutions(word[index]);
+    boolean found = false;
+    for (int i = -1; !found && i < candidates.length; i++) {
+      final int node = findNode(first, i < 0 ? word[index] : candidates[i]);
+      if (node != NIL) {
+        match[index] = split[node];
+        if (index == word.length - 1) {
+          found = (flags[node] & END_OF_WORD) != 0;
+        } else {
+          found = substitutionSearchNode(eq[node], word, index + 1, substitutions, match);
+        }
       }
+    }
+    return found;
+  }
+
 
-      if (node.isEndOfWord()) {
-        words.add(s + split);
+  /**
+   * Recursively searches for the shortest word that the code points of the supplied text from the supplied start, or
+   * their substitutions, match. Branches are only followed while they can produce a shorter match than the best found
+   * so far.
+   *
+   * @param  first  node to search in
+   * @param  text  code points to search in
+   * @param  start  of the substring in text
+   * @param  index  of code point in text
+   * @param  maxEnd  maximum end index, exclusive, of a match
+   * @param  substitutions  code points that each code point of the text may stand for
+   * @param  path  split code points of the current path
+   * @param  match  split code points of the best match
+   *
+   * @return  end index, exclusive, of the shortest match or -1 if no match ends at or before maxEnd
+   */
+  // CheckStyle:ParameterNumber OFF
+  private int substitutionPrefixNode(
+    final int first,
+    final int[] text,
+    final int start,
+    final int index,
+    final int maxEnd,
+    final SubstitutionData substitutions,
+    final int[] path,
+    final int[] match)
+  // CheckStyle:ParameterNumber ON
+  {
+    final int[] candidates = substitutions.getSubstitutions(text[index]);
+    int best = -1;
+    int limit = maxEnd;
+    for (int i = -1; i < candidates.length && index < limit; i++) {
+      final int node = findNode(first, i < 0 ? text[index] : candidates[i]);
+      if (node != NIL) {
+        path[index - start] = split[node];
+        if ((flags[node] & END_OF_WORD) != 0) {
+          // no other match from this index can be shorter
+          System.arraycopy(path, 0, match, 0, index + 1 - start);
+          best = index + 1;
+          limit = index;
+        } else if (index + 1 < limit) {
+          final int end = substitutionPrefixNode(
+            eq[node], text, start, index + 1, limit, substitutions, path, match);
+          if (end > 0) {
+            best = end;
+            limit = end - 1;
+          }
+        }
       }
+    }
+    return best;
+  }
+
 
-      // CheckStyle:ParameterAssignmentCheck OFF
-      words = traverseNode(node.getHikid(), s, words);
-      // CheckStyle:ParameterAssignmentCheck ON
+  /**
+   * Returns the number of nodes in this tree that end a word.
+   *
+   * @return  number of words
+   */
+  private int countWords()
+  {
+    int count = 0;
+    for (int i = NIL + 1; i < nextNode; i++) {
+      if ((flags[i] & END_OF_WORD) != 0) {
+        count++;
+      }
     }
-    return words;
+    return count;
   }
 
 
@@ -442,23 +1366,23 @@ public class TernaryTree
    * @param  buffer  the buffer to which the output is printed
    */
   private void printNode(
-    final TernaryNode node, final String s, final int depth,
+    final int node, final String s, final int depth,
     final boolean fullPath, final StringBuilder buffer)
   {
-    if (node != null) {
-      printNode(node.getLokid(), s + "  /", depth + 1, fullPath, buffer);
+    if (node != NIL) {
+      printNode(lo[node], s + "  /", depth + 1, fullPath, buffer);
 
-      final int cp = node.getSplitChar();
-      if (node.getEqkid() != null) {
-        final String suffix = node.isEndOfWord() ? "=" : "-";
-        printNode(node.getEqkid(), s + '-' + PassayUtils.toString(cp) + suffix, depth + 1, fullPath, buffer);
+      final int cp = split[node];
+      if (eq[node] != NIL) {
+        final String suffix = (flags[node] & END_OF_WORD) != 0 ? "=" : "-";
+        printNode(eq[node], s + '-' + PassayUtils.toString(cp) + suffix, depth + 1, fullPath, buffer);
       } else {
         final int i = fullPath ? -1 : Math.max(s.lastIndexOf("  /"), s.lastIndexOf("  \\"));
         final String line = i < 0 ? s : s.substring(0, i).replaceAll("\\.", " ") + s.substring(i);
         buffer.append(line).append('-').append(PassayUtils.toString(cp)).append(TernaryTree.LINE_SEPARATOR);
       }
 
-      printNode(node.getHikid(), s + "  \\", depth + 1, fullPath, buffer);
+      printNode(hi[node], s + "  \\", depth + 1, fullPath, buffer);
     }
   }
 
@@ -471,16 +1395,16 @@ public class TernaryTree
    * @return a histogram of how many words end at each depth
    */
   private Map<Integer, Integer> getNodeStats(
-    final TernaryNode node, final int depth,
+    final int node, final int depth,
     final Map<Integer, Integer> histogram)
   {
-    if (node != null) {
-      if (node.isEndOfWord()) {
+    if (node != NIL) {
+      if ((flags[node] & END_OF_WORD) != 0) {
         histogram.put(depth, histogram.getOrDefault(depth, 0) + 1);
       }
-      getNodeStats(node.getLokid(), depth + 1, histogram);
-      getNodeStats(node.getEqkid(), depth + 1, histogram);
-      getNodeStats(node.getHikid(), depth + 1, histogram);
+      getNodeStats(lo[node], depth + 1, histogram);
+      getNodeStats(eq[node], depth + 1, histogram);
+      getNodeStats(hi[node], depth + 1, histogram);
     }
     return histogram;
   }
@@ -494,4 +1418,175 @@ public class TernaryTree
   {
     return getNodeStats(root, 0, new HashMap<>());
   }
+
+
+  /**
+   * In-order traversal of the words of this tree that uses an explicit stack of nodes rather than recursion. Each
+   * stack frame holds a node, the next step to take at that node and the length of the prefix above the node.
+   */
+  private final class WordCursor
+  {
+
+    /** Step that visits the low subtree of a node. */
+    private static final int VISIT_LO = 0;
+
+    /** Step that visits the equal subtree of a node. */
+    private static final int VISIT_EQ = 1;
+
+    /** Step that emits the word ending at a node, after which the node is replaced with its high subtree. */
+    private static final int VISIT_WORD = 2;
+
+    /** Current word, valid when {@link #advance()} returns true. */
+    private final StringBuilder word = new StringBuilder();
+
+    /** Node of each stack frame. */
+    private int[] nodes = new int[INITIAL_CAPACITY];
+
+    /** Next step of each stack frame. */
+    private int[] steps = new int[INITIAL_CAPACITY];
+
+    /** Prefix length of each stack frame. */
+    private int[] prefixes = new int[INITIAL_CAPACITY];
+
+    /** Number of stack frames. */
+    private int depth;
+
+
+    /** Creates a new word cursor positioned before the first word. */
+    WordCursor()
+    {
+      push(root, 0);
+    }
+
+
+    /**
+     * Advances this cursor to the next word.
+     *
+     * @return  whether the cursor is positioned at a word or false if every word has been visited
+     */
+    boolean advance()
+    {
+      while (depth > 0) {
+        final int top = depth - 1;
+        final int node = nodes[top];
+        final int prefix = prefixes[top];
+        switch (steps[top]++) {
+
+        case VISIT_LO:
+          push(lo[node], prefix);
+          break;
+
+        case VISIT_EQ:
+          word.setLength(prefix);
+          word.appendCodePoint(split[node]);
+          push(eq[node], word.length());
+          break;
+
+        case VISIT_WORD:
+          if ((flags[node] & END_OF_WORD) != 0) {
+            word.setLength(prefix + Character.charCount(split[node]));
+            return true;
+          }
+          break;
+
+        default:
+          depth--;
+          push(hi[node], prefix);
+          break;
+        }
+      }
+      return false;
+    }
+
+
+    /**
+     * Pushes a frame for the supplied node onto the stack, unless the node is {@link #NIL}.
+     *
+     * @param  node  to push
+     * @param  prefix  length of the prefix above the node
+     */
+    private void push(final int node, final int prefix)
+    {
+      if (node == NIL) {
+        return;
+      }
+      if (depth == nodes.length) {
+        nodes = Arrays.copyOf(nodes, depth * 2);
+        steps = Arrays.copyOf(steps, depth * 2);
+        prefixes = Arrays.copyOf(prefixes, depth * 2);
+      }
+      nodes[depth] = node;
+      steps[depth] = VISIT_LO;
+      prefixes[depth] = prefix;
+      depth++;
+    }
+  }
+
+
+  /**
+   * Subtree built by a bulk build task. A fragment either holds the nodes of a range that was built without forking,
+   * or a single node whose children were built by separate tasks.
+   */
+  private static final class Fragment
+  {
+
+    /** Nodes of a range built without forking, null for a single node. */
+    private final TernaryTree tree;
+
+    /** Split code point of a single node. */
+    private final int splitChar;
+
+    /** Whether a single node ends a word. */
+    private final boolean endOfWord;
+
+    /** Low child of a single node. */
+    private final Fragment lokid;
+
+    /** Equal child of a single node. */
+    private final Fragment eqkid;
+
+    /** High child of a single node. */
+    private final Fragment hikid;
+
+    /** Total number of nodes in this fragment. */
+    private final int size;
+
+
+    /**
+     * Creates a fragment for the nodes of the supplied tree.
+     *
+     * @param  t  tree built without forking
+     */
+    Fragment(final TernaryTree t)
+    {
+      tree = t;
+      splitChar = 0;
+      endOfWord = false;
+      lokid = null;
+      eqkid = null;
+      hikid = null;
+      size = t.nextNode - (NIL + 1);
+    }
+
+
+    /**
+     * Creates a fragment for a single node.
+     *
+     * @param  cp  split code point
+     * @param  end  whether the node ends a word
+     * @param  l  low child
+     * @param  e  equal child
+     * @param  h  high child
+     */
+    Fragment(final int cp, final boolean end, final Fragment l, final Fragment e, final Fragment h)
+    {
+      tree = null;
+      splitChar = cp;
+      endOfWord = end;
+      lokid = l;
+      eqkid = e;
+      hikid = h;
+      size = 1 + (l != null ? l.size : 0) + (e != null ? e.size : 0) + (h != null ? h.size : 0);
+    }
+  }
 }
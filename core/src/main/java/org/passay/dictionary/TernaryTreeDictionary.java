@@ -1,13 +1,19 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.passay.PassayUtils;
+import org.passay.data.SubstitutionData;
 import org.passay.dictionary.sort.ArraysSort;
 
 /**
@@ -70,6 +76,22 @@ public class TernaryTreeDictionary implements Dictionary
   }
 
 
+  /**
+   * Creates a new balanced tree dictionary from the supplied {@link WordList}, building the tree in parallel on the
+   * supplied pool. Words that are not in the code point order of the tree are sorted in memory before the tree is
+   * built, so a sorted word list avoids that cost. See {@link TernaryTree#build(WordList, ForkJoinPool)}.
+   *
+   * @param  wordList  list of words used to back the dictionary. This list is used exclusively to initialize the
+   *                   internal {@link TernaryTree} used by the dictionary, and may be safely discarded after dictionary
+   *                   creation.
+   * @param  pool  to build the tree with, for example {@link ForkJoinPool#commonPool()}
+   */
+  public TernaryTreeDictionary(final WordList wordList, final ForkJoinPool pool)
+  {
+    tree = TernaryTree.build(wordList, pool);
+  }
+
+
   /**
    * Creates a dictionary that uses the supplied ternary tree for dictionary searches.
    *
@@ -84,7 +106,7 @@ public class TernaryTreeDictionary implements Dictionary
   @Override
   public long size()
   {
-    return tree == null ? 0 : tree.getWords().size();
+    return tree == null ? 0 : tree.size();
   }
 
 
@@ -124,6 +146,55 @@ public class TernaryTreeDictionary implements Dictionary
   }
 
 
+  /**
+   * Returns the words whose Levenshtein distance from the supplied word is at most the supplied distance. This search
+   * is supported for both case-sensitive and case-insensitive dictionaries. See
+   * {@link TernaryTree#editDistanceSearch}.
+   *
+   * @param  word  to search for
+   * @param  distance  maximum number of insertions, deletions and substitutions of a match
+   * @param  limit  maximum number of matches to return
+   *
+   * @return  array of matching words
+   */
+  public CharSequence[] editDistanceSearch(final CharSequence word, final int distance, final int limit)
+  {
+    return tree.editDistanceSearch(word, distance, limit);
+  }
+
+
+  /**
+   * Returns the dictionary word that the supplied word matches when its code points may stand for their substitutions.
+   * See {@link TernaryTree#substitutionSearch}.
+   *
+   * @param  word  to search for
+   * @param  substitutions  code points that each code point of the word may stand for
+   *
+   * @return  matching dictionary word or null
+   */
+  public CharSequence substitutionSearch(final CharSequence word, final SubstitutionData substitutions)
+  {
+    return tree.substitutionSearch(word, substitutions);
+  }
+
+
+  /**
+   * Returns the shortest dictionary word that a substring of the supplied text matches when its code points may stand
+   * for their substitutions. See {@link TernaryTree#substitutionSubstringSearch}.
+   *
+   * @param  text  to search in
+   * @param  maxLength  maximum number of code points in a matching substring
+   * @param  substitutions  code points that each code point of the text may stand for
+   *
+   * @return  matching dictionary word or null
+   */
+  public CharSequence substitutionSubstringSearch(
+    final CharSequence text, final int maxLength, final SubstitutionData substitutions)
+  {
+    return tree.substitutionSubstringSearch(text, maxLength, substitutions);
+  }
+
+
   /**
    * Returns the underlying ternary tree used by this dictionary.
    *
@@ -159,6 +230,8 @@ public class TernaryTreeDictionary implements Dictionary
       boolean print = false;
       boolean printPath = false;
       boolean stats = false;
+      String snapshot = null;
+      String writeSnapshot = null;
 
       // operation parameters
       String word = null;
@@ -169,6 +242,8 @@ public class TernaryTreeDictionary implements Dictionary
           useMedian = true;
         } else if ("-ci".equals(args[i])) {
           caseSensitive = false;
+        } else if ("-t".equals(args[i])) {
+          snapshot = args[++i];
         } else if ("-s".equals(args[i])) {
           search = true;
           word = args[++i];
@@ -185,6 +260,8 @@ public class TernaryTreeDictionary implements Dictionary
           printPath = true;
         } else if ("-st".equals(args[i])) {
           stats = true;
+        } else if ("-w".equals(args[i])) {
+          writeSnapshot = args[++i];
         } else if ("-h".equals(args[i])) {
           throw new ArrayIndexOutOfBoundsException();
         } else {
@@ -193,11 +270,18 @@ public class TernaryTreeDictionary implements Dictionary
       }
 
       // insert data
-      final ArrayWordList awl = WordLists.createFromReader(
-        files.toArray(new FileReader[0]),
-        caseSensitive,
-        new ArraysSort());
-      final TernaryTreeDictionary dict = new TernaryTreeDictionary(awl, useMedian);
+      final TernaryTreeDictionary dict;
+      if (snapshot != null) {
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "r")) {
+          dict = new TernaryTreeDictionary(TernaryTree.read(file.getChannel()));
+        }
+      } else {
+        final ArrayWordList awl = WordLists.createFromReader(
+          files.toArray(new FileReader[0]),
+          caseSensitive,
+          new ArraysSort());
+        dict = new TernaryTreeDictionary(awl, useMedian);
+      }
 
       // perform operation
       if (search) {
@@ -227,18 +311,26 @@ public class TernaryTreeDictionary implements Dictionary
       } else if (stats) {
         System.out.println("word path depths histogram:");
         System.out.println(dict.getTernaryTree().getNodeStats());
+      } else if (writeSnapshot != null) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(writeSnapshot))) {
+          dict.getTernaryTree().write(out);
+        }
+        System.out.printf("Wrote ternary tree snapshot to %s%n", writeSnapshot);
       } else {
         throw new ArrayIndexOutOfBoundsException();
       }
     } catch (ArrayIndexOutOfBoundsException e) {
       System.out.println("Usage: java " + TernaryTreeDictionary.class.getName());
       System.out.println("            <dict1> [... <dictN>] [options] <operation>");
+      System.out.println("        or: -t <snapshot> [options] <operation>");
       System.out.println();
       System.out.println("Where <dict1>...<dictN> are files containing dictionary words.");
       System.out.println();
       System.out.println("Options:");
       System.out.println("    -m  insert dictionary using its median");
       System.out.println("    -ci make search case-insensitive");
+      System.out.println("    -t  <snapshot>");
+      System.out.println("        load the dictionary from a ternary tree snapshot instead of word lists");
       System.out.println();
       System.out.println("Operations:");
       System.out.println("    -s  <word>");
@@ -250,6 +342,8 @@ public class TernaryTreeDictionary implements Dictionary
       System.out.println("    -p  print the entire dictionary in tree form, path suffixes only");
       System.out.println("    -pp print the entire dictionary in tree form, full paths");
       System.out.println("    -st print the tree node depth statistics");
+      System.out.println("    -w  <snapshot>");
+      System.out.println("        write the dictionary to a ternary tree snapshot");
       System.out.println("    -h  print this help message");
       System.exit(1);
     }
@@ -0,0 +1,376 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.passay.PassayUtils;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Sorts word lists that are too large to be held in memory, such as password leak corpora, into a single sorted list
+ * of unique words suitable for {@link org.passay.dictionary.FileWordList}. Words are read one per line into runs of
+ * bounded size, each run is sorted, de-duplicated and spilled to a temporary file, and the runs are then merged with a
+ * k-way merge. Words that compare equal under the comparator are written once, so a case-insensitive sort keeps only
+ * the first of the words that differ in case. Empty lines are ignored.
+ *
+ * @author  Middleware Services
+ */
+public class ExternalMergeSort
+{
+
+  /** Default maximum number of characters held in memory for a single run. */
+  public static final int DEFAULT_RUN_SIZE = 1 << 26;
+
+  /** Estimate of the memory used by a word in addition to its characters, in characters. */
+  private static final int WORD_OVERHEAD = 32;
+
+  /** Size of the buffers used to read and write run files. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Comparator to sort with. */
+  private final Comparator<CharSequence> comparator;
+
+  /** Sorts each run in memory. */
+  private final ArraySorter sorter;
+
+  /** Maximum number of characters held in memory for a single run. */
+  private final long runSize;
+
+  /** Directory to write run files to, or null for the default temporary directory. */
+  private final Path tempDirectory;
+
+
+  /**
+   * Creates a new case-sensitive external merge sort that sorts runs of {@link #DEFAULT_RUN_SIZE} characters with
+   * {@link ParallelArraysSort} and writes its run files to the default temporary directory.
+   */
+  public ExternalMergeSort()
+  {
+    this(WordLists.CASE_SENSITIVE_COMPARATOR);
+  }
+
+
+  /**
+   * Creates a new external merge sort that sorts runs of {@link #DEFAULT_RUN_SIZE} characters with
+   * {@link ParallelArraysSort} and writes its run files to the default temporary directory.
+   *
+   * @param  c  comparator to sort and de-duplicate with
+   */
+  public ExternalMergeSort(final Comparator<CharSequence> c)
+  {
+    this(c, new ParallelArraysSort(), DEFAULT_RUN_SIZE, null);
+  }
+
+
+  /**
+   * Creates a new external merge sort.
+   *
+   * @param  c  comparator to sort and de-duplicate with
+   * @param  s  sorts each run in memory
+   * @param  size  maximum number of characters held in memory for a single run
+   * @param  directory  to write run files to, or null for the default temporary directory
+   */
+  public ExternalMergeSort(
+    final Comparator<CharSequence> c, final ArraySorter s, final long size, final Path directory)
+  {
+    comparator = PassayUtils.assertNotNullArg(c, "Comparator cannot be null");
+    sorter = PassayUtils.assertNotNullArg(s, "Sorter cannot be null");
+    if (size <= 0) {
+      throw new IllegalArgumentException("Run size must be greater than zero");
+    }
+    runSize = size;
+    tempDirectory = directory;
+  }
+
+
+  /**
+   * Sorts the words of the supplied file into the supplied output file. Both files are encoded in UTF-8.
+   *
+   * @param  input  file containing words, one per line
+   * @param  output  file to write the sorted unique words to, one per line
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading, writing or spilling words
+   */
+  public long sort(final Path input, final Path output) throws IOException
+  {
+    PassayUtils.assertNotNullArg(input, "Input cannot be null");
+    PassayUtils.assertNotNullArg(output, "Output cannot be null");
+    try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+         Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      return sort(new Reader[] {reader}, writer);
+    }
+  }
+
+
+  /**
+   * Sorts the words read from the supplied readers and writes them to the supplied writer, one per line and each
+   * terminated by a newline.
+   * <p>
+   * This method does <em>not</em> close the readers or the writer.
+   *
+   * @param  readers  to read words from, one per line
+   * @param  writer  to write the sorted unique words to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading, writing or spilling words
+   */
+  public long sort(final Reader[] readers, final Writer writer) throws IOException
+  {
+    PassayUtils.assertNotNullArg(readers, "Readers cannot be null");
+    PassayUtils.assertNotNullArg(writer, "Writer cannot be null");
+    final List<Path> runs = new ArrayList<>();
+    try {
+      final List<String> words = new ArrayList<>();
+      long chars = 0;
+      for (Reader reader : readers) {
+        final BufferedReader bufferedReader = buffer(reader);
+        String word;
+        while ((word = bufferedReader.readLine()) != null) {
+          if (!word.isEmpty()) {
+            words.add(word);
+            chars += word.length() + WORD_OVERHEAD;
+            if (chars >= runSize) {
+              runs.add(spill(sortRun(words)));
+              words.clear();
+              chars = 0;
+            }
+          }
+        }
+      }
+      final String[] last = sortRun(words);
+      words.clear();
+      if (runs.isEmpty()) {
+        return write(last, writer);
+      }
+      if (last.length > 0) {
+        runs.add(spill(last));
+      }
+      return merge(runs, writer);
+    } finally {
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+
+  /**
+   * Returns the supplied reader if it is buffered, otherwise a buffered reader that wraps it.
+   *
+   * @param  reader  to buffer
+   *
+   * @return  buffered reader
+   */
+  private static BufferedReader buffer(final Reader reader)
+  {
+    PassayUtils.assertNotNullArg(reader, "Reader cannot be null");
+    return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+  }
+
+
+  /**
+   * Sorts the supplied words and removes words that compare equal to their predecessor.
+   *
+   * @param  words  to sort
+   *
+   * @return  sorted unique words
+   */
+  private String[] sortRun(final List<String> words)
+  {
+    final String[] array = words.toArray(new String[0]);
+    sorter.sort(array, comparator);
+    int size = 0;
+    for (String word : array) {
+      if (size == 0 || comparator.compare(array[size - 1], word) != 0) {
+        array[size++] = word;
+      }
+    }
+    final String[] unique = new String[size];
+    System.arraycopy(array, 0, unique, 0, size);
+    return unique;
+  }
+
+
+  /**
+   * Writes the supplied sorted run to a new temporary file.
+   *
+   * @param  run  sorted unique words
+   *
+   * @return  run file
+   *
+   * @throws  IOException  if the run file cannot be written
+   */
+  private Path spill(final String[] run) throws IOException
+  {
+    final Path file = tempDirectory != null
+      ? Files.createTempFile(tempDirectory, "passay-run", ".txt")
+      : Files.createTempFile("passay-run", ".txt");
+    try (Writer writer = new BufferedWriter(
+      new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      write(run, writer);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    return file;
+  }
+
+
+  /**
+   * Merges the supplied run files into the supplied writer, writing words that compare equal once. Equal words are
+   * taken from the earliest run, which preserves the order of the input.
+   *
+   * @param  runs  sorted run files
+   * @param  writer  to write the merged words to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if an error occurs reading the runs or writing the words
+   */
+  private long merge(final List<Path> runs, final Writer writer) throws IOException
+  {
+    final PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), (r1, r2) -> {
+      final int result = comparator.compare(r1.word, r2.word);
+      return result != 0 ? result : Integer.compare(r1.index, r2.index);
+    });
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        final Run run = new Run(i, runs.get(i));
+        if (run.next()) {
+          queue.add(run);
+        } else {
+          run.close();
+        }
+      }
+      long count = 0;
+      String previous = null;
+      while (!queue.isEmpty()) {
+        final Run run = queue.poll();
+        if (previous == null || comparator.compare(previous, run.word) != 0) {
+          previous = run.word;
+          writer.write(previous);
+          writer.write('\n');
+          count++;
+        }
+        if (run.next()) {
+          queue.add(run);
+        } else {
+          run.close();
+        }
+      }
+      writer.flush();
+      return count;
+    } finally {
+      for (Run run : queue) {
+        try {
+          run.close();
+        } catch (IOException e) {
+          // the run file is deleted regardless, report the original exception
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Writes the supplied words, one per line.
+   *
+   * @param  words  to write
+   * @param  writer  to write to
+   *
+   * @return  number of words written
+   *
+   * @throws  IOException  if the words cannot be written
+   */
+  private static long write(final String[] words, final Writer writer) throws IOException
+  {
+    for (String word : words) {
+      writer.write(word);
+      writer.write('\n');
+    }
+    writer.flush();
+    return words.length;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "comparator=" + comparator + ", " +
+      "sorter=" + sorter + ", " +
+      "runSize=" + runSize + ", " +
+      "tempDirectory=" + tempDirectory;
+  }
+
+
+  /** Reads the words of a run file in order. */
+  private static final class Run
+  {
+
+    /** Position of the run in the input, used to order equal words. */
+    private final int index;
+
+    /** Reads the run file. */
+    private final BufferedReader reader;
+
+    /** Current word of the run. */
+    private String word;
+
+
+    /**
+     * Opens the supplied run file.
+     *
+     * @param  i  position of the run
+     * @param  file  run file
+     *
+     * @throws  IOException  if the run file cannot be opened
+     */
+    Run(final int i, final Path file) throws IOException
+    {
+      index = i;
+      reader = new BufferedReader(
+        new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+
+    /**
+     * Advances to the next word of the run.
+     *
+     * @return  whether the run has another word
+     *
+     * @throws  IOException  if the run file cannot be read
+     */
+    boolean next() throws IOException
+    {
+      word = reader.readLine();
+      return word != null;
+    }
+
+
+    /**
+     * Closes the run file.
+     *
+     * @throws  IOException  if the run file cannot be closed
+     */
+    void close() throws IOException
+    {
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.dictionary.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.passay.PassayUtils;
+import org.passay.dictionary.WordLists;
+
+/**
+ * Delegates sorting to {@link java.util.Arrays#parallelSort(Object[], Comparator)}, which sorts large arrays on the
+ * common fork/join pool and falls back to a sequential sort for small arrays.
+ *
+ * @author  Middleware Services
+ */
+public class ParallelArraysSort implements ArraySorter
+{
+
+  @Override
+  public void sort(final String[] array)
+  {
+    sort(array, WordLists.CASE_SENSITIVE_COMPARATOR);
+  }
+
+
+  @Override
+  public void sort(final String[] array, final Comparator<CharSequence> comparator)
+  {
+    Arrays.parallelSort(
+      PassayUtils.assertNotNullArgOr(
+        array,
+        v -> Stream.of(v).anyMatch(Objects::isNull),
+        "Array cannot be null or contain null"),
+      PassayUtils.assertNotNullArg(comparator, "Comparator cannot be null"));
+  }
+}
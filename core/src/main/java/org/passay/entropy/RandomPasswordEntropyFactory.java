@@ -1,12 +1,8 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.entropy;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-import org.passay.PassayUtils;
 import org.passay.PasswordData;
 import org.passay.rule.AllowedCharacterRule;
 import org.passay.rule.CharacterCharacteristicsRule;
@@ -44,40 +40,71 @@ public final class RandomPasswordEntropyFactory
     if (!Origin.Generated.equals(passwordData.getOrigin())) {
       throw new IllegalArgumentException("Password data must have an origin of " + Origin.Generated);
     }
-    final Set<String> uniqueCharacters = new HashSet<>();
+    return createEntropy(countUniqueCharacters(passwordRules), passwordData);
+  }
+
+
+  /**
+   * Creates a new random password entropy from a number of unique characters previously computed with
+   * {@link #countUniqueCharacters(List)}.
+   *
+   * @param  uniqueCharacters  number of unique characters allowed by the password rules
+   * @param  passwordData  to aid in entropy calculation
+   *
+   * @return  random password entropy
+   */
+  public static RandomPasswordEntropy createEntropy(final int uniqueCharacters, final PasswordData passwordData)
+  {
+    if (!Origin.Generated.equals(passwordData.getOrigin())) {
+      throw new IllegalArgumentException("Password data must have an origin of " + Origin.Generated);
+    }
+    if (uniqueCharacters == 0) {
+      throw new IllegalArgumentException(
+        "Password rules must contain at least 1 unique character by CharacterRule definition");
+    }
+    return new RandomPasswordEntropy(uniqueCharacters, passwordData.getPassword().codePointCount());
+  }
+
+
+  /**
+   * Returns the number of unique characters defined by the {@link CharacterRule}, {@link CharacterCharacteristicsRule}
+   * and {@link AllowedCharacterRule} in the supplied rules. The count depends only on the rules, so it can be computed
+   * once for a list of rules and reused for every password, as {@link org.passay.DefaultPasswordValidator} does.
+   *
+   * @param  passwordRules  to count unique characters of
+   *
+   * @return  number of unique characters
+   */
+  public static int countUniqueCharacters(final List<? extends Rule> passwordRules)
+  {
+    final BitSet uniqueCharacters = new BitSet();
     passwordRules.forEach(rule -> {
       if (rule instanceof CharacterCharacteristicsRule) {
         final CharacterCharacteristicsRule characteristicRule = (CharacterCharacteristicsRule) rule;
         characteristicRule.getRules().forEach(characterRule ->
-          uniqueCharacters.addAll(getUniqueCharacters(characterRule.getValidCharacters())));
+          addCodePoints(characterRule.getValidCharacters(), uniqueCharacters));
       } else if (rule instanceof CharacterRule) {
         final CharacterRule characterRule = (CharacterRule) rule;
-        uniqueCharacters.addAll(getUniqueCharacters(characterRule.getValidCharacters()));
+        addCodePoints(characterRule.getValidCharacters(), uniqueCharacters);
       } else if (rule instanceof AllowedCharacterRule) {
         final AllowedCharacterRule allowedCharacterRule = (AllowedCharacterRule) rule;
-        uniqueCharacters.addAll(getUniqueCharacters(allowedCharacterRule.getAllowedCharacters()));
+        addCodePoints(allowedCharacterRule.getAllowedCharacters(), uniqueCharacters);
       }
     });
-    if (uniqueCharacters.isEmpty()) {
-      throw new IllegalArgumentException(
-        "Password rules must contain at least 1 unique character by CharacterRule definition");
-    }
-    return new RandomPasswordEntropy(uniqueCharacters.size(), passwordData.getPassword().codePointCount());
+    return uniqueCharacters.cardinality();
   }
 
 
   /**
-   * Returns the set of unique characters in the supplied string
+   * Sets the bit of each code point in the supplied string.
    *
    * @param  characters  used to populate unique characters set with from the rule
-   *
-   * @return  unique characters
+   * @param  codePoints  set of unique code points
    */
-  private static Set<String> getUniqueCharacters(final CharSequence characters)
+  private static void addCodePoints(final CharSequence characters, final BitSet codePoints)
   {
-    if (characters != null && characters.length() > 0) {
-      return characters.codePoints().mapToObj(PassayUtils::toString).collect(Collectors.toSet());
+    if (characters != null) {
+      characters.codePoints().forEach(codePoints::set);
     }
-    return Collections.emptySet();
   }
 }
@@ -11,9 +11,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.stream.Stream;
-import org.passay.DefaultPasswordValidator;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
+import org.passay.PasswordPolicy;
 import org.passay.UnicodeString;
 import org.passay.rule.AllowedCharacterRule;
 import org.passay.rule.CharacterCharacteristicsRule;
@@ -44,8 +44,8 @@ public class PasswordGenerator
   /** Number of times to retry password generation before giving up. */
   private final int retryLimit;
 
-  /** Rules to determine password character appenders. */
-  private final List<Rule> passwordRules = new ArrayList<>();
+  /** Policy compiled from the rules that every generated password must satisfy. */
+  private final PasswordPolicy policy;
 
   /** Character appenders derived from the rules. */
   private final List<CharacterAppender> characterAppenders = new ArrayList<>();
@@ -59,6 +59,9 @@ public class PasswordGenerator
    *
    * @param  length  of the password to generate
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(final int length, final Rule... rules)
   {
@@ -71,6 +74,9 @@ public class PasswordGenerator
    *
    * @param  length  of the password to generate
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(final int length, final List<? extends Rule> rules)
   {
@@ -84,6 +90,9 @@ public class PasswordGenerator
    * @param  length  of the password to generate
    * @param  retryLimit  retry password generation at most this many times
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(final int length, final int retryLimit, final Rule... rules)
   {
@@ -97,6 +106,9 @@ public class PasswordGenerator
    * @param  length  of the password to generate
    * @param  retryLimit  retry password generation at most this many times
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(final int length, final int retryLimit, final List<? extends Rule> rules)
   {
@@ -111,6 +123,9 @@ public class PasswordGenerator
    * @param  length  of the password to generate
    * @param  retryLimit  retry password generation at most this many times
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(final Random random, final int length, final int retryLimit, final Rule... rules)
   {
@@ -125,6 +140,9 @@ public class PasswordGenerator
    * @param  length  of the password to generate
    * @param  retryLimit  retry password generation at most this many times
    * @param  rules  to govern the content of the password
+   *
+   * @throws  IllegalArgumentException  if the length or retry limit is out of range, if the rules do not allow any
+   *          characters, or if no password can satisfy the length rules
    */
   public PasswordGenerator(
     final Random random, final int length, final int retryLimit, final List<? extends Rule> rules)
@@ -153,7 +171,8 @@ public class PasswordGenerator
     {
       throw new IllegalArgumentException("Rules did not produce any combination of valid characters");
     }
-    this.passwordRules.addAll(rules);
+    // compiled once and failing fast, since only the validity of each attempt matters
+    this.policy = PasswordPolicy.compile(true, rules);
   }
 
 
@@ -188,8 +207,7 @@ public class PasswordGenerator
       if (count > 0) {
         retryCount++;
       }
-      final DefaultPasswordValidator validator = new DefaultPasswordValidator(passwordRules);
-      if (validator.validate(new PasswordData(generated)).isValid()) {
+      if (policy.validate(new PasswordData(generated)).isValid()) {
         break;
       } else {
         generated.clear();
@@ -0,0 +1,178 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.passay.RuleResult;
+import org.passay.RuleResultDetail;
+import org.passay.ValidationListener;
+import org.passay.ValidationResult;
+import org.passay.rule.Rule;
+
+/**
+ * Validation listener that records the wall time, pass and fail counts and error code frequencies of each rule, and
+ * exposes them as an MXBean. Rules of the same class are recorded together. Counters are striped, so a single instance
+ * can be shared by validators on many threads. Only error codes are recorded: detail parameters can contain the
+ * password or fragments of it, see {@link ValidationListener}, and must not be recorded by subclasses. Register it with
+ * an MBean server to graph rule cost:
+ * <pre>
+   RuleMetrics metrics = new RuleMetrics();
+   ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(RuleMetrics.OBJECT_NAME));
+   PasswordValidator validator = new DefaultPasswordValidator(
+     false, resolver, DefaultPasswordValidator.NO_ENTROPY_PROVIDER, metrics, rules);
+ * </pre>
+ *
+ * @author  Middleware Services
+ */
+public class RuleMetrics implements ValidationListener, RuleMetricsMXBean
+{
+
+  /** Default object name to register metrics under. */
+  public static final String OBJECT_NAME = "org.passay:type=RuleMetrics";
+
+  /** Number of validations. */
+  private final LongAdder validations = new LongAdder();
+
+  /** Number of failed validations. */
+  private final LongAdder failures = new LongAdder();
+
+  /** Total validation time. */
+  private final LongAdder totalTime = new LongAdder();
+
+  /** Counters of each rule class. */
+  private final Map<String, RuleCounters> rules = new ConcurrentHashMap<>();
+
+
+  @Override
+  public void ruleValidated(final Rule rule, final RuleResult result, final long duration)
+  {
+    rules.computeIfAbsent(rule.getClass().getName(), k -> new RuleCounters()).record(result, duration);
+  }
+
+
+  @Override
+  public void validated(final ValidationResult result, final long duration)
+  {
+    validations.increment();
+    if (!result.isValid()) {
+      failures.increment();
+    }
+    totalTime.add(duration);
+  }
+
+
+  @Override
+  public long getValidations()
+  {
+    return validations.sum();
+  }
+
+
+  @Override
+  public long getFailures()
+  {
+    return failures.sum();
+  }
+
+
+  @Override
+  public long getTotalTime()
+  {
+    return totalTime.sum();
+  }
+
+
+  @Override
+  public Map<String, RuleStatistics> getRuleStatistics()
+  {
+    final Map<String, RuleStatistics> statistics = new TreeMap<>();
+    rules.forEach((name, counters) -> statistics.put(name, counters.snapshot(name)));
+    return statistics;
+  }
+
+
+  @Override
+  public void reset()
+  {
+    validations.reset();
+    failures.reset();
+    totalTime.reset();
+    rules.clear();
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "validations=" + validations + ", " +
+      "failures=" + failures + ", " +
+      "totalTime=" + totalTime + ", " +
+      "rules=" + rules.keySet();
+  }
+
+
+  /** Counters of a single rule class. */
+  private static final class RuleCounters
+  {
+
+    /** Number of validations. */
+    private final LongAdder validations = new LongAdder();
+
+    /** Number of failed validations. */
+    private final LongAdder failures = new LongAdder();
+
+    /** Total validation time. */
+    private final LongAdder totalTime = new LongAdder();
+
+    /** Longest validation time. */
+    private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+    /** Number of occurrences of each error code. */
+    private final Map<String, LongAdder> errorCodes = new ConcurrentHashMap<>();
+
+
+    /**
+     * Records the result of a rule.
+     *
+     * @param  result  of the rule
+     * @param  duration  of the rule evaluation in nanoseconds
+     */
+    void record(final RuleResult result, final long duration)
+    {
+      validations.increment();
+      totalTime.add(duration);
+      maxTime.accumulate(duration);
+      if (!result.isValid()) {
+        failures.increment();
+        for (RuleResultDetail detail : result.getDetails()) {
+          errorCodes.computeIfAbsent(detail.getErrorCode(), k -> new LongAdder()).increment();
+        }
+      }
+    }
+
+
+    /**
+     * Returns a snapshot of these counters.
+     *
+     * @param  rule  class name
+     *
+     * @return  rule statistics
+     */
+    RuleStatistics snapshot(final String rule)
+    {
+      final Map<String, Long> codes = new TreeMap<>();
+      errorCodes.forEach((code, count) -> codes.put(code, count.sum()));
+      return new RuleStatistics(
+        rule,
+        validations.sum(),
+        failures.sum(),
+        totalTime.sum(),
+        maxTime.get(),
+        codes);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link RuleMetrics}. Times are reported in nanoseconds.
+ *
+ * @author  Middleware Services
+ */
+public interface RuleMetricsMXBean
+{
+
+
+  /**
+   * Returns the number of password validations.
+   *
+   * @return  number of validations
+   */
+  long getValidations();
+
+
+  /**
+   * Returns the number of password validations that failed.
+   *
+   * @return  number of failed validations
+   */
+  long getFailures();
+
+
+  /**
+   * Returns the total time spent validating passwords.
+   *
+   * @return  total validation time in nanoseconds
+   */
+  long getTotalTime();
+
+
+  /**
+   * Returns the statistics of each rule keyed by rule class name.
+   *
+   * @return  rule statistics
+   */
+  Map<String, RuleStatistics> getRuleStatistics();
+
+
+  /** Discards every statistic recorded so far. */
+  void reset();
+}
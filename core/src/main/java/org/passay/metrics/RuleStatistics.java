@@ -0,0 +1,150 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the statistics recorded for a rule by {@link RuleMetrics}. Times are in nanoseconds.
+ *
+ * @author  Middleware Services
+ */
+public final class RuleStatistics
+{
+
+  /** Rule class name. */
+  private final String rule;
+
+  /** Number of validations. */
+  private final long validations;
+
+  /** Number of failed validations. */
+  private final long failures;
+
+  /** Total validation time. */
+  private final long totalTime;
+
+  /** Longest validation time. */
+  private final long maxTime;
+
+  /** Number of occurrences of each error code. */
+  private final Map<String, Long> errorCodes;
+
+
+  /**
+   * Creates new rule statistics.
+   *
+   * @param  rule  class name
+   * @param  validations  number of validations
+   * @param  failures  number of failed validations
+   * @param  totalTime  total validation time
+   * @param  maxTime  longest validation time
+   * @param  errorCodes  number of occurrences of each error code
+   */
+  public RuleStatistics(
+    final String rule,
+    final long validations,
+    final long failures,
+    final long totalTime,
+    final long maxTime,
+    final Map<String, Long> errorCodes)
+  {
+    this.rule = rule;
+    this.validations = validations;
+    this.failures = failures;
+    this.totalTime = totalTime;
+    this.maxTime = maxTime;
+    this.errorCodes = Collections.unmodifiableMap(new TreeMap<>(errorCodes));
+  }
+
+
+  /**
+   * Returns the rule class name.
+   *
+   * @return  rule class name
+   */
+  public String getRule()
+  {
+    return rule;
+  }
+
+
+  /**
+   * Returns the number of validations.
+   *
+   * @return  number of validations
+   */
+  public long getValidations()
+  {
+    return validations;
+  }
+
+
+  /**
+   * Returns the number of failed validations.
+   *
+   * @return  number of failed validations
+   */
+  public long getFailures()
+  {
+    return failures;
+  }
+
+
+  /**
+   * Returns the total validation time.
+   *
+   * @return  total validation time in nanoseconds
+   */
+  public long getTotalTime()
+  {
+    return totalTime;
+  }
+
+
+  /**
+   * Returns the mean validation time.
+   *
+   * @return  mean validation time in nanoseconds or zero if no validations have been recorded
+   */
+  public long getMeanTime()
+  {
+    return validations > 0 ? totalTime / validations : 0;
+  }
+
+
+  /**
+   * Returns the longest validation time.
+   *
+   * @return  longest validation time in nanoseconds
+   */
+  public long getMaxTime()
+  {
+    return maxTime;
+  }
+
+
+  /**
+   * Returns the number of occurrences of each error code reported by the rule.
+   *
+   * @return  error code frequencies
+   */
+  public Map<String, Long> getErrorCodes()
+  {
+    return errorCodes;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "rule=" + rule + ", " +
+      "validations=" + validations + ", " +
+      "failures=" + failures + ", " +
+      "totalTime=" + totalTime + ", " +
+      "maxTime=" + maxTime + ", " +
+      "errorCodes=" + errorCodes;
+  }
+}
@@ -2,22 +2,32 @@
 package org.passay.resolver;
 
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.passay.PassayUtils;
 import org.passay.RuleResultDetail;
 
 /**
  * Provides a baseline implementation of {@link #resolve(RuleResultDetail)} which uses {@link String#format(String,
  * Object...)} to resolve messages. When no message is found for a particular key, the key and the {@link
- * RuleResultDetail#getParameters()} are used to construct a message.
+ * RuleResultDetail#getParameters()} are used to construct a message. Each message is parsed into a reusable template
+ * the first time its key is resolved and keys without a message are remembered, so {@link #getMessage(String)} is
+ * invoked at most once per key.
  *
  * @author  Middleware Services
  */
 public abstract class AbstractMessageResolver implements MessageResolver
 {
 
+  /** Template that marks a key without a message. */
+  private static final MessageTemplate NO_MESSAGE = new MessageTemplate("");
+
   /** Locale used to format error messages. */
   private final Locale locale;
 
+  /** Maps message keys to parsed message templates. */
+  private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
 
   /**
    * Creates a new abstract message resolver.
@@ -55,29 +65,37 @@ public abstract class AbstractMessageResolver implements MessageResolver
   public String resolve(final RuleResultDetail detail)
   {
     PassayUtils.assertNotNullArg(detail, "Rule result detail cannot be null");
-    String message;
     for (String key : detail.getErrorCodes()) {
-      message = getMessage(key);
-      if (message != null) {
-        final String format;
-        if (locale != null) {
-          format = String.format(locale, message, detail.getValues());
-        } else {
-          format = String.format(message, detail.getValues());
-        }
-        return format;
+      final MessageTemplate template = getTemplate(key);
+      if (template != NO_MESSAGE) {
+        return template.format(locale, detail.getValues());
       }
     }
-    final String format;
     if (!detail.getParameters().isEmpty()) {
-      if (locale != null) {
-        format = String.format(locale, "%s:%s", detail.getErrorCode(), detail.getParameters());
-      } else {
-        format = String.format("%s:%s", detail.getErrorCode(), detail.getParameters());
-      }
-    } else {
-      format = detail.getErrorCode();
+      return detail.getErrorCode() + ":" + detail.getParameters();
+    }
+    return detail.getErrorCode();
+  }
+
+
+  /**
+   * Returns the parsed message template for the supplied key.
+   *
+   * @param  key  which corresponds to a message
+   *
+   * @return  message template or {@link #NO_MESSAGE} if the key has no message
+   */
+  private MessageTemplate getTemplate(final String key)
+  {
+    final MessageTemplate template = templates.get(key);
+    if (template != null) {
+      return template;
     }
-    return format;
+    return templates.computeIfAbsent(
+      key,
+      k -> {
+        final String message = getMessage(k);
+        return message != null ? new MessageTemplate(message) : NO_MESSAGE;
+      });
   }
 }
@@ -21,4 +21,17 @@ public interface MessageResolver
    * @return  message for the detail error code
    */
   String resolve(RuleResultDetail detail);
+
+
+  /**
+   * Returns a resolver that resolves messages as this resolver would on the calling thread. Validators invoke this
+   * when a validation completes, so that messages resolved later, possibly on another thread, use the state of the
+   * validating thread, such as its locale. The default implementation returns this resolver.
+   *
+   * @return  message resolver bound to the state of the calling thread
+   */
+  default MessageResolver forCurrentThread()
+  {
+    return this;
+  }
 }
@@ -0,0 +1,290 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.resolver;
+
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Message format string that has been parsed into literal text and format specifiers once, so that it can be applied
+ * to many sets of arguments without parsing the format string again. Produces the same output as
+ * {@link String#format(Locale, String, Object...)}. Plain <code>%s</code> specifiers, which all default messages use,
+ * are rendered directly; any other specifier is delegated to {@link String#format(Locale, String, Object...)} with
+ * only its own argument. Format strings that cannot be parsed are always delegated in full so that formatting errors
+ * are reported exactly as {@link String#format(Locale, String, Object...)} reports them.
+ *
+ * @author  Middleware Services
+ */
+final class MessageTemplate
+{
+
+  /** Format specifier syntax, see {@link java.util.Formatter}. */
+  private static final Pattern SPECIFIER_PATTERN = Pattern.compile(
+    "%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+  /** Specifier pattern group of the argument index. */
+  private static final int GROUP_INDEX = 1;
+
+  /** Specifier pattern group of the flags. */
+  private static final int GROUP_FLAGS = 2;
+
+  /** Specifier pattern group of the width. */
+  private static final int GROUP_WIDTH = 3;
+
+  /** Specifier pattern group of the precision. */
+  private static final int GROUP_PRECISION = 4;
+
+  /** Specifier pattern group of the date/time prefix. */
+  private static final int GROUP_TIME = 5;
+
+  /** Specifier pattern group of the conversion. */
+  private static final int GROUP_CONVERSION = 6;
+
+  /** Line separator substituted for <code>%n</code>. */
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  /** Format string. */
+  private final String format;
+
+  /** Parsed segments of the format string, null if the format string must be delegated in full. */
+  private final Segment[] segments;
+
+
+  /**
+   * Creates a new message template.
+   *
+   * @param  format  string to parse
+   */
+  MessageTemplate(final String format)
+  {
+    this.format = format;
+    this.segments = parse(format);
+  }
+
+
+  /**
+   * Returns the format string of this template.
+   *
+   * @return  format string
+   */
+  String getFormat()
+  {
+    return format;
+  }
+
+
+  /**
+   * Formats the supplied arguments with this template.
+   *
+   * @param  locale  to format with, may be null to use the default locale
+   * @param  args  to format
+   *
+   * @return  formatted message
+   */
+  String format(final Locale locale, final Object... args)
+  {
+    if (segments == null) {
+      return formatAll(locale, args);
+    }
+    final StringBuilder sb = new StringBuilder(format.length() * 2);
+    int ordinaryIndex = 0;
+    int lastIndex = -1;
+    for (Segment segment : segments) {
+      if (segment.literal != null) {
+        sb.append(segment.literal);
+      } else {
+        final int index;
+        if (segment.argIndex == Segment.PREVIOUS_INDEX) {
+          index = lastIndex;
+        } else if (segment.argIndex == Segment.ORDINARY_INDEX) {
+          index = ordinaryIndex++;
+        } else {
+          index = segment.argIndex;
+        }
+        if (index < 0 || index >= args.length) {
+          // let the formatter report the missing argument
+          return formatAll(locale, args);
+        }
+        lastIndex = index;
+        final Object arg = args[index];
+        if (segment.plain && !(arg instanceof Formattable)) {
+          sb.append(arg);
+        } else if (locale != null) {
+          sb.append(String.format(locale, segment.specifier, arg));
+        } else {
+          sb.append(String.format(segment.specifier, arg));
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Formats the supplied arguments with the entire format string.
+   *
+   * @param  locale  to format with, may be null to use the default locale
+   * @param  args  to format
+   *
+   * @return  formatted message
+   */
+  private String formatAll(final Locale locale, final Object... args)
+  {
+    return locale != null ? String.format(locale, format, args) : String.format(format, args);
+  }
+
+
+  /**
+   * Parses the supplied format string into segments.
+   *
+   * @param  format  to parse
+   *
+   * @return  segments or null if the format string cannot be parsed
+   */
+  private static Segment[] parse(final String format)
+  {
+    final List<Segment> list = new ArrayList<>();
+    final Matcher matcher = SPECIFIER_PATTERN.matcher(format);
+    final StringBuilder literal = new StringBuilder();
+    boolean valid = true;
+    int i = 0;
+    while (valid && i < format.length()) {
+      final int percent = format.indexOf('%', i);
+      if (percent == -1) {
+        literal.append(format, i, format.length());
+        i = format.length();
+      } else if (!matcher.find(percent) || matcher.start() != percent) {
+        valid = false;
+      } else {
+        literal.append(format, i, percent);
+        final String conversion = matcher.group(GROUP_CONVERSION);
+        if ("%".equals(conversion) || "n".equals(conversion)) {
+          valid = matcher.end() - matcher.start() == 2;
+          literal.append("%".equals(conversion) ? "%" : LINE_SEPARATOR);
+        } else {
+          if (literal.length() > 0) {
+            list.add(new Segment(literal.toString()));
+            literal.setLength(0);
+          }
+          final Segment segment = createSpecifier(matcher);
+          valid = segment != null;
+          list.add(segment);
+        }
+        i = matcher.end();
+      }
+    }
+    if (literal.length() > 0) {
+      list.add(new Segment(literal.toString()));
+    }
+    return valid ? list.toArray(new Segment[0]) : null;
+  }
+
+
+  /**
+   * Creates a specifier segment from the current match of the supplied matcher.
+   *
+   * @param  matcher  positioned at a format specifier
+   *
+   * @return  specifier segment or null if the specifier cannot be handled
+   */
+  private static Segment createSpecifier(final Matcher matcher)
+  {
+    final String explicitIndex = matcher.group(GROUP_INDEX);
+    String flags = matcher.group(GROUP_FLAGS) != null ? matcher.group(GROUP_FLAGS) : "";
+    int argIndex = Segment.ORDINARY_INDEX;
+    if (flags.indexOf('<') >= 0) {
+      argIndex = explicitIndex == null ? Segment.PREVIOUS_INDEX : Segment.INVALID_INDEX;
+      flags = flags.replace("<", "");
+    } else if (explicitIndex != null) {
+      try {
+        argIndex = Integer.parseInt(explicitIndex.substring(0, explicitIndex.length() - 1)) - 1;
+      } catch (NumberFormatException e) {
+        argIndex = Segment.INVALID_INDEX;
+      }
+      if (argIndex < 0) {
+        argIndex = Segment.INVALID_INDEX;
+      }
+    }
+    final String specifier = "%" + flags +
+      (matcher.group(GROUP_WIDTH) != null ? matcher.group(GROUP_WIDTH) : "") +
+      (matcher.group(GROUP_PRECISION) != null ? matcher.group(GROUP_PRECISION) : "") +
+      (matcher.group(GROUP_TIME) != null ? matcher.group(GROUP_TIME) : "") +
+      matcher.group(GROUP_CONVERSION);
+    // reject specifiers the formatter would reject, regardless of their argument
+    try (Formatter formatter = new Formatter(new StringBuilder(), Locale.ROOT)) {
+      formatter.format(specifier, (Object) null);
+    } catch (IllegalFormatException e) {
+      argIndex = Segment.INVALID_INDEX;
+    }
+    return argIndex != Segment.INVALID_INDEX ? new Segment(specifier, argIndex, "%s".equals(specifier)) : null;
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" + "format=" + format;
+  }
+
+
+  /** Literal text or format specifier of a message template. */
+  private static final class Segment
+  {
+
+    /** Argument index of a specifier that uses the next ordinary argument. */
+    static final int ORDINARY_INDEX = -1;
+
+    /** Argument index of a specifier that reuses the previous argument. */
+    static final int PREVIOUS_INDEX = -2;
+
+    /** Argument index of a specifier that cannot be handled. */
+    static final int INVALID_INDEX = -3;
+
+    /** Literal text, null for a specifier. */
+    private final String literal;
+
+    /** Specifier without its argument index, null for literal text. */
+    private final String specifier;
+
+    /** Zero based argument index or one of {@link #ORDINARY_INDEX} and {@link #PREVIOUS_INDEX}. */
+    private final int argIndex;
+
+    /** Whether the specifier is a plain <code>%s</code> that can be rendered with {@link Object#toString()}. */
+    private final boolean plain;
+
+
+    /**
+     * Creates a new literal segment.
+     *
+     * @param  text  literal text
+     */
+    Segment(final String text)
+    {
+      literal = text;
+      specifier = null;
+      argIndex = 0;
+      plain = false;
+    }
+
+
+    /**
+     * Creates a new specifier segment.
+     *
+     * @param  spec  specifier without its argument index
+     * @param  index  of the argument
+     * @param  plainString  whether the specifier is a plain string conversion
+     */
+    Segment(final String spec, final int index, final boolean plainString)
+    {
+      literal = null;
+      specifier = spec;
+      argIndex = index;
+      plain = plainString;
+    }
+  }
+}
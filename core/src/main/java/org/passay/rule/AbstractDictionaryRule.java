@@ -12,7 +12,9 @@ import org.passay.RuleResult;
 import org.passay.RuleResultDetail;
 import org.passay.SuccessRuleResult;
 import org.passay.UnicodeString;
+import org.passay.data.SubstitutionData;
 import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.TernaryTreeDictionary;
 
 /**
  * Provides common implementation for password dictionary rules.
@@ -28,6 +30,9 @@ public abstract class AbstractDictionaryRule implements Rule
   /** Whether to search for dictionary words backwards. */
   private final boolean matchBackwards;
 
+  /** Substitutions that password characters may stand for, null to match passwords literally. */
+  private final SubstitutionData substitutions;
+
 
   /**
    * Creates a new abstract dictionary rule.
@@ -39,6 +44,24 @@ public abstract class AbstractDictionaryRule implements Rule
   {
     this.dictionary = PassayUtils.assertNotNullArg(dict, "Dictionary cannot be null");
     this.matchBackwards = matchBackwards;
+    this.substitutions = null;
+  }
+
+
+  /**
+   * Creates a new abstract dictionary rule that matches dictionary words when password characters are substituted for
+   * the characters they may stand for. Substitutions are expanded while the ternary tree of the dictionary is searched.
+   *
+   * @param  dict  to use for searching
+   * @param  substitutions  that password characters may stand for
+   * @param  matchBackwards  whether to match dictionary words backwards
+   */
+  public AbstractDictionaryRule(
+    final TernaryTreeDictionary dict, final SubstitutionData substitutions, final boolean matchBackwards)
+  {
+    this.dictionary = PassayUtils.assertNotNullArg(dict, "Dictionary cannot be null");
+    this.matchBackwards = matchBackwards;
+    this.substitutions = PassayUtils.assertNotNullArg(substitutions, "Substitutions cannot be null");
   }
 
 
@@ -65,6 +88,17 @@ public abstract class AbstractDictionaryRule implements Rule
   }
 
 
+  /**
+   * Returns the substitutions that password characters may stand for.
+   *
+   * @return  substitutions or null if passwords are matched literally
+   */
+  public SubstitutionData getSubstitutions()
+  {
+    return substitutions;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
@@ -72,14 +106,14 @@ public abstract class AbstractDictionaryRule implements Rule
     final List<RuleResultDetail> details = new ArrayList<>();
     UnicodeString text = UnicodeString.copy(passwordData.getPassword());
     try {
-      CharSequence matchingWord = doWordSearch(text);
+      CharSequence matchingWord = doWordSearch(passwordData, text);
       if (matchingWord != null) {
         details.add(
           new RuleResultDetail(getErrorCode(false), createRuleResultDetailParameters(matchingWord.toString())));
       }
       if (matchBackwards && text.codePointCount() > 1) {
         text = text.reverse(true);
-        matchingWord = doWordSearch(text);
+        matchingWord = doWordSearch(passwordData, text);
         if (matchingWord != null) {
           details.add(
             new RuleResultDetail(getErrorCode(true), createRuleResultDetailParameters(matchingWord.toString())));
@@ -127,11 +161,27 @@ public abstract class AbstractDictionaryRule implements Rule
   protected abstract CharSequence doWordSearch(UnicodeString text);
 
 
+  /**
+   * Searches the dictionary with the supplied text of the supplied password data. Override this method to use the
+   * {@link PasswordData#getDigestContext() digest context} of the password data.
+   *
+   * @param  passwordData  being validated
+   * @param  text  to search dictionary with, which is the password or the reversed password
+   *
+   * @return  matching word
+   */
+  protected CharSequence doWordSearch(final PasswordData passwordData, final UnicodeString text)
+  {
+    return doWordSearch(text);
+  }
+
+
   @Override
   public String toString()
   {
     return getClass().getName() + "@" + hashCode() + "::" +
       "dictionary=" + dictionary + ", " +
-      "matchBackwards=" + matchBackwards;
+      "matchBackwards=" + matchBackwards + ", " +
+      "substitutions=" + substitutions;
   }
 }
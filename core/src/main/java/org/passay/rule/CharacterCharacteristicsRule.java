@@ -22,7 +22,7 @@ import org.passay.SuccessRuleResult;
  *
  * @author  Middleware Services
  */
-public class CharacterCharacteristicsRule implements Rule
+public class CharacterCharacteristicsRule implements IncrementalRule
 {
 
   /** Error code for insufficient number of characteristics. */
@@ -182,15 +182,48 @@ public class CharacterCharacteristicsRule implements Rule
   public RuleResult validate(final PasswordData passwordData)
   {
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+    checkNumberOfCharacteristics();
+    final List<RuleResult> results = new ArrayList<>(rules.size());
+    for (CharacterRule rule : rules) {
+      results.add(rule.validate(passwordData));
+    }
+    return createRuleResult(results);
+  }
+
+
+  @Override
+  public State createState()
+  {
+    return new CharacteristicsState();
+  }
+
+
+  /**
+   * Throws if this rule requires more characteristics than it has character rules.
+   *
+   * @throws  IllegalStateException  if the number of characteristics is greater than the number of rules
+   */
+  private void checkNumberOfCharacteristics()
+  {
     if (numCharacteristics > rules.size()) {
       throw new IllegalStateException("Number of characteristics must be <= to the number of rules");
     }
+  }
 
+
+  /**
+   * Creates the result of this rule from the results of its character rules.
+   *
+   * @param  results  of each character rule, in the order of the rules
+   *
+   * @return  rule result
+   */
+  private RuleResult createRuleResult(final List<RuleResult> results)
+  {
     int successCount = 0;
     final List<RuleResultDetail> details = new ArrayList<>();
     final List<RuleResultMetadata> metadata = new ArrayList<>();
-    for (CharacterRule rule : rules) {
-      final RuleResult rr = rule.validate(passwordData);
+    for (RuleResult rr : results) {
       if (rr.isValid()) {
         successCount++;
       }
@@ -235,4 +268,57 @@ public class CharacterCharacteristicsRule implements Rule
       "reportFailure=" + reportFailure + ", " +
       "reportRuleFailures=" + reportRuleFailures;
   }
+
+
+  /**
+   * Incremental state that updates the state of each character rule.
+   */
+  private final class CharacteristicsState implements State
+  {
+
+    /** State of each character rule. */
+    private final List<State> states = new ArrayList<>(rules.size());
+
+
+    /**
+     * Creates a new characteristics state.
+     */
+    CharacteristicsState()
+    {
+      for (CharacterRule rule : rules) {
+        states.add(State.of(rule));
+      }
+    }
+
+
+    @Override
+    public void append(final int codePoint, final CodePoints password)
+    {
+      for (State state : states) {
+        state.append(codePoint, password);
+      }
+    }
+
+
+    @Override
+    public void delete()
+    {
+      for (State state : states) {
+        state.delete();
+      }
+    }
+
+
+    @Override
+    public RuleResult validate(final PasswordData passwordData)
+    {
+      PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+      checkNumberOfCharacteristics();
+      final List<RuleResult> results = new ArrayList<>(states.size());
+      for (State state : states) {
+        results.add(state.validate(passwordData));
+      }
+      return createRuleResult(results);
+    }
+  }
 }
@@ -6,7 +6,6 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.IntStream;
 import org.passay.FailureRuleResult;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
@@ -26,6 +25,15 @@ public class CharacterOccurrencesRule implements Rule
   /** Error code for too many occurrences of a character. */
   public static final String ERROR_CODE = "TOO_MANY_OCCURRENCES";
 
+  /** Number of ASCII code points, which are counted in a direct lookup array. */
+  private static final int ASCII_SIZE = 128;
+
+  /** Multiplier used to spread code points across the slots of the hash table. */
+  private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+  /** Marks an empty slot in the hash table. */
+  private static final int EMPTY_SLOT = -1;
+
   /** Maximum umber of occurrences to allow. */
   protected final int maxOccurrences;
 
@@ -57,29 +65,91 @@ public class CharacterOccurrencesRule implements Rule
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
     final List<RuleResultDetail> details = new ArrayList<>();
     final UnicodeString password = passwordData.getPassword();
-    final int[] codePoints = IntStream.concat(password.codePoints(), IntStream.of(Integer.MAX_VALUE)).toArray();
-    Arrays.sort(codePoints);
+    final int length = password.codePointCount();
+    // ASCII code points are counted directly, any others in an open addressing table with a load factor below 0.5
+    final int[] asciiCounts = new int[ASCII_SIZE];
+    int[] keys = null;
+    int[] counts = null;
     try {
-      int repeat = 1;
-      for (int i = 1; i < codePoints.length; i++) {
-        if (codePoints[i] == codePoints[i - 1]) {
-          repeat++;
+      for (int i = 0; i < length; i++) {
+        final int cp = password.codePointAt(i);
+        if (cp < ASCII_SIZE) {
+          asciiCounts[cp]++;
         } else {
-          if (repeat > maxOccurrences) {
-            details.add(
-              new RuleResultDetail(
-                ERROR_CODE,
-                createRuleResultDetailParameters(PassayUtils.toString(codePoints[i - 1]), repeat)));
+          if (keys == null) {
+            keys = new int[Integer.highestOneBit(length) << 2];
+            Arrays.fill(keys, EMPTY_SLOT);
+            counts = new int[keys.length];
+          }
+          counts[slot(keys, cp)]++;
+        }
+      }
+      // report in ascending code point order
+      for (int cp = 0; cp < ASCII_SIZE; cp++) {
+        if (asciiCounts[cp] > maxOccurrences) {
+          addError(details, cp, asciiCounts[cp]);
+        }
+      }
+      if (keys != null) {
+        final long[] exceeded = new long[keys.length];
+        int exceededCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+          if (counts[i] > maxOccurrences) {
+            exceeded[exceededCount++] = ((long) keys[i] << Integer.SIZE) | counts[i];
           }
-          repeat = 1;
         }
+        Arrays.sort(exceeded, 0, exceededCount);
+        for (int i = 0; i < exceededCount; i++) {
+          addError(details, (int) (exceeded[i] >>> Integer.SIZE), (int) exceeded[i]);
+        }
+        PassayUtils.clear(exceeded);
       }
       return details.isEmpty() ? new SuccessRuleResult() : new FailureRuleResult(details);
     } finally {
-      PassayUtils.clear(codePoints);
+      PassayUtils.clear(asciiCounts);
+      if (keys != null) {
+        PassayUtils.clear(keys);
+        PassayUtils.clear(counts);
+      }
     }
   }
 
+
+  /**
+   * Returns the slot of the supplied code point in the supplied hash table, claiming an empty slot if the code point is
+   * not yet present. The table must have a power of two length and at least one empty slot.
+   *
+   * @param  keys  hash table of code points
+   * @param  cp  code point to find
+   *
+   * @return  slot index
+   */
+  private static int slot(final int[] keys, final int cp)
+  {
+    final int mask = keys.length - 1;
+    int slot = (cp * HASH_MULTIPLIER >>> (Integer.SIZE - Integer.numberOfTrailingZeros(keys.length))) & mask;
+    while (keys[slot] != EMPTY_SLOT && keys[slot] != cp) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = cp;
+    return slot;
+  }
+
+
+  /**
+   * Adds a detail for a character that occurs too many times.
+   *
+   * @param  details  to add to
+   * @param  cp  code point that occurred too many times
+   * @param  occurrences  number of times the code point occurred
+   */
+  private void addError(final List<RuleResultDetail> details, final int cp, final int occurrences)
+  {
+    details.add(
+      new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters(PassayUtils.toString(cp), occurrences)));
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
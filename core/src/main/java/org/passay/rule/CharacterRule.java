@@ -3,6 +3,7 @@ package org.passay.rule;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.IntSupplier;
 import org.passay.FailureRuleResult;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
@@ -18,7 +19,7 @@ import org.passay.data.CharacterData;
  *
  * @author  Middleware Services
  */
-public class CharacterRule implements Rule
+public class CharacterRule implements IncrementalRule
 {
 
   /** Character data for this rule. */
@@ -105,6 +106,13 @@ public class CharacterRule implements Rule
   }
 
 
+  @Override
+  public State createState()
+  {
+    return new CharacterState();
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -131,11 +139,24 @@ public class CharacterRule implements Rule
    * @return  rule result metadata
    */
   protected RuleResultMetadata createRuleResultMetadata(final PasswordData password)
+  {
+    return createRuleResultMetadata(
+      () -> password.getPassword().countMatchingCodePoints(characterData.getCharacters().codePoints().toArray()));
+  }
+
+
+  /**
+   * Creates the rule result metadata.
+   *
+   * @param  count  of matching code points in the password
+   *
+   * @return  rule result metadata
+   */
+  private RuleResultMetadata createRuleResultMetadata(final IntSupplier count)
   {
     try {
       return new RuleResultMetadata(
-        RuleResultMetadata.CountCategory.valueOf(characterData.toString()),
-        password.getPassword().countMatchingCodePoints(characterData.getCharacters().codePoints().toArray()));
+        RuleResultMetadata.CountCategory.valueOf(characterData.toString()), count.getAsInt());
     } catch (IllegalArgumentException e) {
       return new RuleResultMetadata();
     }
@@ -178,4 +199,68 @@ public class CharacterRule implements Rule
       "characterData=" + characterData + ", " +
       "numCharacters=" + numCharacters;
   }
+
+
+  /**
+   * Incremental state that counts the matching code points of each prefix of the password and keeps the first
+   * matching characters reported in the rule result detail.
+   */
+  private final class CharacterState implements State
+  {
+
+    /** Characters to match. */
+    private final String characters = characterData.getCharacters();
+
+    /** Number of matching code points of each prefix. */
+    private final IntStack counts = new IntStack();
+
+    /** Length of {@link #matching} for each prefix. */
+    private final IntStack lengths = new IntStack();
+
+    /** Matching characters, up to the number of characters required. */
+    private final StringBuilder matching = new StringBuilder();
+
+
+    @Override
+    public void append(final int codePoint, final CodePoints password)
+    {
+      int count = counts.peek(0);
+      if (characters.indexOf(codePoint) != -1) {
+        count++;
+        if (matching.length() < numCharacters) {
+          matching.appendCodePoint(codePoint);
+        }
+      }
+      counts.push(count);
+      lengths.push(matching.length());
+    }
+
+
+    @Override
+    public void delete()
+    {
+      counts.pop();
+      lengths.pop();
+      final int length = lengths.peek(0);
+      for (int i = length; i < matching.length(); i++) {
+        matching.setCharAt(i, '\u0000');
+      }
+      matching.setLength(length);
+    }
+
+
+    @Override
+    public RuleResult validate(final PasswordData passwordData)
+    {
+      PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+      final int count = counts.peek(0);
+      final String matchingChars = matching.toString();
+      if (matchingChars.length() < numCharacters) {
+        return new FailureRuleResult(
+          createRuleResultMetadata(() -> count),
+          new RuleResultDetail(characterData.getErrorCode(), createRuleResultDetailParameters(matchingChars)));
+      }
+      return new SuccessRuleResult(createRuleResultMetadata(() -> count));
+    }
+  }
 }
@@ -0,0 +1,56 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import org.passay.PasswordData;
+import org.passay.RuleResult;
+
+/**
+ * State of a rule that cannot be evaluated incrementally, which validates the whole password every time.
+ *
+ * @author  Middleware Services
+ */
+final class CompleteState implements IncrementalRule.State
+{
+
+  /** Rule to validate. */
+  private final Rule rule;
+
+
+  /**
+   * Creates a new complete state.
+   *
+   * @param  r  rule to validate
+   */
+  CompleteState(final Rule r)
+  {
+    rule = r;
+  }
+
+
+  @Override
+  public void append(final int codePoint, final IncrementalRule.CodePoints password)
+  {
+    // nothing to update
+  }
+
+
+  @Override
+  public void delete()
+  {
+    // nothing to update
+  }
+
+
+  @Override
+  public RuleResult validate(final PasswordData passwordData)
+  {
+    return rule.validate(passwordData);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" + "rule=" + rule;
+  }
+}
@@ -2,7 +2,9 @@
 package org.passay.rule;
 
 import org.passay.UnicodeString;
+import org.passay.data.SubstitutionData;
 import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.TernaryTreeDictionary;
 
 /**
  * Rule for determining if a password matches a dictionary word. This rule will optionally also check for reversed
@@ -43,9 +45,28 @@ public class DictionaryRule extends AbstractDictionaryRule
   }
 
 
+  /**
+   * Creates a new dictionary rule that also matches dictionary words when password characters are substituted for the
+   * characters they may stand for, for example with {@link org.passay.data.EnglishSubstitutionData#Leetspeak}. The
+   * dictionary should be ready to use when passed to this constructor.
+   *
+   * @param  dict  to use for searching
+   * @param  substitutions  that password characters may stand for
+   * @param  matchBackwards  whether to match dictionary words backwards
+   */
+  public DictionaryRule(
+    final TernaryTreeDictionary dict, final SubstitutionData substitutions, final boolean matchBackwards)
+  {
+    super(dict, substitutions, matchBackwards);
+  }
+
+
   @Override
   protected CharSequence doWordSearch(final UnicodeString text)
   {
+    if (getSubstitutions() != null) {
+      return ((TernaryTreeDictionary) getDictionary()).substitutionSearch(text, getSubstitutions());
+    }
     if (getDictionary().search(text)) {
       return text;
     }
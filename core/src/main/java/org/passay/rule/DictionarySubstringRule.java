@@ -1,15 +1,25 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.rule;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.passay.FailureRuleResult;
+import org.passay.PassayUtils;
+import org.passay.PasswordData;
+import org.passay.RuleResult;
+import org.passay.RuleResultDetail;
+import org.passay.SuccessRuleResult;
 import org.passay.UnicodeString;
+import org.passay.data.SubstitutionData;
 import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.TernaryTreeDictionary;
 
 /**
  * Rule for determining if a password contains a dictionary word with optional checking for reversed words.
  *
  * @author  Middleware Services
  */
-public class DictionarySubstringRule extends AbstractDictionaryRule
+public class DictionarySubstringRule extends AbstractDictionaryRule implements IncrementalRule
 {
 
   /** Error code for matching dictionary word. */
@@ -42,9 +52,29 @@ public class DictionarySubstringRule extends AbstractDictionaryRule
   }
 
 
+  /**
+   * Creates a new dictionary substring rule that also matches dictionary words when password characters are substituted
+   * for the characters they may stand for, for example with {@link org.passay.data.EnglishSubstitutionData#Leetspeak}.
+   * The dictionary should be ready to use when passed to this constructor.
+   *
+   * @param  dict  to use for searching
+   * @param  substitutions  that password characters may stand for
+   * @param  matchBackwards  whether to match dictionary words backwards
+   */
+  public DictionarySubstringRule(
+    final TernaryTreeDictionary dict, final SubstitutionData substitutions, final boolean matchBackwards)
+  {
+    super(dict, substitutions, matchBackwards);
+  }
+
+
   @Override
   protected CharSequence doWordSearch(final UnicodeString text)
   {
+    if (getSubstitutions() != null) {
+      return ((TernaryTreeDictionary) getDictionary()).substitutionSubstringSearch(
+        text, text.codePointCount() - 1, getSubstitutions());
+    }
     int i = 1;
     while (i < text.codePointCount()) {
       int j = 0;
@@ -62,9 +92,147 @@ public class DictionarySubstringRule extends AbstractDictionaryRule
   }
 
 
+  /**
+   * Creates the state of this rule for an empty password. Substitutions are searched for in the ternary tree of the
+   * dictionary as a whole, so a rule with substitutions validates the whole password on every keystroke.
+   *
+   * @return  incremental rule state
+   */
+  @Override
+  public State createState()
+  {
+    return getSubstitutions() != null ? new CompleteState(this) : new SubstringState();
+  }
+
+
   @Override
   protected String getErrorCode(final boolean backwards)
   {
     return backwards ? ERROR_CODE_REVERSED : ERROR_CODE;
   }
+
+
+  /**
+   * Incremental state that records the match reported by {@link #doWordSearch} for each prefix of the password, which
+   * is the shortest and then leftmost dictionary word that is shorter than the prefix. Appending a code point makes
+   * only the substrings that end with it and the previous prefix eligible, and only those shorter than the current
+   * match need to be searched. Backward matches are ordered by length and then by decreasing end index, since the
+   * substrings of the reversed password are searched from its start.
+   */
+  private final class SubstringState implements State
+  {
+
+    /** Length of the forward match of each prefix, zero for no match. */
+    private final IntStack forwardLengths = new IntStack();
+
+    /** Start index of the forward match of each prefix. */
+    private final IntStack forwardStarts = new IntStack();
+
+    /** Length of the backward match of each prefix, zero for no match. */
+    private final IntStack backwardLengths = new IntStack();
+
+    /** End index of the backward match of each prefix. */
+    private final IntStack backwardEnds = new IntStack();
+
+
+    @Override
+    public void append(final int codePoint, final CodePoints password)
+    {
+      final int n = password.length();
+      int length = forwardLengths.peek(0);
+      int start = forwardStarts.peek(0);
+      final int maxLength = length > 0 ? length - 1 : n - 1;
+      for (int i = 1; i <= maxLength; i++) {
+        // the previous prefix has become eligible and precedes the substring at the end of the same length
+        if (i == n - 1 && search(password, 0, i, false)) {
+          length = i;
+          start = 0;
+          break;
+        }
+        if (search(password, n - i, n, false)) {
+          length = i;
+          start = n - i;
+          break;
+        }
+      }
+      forwardLengths.push(length);
+      forwardStarts.push(start);
+
+      length = backwardLengths.peek(0);
+      int end = backwardEnds.peek(0);
+      if (isMatchBackwards()) {
+        final int maxBackward = length > 0 ? length : n - 1;
+        for (int i = 1; i <= maxBackward; i++) {
+          // the substring at the end is at the start of the reversed password and precedes a match of the same length
+          if (search(password, n - i, n, true)) {
+            length = i;
+            end = n;
+            break;
+          }
+          if (i == n - 1 && search(password, 0, i, true)) {
+            length = i;
+            end = i;
+            break;
+          }
+        }
+      }
+      backwardLengths.push(length);
+      backwardEnds.push(end);
+    }
+
+
+    @Override
+    public void delete()
+    {
+      forwardLengths.pop();
+      forwardStarts.pop();
+      backwardLengths.pop();
+      backwardEnds.pop();
+    }
+
+
+    @Override
+    public RuleResult validate(final PasswordData passwordData)
+    {
+      PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+      final UnicodeString password = passwordData.getPassword();
+      final List<RuleResultDetail> details = new ArrayList<>();
+      int length = forwardLengths.peek(0);
+      if (length > 0) {
+        final int start = forwardStarts.peek(0);
+        final UnicodeString word = password.substring(start, start + length);
+        details.add(new RuleResultDetail(getErrorCode(false), createRuleResultDetailParameters(word.toString())));
+        word.clear();
+      }
+      length = backwardLengths.peek(0);
+      if (isMatchBackwards() && length > 0) {
+        final int end = backwardEnds.peek(0);
+        final UnicodeString word = password.substring(end - length, end).reverse(true);
+        details.add(new RuleResultDetail(getErrorCode(true), createRuleResultDetailParameters(word.toString())));
+        word.clear();
+      }
+      return details.isEmpty() ? new SuccessRuleResult() : new FailureRuleResult(details);
+    }
+
+
+    /**
+     * Searches the dictionary for a substring of the password.
+     *
+     * @param  password  to search substring of
+     * @param  start  index of the substring, inclusive
+     * @param  end  index of the substring, exclusive
+     * @param  reversed  whether to search for the reversed substring
+     *
+     * @return  whether the dictionary contains the substring
+     */
+    private boolean search(final CodePoints password, final int start, final int end, final boolean reversed)
+    {
+      final UnicodeString s = reversed ? password.substring(start, end).reverse(true) : password.substring(start, end);
+      try {
+        return getDictionary().search(s);
+      } finally {
+        s.clear();
+      }
+    }
+  }
 }
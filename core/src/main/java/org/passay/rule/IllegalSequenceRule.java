@@ -2,22 +2,24 @@
 package org.passay.rule;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.IntStream;
+import java.util.TreeMap;
 import org.passay.FailureRuleResult;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
 import org.passay.RuleResult;
 import org.passay.RuleResultDetail;
 import org.passay.SuccessRuleResult;
-import org.passay.UnicodeString;
 import org.passay.data.CharacterSequence;
 import org.passay.data.SequenceData;
 
 /**
- * Password validation rule that prevents illegal sequences of characters, e.g. keyboard, alphabetical, numeric.
+ * Password validation rule that prevents illegal sequences of characters, e.g. keyboard, alphabetical, numeric. The
+ * sequence data is compiled into a lookup table of code point positions when the rule is created, so that every
+ * sequence is searched in a single pass over the password.
  *
  * @author  Middleware Services
  */
@@ -42,6 +44,22 @@ public class IllegalSequenceRule implements Rule
   /** Whether to report all sequence matches or just the first. */
   protected final boolean reportAllFailures;
 
+  /** Number of character sequences in the sequence data. */
+  private final int sequenceCount;
+
+  /** Lengths of each character sequence. */
+  private final int[] sequenceLengths;
+
+  /** Sorted code points that occur in any character sequence. */
+  private final int[] codePointKeys;
+
+  /**
+   * Position of each code point key in each character sequence, -1 if the code point does not occur. The positions of
+   * the code point at {@code codePointKeys[i]} are stored at {@code i * sequenceCount} through
+   * {@code (i + 1) * sequenceCount - 1}.
+   */
+  private final int[] codePointPositions;
+
 
   /**
    * Creates a new sequence rule with the supplied list of characters.
@@ -97,6 +115,37 @@ public class IllegalSequenceRule implements Rule
     sequenceLength = length;
     wrapSequence = wrap;
     reportAllFailures = reportAll;
+
+    final CharacterSequence[] sequences = sequenceData.getSequences();
+    final int count = sequences.length;
+    sequenceCount = count;
+    sequenceLengths = new int[count];
+    final Map<Integer, int[]> positions = new TreeMap<>();
+    for (int i = 0; i < sequenceCount; i++) {
+      final CharacterSequence cs = sequences[i];
+      sequenceLengths[i] = cs.length();
+      for (int j = 0; j < sequenceLengths[i]; j++) {
+        for (String form : cs.getForms()) {
+          final int[] p = positions.computeIfAbsent(form.codePointAt(j), k -> {
+            final int[] a = new int[count];
+            Arrays.fill(a, -1);
+            return a;
+          });
+          // a code point matches the first position at which it occurs in a sequence
+          if (p[i] == -1) {
+            p[i] = j;
+          }
+        }
+      }
+    }
+    codePointKeys = new int[positions.size()];
+    codePointPositions = new int[positions.size() * sequenceCount];
+    int k = 0;
+    for (Map.Entry<Integer, int[]> entry : positions.entrySet()) {
+      codePointKeys[k] = entry.getKey();
+      System.arraycopy(entry.getValue(), 0, codePointPositions, k * sequenceCount, sequenceCount);
+      k++;
+    }
   }
 
 
@@ -137,48 +186,58 @@ public class IllegalSequenceRule implements Rule
   public RuleResult validate(final PasswordData passwordData)
   {
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
-    final List<RuleResultDetail> details = new ArrayList<>();
-    final int[] codePoints = IntStream.concat(
-      passwordData.getPassword().codePoints(), IntStream.of('\uffff')).toArray();
-    final UnicodeString password = new UnicodeString(codePoints);
+    final int[] codePoints = passwordData.getPassword().toCodePointArray();
     try {
-      final StringBuilder match = new StringBuilder(password.codePointCount());
-      for (CharacterSequence cs : sequenceData.getSequences()) {
-        final int csLength = cs.length();
-        int direction = 0;
-        int prevPosition = -1;
-        int i = 0;
-        while (i < password.codePointCount()) {
-          final int cp = password.codePointAt(i);
-          final int position = indexOf(cs, cp);
+      // per sequence state: direction of the current potential sequence, position of the previous code point and
+      // index of the first code point of the current potential sequence
+      final int[] direction = new int[sequenceCount];
+      final int[] prevPosition = new int[sequenceCount];
+      final int[] matchStart = new int[sequenceCount];
+      Arrays.fill(prevPosition, -1);
+      final List<List<String>> matches = new ArrayList<>(sequenceCount);
+      for (int i = 0; i < sequenceCount; i++) {
+        matches.add(null);
+      }
+      // a final code point that belongs to no sequence ends any sequence at the end of the password
+      for (int i = 0; i <= codePoints.length; i++) {
+        final int key = Arrays.binarySearch(codePointKeys, i < codePoints.length ? codePoints[i] : '\uffff');
+        for (int s = 0; s < sequenceCount; s++) {
+          final int position = key < 0 ? -1 : codePointPositions[key * sequenceCount + s];
           // set diff to +1 for increase in sequence, -1 for decrease, anything else for neither
-          int diff = (position | prevPosition) < 0 ? 0 : position - prevPosition;
-          if (wrapSequence && (diff == csLength - 1 || diff == 1 - csLength)) {
-            diff -= Integer.signum(diff) * csLength;
+          int diff = (position | prevPosition[s]) < 0 ? 0 : position - prevPosition[s];
+          if (wrapSequence && (diff == sequenceLengths[s] - 1 || diff == 1 - sequenceLengths[s])) {
+            diff -= Integer.signum(diff) * sequenceLengths[s];
           }
           // if we have a sequence and reached its end, add it to result
-          if (diff != direction && match.length() >= sequenceLength) {
-            addError(details, match.toString());
+          if (diff != direction[s] && i - matchStart[s] >= sequenceLength) {
+            if (matches.get(s) == null) {
+              matches.set(s, new ArrayList<>());
+            }
+            matches.get(s).add(new String(codePoints, matchStart[s], i - matchStart[s]));
           }
           // update the current potential sequence
           if (diff == 1 || diff == -1) {
-            if (diff != direction) {
-              match.delete(0, match.length() - 1);
-              direction = diff;
+            if (diff != direction[s]) {
+              matchStart[s] = i - 1;
+              direction[s] = diff;
             }
           } else {
-            match.setLength(0);
-            direction = 0;
+            matchStart[s] = i;
+            direction[s] = 0;
           }
-          match.append(PassayUtils.toString(cp));
-          prevPosition = position;
-          i++;
+          prevPosition[s] = position;
+        }
+      }
+      // report matches in sequence order
+      final List<RuleResultDetail> details = new ArrayList<>();
+      for (List<String> l : matches) {
+        if (l != null) {
+          l.forEach(match -> addError(details, match));
         }
       }
       return details.isEmpty() ? new SuccessRuleResult() : new FailureRuleResult(details);
     } finally {
       PassayUtils.clear(codePoints);
-      password.clear();
     }
   }
 
@@ -194,26 +253,6 @@ public class IllegalSequenceRule implements Rule
   }
 
 
-  /**
-   * Returns the index of the given character within the given sequence,
-   * or -1 if it is not found.
-   *
-   * @param  sequence  a sequence of characters
-   * @param  cp  the code point to find in the character sequence
-   *
-   * @return  the index of the character within the sequence, or -1
-   */
-  private int indexOf(final CharacterSequence sequence, final int cp)
-  {
-    for (int i = 0; i < sequence.length(); i++) {
-      if (sequence.matches(i, cp)) {
-        return i;
-      }
-    }
-    return -1;
-  }
-
-
   /**
    * Adds a validation error to a result.
    *
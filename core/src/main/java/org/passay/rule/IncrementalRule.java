@@ -0,0 +1,130 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import org.passay.PassayUtils;
+import org.passay.PasswordData;
+import org.passay.RuleResult;
+import org.passay.UnicodeString;
+
+/**
+ * Rule that can be evaluated incrementally while a password is typed. The state of the rule is updated as code points
+ * are appended to or deleted from the end of the password, so that validating each keystroke does not evaluate the rule
+ * over the whole password again. The result of validating the state is the same as that of {@link #validate}.
+ *
+ * <p>Subclasses that change how a rule is evaluated must also override {@link #createState()}, otherwise the rule is
+ * evaluated completely on every keystroke. See {@link State#of(Rule)}.</p>
+ *
+ * @author  Middleware Services
+ */
+public interface IncrementalRule extends Rule
+{
+
+
+  /**
+   * Creates the state of this rule for an empty password.
+   *
+   * @return  incremental rule state
+   */
+  State createState();
+
+
+  /**
+   * State of an incremental rule for a password that is edited at its end. Implementations are not thread safe.
+   */
+  interface State
+  {
+
+
+    /**
+     * Updates this state for a code point appended to the password.
+     *
+     * @param  codePoint  that was appended
+     * @param  password  after the code point was appended, which must not be retained by this state
+     */
+    void append(int codePoint, CodePoints password);
+
+
+    /**
+     * Updates this state for the last code point deleted from the password, reverting the last {@link #append}.
+     */
+    void delete();
+
+
+    /**
+     * Validates the password of this state.
+     *
+     * @param  passwordData  containing the password this state was updated for
+     *
+     * @return  the same result as validating the password data with the rule of this state
+     */
+    RuleResult validate(PasswordData passwordData);
+
+
+    /**
+     * Returns the state of the supplied rule. A rule is evaluated incrementally only if its class declares
+     * {@link IncrementalRule#createState()}, so that subclasses which change the evaluation of an incremental rule are
+     * not evaluated with the state of their parent. Any other rule is validated completely by the returned state.
+     *
+     * @param  rule  to create state for
+     *
+     * @return  incremental rule state
+     */
+    static State of(final Rule rule)
+    {
+      PassayUtils.assertNotNullArg(rule, "Rule cannot be null");
+      if (rule instanceof IncrementalRule) {
+        try {
+          if (rule.getClass().getMethod("createState").getDeclaringClass() == rule.getClass()) {
+            return ((IncrementalRule) rule).createState();
+          }
+        } catch (NoSuchMethodException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return new CompleteState(rule);
+    }
+  }
+
+
+  /**
+   * Read only view of the code points of a password that is edited at its end, so that appending a code point does not
+   * copy the password. A view is only valid for the duration of the call it is supplied to.
+   */
+  interface CodePoints
+  {
+
+
+    /**
+     * Returns the number of code points of the password.
+     *
+     * @return  password length in code points
+     */
+    int length();
+
+
+    /**
+     * Returns the code point at the supplied index.
+     *
+     * @param  index  of the code point
+     *
+     * @return  code point
+     *
+     * @throws  IndexOutOfBoundsException  if the index is not less than the length
+     */
+    int codePointAt(int index);
+
+
+    /**
+     * Returns a copy of the code points between the supplied indexes, which the caller should clear once it is no
+     * longer needed.
+     *
+     * @param  start  index, inclusive
+     * @param  end  index, exclusive
+     *
+     * @return  substring of the password
+     *
+     * @throws  IndexOutOfBoundsException  if the indexes are not within the password
+     */
+    UnicodeString substring(int start, int end);
+  }
+}
@@ -0,0 +1,99 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of primitive ints used to record the state of an incremental rule for each prefix of a password.
+ *
+ * @author  Middleware Services
+ */
+final class IntStack
+{
+
+  /** Initial capacity of the stack. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Stack elements. */
+  private int[] elements = new int[INITIAL_CAPACITY];
+
+  /** Number of elements. */
+  private int size;
+
+
+  /**
+   * Pushes a value onto this stack.
+   *
+   * @param  value  to push
+   */
+  void push(final int value)
+  {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+    }
+    elements[size++] = value;
+  }
+
+
+  /**
+   * Removes the top value of this stack.
+   *
+   * @return  removed value
+   */
+  int pop()
+  {
+    final int value = elements[--size];
+    elements[size] = 0;
+    return value;
+  }
+
+
+  /**
+   * Returns the top value of this stack, or the supplied value if this stack is empty.
+   *
+   * @param  empty  value to return if this stack is empty
+   *
+   * @return  top value
+   */
+  int peek(final int empty)
+  {
+    return size == 0 ? empty : elements[size - 1];
+  }
+
+
+  /**
+   * Returns the value at the supplied index, counted from the bottom of this stack.
+   *
+   * @param  index  of the value
+   *
+   * @return  value
+   */
+  int get(final int index)
+  {
+    return elements[index];
+  }
+
+
+  /**
+   * Returns the number of values on this stack.
+   *
+   * @return  stack size
+   */
+  int size()
+  {
+    return size;
+  }
+
+
+  /**
+   * Removes values from the top of this stack until it contains the supplied number of values.
+   *
+   * @param  newSize  of this stack
+   */
+  void truncate(final int newSize)
+  {
+    while (size > newSize) {
+      pop();
+    }
+  }
+}
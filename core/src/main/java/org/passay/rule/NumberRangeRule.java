@@ -2,6 +2,7 @@
 package org.passay.rule;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,10 +12,12 @@ import org.passay.PasswordData;
 import org.passay.RuleResult;
 import org.passay.RuleResultDetail;
 import org.passay.SuccessRuleResult;
-import org.passay.UnicodeString;
 
 /**
  * Rule for determining if a password contains any number within a defined range, lower inclusive, upper exclusive.
+ * A number is matched when its decimal representation, see {@link Integer#toString(int)}, is found in the password
+ * according to the {@link MatchBehavior}. Candidate numbers are parsed from the digit runs of the password, so the cost
+ * of validation is proportional to the length of the password rather than the size of the range.
  *
  * @author  Middleware Services
  */
@@ -24,6 +27,12 @@ public class NumberRangeRule implements Rule
   /** Error code for whitespace rule violation. */
   public static final String ERROR_CODE = "ILLEGAL_NUMBER_RANGE";
 
+  /** Radix of number representations, value is {@value}. */
+  private static final int RADIX = 10;
+
+  /** Maximum number of digits in an int, value is {@value}. */
+  private static final int MAX_DIGITS = 10;
+
   /** Whether to report all sequence matches or just the first. */
   protected final boolean reportAllFailures;
 
@@ -144,23 +153,86 @@ public class NumberRangeRule implements Rule
   {
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
     final List<RuleResultDetail> details = new ArrayList<>();
-    final UnicodeString text = passwordData.getPassword();
-    for (int i = lowerRange; i < upperRange; i++) {
-      if (matchBehavior.match(text, Integer.toString(i))) {
-        final String[] codes = {
-          ERROR_CODE + "." + matchBehavior.upperSnakeName(),
-          ERROR_CODE,
-        };
-        details.add(new RuleResultDetail(codes, createRuleResultDetailParameters(i)));
-        if (!reportAllFailures) {
-          break;
+    final int[] codePoints = passwordData.getPassword().toCodePointArray();
+    try {
+      // numbers are reported in ascending order, once each
+      final int[] numbers = findNumbers(codePoints);
+      Arrays.sort(numbers);
+      for (int i = 0; i < numbers.length; i++) {
+        if (i == 0 || numbers[i] != numbers[i - 1]) {
+          final String[] codes = {
+            ERROR_CODE + "." + matchBehavior.upperSnakeName(),
+            ERROR_CODE,
+          };
+          details.add(new RuleResultDetail(codes, createRuleResultDetailParameters(numbers[i])));
+          if (!reportAllFailures) {
+            break;
+          }
         }
       }
+    } finally {
+      PassayUtils.clear(codePoints);
     }
     return details.isEmpty() ? new SuccessRuleResult() : new FailureRuleResult(details);
   }
 
 
+  /**
+   * Returns the numbers in the range of this rule whose decimal representation matches the supplied code points
+   * according to the match behavior of this rule. Every substring of a run of digits, optionally preceded by a minus
+   * sign, that is a canonical int representation is a candidate.
+   *
+   * @param  codePoints  to search
+   *
+   * @return  matching numbers, unsorted and possibly containing duplicates
+   */
+  private int[] findNumbers(final int[] codePoints)
+  {
+    int[] numbers = new int[codePoints.length];
+    int count = 0;
+    final int startLimit = matchBehavior == MatchBehavior.StartsWith ? Math.min(1, codePoints.length) :
+      codePoints.length;
+    for (int start = 0; start < startLimit; start++) {
+      final boolean negative = codePoints[start] == '-';
+      final int firstDigit = negative ? start + 1 : start;
+      if (firstDigit < codePoints.length && isDigit(codePoints[firstDigit]) &&
+          !(negative && codePoints[firstDigit] == '0'))
+      {
+        // a leading zero is only canonical as the number zero itself
+        final int maxEnd = codePoints[firstDigit] == '0' ?
+          firstDigit + 1 : Math.min(codePoints.length, firstDigit + MAX_DIGITS);
+        long value = 0;
+        for (int end = firstDigit; end < maxEnd && isDigit(codePoints[end]); end++) {
+          value = value * RADIX + codePoints[end] - '0';
+          final long number = negative ? -value : value;
+          if (number >= lowerRange && number < upperRange &&
+              (matchBehavior != MatchBehavior.EndsWith || end == codePoints.length - 1))
+          {
+            if (count == numbers.length) {
+              numbers = Arrays.copyOf(numbers, count * 2);
+            }
+            numbers[count++] = (int) number;
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(numbers, count);
+  }
+
+
+  /**
+   * Returns whether the supplied code point is an ASCII digit, as produced by {@link Integer#toString(int)}.
+   *
+   * @param  cp  code point
+   *
+   * @return  whether cp is between '0' and '9'
+   */
+  private static boolean isDigit(final int cp)
+  {
+    return cp >= '0' && cp <= '9';
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -23,7 +23,7 @@ import org.passay.UnicodeString;
  *
  * @author  Amichai Rothman
  */
-public class RepeatCharactersRule implements Rule
+public class RepeatCharactersRule implements IncrementalRule
 {
 
   /** Error code for regex validation failures. */
@@ -118,6 +118,14 @@ public class RepeatCharactersRule implements Rule
     }
   }
 
+
+  @Override
+  public State createState()
+  {
+    return new RepeatState();
+  }
+
+
   /**
    * Creates the parameter data for the rule result detail.
    *
@@ -165,4 +173,76 @@ public class RepeatCharactersRule implements Rule
       "sequenceLength=" + sequenceLength + ", " +
       "sequenceCount=" + sequenceCount;
   }
+
+
+  /**
+   * Incremental state that tracks the run of repeated code points at the end of each prefix of the password and the
+   * runs that were completed before it.
+   */
+  private final class RepeatState implements State
+  {
+
+    /** Last code point of each prefix. */
+    private final IntStack previous = new IntStack();
+
+    /** Length of the run at the end of each prefix. */
+    private final IntStack repeats = new IntStack();
+
+    /** Number of completed runs of each prefix. */
+    private final IntStack counts = new IntStack();
+
+    /** Start index and length of each completed run. */
+    private final IntStack runs = new IntStack();
+
+
+    @Override
+    public void append(final int codePoint, final CodePoints password)
+    {
+      final int i = password.length() - 1;
+      int repeat = repeats.peek(1);
+      if (codePoint == previous.peek(-1)) {
+        repeat++;
+      } else {
+        if (repeat >= sequenceLength) {
+          runs.push(i - repeat);
+          runs.push(repeat);
+        }
+        repeat = 1;
+      }
+      previous.push(codePoint);
+      repeats.push(repeat);
+      counts.push(runs.size() / 2);
+    }
+
+
+    @Override
+    public void delete()
+    {
+      previous.pop();
+      repeats.pop();
+      counts.pop();
+      runs.truncate(counts.peek(0) * 2);
+    }
+
+
+    @Override
+    public RuleResult validate(final PasswordData passwordData)
+    {
+      PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
+      final UnicodeString password = passwordData.getPassword();
+      final List<CharSequence> matches = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i += 2) {
+        matches.add(password.substring(runs.get(i), runs.get(i) + runs.get(i + 1)));
+      }
+      // the run at the end is completed by the sentinel of a complete validation, unless it is a run of the sentinel
+      final int repeat = repeats.peek(1);
+      if (repeat >= sequenceLength && previous.peek(-1) != '\uffff') {
+        matches.add(password.substring(password.codePointCount() - repeat));
+      }
+      if (matches.size() >= sequenceCount) {
+        return new FailureRuleResult(new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters(matches)));
+      }
+      return new SuccessRuleResult();
+    }
+  }
 }
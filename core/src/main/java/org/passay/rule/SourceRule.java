@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.passay.FailureRuleResult;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
@@ -73,21 +75,44 @@ public class SourceRule implements Rule
     }
 
     final List<RuleResultDetail> details = new ArrayList<>();
-    final UnicodeString cleartext = passwordData.getPassword();
-    if (reportAllFailures) {
-      references.stream()
-        .filter(r -> matches(cleartext, r))
-        .forEach(r -> details.add(new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters(r.getLabel()))));
-    } else {
-      references.stream()
-        .filter(r -> matches(cleartext, r))
-        .findFirst()
-        .ifPresent(r -> details.add(new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters(r.getLabel()))));
-    }
+    findMatches(passwordData, references)
+      .forEach(r -> details.add(new RuleResultDetail(ERROR_CODE, createRuleResultDetailParameters(r.getLabel()))));
     return details.isEmpty() ? new SuccessRuleResult() : new FailureRuleResult(details);
   }
 
 
+  /**
+   * Returns the references that the supplied password matches, in the order they are supplied. Only the first match is
+   * returned unless all failures are reported.
+   *
+   * @param  <T>  type of reference
+   * @param  passwordData  candidate password data
+   * @param  references  to match
+   *
+   * @return  matching references
+   */
+  protected <T extends Reference> List<T> findMatches(final PasswordData passwordData, final List<T> references)
+  {
+    final Stream<T> matches = references.stream().filter(r -> matches(passwordData, r));
+    return (reportAllFailures ? matches : matches.limit(1)).collect(Collectors.toList());
+  }
+
+
+  /**
+   * Determines whether the password of the supplied password data matches a reference. Override this method to use
+   * the {@link PasswordData#getDigestContext() digest context} of the password data.
+   *
+   * @param  passwordData  candidate password data
+   * @param  reference  reference password
+   *
+   * @return  true if passwords match, false otherwise.
+   */
+  protected boolean matches(final PasswordData passwordData, final Reference reference)
+  {
+    return matches(passwordData.getPassword(), reference);
+  }
+
+
   /**
    * Determines whether a password matches a source password.
    *
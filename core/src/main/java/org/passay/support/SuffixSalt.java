@@ -3,6 +3,7 @@ package org.passay.support;
 
 import java.nio.Buffer;
 import java.nio.CharBuffer;
+import java.util.Objects;
 
 /**
  * A salt that is concatenated as a suffix to the password data.
@@ -33,4 +34,22 @@ public class SuffixSalt implements Salt
     ((Buffer) salted).flip();
     return salted;
   }
+
+  @Override
+  public boolean equals(final Object o)
+  {
+    if (o == this) {
+      return true;
+    }
+    if (o instanceof SuffixSalt) {
+      return Objects.equals(salt, ((SuffixSalt) o).salt);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hashCode(salt);
+  }
 }
@@ -0,0 +1,133 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.passay.rule.Rule;
+import org.passay.support.PrefixSalt;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link DigestContext}.
+ *
+ * @author  Middleware Services
+ */
+public class DigestContextTest
+{
+
+
+  @Test
+  public void outsideValidation()
+  {
+    final DigestContext context = new DigestContext();
+    final UnicodeString password = new UnicodeString("password");
+    final AtomicReference<byte[]> encoded = new AtomicReference<>();
+    final String decoded = context.withBytes(password, null, StandardCharsets.UTF_8, bytes -> {
+      encoded.set(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    });
+    assertThat(decoded).isEqualTo("password");
+    // values are wiped as soon as they have been used
+    assertThat(encoded.get()).containsOnly(0);
+
+    final AtomicInteger digests = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      context.withDigest("reverse", password, null, StandardCharsets.UTF_8, bytes -> {
+        digests.incrementAndGet();
+        return reverse(bytes);
+      }, digest -> digest);
+    }
+    assertThat(digests.get()).isEqualTo(2);
+  }
+
+
+  @Test
+  public void duringValidation()
+  {
+    final DigestContext context = new DigestContext();
+    final UnicodeString password = new UnicodeString("password");
+    final AtomicInteger digests = new AtomicInteger();
+    final AtomicReference<byte[]> digested = new AtomicReference<>();
+    context.open();
+    context.open();
+    try {
+      for (int i = 0; i < 2; i++) {
+        final String reversed = context.withDigest("reverse", password, null, StandardCharsets.UTF_8, bytes -> {
+          digests.incrementAndGet();
+          return reverse(bytes);
+        }, digest -> {
+          digested.set(digest);
+          return new String(digest, StandardCharsets.UTF_8);
+        });
+        assertThat(reversed).isEqualTo("drowssap");
+      }
+      assertThat(digests.get()).isEqualTo(1);
+
+      // the key is a copy of the text, salts are compared by value
+      final UnicodeString copy = UnicodeString.copy(password);
+      context.withBytes(copy, new PrefixSalt("x"), StandardCharsets.UTF_8, bytes -> bytes.length);
+      copy.clear();
+      context.withDigest("reverse", password, new PrefixSalt("x"), StandardCharsets.UTF_8, bytes -> {
+        digests.incrementAndGet();
+        return reverse(bytes);
+      }, digest -> digest.length);
+      assertThat(digests.get()).isEqualTo(2);
+      context.close();
+      assertThat(digested.get()).doesNotContain(0);
+    } finally {
+      context.close();
+    }
+    assertThat(digested.get()).containsOnly(0);
+  }
+
+
+  @Test
+  public void validatorClosesContext()
+  {
+    final PasswordData data = new PasswordData("password");
+    final AtomicReference<byte[]> encoded = new AtomicReference<>();
+    final Rule first = passwordData -> passwordData.getDigestContext().withBytes(
+      passwordData.getPassword(),
+      null,
+      StandardCharsets.UTF_8,
+      bytes -> {
+        encoded.set(bytes);
+        return new SuccessRuleResult();
+      });
+    final Rule second = passwordData -> passwordData.getDigestContext().withBytes(
+      passwordData.getPassword(),
+      null,
+      StandardCharsets.UTF_8,
+      bytes -> {
+        // the bytes encoded by the first rule are memoized
+        assertThat(bytes).isSameAs(encoded.get());
+        return new SuccessRuleResult();
+      });
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(first, second);
+    assertThat(validator.validate(data).isValid()).isTrue();
+    assertThat(encoded.get()).containsOnly(0);
+    assertThat(data.getPassword()).isEqualTo(new UnicodeString("password"));
+  }
+
+
+  /**
+   * Returns the supplied bytes in reverse order.
+   *
+   * @param  bytes  to reverse
+   *
+   * @return  reversed copy of the bytes
+   */
+  private static byte[] reverse(final byte[] bytes)
+  {
+    final byte[] reversed = Arrays.copyOf(bytes, bytes.length);
+    for (int i = 0; i < reversed.length / 2; i++) {
+      final byte b = reversed[i];
+      reversed[i] = reversed[reversed.length - i - 1];
+      reversed[reversed.length - i - 1] = b;
+    }
+    return reversed;
+  }
+}
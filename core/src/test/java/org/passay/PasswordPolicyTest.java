@@ -0,0 +1,143 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.passay.data.EnglishCharacterData;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.DictionaryRule;
+import org.passay.rule.LengthRule;
+import org.passay.rule.Rule;
+import org.passay.support.Origin;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link PasswordPolicy}.
+ *
+ * @author  Middleware Services
+ */
+public class PasswordPolicyTest
+{
+
+  /** Rules in declaration order, with the most expensive rule first. */
+  private final List<Rule> rules = Arrays.asList(
+    new DictionaryRule(new WordListDictionary(new ArrayWordList(new String[] {"secret"}))),
+    new CharacterRule(EnglishCharacterData.Digit, 1),
+    new LengthRule(4, 16),
+    new LengthRule(8, 64));
+
+
+  @Test
+  public void compile()
+  {
+    final PasswordPolicy policy = PasswordPolicy.compile(rules);
+    assertThat(policy.getRules()).isEqualTo(rules);
+    assertThat(policy.getEvaluationOrder()).hasSize(3);
+    assertThat(policy.getEvaluationOrder().subList(0, 2)).isEqualTo(rules.subList(0, 2));
+    final LengthRule folded = (LengthRule) policy.getEvaluationOrder().get(2);
+    assertThat(folded.getMinimumLength()).isEqualTo(8);
+    assertThat(folded.getMaximumLength()).isEqualTo(16);
+    assertThat(policy.getMinimumLength()).isEqualTo(8);
+    assertThat(policy.getMaximumLength()).isEqualTo(16);
+    assertThat(policy.getUniqueCharacters()).isEqualTo(10);
+
+    final PasswordPolicy oneLength = PasswordPolicy.compile(rules.subList(0, 3));
+    assertThat(oneLength.getEvaluationOrder()).isEqualTo(rules.subList(0, 3));
+
+    final PasswordPolicy noLength = PasswordPolicy.compile(Arrays.asList(rules.get(0)));
+    assertThat(noLength.getMinimumLength()).isZero();
+    assertThat(noLength.getMaximumLength()).isEqualTo(Integer.MAX_VALUE);
+    assertThat(noLength.getUniqueCharacters()).isZero();
+
+    assertThatThrownBy(() -> PasswordPolicy.compile(Arrays.asList(new LengthRule(8, 16), new LengthRule(17, 20))))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> PasswordPolicy.compile(Arrays.asList(rules.get(0), null)))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+
+  @Test
+  public void validate()
+  {
+    final PasswordPolicy policy = PasswordPolicy.compile(rules);
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(rules);
+    for (String password : new String[] {"secret", "secret12", "s3cr3tpassword", "0123456789abcdefgh"}) {
+      final PasswordData data = new PasswordData(password);
+      assertThat(errorCodes(policy.validate(data))).isEqualTo(errorCodes(validator.validate(data)));
+    }
+
+    // a password that violates both length rules is reported once, against the folded bounds
+    final PasswordData data = new PasswordData("s3");
+    assertThat(errorCodes(validator.validate(data)))
+      .containsExactly(LengthRule.ERROR_CODE_MIN, LengthRule.ERROR_CODE_MIN);
+    assertThat(errorCodes(policy.validate(data))).containsExactly(LengthRule.ERROR_CODE_MIN);
+  }
+
+
+  @Test
+  public void failFast()
+  {
+    final PasswordPolicy policy = PasswordPolicy.compile(true, rules);
+    assertThat(policy.getRules()).isEqualTo(rules);
+    assertThat(policy.getEvaluationOrder()).hasSize(3);
+    assertThat(policy.getEvaluationOrder().get(0)).isInstanceOf(LengthRule.class);
+    assertThat(policy.getEvaluationOrder().subList(1, 3)).isEqualTo(Arrays.asList(rules.get(1), rules.get(0)));
+
+    // the declared order reports the dictionary word, the policy reports the cheaper length failure
+    final PasswordData data = new PasswordData("secret");
+    assertThat(errorCodes(new DefaultPasswordValidator(true, rules).validate(data)))
+      .containsExactly(DictionaryRule.ERROR_CODE);
+    assertThat(errorCodes(policy.validate(data))).containsExactly(LengthRule.ERROR_CODE_MIN);
+    assertThat(policy.validate(new PasswordData("s3cr3tpassword")).isValid()).isTrue();
+  }
+
+
+  @Test
+  public void entropy()
+  {
+    final PasswordPolicy policy = PasswordPolicy.compile(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER,
+      rules);
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER, rules);
+    assertThat(policy.getEntropyProvider()).isSameAs(DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER);
+    for (Origin origin : new Origin[] {Origin.Generated, Origin.User}) {
+      final PasswordData data = new PasswordData("s3cr3tpassword", origin);
+      assertThat(policy.validate(data).getEntropy()).isEqualTo(validator.validate(data).getEntropy());
+    }
+
+    // a custom provider is given the rules as supplied, not the folded and sorted evaluation order
+    final List<List<? extends Rule>> provided = new ArrayList<>();
+    final PasswordPolicy custom = PasswordPolicy.compile(
+      true,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      (r, d) -> {
+        provided.add(r);
+        return () -> 1;
+      },
+      rules);
+    assertThat(custom.validate(new PasswordData("s3cr3tpassword")).getEntropy()).isEqualTo(1);
+    assertThat(provided).hasSize(1);
+    assertThat(provided.get(0)).isEqualTo(rules);
+  }
+
+
+  /**
+   * Returns the error codes of the supplied result.
+   *
+   * @param  result  of a validation
+   *
+   * @return  error codes in the order they were reported
+   */
+  private static List<String> errorCodes(final ValidationResult result)
+  {
+    return result.getDetails().stream().map(RuleResultDetail::getErrorCode).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,162 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.passay.data.EnglishCharacterData;
+import org.passay.data.EnglishSequenceData;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.rule.CharacterCharacteristicsRule;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.DictionarySubstringRule;
+import org.passay.rule.IllegalSequenceRule;
+import org.passay.rule.LengthRule;
+import org.passay.rule.RepeatCharactersRule;
+import org.passay.rule.Rule;
+import org.passay.rule.UsernameRule;
+import org.passay.support.Origin;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link ValidationSession}.
+ *
+ * @author  Middleware Services
+ */
+public class ValidationSessionTest
+{
+
+  /** Code points typed by the random sessions. */
+  private static final int[] KEYS = "abcdgoprsw1A!\uD83D\uDE00".codePoints().toArray();
+
+  /** Rules of the validators, incremental and otherwise. */
+  private final List<Rule> rules = Arrays.asList(
+    new LengthRule(8, 16),
+    new CharacterCharacteristicsRule(
+      3,
+      new CharacterRule(EnglishCharacterData.UpperCase, 1),
+      new CharacterRule(EnglishCharacterData.LowerCase, 2),
+      new CharacterRule(EnglishCharacterData.Digit, 2),
+      new CharacterRule(EnglishCharacterData.Special, 1)),
+    new CharacterRule(EnglishCharacterData.LowerCase, 3),
+    new RepeatCharactersRule(2, 2),
+    new RepeatCharactersRule(3),
+    new DictionarySubstringRule(new WordListDictionary(new ArrayWordList(dictionaryWords()))),
+    new DictionarySubstringRule(new WordListDictionary(new ArrayWordList(dictionaryWords())), true),
+    new IllegalSequenceRule(EnglishSequenceData.Alphabetical, 3, false),
+    new UsernameRule());
+
+
+  /**
+   * Returns the sorted words of the test dictionaries.
+   *
+   * @return  dictionary words
+   */
+  private static String[] dictionaryWords()
+  {
+    return new String[] {"abc", "bca", "dog", "god", "pass", "password", "word"};
+  }
+
+
+  @Test
+  public void randomKeystrokes()
+  {
+    for (PasswordValidator validator : new PasswordValidator[] {
+      new DefaultPasswordValidator(rules),
+      new DefaultPasswordValidator(true, rules),
+      PasswordPolicy.compile(true, rules)}) {
+      final Random random = new Random(42);
+      final ValidationSession session = new ValidationSession(validator, new PasswordData("bob", "", Origin.User));
+      final StringBuilder password = new StringBuilder();
+      for (int i = 0; i < 2000; i++) {
+        // type single keys and whole dictionary words, and delete
+        final int action = random.nextInt(10);
+        if (password.length() > 0 && action < 4) {
+          password.setLength(password.offsetByCodePoints(password.length(), -1));
+          session.delete();
+          assertSame(validator, session, password);
+        } else {
+          final String[] words = dictionaryWords();
+          final int[] keys = action < 6 ?
+            words[random.nextInt(words.length)].codePoints().toArray() : new int[] {KEYS[random.nextInt(KEYS.length)]};
+          for (int cp : keys) {
+            password.appendCodePoint(cp);
+            session.append(cp);
+            assertSame(validator, session, password);
+          }
+        }
+      }
+    }
+  }
+
+
+  @Test
+  public void typedWords()
+  {
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(rules);
+    final ValidationSession session = new ValidationSession(validator);
+    for (String typed : new String[] {"password", "drowssap", "aaa11bb!!", "dogcabc", "Aaab1212!!!", "xgodx"}) {
+      session.clear();
+      session.append(typed);
+      assertThat(describe(session.validate())).isEqualTo(describe(validator.validate(new PasswordData(typed))));
+    }
+    assertThatThrownBy(() -> new ValidationSession(validator).delete()).isInstanceOf(IllegalStateException.class);
+  }
+
+
+  @Test
+  public void resultsDoNotHoldPassword()
+  {
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER, rules);
+    for (Origin origin : new Origin[] {Origin.Generated, Origin.User}) {
+      final ValidationSession session = new ValidationSession(validator, new PasswordData("bob", "", origin));
+      session.append("Aaab1212!!!");
+      final ValidationResult result = session.validate();
+      // the entropy is estimated before the copy of the password is erased
+      assertThat(result.getEntropy())
+        .isEqualTo(validator.validate(new PasswordData("bob", "Aaab1212!!!", origin)).getEntropy());
+      assertThat(result.toString()).doesNotContain("<not estimated>");
+      // the username is not erased with the password
+      session.append("bob");
+      assertThat(describe(session.validate()))
+        .isEqualTo(describe(validator.validate(new PasswordData("bob", "Aaab1212!!!bob", origin))));
+    }
+  }
+
+
+  /**
+   * Asserts that the session produces the same result as the validator for the supplied password.
+   *
+   * @param  validator  to validate the password with
+   * @param  session  to validate
+   * @param  password  typed into the session
+   */
+  private static void assertSame(
+    final PasswordValidator validator, final ValidationSession session, final CharSequence password)
+  {
+    assertThat(session.length()).isEqualTo(Character.codePointCount(password, 0, password.length()));
+    assertThat(describe(session.validate()))
+      .isEqualTo(describe(validator.validate(new PasswordData("bob", password, Origin.User))));
+  }
+
+
+  /**
+   * Describes the details and metadata of the supplied result for comparison.
+   *
+   * @param  result  of a validation
+   *
+   * @return  validity, error codes, parameters and metadata of the result
+   */
+  private static String describe(final ValidationResult result)
+  {
+    return result.isValid() + " " +
+      result.getDetails().stream()
+        .map(d -> d.getErrorCode() + d.getParameters())
+        .collect(Collectors.joining(", ")) + " " +
+      result.getMetadata().getCounts();
+  }
+}
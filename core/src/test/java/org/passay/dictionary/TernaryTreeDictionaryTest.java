@@ -1,8 +1,10 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import org.passay.dictionary.sort.ArraySorter;
 import org.passay.dictionary.sort.ArraysSort;
 import org.passay.dictionary.sort.BubbleSort;
@@ -136,6 +138,59 @@ public class TernaryTreeDictionaryTest extends AbstractDictionaryTest
   }
 
 
+  /**
+   * Test building dictionaries in parallel from sorted word lists.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void parallelBuild() throws Exception
+  {
+    for (boolean cs : new boolean[] {true, false}) {
+      final ArrayWordList awl = WordLists.createFromReader(
+        new FileReader[] {new FileReader(webFile)},
+        cs,
+        new ArraysSort());
+      final TernaryTreeDictionary sequential = cs ? caseSensitive : caseInsensitive;
+      final TernaryTreeDictionary parallel = new TernaryTreeDictionary(awl, ForkJoinPool.commonPool());
+      assertThat(parallel.getTernaryTree().getWords()).hasSameSizeAs(sequential.getTernaryTree().getWords());
+      assertThat(parallel.size()).isEqualTo(sequential.getTernaryTree().getWords().size());
+      assertThat(parallel.size()).isEqualTo(sequential.size());
+      for (int i = 0; i < awl.size(); i += 7) {
+        assertThat(parallel.search(awl.get(i))).isTrue();
+        assertThat(parallel.search(awl.get(i).toUpperCase())).isEqualTo(sequential.search(awl.get(i).toUpperCase()));
+        assertThat(parallel.search(awl.get(i) + "q")).isEqualTo(sequential.search(awl.get(i) + "q"));
+      }
+      if (cs) {
+        assertThat(parallel.partialSearch(".e.e.e.e")).isEqualTo(caseSensitive.partialSearch(".e.e.e.e"));
+        assertThat(parallel.getTernaryTree().getWords()).isEqualTo(caseSensitive.getTernaryTree().getWords());
+      }
+
+      // tree layout does not depend on the pool
+      final ForkJoinPool pool = new ForkJoinPool(1);
+      try {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        parallel.getTernaryTree().write(expected);
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        TernaryTree.build(awl, pool).write(actual);
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    // word list order differs from code point order for supplementary characters
+    final String[] unicode = {"a\uD83D\uDE00", "a\uFFFD", "a\uFFFDb", "b"};
+    final TernaryTreeDictionary unicodeDictionary = new TernaryTreeDictionary(
+      new ArrayWordList(unicode, true, new ArraysSort()), ForkJoinPool.commonPool());
+    for (String word : unicode) {
+      assertThat(unicodeDictionary.search(word)).isTrue();
+    }
+    final ArrayWordList empty = new ArrayWordList(new String[0]);
+    assertThat(new TernaryTreeDictionary(empty, ForkJoinPool.commonPool()).search("a")).isFalse();
+  }
+
+
   @Test
   public void bubbleSort()
   {
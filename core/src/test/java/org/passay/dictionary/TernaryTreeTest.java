@@ -1,7 +1,20 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -60,6 +73,11 @@ public class TernaryTreeTest
         {caseSensitive, "Pawpaw", false},
         {caseInsensitive, "Jocular", true},
         {caseSensitive, "brujo", false},
+        {caseSensitive, "", false},
+        {caseInsensitive, "JOCULAR", true},
+        {caseInsensitive, "oRNITHOPTER", true},
+        {caseInsensitive, "ornithopters", false},
+        {caseInsensitive, "ornithopte", false},
       };
   }
 
@@ -149,4 +167,298 @@ public class TernaryTreeTest
     System.out.println("Near search expected: " + Arrays.toString(expected));
     assertThat(actual).isEqualTo(expected);
   }
+
+
+  /**
+   * Creates edit distance search test data.
+   *
+   * @return  Edit distance search test data.
+   */
+  @DataProvider(name = "editDistanceSearchData")
+  public Object[][] createEditDistanceSearchData()
+  {
+    return
+      new Object[][] {
+        {caseSensitive, "Jicaque", 1},
+        {caseSensitive, "passw0rd1", 2},
+        {caseSensitive, "ornithoptre", 2},
+        {caseSensitive, "", 1},
+        {caseInsensitive, "PASSW0RD", 2},
+        {caseInsensitive, "jocullar", 1},
+        {caseInsensitive, "zz", 0},
+      };
+  }
+
+
+  /**
+   * @param  tt  Ternary Tree searched for target word.
+   * @param  word  to search for.
+   * @param  distance  for edit distance search
+   */
+  @Test(dataProvider = "editDistanceSearchData")
+  public void editDistanceSearch(final TernaryTree tt, final String word, final int distance)
+  {
+    final List<CharSequence> expected = new ArrayList<>();
+    for (CharSequence s : tt.getWords()) {
+      final String candidate = s.toString();
+      final boolean cs = tt == caseSensitive;
+      if (levenshtein(cs ? word : word.toLowerCase(), cs ? candidate : candidate.toLowerCase()) <= distance) {
+        expected.add(candidate);
+      }
+    }
+    final CharSequence[] actual = tt.editDistanceSearch(word, distance, Integer.MAX_VALUE);
+    assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    if (actual.length > 1) {
+      assertThat(tt.editDistanceSearch(word, distance, 1)).containsExactly(actual[0]);
+    }
+  }
+
+
+  /**
+   * Test edit distance search arguments.
+   */
+  @Test
+  public void editDistanceSearchArguments()
+  {
+    assertThat(caseSensitive.editDistanceSearch("Jicaque", 0, 10)).containsExactly("Jicaque");
+    assertThat(caseInsensitive.editDistanceSearch("JICAQUE", 0, 10)).containsExactly("Jicaque");
+    assertThat(new TernaryTree().editDistanceSearch("a", 1, 1)).isEmpty();
+    assertThatThrownBy(() -> caseSensitive.editDistanceSearch("a", -1, 1))
+      .isExactlyInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> caseSensitive.editDistanceSearch("a", 1, 0))
+      .isExactlyInstanceOf(IllegalArgumentException.class);
+  }
+
+
+  /**
+   * Test searching words which contain supplementary code points and words which differ only in case.
+   */
+  @Test
+  public void unicodeSearch()
+  {
+    final String[] words = {"pa\uD83D\uDE00ss", "\u00DFtra\u00DFe", "\u03A3\u03BF\u03C6\u03AF\u03B1", "pass"};
+    final TernaryTree cs = new TernaryTree(true);
+    final TernaryTree ci = new TernaryTree(false);
+    cs.insert(words);
+    ci.insert(words);
+    for (String word : words) {
+      assertThat(cs.search(word)).isTrue();
+      assertThat(ci.search(word)).isTrue();
+      assertThat(ci.search(word.toUpperCase())).isEqualTo(word.toUpperCase().length() == word.length());
+    }
+    assertThat(cs.search("pa\uD83D\uDE00s")).isFalse();
+    assertThat(cs.search("\u03C3\u03BF\u03C6\u03AF\u03B1")).isFalse();
+    assertThat(ci.search("\u03C3\u03BF\u03A6\u03AF\u03B1")).isTrue();
+    assertThat(cs.getWords()).containsExactlyInAnyOrder(words);
+  }
+
+
+  /**
+   * Test that words longer than the call stack would permit a recursive search can be inserted and searched.
+   */
+  @Test
+  public void longWords()
+  {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1_000_000; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    final String word = sb.toString();
+    final TernaryTree tt = new TernaryTree(false);
+    tt.insert(word);
+    assertThat(tt.search(word)).isTrue();
+    assertThat(tt.search(word.toUpperCase())).isTrue();
+    assertThat(tt.search(word.substring(1))).isFalse();
+    assertThat(tt.search(word.substring(0, word.length() - 1))).isFalse();
+    assertThat(tt.size()).isEqualTo(1);
+    assertThat(tt.getWords()).containsExactly(word);
+  }
+
+
+  /**
+   * Test that the word count is maintained and that every traversal visits the same words.
+   */
+  @Test
+  public void words()
+  {
+    final TernaryTree tt = new TernaryTree(false);
+    assertThat(tt.size()).isEqualTo(0);
+    assertThat(tt.spliterator().estimateSize()).isEqualTo(0);
+    tt.insert(new String[] {"jocular", "joc", "Jocular", "pass", "password", "", null, "JOC", "a\uD83D\uDE00"});
+    assertThat(tt.size()).isEqualTo(5);
+    assertThat(tt.getWords()).hasSize(5);
+
+    for (TernaryTree tree : new TernaryTree[] {caseSensitive, caseInsensitive}) {
+      final List<CharSequence> expected = tree.getWords();
+      assertThat(tree.size()).isEqualTo(expected.size());
+      final List<String> visited = new ArrayList<>();
+      tree.forEachWord(word -> visited.add(word.toString()));
+      assertThat(visited).isEqualTo(expected);
+      assertThat(tree.spliterator().estimateSize()).isEqualTo(expected.size());
+      assertThat(StreamSupport.stream(tree.spliterator(), false).collect(Collectors.toList())).isEqualTo(expected);
+      assertThat(StreamSupport.stream(tree.spliterator(), true).collect(Collectors.toList())).isEqualTo(expected);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void snapshot() throws Exception
+  {
+    for (TernaryTree tt : new TernaryTree[] {caseSensitive, caseInsensitive}) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      tt.write(out);
+      final TernaryTree streamed = TernaryTree.read(new ByteArrayInputStream(out.toByteArray()));
+      assertThat(streamed.getWords()).isEqualTo(tt.getWords());
+      assertThat(streamed.size()).isEqualTo(tt.size());
+      assertThat(streamed.getNodeStats()).isEqualTo(tt.getNodeStats());
+
+      final Path file = Files.createTempFile("passay-tt", ".snapshot");
+      try {
+        try (OutputStream fileOut = Files.newOutputStream(file)) {
+          tt.write(fileOut);
+        }
+        final TernaryTree mapped;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+          mapped = TernaryTree.read(raf.getChannel());
+        }
+        assertThat(mapped.getWords()).isEqualTo(tt.getWords());
+        assertThat(mapped.search("Jocular")).isEqualTo(tt.search("Jocular"));
+        assertThat(mapped.search("jOCULAR")).isEqualTo(tt.search("jOCULAR"));
+        mapped.insert("Jocularly-not-a-word");
+        assertThat(mapped.search("Jocularly-not-a-word")).isTrue();
+      } finally {
+        Files.delete(file);
+      }
+    }
+    final TernaryTree empty = TernaryTree.read(ByteBuffer.wrap(snapshotBytes(new TernaryTree())));
+    assertThat(empty.getWords()).isEmpty();
+    assertThat(empty.search("a")).isFalse();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void invalidSnapshot() throws Exception
+  {
+    final TernaryTree tt = new TernaryTree();
+    tt.insert(new String[] {"alpha", "beta", "gamma"});
+    final byte[] bytes = snapshotBytes(tt);
+
+    final byte[] corrupt = bytes.clone();
+    corrupt[corrupt.length / 2] ^= 1;
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(corrupt)))
+      .isInstanceOf(IOException.class).hasMessageContaining("checksum");
+
+    final byte[] version = bytes.clone();
+    version[7]++;
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(version)))
+      .isInstanceOf(IOException.class).hasMessageContaining("version");
+
+    final byte[] magic = bytes.clone();
+    magic[0] = 0;
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(magic)))
+      .isInstanceOf(IOException.class).hasMessageContaining("Not a ternary tree snapshot");
+
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))))
+      .isInstanceOf(IOException.class).hasMessageContaining("size");
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(new byte[4])))
+      .isInstanceOf(IOException.class).hasMessageContaining("truncated");
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void cyclicSnapshot() throws Exception
+  {
+    final TernaryTree tt = new TernaryTree();
+    tt.insert(new String[] {"alpha", "beta", "gamma"});
+    final byte[] bytes = snapshotBytes(tt);
+    final ByteBuffer header = ByteBuffer.wrap(bytes);
+    final int root = header.getInt(12);
+    final int nodeCount = header.getInt(16);
+    final int last = nodeCount - 1;
+    final int hiOffset = 20 + 3 * nodeCount * Integer.BYTES;
+
+    final byte[] selfLoop = bytes.clone();
+    ByteBuffer.wrap(selfLoop).putInt(hiOffset + last * Integer.BYTES, last);
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(withChecksum(selfLoop))))
+      .isInstanceOf(IOException.class).hasMessageContaining("invalid nodes");
+
+    final byte[] toRoot = bytes.clone();
+    ByteBuffer.wrap(toRoot).putInt(hiOffset + last * Integer.BYTES, root);
+    assertThatThrownBy(() -> TernaryTree.read(ByteBuffer.wrap(withChecksum(toRoot))))
+      .isInstanceOf(IOException.class).hasMessageContaining("invalid nodes");
+
+    assertThat(TernaryTree.read(ByteBuffer.wrap(withChecksum(bytes.clone()))).getWords())
+      .containsExactly("alpha", "beta", "gamma");
+  }
+
+
+  /**
+   * Computes the Levenshtein distance between two strings of BMP characters.
+   *
+   * @param  s1  first string
+   * @param  s2  second string
+   *
+   * @return  edit distance
+   */
+  private static int levenshtein(final String s1, final String s2)
+  {
+    int[] previous = new int[s2.length() + 1];
+    int[] current = new int[s2.length() + 1];
+    for (int j = 0; j <= s2.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= s1.length(); i++) {
+      current[0] = i;
+      for (int j = 1; j <= s2.length(); j++) {
+        final int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+        current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[s2.length()];
+  }
+
+
+  /**
+   * Writes the supplied tree to a byte array.
+   *
+   * @param  tt  to write
+   *
+   * @return  snapshot bytes
+   *
+   * @throws  IOException  On write failure.
+   */
+  private static byte[] snapshotBytes(final TernaryTree tt) throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    tt.write(out);
+    return out.toByteArray();
+  }
+
+
+  /**
+   * Replaces the checksum at the end of the supplied snapshot with the checksum of its contents.
+   *
+   * @param  bytes  snapshot to update
+   *
+   * @return  supplied snapshot
+   */
+  private static byte[] withChecksum(final byte[] bytes)
+  {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length - Long.BYTES);
+    ByteBuffer.wrap(bytes).putLong(bytes.length - Long.BYTES, crc.getValue());
+    return bytes;
+  }
 }
@@ -1,8 +1,19 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.dictionary.sort;
 
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import org.passay.dictionary.Dictionaries;
+import org.passay.dictionary.FileWordList;
 import org.passay.dictionary.TestUtil;
+import org.passay.dictionary.WordLists;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -65,6 +76,81 @@ public class SorterTest
   }
 
 
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void parallelArraysSort() throws Exception
+  {
+    final String[] array = TestUtil.fileToArray(Dictionaries.FREEBSD_FILE);
+    assertThat(array).isNotEqualTo(sortedArray);
+    doSort(new ParallelArraysSort(), array);
+    assertThat(array).isEqualTo(sortedArray);
+
+    final String[] lowerCase = TestUtil.fileToArray(Dictionaries.FREEBSD_FILE_LOWERCASE);
+    new ParallelArraysSort().sort(lowerCase, WordLists.CASE_INSENSITIVE_COMPARATOR);
+    assertThat(lowerCase).isEqualTo(TestUtil.fileToArray(Dictionaries.FREEBSD_FILE_LOWERCASE_SORTED));
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void externalMergeSort() throws Exception
+  {
+    final String[] unique = Arrays.stream(sortedArray).distinct().toArray(String[]::new);
+    final Path directory = Files.createTempDirectory("passay-sort");
+    final Path output = directory.resolve("freebsd.sort");
+    try {
+      // small runs spill to many run files that are merged
+      final ExternalMergeSort sort = new ExternalMergeSort(
+        WordLists.CASE_SENSITIVE_COMPARATOR, new ParallelArraysSort(), 4096, directory);
+      assertThat(sort.sort(Paths.get(Dictionaries.FREEBSD_FILE), output)).isEqualTo(unique.length);
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+        assertThat(files).containsExactly(output);
+      }
+      try (RandomAccessFile file = new RandomAccessFile(output.toFile(), "r")) {
+        final FileWordList wordList = new FileWordList(file);
+        assertThat(wordList.size()).isEqualTo(unique.length);
+        for (int i = 0; i < unique.length; i++) {
+          assertThat(wordList.get(i)).isEqualTo(unique[i]);
+        }
+        assertThat(WordLists.binarySearch(wordList, "manipular")).isLessThan(0);
+        assertThat(WordLists.binarySearch(wordList, unique[unique.length / 2])).isEqualTo(unique.length / 2);
+      }
+
+      // a single run is written without spilling
+      final StringWriter writer = new StringWriter();
+      assertThat(new ExternalMergeSort().sort(new Reader[] {new StringReader("b\n\na\nc\nb\n")}, writer))
+        .isEqualTo(3);
+      assertThat(writer.toString()).isEqualTo("a\nb\nc\n");
+    } finally {
+      Files.deleteIfExists(output);
+      Files.delete(directory);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void externalMergeSortCaseInsensitive() throws Exception
+  {
+    final String text = "b\nA\nC\na\nB\nc\nd\n";
+    for (int size : new int[] {1, 1000}) {
+      final StringWriter writer = new StringWriter();
+      final ExternalMergeSort sort = new ExternalMergeSort(
+        WordLists.CASE_INSENSITIVE_COMPARATOR, new ArraysSort(), size, null);
+      assertThat(sort.sort(new Reader[] {new StringReader(text), new StringReader("D\ne")}, writer)).isEqualTo(5);
+      // the first of the words that differ in case is kept
+      assertThat(writer.toString()).isEqualTo("A\nb\nC\nd\ne\n");
+    }
+    assertThat(new ExternalMergeSort().sort(new Reader[0], new StringWriter())).isEqualTo(0);
+  }
+
+
   /**
    * @throws  Exception  On test failure.
    */
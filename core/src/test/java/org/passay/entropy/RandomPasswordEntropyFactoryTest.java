@@ -2,6 +2,7 @@
 package org.passay.entropy;
 
 import java.util.List;
+import org.passay.DefaultPasswordValidator;
 import org.passay.PasswordData;
 import org.passay.rule.Rule;
 import org.testng.annotations.Test;
@@ -23,7 +24,20 @@ public class RandomPasswordEntropyFactoryTest extends AbstractEntropyFactoryTest
   @Test(dataProvider = "randomGeneratedData")
   public void createEntropy(final List<Rule> rules, final PasswordData data)
   {
-    RandomPasswordEntropyFactory.createEntropy(rules, data);
+    final RandomPasswordEntropy entropy = RandomPasswordEntropyFactory.createEntropy(rules, data);
+    assertThat(RandomPasswordEntropyFactory.countUniqueCharacters(rules)).isEqualTo(52);
+    assertThat(entropy.estimate())
+      .isEqualTo(RandomPasswordEntropyFactory.createEntropy(52, data).estimate());
+
+    // the validator counts unique characters once and reuses the count
+    final List<Rule> allowedRules = rules.subList(1, 2);
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER, allowedRules);
+    final double expected = RandomPasswordEntropyFactory.createEntropy(allowedRules, data).estimate();
+    assertThat(validator.validate(data).getEntropy()).isEqualTo(expected);
+    assertThat(validator.validate(data).getEntropy()).isEqualTo(expected);
+    assertThatThrownBy(() -> RandomPasswordEntropyFactory.createEntropy(0, data))
+      .isInstanceOf(IllegalArgumentException.class);
   }
 
 
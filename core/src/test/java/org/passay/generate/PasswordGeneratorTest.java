@@ -15,6 +15,7 @@ import org.passay.rule.CharacterCharacteristicsRule;
 import org.passay.rule.CharacterRule;
 import org.passay.rule.IllegalCharacterRule;
 import org.passay.rule.IllegalSequenceRule;
+import org.passay.rule.LengthRule;
 import org.passay.rule.RepeatCharactersRule;
 import org.passay.rule.Rule;
 import org.testng.annotations.DataProvider;
@@ -169,6 +170,18 @@ public class PasswordGeneratorTest
       assertThat(e).isExactlyInstanceOf(IllegalArgumentException.class);
       assertThat(e.getMessage()).isEqualTo("Rules did not produce any combination of valid characters");
     }
+
+    try {
+      new PasswordGenerator(
+        10,
+        new CharacterRule(EnglishCharacterData.Digit, 1),
+        new LengthRule(8, 12),
+        new LengthRule(16, 20));
+      fail("Should have thrown IllegalArgumentException");
+    } catch (Exception e) {
+      assertThat(e).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThat(e.getMessage()).isEqualTo("Length rules cannot be satisfied by any password");
+    }
   }
 
 
@@ -0,0 +1,116 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import org.passay.DefaultPasswordValidator;
+import org.passay.PasswordData;
+import org.passay.data.EnglishCharacterData;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.LengthRule;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link RuleMetrics}.
+ *
+ * @author  Middleware Services
+ */
+public class RuleMetricsTest
+{
+
+
+  @Test
+  public void record()
+  {
+    final RuleMetrics metrics = new RuleMetrics();
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      metrics,
+      Arrays.asList(
+        new LengthRule(8, 16),
+        new CharacterRule(EnglishCharacterData.Digit, 1),
+        new CharacterRule(EnglishCharacterData.UpperCase, 1)));
+    assertThat(validator.validate(new PasswordData("Password1")).isValid()).isTrue();
+    assertThat(validator.validate(new PasswordData("pass")).isValid()).isFalse();
+    assertThat(validator.validate(new PasswordData("password")).isValid()).isFalse();
+
+    assertThat(metrics.getValidations()).isEqualTo(3);
+    assertThat(metrics.getFailures()).isEqualTo(2);
+    assertThat(metrics.getTotalTime()).isPositive();
+
+    final Map<String, RuleStatistics> statistics = metrics.getRuleStatistics();
+    assertThat(statistics).containsOnlyKeys(LengthRule.class.getName(), CharacterRule.class.getName());
+    final RuleStatistics length = statistics.get(LengthRule.class.getName());
+    assertThat(length.getValidations()).isEqualTo(3);
+    assertThat(length.getFailures()).isEqualTo(1);
+    assertThat(length.getErrorCodes()).containsOnly(entry(LengthRule.ERROR_CODE_MIN, 1L));
+    assertThat(length.getMaxTime()).isLessThanOrEqualTo(length.getTotalTime());
+    final RuleStatistics character = statistics.get(CharacterRule.class.getName());
+    assertThat(character.getValidations()).isEqualTo(6);
+    assertThat(character.getFailures()).isEqualTo(4);
+    assertThat(character.getErrorCodes())
+      .containsOnly(
+        entry(EnglishCharacterData.Digit.getErrorCode(), 2L),
+        entry(EnglishCharacterData.UpperCase.getErrorCode(), 2L));
+
+    metrics.reset();
+    assertThat(metrics.getValidations()).isZero();
+    assertThat(metrics.getRuleStatistics()).isEmpty();
+  }
+
+
+  @Test
+  public void failFast()
+  {
+    final RuleMetrics metrics = new RuleMetrics();
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(
+      true,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      metrics,
+      Arrays.asList(new LengthRule(8, 16), new CharacterRule(EnglishCharacterData.Digit, 1)));
+    assertThat(validator.validate(new PasswordData("pass")).isValid()).isFalse();
+    assertThat(metrics.getFailures()).isEqualTo(1);
+    assertThat(metrics.getRuleStatistics()).containsOnlyKeys(LengthRule.class.getName());
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void mxBean() throws Exception
+  {
+    final RuleMetrics metrics = new RuleMetrics();
+    new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      metrics,
+      Arrays.asList(new LengthRule(8, 16))).validate(new PasswordData("pass"));
+
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName name = new ObjectName(RuleMetrics.OBJECT_NAME + ",name=test");
+    server.registerMBean(metrics, name);
+    try {
+      assertThat(server.getAttribute(name, "Validations")).isEqualTo(1L);
+      final TabularData rules = (TabularData) server.getAttribute(name, "RuleStatistics");
+      final CompositeData length = (CompositeData) rules.get(new Object[] {LengthRule.class.getName()}).get("value");
+      assertThat(length.get("failures")).isEqualTo(1L);
+      assertThat(((TabularData) length.get("errorCodes")).get(new Object[] {LengthRule.ERROR_CODE_MIN}).get("value"))
+        .isEqualTo(1L);
+      server.invoke(name, "reset", new Object[0], new String[0]);
+      assertThat(server.getAttribute(name, "Validations")).isEqualTo(0L);
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
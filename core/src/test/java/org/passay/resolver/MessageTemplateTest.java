@@ -0,0 +1,128 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.resolver;
+
+import java.util.Collections;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.Properties;
+import org.passay.RuleResultDetail;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link MessageTemplate}.
+ *
+ * @author  Middleware Services
+ */
+public class MessageTemplateTest
+{
+
+
+  /**
+   * Format strings and arguments.
+   *
+   * @return  test data
+   */
+  @DataProvider(name = "formats")
+  public Object[][] formats()
+  {
+    return
+      new Object[][] {
+        {"", new Object[0]},
+        {"No specifiers.", new Object[0]},
+        {"Password must be %1$s or more characters in length.", new Object[] {8, 8}},
+        {"Password %2$s the illegal character '%1$s'.", new Object[] {"a", "contains"}},
+        {"%s and %s", new Object[] {"first", null}},
+        {"%2$s %s %<s %s", new Object[] {"a", "b"}},
+        {"100%% %s%n", new Object[] {"done"}},
+        {"%d items, %,d total", new Object[] {12, 1234567}},
+        {"%-6s|%6s|%S", new Object[] {"left", "right", "upper"}},
+        {"%.2f %x %c %b", new Object[] {3.14159, 255, 'c', true}},
+        {"%tY", new Object[] {new java.util.Date(0)}},
+      };
+  }
+
+
+  /**
+   * Format strings that the formatter rejects.
+   *
+   * @return  test data
+   */
+  @DataProvider(name = "invalid-formats")
+  public Object[][] invalidFormats()
+  {
+    return
+      new Object[][] {
+        {"trailing %", new Object[] {"a"}},
+        {"unknown %q", new Object[] {"a"}},
+        {"missing %s %s", new Object[] {"a"}},
+        {"missing %3$s", new Object[] {"a"}},
+        {"previous %<s", new Object[] {"a"}},
+        {"mismatch %d", new Object[] {"a"}},
+      };
+  }
+
+
+  /**
+   * @param  format  to parse
+   * @param  args  to format
+   */
+  @Test(dataProvider = "formats")
+  public void format(final String format, final Object[] args)
+  {
+    final MessageTemplate template = new MessageTemplate(format);
+    for (Locale locale : new Locale[] {null, Locale.US, Locale.GERMANY, Locale.FRANCE}) {
+      final String expected = locale != null ? String.format(locale, format, args) : String.format(format, args);
+      assertThat(template.format(locale, args)).isEqualTo(expected);
+      // templates are reusable
+      assertThat(template.format(locale, args)).isEqualTo(expected);
+    }
+  }
+
+
+  /**
+   * @param  format  to parse
+   * @param  args  to format
+   */
+  @Test(dataProvider = "invalid-formats")
+  public void invalidFormat(final String format, final Object[] args)
+  {
+    final MessageTemplate template = new MessageTemplate(format);
+    try {
+      String.format(format, args);
+      fail("Should have thrown IllegalFormatException");
+    } catch (IllegalFormatException e) {
+      assertThatThrownBy(() -> template.format(null, args)).isExactlyInstanceOf(e.getClass());
+    }
+  }
+
+
+  /**
+   * Test that message keys are looked up once by the resolver.
+   */
+  @Test
+  public void resolverCachesMessages()
+  {
+    final int[] lookups = new int[1];
+    final Properties properties = new Properties();
+    properties.setProperty("FOUND", "Found %1$s.");
+    final AbstractMessageResolver resolver = new PropertiesMessageResolver(properties, Locale.US)
+    {
+      @Override
+      protected String getMessage(final String key)
+      {
+        lookups[0]++;
+        return super.getMessage(key);
+      }
+    };
+    final RuleResultDetail found = new RuleResultDetail(
+      new String[] {"MISSING", "FOUND"}, Collections.singletonMap("value", "it"));
+    final RuleResultDetail missing = new RuleResultDetail("MISSING", Collections.singletonMap("value", "it"));
+    for (int i = 0; i < 3; i++) {
+      assertThat(resolver.resolve(found)).isEqualTo("Found it.");
+      assertThat(resolver.resolve(missing)).isEqualTo("MISSING:{value=it}");
+    }
+    assertThat(lookups[0]).isEqualTo(2);
+  }
+}
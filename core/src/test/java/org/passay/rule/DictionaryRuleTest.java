@@ -5,8 +5,10 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import org.passay.PasswordData;
+import org.passay.data.EnglishSubstitutionData;
 import org.passay.dictionary.Dictionaries;
 import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.TernaryTreeDictionary;
 import org.passay.dictionary.WordListDictionary;
 import org.passay.dictionary.WordLists;
 import org.passay.dictionary.sort.ArraysSort;
@@ -33,6 +35,9 @@ public class DictionaryRuleTest extends AbstractRuleTest
   /** For testing. */
   private DictionaryRule allRule;
 
+  /** For testing. */
+  private DictionaryRule leetRule;
+
 
   /**
    * Initialize rules for this test.
@@ -48,6 +53,12 @@ public class DictionaryRuleTest extends AbstractRuleTest
     backwardsRule = new DictionaryRule(caseSensitiveDict, true);
     ignoreCaseRule = new DictionaryRule(caseInsensitiveDict);
     allRule = new DictionaryRule(caseInsensitiveDict, true);
+    leetRule = new DictionaryRule(
+      new TernaryTreeDictionary(
+        WordLists.createFromReader(
+          new Reader[] {new FileReader(Dictionaries.WEB_FILE_GT3)}, false, new ArraysSort())),
+      EnglishSubstitutionData.Leetspeak,
+      true);
   }
 
 
@@ -138,6 +149,27 @@ public class DictionaryRuleTest extends AbstractRuleTest
           new PasswordData("EZInamLLuP"),
           codes(DictionaryRule.ERROR_CODE_REVERSED),
         },
+
+        // valid password
+        {leetRule, new PasswordData("Pullm@n1z3!x"), null, },
+        // substituted dictionary word
+        {
+          leetRule,
+          new PasswordData("Pullm@n1z3"),
+          codes(DictionaryRule.ERROR_CODE),
+        },
+        // backwards substituted dictionary word
+        {
+          leetRule,
+          new PasswordData("3z1n@mllup"),
+          codes(DictionaryRule.ERROR_CODE_REVERSED),
+        },
+        // unsubstituted dictionary word
+        {
+          leetRule,
+          new PasswordData("PuLLmanIZE"),
+          codes(DictionaryRule.ERROR_CODE),
+        },
       };
   }
 
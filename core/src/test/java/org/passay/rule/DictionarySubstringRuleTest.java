@@ -3,8 +3,10 @@ package org.passay.rule;
 
 import java.io.FileReader;
 import org.passay.PasswordData;
+import org.passay.data.EnglishSubstitutionData;
 import org.passay.dictionary.ArrayWordList;
 import org.passay.dictionary.Dictionaries;
+import org.passay.dictionary.TernaryTreeDictionary;
 import org.passay.dictionary.WordListDictionary;
 import org.passay.dictionary.WordLists;
 import org.passay.dictionary.sort.ArraysSort;
@@ -31,6 +33,9 @@ public class DictionarySubstringRuleTest extends AbstractRuleTest
   /** For testing. */
   private DictionarySubstringRule allRule;
 
+  /** For testing. */
+  private DictionarySubstringRule leetRule;
+
 
   /**
    * Initialize rules for this test.
@@ -56,6 +61,8 @@ public class DictionarySubstringRuleTest extends AbstractRuleTest
     backwardsRule = new DictionarySubstringRule(caseSensitiveDict, true);
     ignoreCaseRule = new DictionarySubstringRule(caseInsensitiveDict);
     allRule = new DictionarySubstringRule(caseInsensitiveDict, true);
+    leetRule = new DictionarySubstringRule(
+      new TernaryTreeDictionary(caseInsensitiveWordList), EnglishSubstitutionData.Leetspeak, true);
   }
 
 
@@ -146,6 +153,21 @@ public class DictionarySubstringRuleTest extends AbstractRuleTest
           new PasswordData("p4tyLeCnAl5gew"),
           codes(DictionarySubstringRule.ERROR_CODE_REVERSED),
         },
+
+        // valid password
+        {leetRule, new PasswordData("x9q#7wz5v"), null, },
+        // substituted dictionary word
+        {
+          leetRule,
+          new PasswordData("xq1@nc3ly5v"),
+          codes(DictionarySubstringRule.ERROR_CODE),
+        },
+        // backwards substituted dictionary word
+        {
+          leetRule,
+          new PasswordData("xqy|3cn@1v"),
+          codes(DictionarySubstringRule.ERROR_CODE_REVERSED),
+        },
       };
   }
 
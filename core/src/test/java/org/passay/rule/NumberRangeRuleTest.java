@@ -51,6 +51,19 @@ public class NumberRangeRuleTest extends AbstractRuleTest
         {new NumberRangeRule(101, 199), new PasswordData("p4zRcv99#n65"), null, },
         {new NumberRangeRule(101, 199), new PasswordData("p4zRcv100#n65"), null, },
         {new NumberRangeRule(101, 199), new PasswordData("p4zRcv199#n65"), null, },
+        // large ranges are matched against the digits of the password
+        {
+          new NumberRangeRule(1_000_000, Integer.MAX_VALUE),
+          new PasswordData("p4zRcv0012345678#n65"),
+          codes(NumberRangeRule.ERROR_CODE, NumberRangeRule.ERROR_CODE, NumberRangeRule.ERROR_CODE),
+        },
+        {
+          new NumberRangeRule(-2000, -1000, MatchBehavior.EndsWith),
+          new PasswordData("p4zRcv#-1999"),
+          codes(NumberRangeRule.ERROR_CODE),
+        },
+        {new NumberRangeRule(-2000, -1000), new PasswordData("p4zRcv#1999"), null, },
+        {new NumberRangeRule(1000, 2000, MatchBehavior.EndsWith), new PasswordData("99"), null, },
       };
   }
 
@@ -0,0 +1,272 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.passay.PasswordData;
+import org.passay.UnicodeString;
+import org.passay.data.EnglishCharacterData;
+import org.passay.data.EnglishSequenceData;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.TernaryTreeDictionary;
+import org.passay.dictionary.WordLists;
+import org.passay.dictionary.sort.ArraysSort;
+import org.passay.support.HistoricalReference;
+import org.passay.support.SourceReference;
+
+/**
+ * Rules and password data shared by the benchmarks and the footprint harness, so that both measure the same work.
+ * Every rule created here passes {@link #validPasswordData()} and fails {@link #invalidPasswordData(String)}. Rules of
+ * other modules, such as the digest rules, are created by fixtures of those modules.
+ *
+ * @author  Middleware Services
+ */
+public final class RuleFixtures
+{
+
+  /** Username of the validated passwords. */
+  public static final String USERNAME = "alfred";
+
+  /** Password that satisfies every rule. */
+  public static final String VALID_PASSWORD = "Zq7#Kv9!mWx2";
+
+  /** Password that violates every rule. */
+  public static final String INVALID_PASSWORD = "alfred 2024 qwerty%aaaaa";
+
+  /** Base64 encoded SHA-1 digest of the invalid password. */
+  public static final String INVALID_DIGEST = "GljRANZJb8R6Y87CpW+oRwgPCio=";
+
+  /** Word that violates the dictionary rule, which only matches whole words. */
+  public static final String INVALID_WORD = "manipular";
+
+  /** Names of the rules created by {@link #createRule(String, String)}. */
+  public static final String[] RULES = {
+    "AllowedCharacterRule",
+    "AllowedRegexRule",
+    "CharacterCharacteristicsRule",
+    "CharacterOccurrencesRule",
+    "CharacterRule",
+    "DictionaryRule",
+    "DictionarySubstringRule",
+    "HistoryRule",
+    "IllegalCharacterRule",
+    "IllegalRegexRule",
+    "IllegalSequenceRule",
+    "LengthComplexityRule",
+    "LengthRule",
+    "NumberRangeRule",
+    "RepeatCharactersRule",
+    "SourceRule",
+    "UsernameRule",
+    "WhitespaceRule",
+  };
+
+  /** Minimum password length. */
+  private static final int MIN_LENGTH = 8;
+
+  /** Maximum password length. */
+  private static final int MAX_LENGTH = 64;
+
+  /** Number of character characteristics. */
+  private static final int CHARACTERISTICS = 4;
+
+  /** Maximum occurrences of any character. */
+  private static final int MAX_OCCURRENCES = 4;
+
+  /** Lower bound of the illegal number range. */
+  private static final int MIN_YEAR = 2000;
+
+  /** Upper bound of the illegal number range. */
+  private static final int MAX_YEAR = 2100;
+
+
+  /** Private constructor of utility class. */
+  private RuleFixtures() {}
+
+
+  /**
+   * Creates password data that satisfies every rule.
+   *
+   * @return  password data
+   */
+  public static PasswordData validPasswordData()
+  {
+    return passwordData(VALID_PASSWORD);
+  }
+
+
+  /**
+   * Creates password data that violates the rule with the supplied name.
+   *
+   * @param  name  simple class name of the rule
+   *
+   * @return  password data
+   */
+  public static PasswordData invalidPasswordData(final String name)
+  {
+    return passwordData("DictionaryRule".equals(name) ? INVALID_WORD : INVALID_PASSWORD);
+  }
+
+
+  /**
+   * Creates password data for the supplied password with a username and references to the invalid password, including
+   * digested references for the digest rules.
+   *
+   * @param  password  to validate
+   *
+   * @return  password data
+   */
+  public static PasswordData passwordData(final String password)
+  {
+    return new PasswordData(
+      USERNAME,
+      password,
+      new HistoricalReference("history", INVALID_PASSWORD),
+      new HistoricalReference("digest-history", INVALID_DIGEST),
+      new SourceReference("source", INVALID_PASSWORD),
+      new SourceReference("digest-source", INVALID_DIGEST));
+  }
+
+
+  /**
+   * Creates the rule with the supplied name.
+   *
+   * @param  name  simple class name of the rule, one of {@link #RULES}
+   * @param  resources  directory containing the bundled word lists
+   *
+   * @return  rule
+   *
+   * @throws  IOException  if a dictionary cannot be read
+   */
+  public static Rule createRule(final String name, final String resources) throws IOException
+  {
+    final Rule rule;
+    switch (name) {
+
+    case "AllowedCharacterRule":
+      rule = new AllowedCharacterRule(
+        new UnicodeString(
+          EnglishCharacterData.Alphabetical.getCharacters() + EnglishCharacterData.Digit.getCharacters() + "#!"));
+      break;
+
+    case "AllowedRegexRule":
+      rule = new AllowedRegexRule("^[A-Za-z0-9#!]+$");
+      break;
+
+    case "CharacterCharacteristicsRule":
+      rule = new CharacterCharacteristicsRule(
+        CHARACTERISTICS,
+        new CharacterRule(EnglishCharacterData.UpperCase, 1),
+        new CharacterRule(EnglishCharacterData.LowerCase, 1),
+        new CharacterRule(EnglishCharacterData.Digit, 1),
+        new CharacterRule(EnglishCharacterData.Special, 1));
+      break;
+
+    case "CharacterOccurrencesRule":
+      rule = new CharacterOccurrencesRule(MAX_OCCURRENCES);
+      break;
+
+    case "CharacterRule":
+      rule = new CharacterRule(EnglishCharacterData.UpperCase, 1);
+      break;
+
+    case "DictionaryRule":
+      rule = new DictionaryRule(new TernaryTreeDictionary(wordList(resources, "web2", false)), true);
+      break;
+
+    case "DictionarySubstringRule":
+      rule = new DictionarySubstringRule(new TernaryTreeDictionary(wordList(resources, "web2-gt3", false)), true);
+      break;
+
+    case "HistoryRule":
+      rule = new HistoryRule();
+      break;
+
+    case "IllegalCharacterRule":
+      rule = new IllegalCharacterRule(new UnicodeString(" %&"));
+      break;
+
+    case "IllegalRegexRule":
+      rule = new IllegalRegexRule("\\d{4}");
+      break;
+
+    case "IllegalSequenceRule":
+      rule = new IllegalSequenceRule(EnglishSequenceData.USQwerty);
+      break;
+
+    case "LengthComplexityRule":
+      // the invalid password is long enough to require every characteristic
+      rule = new LengthComplexityRule(
+        new LengthComplexityRule.Entry(
+          "[0,16)",
+          new LengthRule(MIN_LENGTH, MAX_LENGTH),
+          new CharacterCharacteristicsRule(
+            CHARACTERISTICS - 1,
+            new CharacterRule(EnglishCharacterData.UpperCase, 1),
+            new CharacterRule(EnglishCharacterData.LowerCase, 1),
+            new CharacterRule(EnglishCharacterData.Digit, 1),
+            new CharacterRule(EnglishCharacterData.Special, 1))),
+        new LengthComplexityRule.Entry(
+          "[16,64]",
+          new LengthRule(MIN_LENGTH, MAX_LENGTH),
+          new CharacterCharacteristicsRule(
+            CHARACTERISTICS,
+            new CharacterRule(EnglishCharacterData.UpperCase, 1),
+            new CharacterRule(EnglishCharacterData.LowerCase, 1),
+            new CharacterRule(EnglishCharacterData.Digit, 1),
+            new CharacterRule(EnglishCharacterData.Special, 1))));
+      break;
+
+    case "LengthRule":
+      rule = new LengthRule(MIN_LENGTH, MIN_LENGTH * 2);
+      break;
+
+    case "NumberRangeRule":
+      rule = new NumberRangeRule(MIN_YEAR, MAX_YEAR);
+      break;
+
+    case "RepeatCharactersRule":
+      rule = new RepeatCharactersRule();
+      break;
+
+    case "SourceRule":
+      rule = new SourceRule();
+      break;
+
+    case "UsernameRule":
+      rule = new UsernameRule(true, true);
+      break;
+
+    case "WhitespaceRule":
+      rule = new WhitespaceRule();
+      break;
+
+    default:
+      throw new IllegalArgumentException("Unknown rule " + name);
+    }
+    return rule;
+  }
+
+
+  /**
+   * Reads a sorted word list from a bundled resource.
+   *
+   * @param  resources  directory containing the bundled word lists
+   * @param  name  of the resource
+   * @param  caseSensitive  whether the word list is case-sensitive
+   *
+   * @return  word list
+   *
+   * @throws  IOException  if the resource cannot be read
+   */
+  public static ArrayWordList wordList(final String resources, final String name, final boolean caseSensitive)
+    throws IOException
+  {
+    try (Reader reader = Files.newBufferedReader(Paths.get(resources, name), StandardCharsets.UTF_8)) {
+      return WordLists.createFromReader(new Reader[] {reader}, caseSensitive, new ArraysSort());
+    }
+  }
+}
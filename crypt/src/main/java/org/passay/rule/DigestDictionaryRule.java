@@ -5,6 +5,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import org.cryptacular.bean.HashBean;
 import org.passay.PassayUtils;
+import org.passay.PasswordData;
 import org.passay.UnicodeString;
 import org.passay.dictionary.Dictionary;
 
@@ -86,6 +87,23 @@ public class DigestDictionaryRule extends AbstractDictionaryRule
   }
 
 
+  @Override
+  protected CharSequence doWordSearch(final PasswordData passwordData, final UnicodeString text)
+  {
+    // a digest is only shared with other rules while a validator keeps the context open
+    if (!passwordData.getDigestContext().isOpen()) {
+      return doWordSearch(text);
+    }
+    return passwordData.getDigestContext().withDigest(
+      hashBean,
+      text,
+      null,
+      charset,
+      bytes -> new UnicodeString(hashBean.hash((Object) bytes)),
+      digest -> getDictionary().search(digest.toString()) ? text : null);
+  }
+
+
   @Override
   protected String getErrorCode(final boolean backwards)
   {
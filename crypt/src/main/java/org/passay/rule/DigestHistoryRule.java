@@ -1,10 +1,12 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.rule;
 
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executor;
 import org.cryptacular.bean.HashBean;
+import org.passay.DigestContext;
 import org.passay.PassayUtils;
 import org.passay.PasswordData;
 import org.passay.UnicodeString;
@@ -21,11 +23,14 @@ import org.passay.support.Salt;
 public class DigestHistoryRule extends HistoryRule
 {
 
-  /** Hash bean to use for comparing hashed passwords. */
-  private final HashBean<CharSequence> hashBean;
+  /** Compares passwords with references. */
+  private final ReferenceDigester digester;
 
-  /** Character set to use for undigested passwords. */
-  private final Charset charset;
+  /** Whether to digest the password once for each distinct salt of the references. */
+  private final boolean indexed;
+
+  /** Executor to compare references on, null to compare them on the calling thread. */
+  private final Executor executor;
 
 
   /**
@@ -47,8 +52,112 @@ public class DigestHistoryRule extends HistoryRule
    */
   public DigestHistoryRule(final HashBean<CharSequence> bean, final Charset set)
   {
-    hashBean = PassayUtils.assertNotNullArg(bean, "Hash bean cannot be null");
-    charset = PassayUtils.assertNotNullArg(set, "Character set cannot be null");
+    this(bean, set, true, false);
+  }
+
+
+  /**
+   * Creates new digest history rule which operates on password references that were digested with the supplied hash.
+   * An indexed rule digests the password once for each distinct salt of the references and compares the digest with
+   * the reference values, instead of comparing the password with each reference through the hash bean. This requires
+   * a hash bean that always produces the same digest for the same input, such as an unsalted digest, and references
+   * that carry their salt as a {@link Salt} rather than in the digest itself.
+   *
+   * @param  bean  encoding hash bean
+   * @param  set  to use for undigested passwords
+   * @param  reportAll  whether to report all matches or just the first
+   * @param  index  whether to digest the password once for each distinct salt
+   */
+  public DigestHistoryRule(
+    final HashBean<CharSequence> bean, final Charset set, final boolean reportAll, final boolean index)
+  {
+    this(bean, set, reportAll, index, null);
+  }
+
+
+  /**
+   * Creates new digest history rule which operates on password references that were digested with the supplied hash.
+   * References are compared concurrently on the supplied executor, which suits hash beans that are deliberately slow,
+   * such as bcrypt, scrypt or Argon2. The executor bounds the number of comparisons in flight for every validation that
+   * uses this rule, and should not be one that validations run on, since a validation waits for its comparisons. When
+   * only the first match is reported, the comparisons that remain once a match is found are cancelled.
+   *
+   * @param  bean  encoding hash bean
+   * @param  set  to use for undigested passwords
+   * @param  reportAll  whether to report all matches or just the first
+   * @param  exec  to compare references on
+   */
+  public DigestHistoryRule(
+    final HashBean<CharSequence> bean, final Charset set, final boolean reportAll, final Executor exec)
+  {
+    this(bean, set, reportAll, false, PassayUtils.assertNotNullArg(exec, "Executor cannot be null"));
+  }
+
+
+  /**
+   * Creates new digest history rule which operates on password references that were digested with the supplied hash.
+   *
+   * @param  bean  encoding hash bean
+   * @param  set  to use for undigested passwords
+   * @param  reportAll  whether to report all matches or just the first
+   * @param  index  whether to digest the password once for each distinct salt
+   * @param  exec  to compare references on or null
+   */
+  private DigestHistoryRule(
+    final HashBean<CharSequence> bean,
+    final Charset set,
+    final boolean reportAll,
+    final boolean index,
+    final Executor exec)
+  {
+    super(reportAll);
+    digester = new ReferenceDigester(bean, set);
+    indexed = index;
+    executor = exec;
+  }
+
+
+  /**
+   * Returns whether the password is digested once for each distinct salt of the references.
+   *
+   * @return  whether this rule is indexed
+   */
+  public boolean isIndexed()
+  {
+    return indexed;
+  }
+
+
+  /**
+   * Returns the executor that references are compared on.
+   *
+   * @return  executor or null if references are compared on the calling thread
+   */
+  public Executor getExecutor()
+  {
+    return executor;
+  }
+
+
+  @Override
+  protected <T extends Reference> List<T> findMatches(final PasswordData passwordData, final List<T> references)
+  {
+    final DigestContext context = passwordData.getDigestContext();
+    if (indexed) {
+      return digester.findIndexedMatches(context, passwordData.getPassword(), references, reportAllFailures);
+    }
+    if (executor != null && references.size() > 1) {
+      return digester.findConcurrentMatches(
+        context, passwordData.getPassword(), references, reportAllFailures, executor);
+    }
+    return super.findMatches(passwordData, references);
+  }
+
+
+  @Override
+  protected boolean matches(final PasswordData passwordData, final Reference reference)
+  {
+    return digester.matches(passwordData.getDigestContext(), passwordData.getPassword(), reference);
   }
 
 
@@ -63,14 +172,17 @@ public class DigestHistoryRule extends HistoryRule
   @Override
   protected boolean matches(final UnicodeString password, final Reference reference)
   {
-    final Salt salt = reference.getSalt();
-    final CharBuffer buffer = CharBuffer.wrap(password.toCharArray());
-    final CharBuffer undigested = salt == null ? buffer : salt.applyTo(buffer);
-    try {
-      return hashBean.compare(reference.getPassword(), (Object) PassayUtils.toByteArray(undigested, charset));
-    } finally {
-      PassayUtils.clear(buffer);
-      PassayUtils.clear(undigested);
-    }
+    return digester.matches(new DigestContext(), password, reference);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "reportAllFailures=" + reportAllFailures + ", " +
+      "digester=" + digester + ", " +
+      "indexed=" + indexed + ", " +
+      "executor=" + executor;
   }
 }
@@ -1,11 +1,11 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.rule;
 
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.cryptacular.bean.HashBean;
-import org.passay.PassayUtils;
+import org.passay.DigestContext;
 import org.passay.PasswordData;
 import org.passay.UnicodeString;
 import org.passay.support.Reference;
@@ -21,11 +21,11 @@ import org.passay.support.Salt;
 public class DigestSourceRule extends SourceRule
 {
 
-  /** Hash bean to use for comparing hashed passwords. */
-  private final HashBean<CharSequence> hashBean;
+  /** Compares passwords with references. */
+  private final ReferenceDigester digester;
 
-  /** Character set to use for undigested passwords. */
-  private final Charset charset;
+  /** Whether to digest the password once for each distinct salt of the references. */
+  private final boolean indexed;
 
 
   /**
@@ -47,8 +47,56 @@ public class DigestSourceRule extends SourceRule
    */
   public DigestSourceRule(final HashBean<CharSequence> bean, final Charset set)
   {
-    hashBean = PassayUtils.assertNotNullArg(bean, "Hash bean cannot be null");
-    charset = PassayUtils.assertNotNullArg(set, "Character set cannot be null");
+    this(bean, set, true, false);
+  }
+
+
+  /**
+   * Creates new digest source rule which operates on password references with the supplied label.
+   * An indexed rule digests the password once for each distinct salt of the references and compares the digest with
+   * the reference values, instead of comparing the password with each reference through the hash bean. This requires
+   * a hash bean that always produces the same digest for the same input, such as an unsalted digest, and references
+   * that carry their salt as a {@link Salt} rather than in the digest itself.
+   *
+   * @param  bean  encoding hash bean
+   * @param  set  to use for undigested passwords
+   * @param  reportAll  whether to report all matches or just the first
+   * @param  index  whether to digest the password once for each distinct salt
+   */
+  public DigestSourceRule(
+    final HashBean<CharSequence> bean, final Charset set, final boolean reportAll, final boolean index)
+  {
+    super(reportAll);
+    digester = new ReferenceDigester(bean, set);
+    indexed = index;
+  }
+
+
+  /**
+   * Returns whether the password is digested once for each distinct salt of the references.
+   *
+   * @return  whether this rule is indexed
+   */
+  public boolean isIndexed()
+  {
+    return indexed;
+  }
+
+
+  @Override
+  protected <T extends Reference> List<T> findMatches(final PasswordData passwordData, final List<T> references)
+  {
+    return indexed ?
+      digester.findIndexedMatches(
+        passwordData.getDigestContext(), passwordData.getPassword(), references, reportAllFailures) :
+      super.findMatches(passwordData, references);
+  }
+
+
+  @Override
+  protected boolean matches(final PasswordData passwordData, final Reference reference)
+  {
+    return digester.matches(passwordData.getDigestContext(), passwordData.getPassword(), reference);
   }
 
 
@@ -63,14 +111,16 @@ public class DigestSourceRule extends SourceRule
   @Override
   protected boolean matches(final UnicodeString password, final Reference reference)
   {
-    final Salt salt = reference.getSalt();
-    final CharBuffer buffer = CharBuffer.wrap(password.toCharArray());
-    final CharBuffer undigested = salt == null ? buffer : salt.applyTo(buffer);
-    try {
-      return hashBean.compare(reference.getPassword(), (Object) PassayUtils.toByteArray(undigested, charset));
-    } finally {
-      PassayUtils.clear(buffer);
-      PassayUtils.clear(undigested);
-    }
+    return digester.matches(new DigestContext(), password, reference);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "reportAllFailures=" + reportAllFailures + ", " +
+      "digester=" + digester + ", " +
+      "indexed=" + indexed;
   }
 }
@@ -4,6 +4,7 @@ package org.passay.rule;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -43,6 +44,9 @@ public class HaveIBeenPwnedRule implements Rule
   /** URL for pwned passwords. */
   private static final String DEFAULT_URL = "https://api.pwnedpasswords.com/range/";
 
+  /** Algorithm of the digest sent to the api, which identifies it in the digest context of a password. */
+  private static final String DIGEST_ALGORITHM = "SHA-1";
+
   /** number of chars to use from the SHA1 digest for the api call. */
   private static final int PREFIX_LENGTH = 5;
 
@@ -70,6 +74,9 @@ public class HaveIBeenPwnedRule implements Rule
   /** Maximum waiting time for reading all data. Default is 30 seconds. */
   private Duration readTimeout = DEFAULT_READ_TIMEOUT;
 
+  /** Notified of each request to the API, may be null. */
+  private RequestListener requestListener;
+
 
   /**
    * Create the rule, appName is required by the
@@ -146,18 +153,47 @@ public class HaveIBeenPwnedRule implements Rule
   }
 
 
+  /**
+   * listener notified of each request to the API, or null for none.
+   *
+   * @param listener of requests.
+   */
+  public void setRequestListener(final RequestListener listener)
+  {
+    requestListener = listener;
+  }
+
+
   @Override
   public RuleResult validate(final PasswordData passwordData)
   {
     PassayUtils.assertNotNullArg(passwordData, "Password data cannot be null");
     final String hexDigest = getHexDigest(passwordData);
-    try (LineNumberReader lnr = openApiConnectionForRange(hexDigest.substring(0, PREFIX_LENGTH))) {
-      return searchResponse(hexDigest, lnr);
+    final RequestListener listener = requestListener;
+    if (listener != null) {
+      listener.requestStarted();
+    }
+    URLConnection connection = null;
+    int lines = 0;
+    IOException error = null;
+    RuleResult result;
+    try {
+      connection = openApiConnectionForRange(hexDigest.substring(0, PREFIX_LENGTH));
+      try (LineNumberReader lnr = new LineNumberReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+        result = searchResponse(hexDigest, lnr);
+        lines = lnr.getLineNumber();
+      }
     } catch (IOException e) {
-      return allowOnException ?
+      error = e;
+      result = allowOnException ?
         new SuccessRuleResult() :
         new FailureRuleResult(new RuleResultDetail(IO_ERROR_CODE, Collections.singletonMap("url", apiUrl)));
     }
+    if (listener != null) {
+      listener.requestCompleted(apiUrl, getResponseCode(connection), lines, error);
+    }
+    return result;
   }
 
 
@@ -170,7 +206,8 @@ public class HaveIBeenPwnedRule implements Rule
       "allowExposed=" + allowExposed + ", " +
       "allowOnException=" + allowOnException + ", " +
       "connectTimeout=" + connectTimeout + ", " +
-      "readTimeout=" + readTimeout;
+      "readTimeout=" + readTimeout + ", " +
+      "requestListener=" + requestListener;
   }
 
 
@@ -212,26 +249,26 @@ public class HaveIBeenPwnedRule implements Rule
    */
   private static String getHexDigest(final PasswordData passwordData)
   {
-    final byte[] bytes = PassayUtils.toByteArray(passwordData.getPassword(), Charset.defaultCharset());
-    try {
-      final byte[] digest = HashUtil.sha1(bytes);
-      return CodecUtil.encode(new HexEncoder(false, true), digest);
-    } finally {
-      PassayUtils.clear(bytes);
-    }
+    return passwordData.getDigestContext().withDigest(
+      DIGEST_ALGORITHM,
+      passwordData.getPassword(),
+      null,
+      Charset.defaultCharset(),
+      HashUtil::sha1,
+      digest -> CodecUtil.encode(new HexEncoder(false, true), digest));
   }
 
 
   /**
-   * Opens a connection to the API and returns a reader for the input stream.
+   * Opens a connection to the API.
    *
    * @param range to request from the API
    *
-   * @return reader for the connection
+   * @return connection to the API
    *
    * @throws IOException if a connection cannot be opened to the API
    */
-  private LineNumberReader openApiConnectionForRange(final String range)
+  private URLConnection openApiConnectionForRange(final String range)
     throws IOException
   {
     final URL url = new URL(apiUrl, range);
@@ -244,6 +281,56 @@ public class HaveIBeenPwnedRule implements Rule
       c.setReadTimeout((int) readTimeout.toMillis());
     }
     c.connect();
-    return new LineNumberReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+    return c;
+  }
+
+
+  /**
+   * Returns the HTTP status of the response received on the supplied connection.
+   *
+   * @param connection to the API or null if none was opened
+   *
+   * @return HTTP status or -1 if no response was received
+   */
+  private static int getResponseCode(final URLConnection connection)
+  {
+    if (connection instanceof HttpURLConnection) {
+      try {
+        // a failed request is not retried, the status or failure of the first attempt is returned
+        return ((HttpURLConnection) connection).getResponseCode();
+      } catch (IOException e) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Receives the outcome of each request a rule makes to the API. Listeners are invoked on the validating thread and
+   * never receive the password or any part of its digest.
+   */
+  public interface RequestListener
+  {
+
+
+    /**
+     * Invoked before a connection to the API is opened. The default implementation does nothing.
+     */
+    default void requestStarted()
+    {
+      // no-op
+    }
+
+
+    /**
+     * Invoked once the response has been read or the request has failed.
+     *
+     * @param url of the API
+     * @param status HTTP status of the response or -1 if no response was received
+     * @param lines number of response lines read
+     * @param error that failed the request or null
+     */
+    void requestCompleted(URL url, int status, int lines, IOException error);
   }
 }
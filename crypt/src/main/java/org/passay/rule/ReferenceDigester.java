@@ -0,0 +1,222 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import org.cryptacular.bean.EncodingHashBean;
+import org.cryptacular.bean.HashBean;
+import org.cryptacular.codec.Codec;
+import org.cryptacular.spec.Spec;
+import org.cryptacular.util.CodecUtil;
+import org.passay.DigestContext;
+import org.passay.PassayUtils;
+import org.passay.UnicodeString;
+import org.passay.support.Reference;
+import org.passay.support.Salt;
+
+/**
+ * Compares candidate passwords with digested password references.
+ *
+ * @author  Middleware Services
+ */
+final class ReferenceDigester
+{
+
+  /** Hash bean to use for comparing hashed passwords. */
+  private final HashBean<CharSequence> hashBean;
+
+  /** Character set to use for undigested passwords. */
+  private final Charset charset;
+
+  /** Codec of the encoded digests, null if the hash bean is not an encoding hash bean. */
+  private final Spec<Codec> codecSpec;
+
+
+  /**
+   * Creates a new reference digester.
+   *
+   * @param  bean  encoding hash bean
+   * @param  set  to use for undigested passwords
+   */
+  ReferenceDigester(final HashBean<CharSequence> bean, final Charset set)
+  {
+    hashBean = PassayUtils.assertNotNullArg(bean, "Hash bean cannot be null");
+    charset = PassayUtils.assertNotNullArg(set, "Character set cannot be null");
+    codecSpec = bean instanceof EncodingHashBean ? ((EncodingHashBean) bean).getCodecSpec() : null;
+  }
+
+
+  /**
+   * Determines whether a digested password matches a reference value.
+   *
+   * @param  context  to encode the password with
+   * @param  password  candidate clear text password.
+   * @param  reference  reference digested password.
+   *
+   * @return  true if passwords match, false otherwise.
+   */
+  boolean matches(final DigestContext context, final UnicodeString password, final Reference reference)
+  {
+    return context.withBytes(
+      password,
+      reference.getSalt(),
+      charset,
+      bytes -> hashBean.compare(reference.getPassword(), (Object) bytes));
+  }
+
+
+  /**
+   * Returns the references that the supplied password matches, in the order they are supplied. The password is
+   * digested once for each distinct salt of the references and the digest is compared with the reference value, which
+   * requires a hash bean that always produces the same digest for the same input. The digests of an
+   * {@link EncodingHashBean} are compared once decoded with its codec, so that references that differ only in
+   * encoding, such as the case of hex digits, still match. The encoded digests of any other hash bean must be equal.
+   *
+   * @param  <T>  type of reference
+   * @param  context  to digest the password with
+   * @param  password  candidate clear text password
+   * @param  references  reference digested passwords
+   * @param  all  whether to return all matches or just the first
+   *
+   * @return  matching references
+   */
+  <T extends Reference> List<T> findIndexedMatches(
+    final DigestContext context, final UnicodeString password, final List<T> references, final boolean all)
+  {
+    final Map<Salt, byte[]> digests = new HashMap<>();
+    final List<T> matches = new ArrayList<>();
+    try {
+      for (T reference : references) {
+        final byte[] digest = digests.computeIfAbsent(reference.getSalt(), s -> digest(context, password, s));
+        if (MessageDigest.isEqual(digest, decode(reference.getPassword()))) {
+          matches.add(reference);
+          if (!all) {
+            break;
+          }
+        }
+      }
+    } finally {
+      digests.values().forEach(PassayUtils::clear);
+    }
+    return matches;
+  }
+
+
+  /**
+   * Returns the references that the supplied password matches, in the order they are supplied. Each reference is
+   * compared on the supplied executor. When only the first match is needed, the comparisons that remain once a match
+   * is found are cancelled: those that have not started never encode the password, and those that have wipe their
+   * buffers when the hash bean returns.
+   *
+   * @param  <T>  type of reference
+   * @param  context  to encode the password with
+   * @param  password  candidate clear text password
+   * @param  references  reference digested passwords
+   * @param  all  whether to return all matches or just the first
+   * @param  executor  to compare references on
+   *
+   * @return  matching references
+   *
+   * @throws  IllegalStateException  if the calling thread is interrupted while waiting for the comparisons
+   */
+  <T extends Reference> List<T> findConcurrentMatches(
+    final DigestContext context,
+    final UnicodeString password,
+    final List<T> references,
+    final boolean all,
+    final Executor executor)
+  {
+    final CompletionService<Integer> service = new ExecutorCompletionService<>(executor);
+    final List<Future<Integer>> futures = new ArrayList<>(references.size());
+    final boolean[] matched = new boolean[references.size()];
+    try {
+      for (int i = 0; i < references.size(); i++) {
+        final int index = i;
+        futures.add(service.submit(() -> matches(context, password, references.get(index)) ? index : -1));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        final int index = service.take().get();
+        if (index >= 0) {
+          matched[index] = true;
+          if (!all) {
+            break;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while comparing password references", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Error comparing password references", e.getCause());
+    } finally {
+      futures.forEach(f -> f.cancel(true));
+    }
+    final List<T> matches = new ArrayList<>();
+    for (int i = 0; i < matched.length; i++) {
+      if (matched[i]) {
+        matches.add(references.get(i));
+      }
+    }
+    return matches;
+  }
+
+
+  /**
+   * Digests the supplied password.
+   *
+   * @param  context  to digest the password with
+   * @param  password  clear text password
+   * @param  salt  to apply to the password or null
+   *
+   * @return  decoded digest of the password
+   */
+  private byte[] digest(final DigestContext context, final UnicodeString password, final Salt salt)
+  {
+    return context.withDigest(
+      hashBean,
+      password,
+      salt,
+      charset,
+      bytes -> new UnicodeString(hashBean.hash((Object) bytes)),
+      this::decode);
+  }
+
+
+  /**
+   * Decodes the supplied digest with the codec of the hash bean, or encodes its characters as UTF-8 if the hash bean
+   * has no codec.
+   *
+   * @param  digest  encoded digest
+   *
+   * @return  digest bytes
+   */
+  private byte[] decode(final CharSequence digest)
+  {
+    return codecSpec != null ?
+      CodecUtil.decode(codecSpec.newInstance().newDecoder(), digest) :
+      PassayUtils.toByteArray(digest, StandardCharsets.UTF_8);
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" +
+      "hashBean=" + hashBean + ", " +
+      "charset=" + charset + ", " +
+      "codecSpec=" + codecSpec;
+  }
+}
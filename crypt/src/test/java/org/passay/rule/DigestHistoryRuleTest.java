@@ -1,19 +1,31 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.rule;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cryptacular.bean.BCryptHashBean;
 import org.cryptacular.bean.EncodingHashBean;
+import org.cryptacular.bean.HashBean;
 import org.cryptacular.spec.CodecSpec;
 import org.cryptacular.spec.DigestSpec;
+import org.passay.DefaultPasswordValidator;
 import org.passay.PasswordData;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
 import org.passay.support.HistoricalReference;
 import org.passay.support.PrefixSalt;
 import org.passay.support.Reference;
 import org.passay.support.SuffixSalt;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
 
 /**
  * Unit test for {@link DigestHistoryRule}.
@@ -50,6 +62,13 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
   private final DigestHistoryRule emptyDigestRule = new DigestHistoryRule(
     new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false));
 
+  /** For testing. */
+  private final DigestHistoryRule indexedDigestRule = new DigestHistoryRule(
+    new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false),
+    StandardCharsets.UTF_8,
+    true,
+    true);
+
   /** For testing. */
   private final DigestHistoryRule bcryptDigestRule = new DigestHistoryRule(new BCryptHashBean());
 
@@ -176,6 +195,27 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
           codes(HistoryRule.ERROR_CODE),
         },
 
+        {
+          indexedDigestRule,
+          new PasswordData("testuser", "t3stUs3r00", digestRefs),
+          null,
+        },
+        {
+          indexedDigestRule,
+          new PasswordData("testuser", "t3stUs3r01", digestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          indexedDigestRule,
+          new PasswordData("testuser", "t3stUs3r02", prefixSaltedDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+        {
+          indexedDigestRule,
+          new PasswordData("testuser", "t3stUs3r03", suffixSaltedDigestRefs),
+          codes(HistoryRule.ERROR_CODE),
+        },
+
         {emptyDigestRule, new PasswordData("testuser", "t3stUs3r00"), null, },
         {emptyDigestRule, new PasswordData("testuser", "t3stUs3r01"), null, },
         {emptyDigestRule, new PasswordData("testuser", "t3stUs3r02"), null, },
@@ -206,4 +246,164 @@ public class DigestHistoryRuleTest extends AbstractRuleTest
         },
       };
   }
+
+
+  @Test
+  public void indexedDigestsOncePerSalt()
+  {
+    final EncodingHashBean sha1 = new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false);
+    final AtomicInteger hashes = new AtomicInteger();
+    final HashBean<CharSequence> bean = new HashBean<CharSequence>()
+    {
+      @Override
+      public CharSequence hash(final Object... data)
+      {
+        hashes.incrementAndGet();
+        return sha1.hash(data);
+      }
+
+      @Override
+      public boolean compare(final CharSequence hash, final Object... data)
+      {
+        hashes.incrementAndGet();
+        return sha1.compare(hash, data);
+      }
+    };
+
+    // salts of equal value are grouped even when they are different instances
+    final List<Reference> refs = new ArrayList<>(digestRefs);
+    refs.add(new HistoricalReference("pre-salt-history", "lHGQFf9tTVUOCG3CoNqdKaiCThA=", new PrefixSalt("xyz")));
+    refs.add(new HistoricalReference("pre-salt-history", "GtEfsfrBomR/3aD5RfBGWPOKlYc=", new PrefixSalt("xyz")));
+    refs.add(new HistoricalReference("suf-salt-history", "HnBhNzaSRdKqmIZbau97E++rysM=", new SuffixSalt("xyz")));
+
+    final DigestHistoryRule rule = new DigestHistoryRule(bean, StandardCharsets.UTF_8, true, true);
+    assertThat(rule.validate(new PasswordData("testuser", "t3stUs3r00", refs)).isValid()).isTrue();
+    assertThat(hashes.getAndSet(0)).isEqualTo(3);
+    assertThat(rule.validate(new PasswordData("testuser", "t3stUs3r01", refs)).getDetails()).hasSize(3);
+    assertThat(hashes.getAndSet(0)).isEqualTo(3);
+
+    final DigestHistoryRule first = new DigestHistoryRule(bean, StandardCharsets.UTF_8, false, true);
+    assertThat(first.validate(new PasswordData("testuser", "t3stUs3r01", refs)).getDetails()).hasSize(1);
+    assertThat(hashes.getAndSet(0)).isEqualTo(1);
+
+    new DigestHistoryRule(bean).validate(new PasswordData("testuser", "t3stUs3r00", refs));
+    assertThat(hashes.get()).isEqualTo(refs.size());
+  }
+
+
+  @Test
+  public void indexedDecodesReferences()
+  {
+    // the hash bean encodes lower case hex
+    final EncodingHashBean hex = new EncodingHashBean(new CodecSpec("Hex"), new DigestSpec("SHA1"), 1, false);
+    final List<Reference> refs = new ArrayList<>();
+    refs.add(new HistoricalReference("hex-history", "B1A7F1FCB5BCF92B12CBFA373E608DCB85449B9B"));
+    refs.add(new HistoricalReference("hex-history", "CEEADBF43C90E67A2863595AF21F3A061D27D62C"));
+    final DigestHistoryRule indexed = new DigestHistoryRule(hex, StandardCharsets.UTF_8, true, true);
+    final DigestHistoryRule compared = new DigestHistoryRule(hex, StandardCharsets.UTF_8, true, false);
+    for (String password : new String[] {"t3stUs3r00", "t3stUs3r01", "t3stUs3r02"}) {
+      final PasswordData data = new PasswordData("testuser", password, refs);
+      assertThat(indexed.validate(data).isValid()).isEqualTo(compared.validate(data).isValid());
+    }
+    assertThat(indexed.validate(new PasswordData("testuser", "t3stUs3r01", refs)).isValid()).isFalse();
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void concurrentComparisons() throws Exception
+  {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final HashBean<CharSequence> sha1 =
+        new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false);
+      final List<Reference> refs = new ArrayList<>();
+      refs.addAll(digestRefs);
+      refs.addAll(prefixSaltedDigestRefs);
+      refs.addAll(suffixSaltedDigestRefs);
+      final DigestHistoryRule all = new DigestHistoryRule(sha1, StandardCharsets.UTF_8, true, executor);
+      final DigestHistoryRule first = new DigestHistoryRule(sha1, StandardCharsets.UTF_8, false, executor);
+      for (String password : new String[] {"t3stUs3r00", "t3stUs3r01", "t3stUs3r02", "t3stUs3r03"}) {
+        final PasswordData data = new PasswordData("testuser", password, refs);
+        assertThat(all.validate(data).getDetails()).hasSameSizeAs(digestRule.validate(data).getDetails());
+        assertThat(first.validate(data).getDetails()).hasSize(data.getPassword().toString().endsWith("0") ? 0 : 1);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // comparisons that remain after the first match are cancelled
+    final ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      final AtomicInteger compares = new AtomicInteger();
+      final CountDownLatch latch = new CountDownLatch(1);
+      final HashBean<CharSequence> bean = new HashBean<CharSequence>()
+      {
+        @Override
+        public CharSequence hash(final Object... data)
+        {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean compare(final CharSequence hash, final Object... data)
+        {
+          if (compares.getAndIncrement() == 0) {
+            return true;
+          }
+          try {
+            latch.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return false;
+        }
+      };
+      final DigestHistoryRule rule = new DigestHistoryRule(bean, StandardCharsets.UTF_8, false, single);
+      assertThat(rule.validate(new PasswordData("testuser", "t3stUs3r01", digestRefs)).getDetails()).hasSize(1);
+      single.shutdown();
+      assertThat(single.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(compares.get()).isLessThanOrEqualTo(2);
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+
+  @Test
+  public void digestContextSharedAcrossRules()
+  {
+    final EncodingHashBean sha1 = new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false);
+    final AtomicInteger hashes = new AtomicInteger();
+    final HashBean<CharSequence> bean = new HashBean<CharSequence>()
+    {
+      @Override
+      public CharSequence hash(final Object... data)
+      {
+        hashes.incrementAndGet();
+        return sha1.hash(data);
+      }
+
+      @Override
+      public boolean compare(final CharSequence hash, final Object... data)
+      {
+        return sha1.compare(hash, data);
+      }
+    };
+    final DigestDictionaryRule dictionaryRule = new DigestDictionaryRule(
+      bean, new WordListDictionary(new ArrayWordList(new String[] {"safx/LW8+SsSy/o3PmCNy4VEm5s="})));
+    final DigestHistoryRule historyRule = new DigestHistoryRule(bean, StandardCharsets.UTF_8, true, true);
+    final DefaultPasswordValidator validator = new DefaultPasswordValidator(dictionaryRule, historyRule);
+
+    final PasswordData data = new PasswordData("testuser", "t3stUs3r01", digestRefs);
+    assertThat(validator.validate(data).getDetails()).hasSize(2);
+    assertThat(hashes.getAndSet(0)).isEqualTo(1);
+
+    // outside of a validation each rule digests the password itself
+    assertThat(dictionaryRule.validate(data).isValid()).isFalse();
+    assertThat(historyRule.validate(data).isValid()).isFalse();
+    assertThat(hashes.get()).isEqualTo(2);
+  }
 }
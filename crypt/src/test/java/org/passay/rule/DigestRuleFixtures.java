@@ -0,0 +1,78 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.rule;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.cryptacular.bean.EncodingHashBean;
+import org.cryptacular.spec.CodecSpec;
+import org.cryptacular.spec.DigestSpec;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+
+/**
+ * Extends {@link RuleFixtures} with the digest rules, which match the digested references and the digest of
+ * {@link RuleFixtures#INVALID_PASSWORD}.
+ *
+ * @author  Middleware Services
+ */
+public final class DigestRuleFixtures
+{
+
+  /** Names of the rules created by {@link #createRule(String, String)}, including those of {@link RuleFixtures}. */
+  public static final String[] RULES = Stream.concat(
+    Arrays.stream(RuleFixtures.RULES),
+    Stream.of("DigestDictionaryRule", "DigestHistoryRule", "DigestSourceRule"))
+    .sorted()
+    .toArray(String[]::new);
+
+
+  /** Private constructor of utility class. */
+  private DigestRuleFixtures() {}
+
+
+  /**
+   * Creates the rule with the supplied name.
+   *
+   * @param  name  simple class name of the rule, one of {@link #RULES}
+   * @param  resources  directory containing the bundled word lists
+   *
+   * @return  rule
+   *
+   * @throws  IOException  if a dictionary cannot be read
+   */
+  public static Rule createRule(final String name, final String resources) throws IOException
+  {
+    final Rule rule;
+    switch (name) {
+
+    case "DigestDictionaryRule":
+      rule = new DigestDictionaryRule(
+        hashBean(), new WordListDictionary(new ArrayWordList(new String[] {RuleFixtures.INVALID_DIGEST})));
+      break;
+
+    case "DigestHistoryRule":
+      rule = new DigestHistoryRule(hashBean());
+      break;
+
+    case "DigestSourceRule":
+      rule = new DigestSourceRule(hashBean());
+      break;
+
+    default:
+      rule = RuleFixtures.createRule(name, resources);
+    }
+    return rule;
+  }
+
+
+  /**
+   * Returns the hash bean of the digest rules.
+   *
+   * @return  base64 encoded SHA-1 hash bean
+   */
+  public static EncodingHashBean hashBean()
+  {
+    return new EncodingHashBean(new CodecSpec("Base64"), new DigestSpec("SHA1"), 1, false);
+  }
+}
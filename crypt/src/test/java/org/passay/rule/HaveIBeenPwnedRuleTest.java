@@ -1,6 +1,10 @@
 /* See LICENSE for licensing and NOTICE for copyright. */
 package org.passay.rule;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
@@ -208,4 +212,34 @@ public class HaveIBeenPwnedRuleTest extends AbstractRuleTest
     assertThat(result.getMetadata().getCounts().size()).isEqualTo(0);
     assertThat(result.getMessages().size()).isEqualTo(0);
   }
+
+
+  @Test
+  public void testRequestListener()
+  {
+    final List<String> requests = new ArrayList<>();
+    final HaveIBeenPwnedRule rule = new HaveIBeenPwnedRule("org.passay", apiUrl);
+    rule.setRequestListener(new HaveIBeenPwnedRule.RequestListener()
+    {
+      @Override
+      public void requestStarted()
+      {
+        requests.add("started");
+      }
+
+      @Override
+      public void requestCompleted(final URL url, final int status, final int lines, final IOException error)
+      {
+        requests.add(url + " " + status + " " + lines + " " + (error != null));
+      }
+    });
+    rule.validate(new PasswordData(INVALID_PASSWORD));
+    rule.validate(new PasswordData(VALID_PASSWORD));
+    rule.validate(new PasswordData(EXCEPTION_PASSWORD));
+    // the response is read up to the matching line
+    assertThat(requests).containsExactly(
+      "started", apiUrl + " 200 6 false",
+      "started", apiUrl + " 200 11 false",
+      "started", apiUrl + " 404 0 true");
+  }
 }
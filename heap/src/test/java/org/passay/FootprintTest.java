@@ -0,0 +1,402 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.management.ObjectName;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.sun.management.ThreadMXBean;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.BinaryFuseFilter;
+import org.passay.dictionary.BinaryFuseFilterDictionary;
+import org.passay.dictionary.BlockedBloomFilter;
+import org.passay.dictionary.BlockedBloomFilterDictionary;
+import org.passay.dictionary.BloomFilterDictionary;
+import org.passay.dictionary.Dictionary;
+import org.passay.dictionary.FileWordList;
+import org.passay.dictionary.MemoryMappedFileWordList;
+import org.passay.dictionary.TernaryTreeDictionary;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.rule.DigestRuleFixtures;
+import org.passay.rule.Rule;
+import org.passay.rule.RuleFixtures;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Footprint regression harness that measures the live heap retained by each dictionary type over the bundled word
+ * lists and the bytes allocated by each rule for a single validation. Retained heap is the smaller of the heap added
+ * by creating the dictionary and the heap released once it is unreachable, each the difference between totals of the
+ * live object histogram produced by the <code>gcClassHistogram</code> diagnostic command. Allocated bytes are
+ * the mean of {@link ThreadMXBean#getThreadAllocatedBytes(long)} over many validations once the validation has been
+ * compiled. Rules and password data are the shared fixtures of {@link RuleFixtures} and {@link DigestRuleFixtures},
+ * which the rule benchmarks also measure.
+ *
+ * <p>Each measurement is compared to the baseline in <code>src/test/resources/footprint-baseline.properties</code>
+ * and fails if it exceeds the baseline by more than the tolerance. A measurement that falls below the baseline by more
+ * than the tolerance also fails, so that memory improvements are recorded in the baseline and stay enforced. Execute
+ * the harness and update the baseline by invoking:
+ * <pre>
+   mvn -pl heap -Pheap test -Dpassay.footprint.update=true
+ * </pre>
+ *
+ * @author  Middleware Services
+ */
+public class FootprintTest
+{
+
+  /** Baseline measurements. */
+  private static final String BASELINE = "src/test/resources/footprint-baseline.properties";
+
+  /** Relative change from the baseline that is tolerated. */
+  private static final double TOLERANCE = 0.1;
+
+  /** Absolute change from the baseline in bytes that is tolerated for allocations. */
+  private static final long ALLOCATION_SLACK = 64;
+
+  /** Absolute change from the baseline in bytes that is tolerated for retained heap. */
+  private static final long RETAINED_SLACK = 16 * 1024;
+
+  /** Number of additional full collections performed to release objects pending finalization. */
+  private static final int SETTLE_COLLECTIONS = 5;
+
+  /** Number of validations before allocations are measured. */
+  private static final int WARMUP_ITERATIONS = 20_000;
+
+  /** Number of validations whose allocations are measured. */
+  private static final int MEASURED_ITERATIONS = 2_000;
+
+  /** Directory containing the bundled word lists. */
+  private static final String RESOURCES = "../src/test/resources";
+
+  /** Whether to record the measurements as the new baseline rather than compare them. */
+  private final boolean update = Boolean.getBoolean("passay.footprint.update");
+
+  /** Baseline measurements. */
+  private final Properties baseline = new Properties();
+
+  /** Measurements of this run. */
+  private final Map<String, Long> measurements = new TreeMap<>();
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @BeforeClass
+  public void loadBaseline() throws Exception
+  {
+    if (!update) {
+      try (InputStream in = Files.newInputStream(Paths.get(BASELINE))) {
+        baseline.load(in);
+      }
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @AfterClass
+  public void writeBaseline() throws Exception
+  {
+    if (update) {
+      Files.createDirectories(Paths.get(BASELINE).getParent());
+      try (Writer writer = Files.newBufferedWriter(Paths.get(BASELINE), StandardCharsets.ISO_8859_1)) {
+        writer.write("# Footprint baseline in bytes, see org.passay.FootprintTest\n");
+        writer.write("# java.vm.name=" + System.getProperty("java.vm.name") + "\n");
+        writer.write("# java.version=" + System.getProperty("java.version") + "\n");
+        for (Map.Entry<String, Long> entry : measurements.entrySet()) {
+          writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Dictionary types and word lists.
+   *
+   * @return  dictionary test data
+   */
+  @DataProvider(name = "dictionaries")
+  public Object[][] dictionaries()
+  {
+    final String[] types = {
+      "ArrayWordList",
+      "FileWordList",
+      "MemoryMappedFileWordList",
+      "TernaryTree",
+      "BloomFilter",
+      "BlockedBloomFilter",
+      "BinaryFuseFilter",
+    };
+    final String[] files = {"web2", "freebsd"};
+    final Object[][] data = new Object[types.length * files.length][];
+    for (int i = 0; i < types.length; i++) {
+      for (int j = 0; j < files.length; j++) {
+        data[i * files.length + j] = new Object[] {types[i], files[j]};
+      }
+    }
+    return data;
+  }
+
+
+  /**
+   * Rule names.
+   *
+   * @return  rule test data
+   */
+  @DataProvider(name = "rules")
+  public Object[][] rules()
+  {
+    return Arrays.stream(DigestRuleFixtures.RULES).map(name -> new Object[] {name}).toArray(Object[][]::new);
+  }
+
+
+  /**
+   * @param  type  of dictionary
+   * @param  file  bundled word list
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(dataProvider = "dictionaries")
+  public void retainedHeap(final String type, final String file) throws Exception
+  {
+    try (RandomAccessFile sortedFile = new RandomAccessFile(Paths.get(RESOURCES, file + ".sort").toFile(), "r")) {
+      // create the dictionary once so that classes are initialized before measuring
+      createDictionary(type, file, sortedFile);
+      // objects left by earlier tests may be released at any of these collections, and only ever inflate the
+      // difference across which they are released, so the smaller of the heap added and the heap released is used
+      final long before = liveBytes();
+      final long live = liveBytes(type, file, sortedFile);
+      final long retained = Math.min(live - before, live - liveBytes());
+      check("retained." + type + "." + file, retained, RETAINED_SLACK);
+    }
+  }
+
+
+  /**
+   * @param  name  of rule
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test(dataProvider = "rules")
+  public void allocatedBytes(final String name) throws Exception
+  {
+    final Rule rule = DigestRuleFixtures.createRule(name, RESOURCES);
+    final PasswordData valid = RuleFixtures.validPasswordData();
+    final PasswordData invalid = RuleFixtures.invalidPasswordData(name);
+    assertThat(rule.validate(valid).isValid()).isTrue();
+    assertThat(rule.validate(invalid).isValid()).isFalse();
+    check("allocated." + name + ".valid", allocatedBytes(rule, valid), ALLOCATION_SLACK);
+    check("allocated." + name + ".invalid", allocatedBytes(rule, invalid), ALLOCATION_SLACK);
+  }
+
+
+  /**
+   * Records the supplied measurement and compares it to the baseline unless the baseline is being updated.
+   *
+   * @param  key  of the measurement
+   * @param  bytes  measured
+   * @param  slack  absolute change in bytes that is tolerated
+   */
+  private void check(final String key, final long bytes, final long slack)
+  {
+    synchronized (measurements) {
+      measurements.put(key, bytes);
+    }
+    if (update) {
+      return;
+    }
+    final String value = baseline.getProperty(key);
+    assertThat(value).withFailMessage("No baseline for %s, measured %,d bytes", key, bytes).isNotNull();
+    final long expected = Long.parseLong(value);
+    assertThat(bytes)
+      .withFailMessage("%s regressed from %,d to %,d bytes", key, expected, bytes)
+      .isLessThanOrEqualTo((long) (expected * (1 + TOLERANCE)) + slack);
+    assertThat(bytes)
+      .withFailMessage(
+        "%s improved from %,d to %,d bytes, update the baseline with -Dpassay.footprint.update=true",
+        key,
+        expected,
+        bytes)
+      .isGreaterThanOrEqualTo((long) (expected * (1 - TOLERANCE)) - slack);
+  }
+
+
+  /**
+   * Returns the total size of live objects on the heap. Full collections are repeated since objects that are only
+   * reachable from finalizable objects survive the first collection.
+   *
+   * @return  live bytes
+   *
+   * @throws  Exception  if the class histogram cannot be produced
+   */
+  private static long liveBytes() throws Exception
+  {
+    long live = histogramTotal();
+    for (int i = 0; i < SETTLE_COLLECTIONS; i++) {
+      System.runFinalization();
+      live = Math.min(live, histogramTotal());
+    }
+    return live;
+  }
+
+
+  /**
+   * Creates a dictionary and returns the live heap while it is reachable. The dictionary is only referenced from the
+   * frame of this method, so it is unreachable once this method returns.
+   *
+   * @param  type  of dictionary
+   * @param  file  to read words from
+   * @param  sortedFile  sorted words for file backed dictionaries
+   *
+   * @return  live heap in bytes
+   *
+   * @throws  Exception  if the dictionary cannot be created
+   */
+  private static long liveBytes(final String type, final String file, final RandomAccessFile sortedFile)
+    throws Exception
+  {
+    final Dictionary dictionary = createDictionary(type, file, sortedFile);
+    final long live = liveBytes();
+    assertThat(dictionary.search("not-a-word")).isFalse();
+    return live;
+  }
+
+
+  /**
+   * Returns the total size of a class histogram, which performs a full collection.
+   *
+   * @return  live bytes
+   *
+   * @throws  Exception  if the class histogram cannot be produced
+   */
+  private static long histogramTotal() throws Exception
+  {
+    final String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+      new ObjectName("com.sun.management:type=DiagnosticCommand"),
+      "gcClassHistogram",
+      new Object[] {new String[0]},
+      new String[] {String[].class.getName()});
+    // last line is of the form: Total <instances> <bytes>
+    final String[] total = histogram.trim().substring(histogram.trim().lastIndexOf('\n') + 1).trim().split("\\s+");
+    return Long.parseLong(total[2]);
+  }
+
+
+  /**
+   * Returns the mean number of bytes allocated by the current thread for a validation.
+   *
+   * @param  rule  to validate with
+   * @param  data  to validate
+   *
+   * @return  allocated bytes per validation
+   */
+  private static long allocatedBytes(final Rule rule, final PasswordData data)
+  {
+    final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long thread = Thread.currentThread().getId();
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      rule.validate(data);
+    }
+    final long start = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      rule.validate(data);
+    }
+    return (threads.getThreadAllocatedBytes(thread) - start) / MEASURED_ITERATIONS;
+  }
+
+
+  /**
+   * Creates a dictionary of the supplied type.
+   *
+   * @param  type  of dictionary
+   * @param  file  bundled word list
+   * @param  sortedFile  sorted word list for file backed dictionaries
+   *
+   * @return  dictionary
+   *
+   * @throws  IOException  if the word list cannot be read
+   */
+  private static Dictionary createDictionary(final String type, final String file, final RandomAccessFile sortedFile)
+    throws IOException
+  {
+    final Dictionary dictionary;
+    switch (type) {
+
+    case "FileWordList":
+      dictionary = new WordListDictionary(new FileWordList(sortedFile, true));
+      break;
+
+    case "MemoryMappedFileWordList":
+      dictionary = new WordListDictionary(new MemoryMappedFileWordList(sortedFile, true));
+      break;
+
+    case "ArrayWordList":
+      dictionary = new WordListDictionary(wordList(file, true));
+      break;
+
+    case "TernaryTree":
+      dictionary = new TernaryTreeDictionary(wordList(file, true));
+      break;
+
+    case "BloomFilter":
+      final ArrayWordList bloomWords = wordList(file, true);
+      final BloomFilter<CharSequence> bloomFilter = BloomFilter.create(
+        Funnels.stringFunnel(StandardCharsets.UTF_8), bloomWords.size(), 1.0 / 256);
+      for (int i = 0; i < bloomWords.size(); i++) {
+        bloomFilter.put(bloomWords.get(i));
+      }
+      dictionary = new BloomFilterDictionary(bloomFilter);
+      break;
+
+    case "BlockedBloomFilter":
+      final ArrayWordList blockedWords = wordList(file, true);
+      final BlockedBloomFilter blockedFilter = BlockedBloomFilter.create(blockedWords.size(), 1.0 / 256);
+      for (int i = 0; i < blockedWords.size(); i++) {
+        blockedFilter.put(blockedWords.get(i));
+      }
+      dictionary = new BlockedBloomFilterDictionary(blockedFilter);
+      break;
+
+    case "BinaryFuseFilter":
+      dictionary = new BinaryFuseFilterDictionary(BinaryFuseFilter.build(wordList(file, true)));
+      break;
+
+    default:
+      throw new IllegalArgumentException("Unknown dictionary " + type);
+    }
+    return dictionary;
+  }
+
+
+  /**
+   * Reads a sorted word list from a bundled resource.
+   *
+   * @param  name  of the resource
+   * @param  caseSensitive  whether the word list is case-sensitive
+   *
+   * @return  word list
+   *
+   * @throws  IOException  if the resource cannot be read
+   */
+  private static ArrayWordList wordList(final String name, final boolean caseSensitive) throws IOException
+  {
+    return RuleFixtures.wordList(RESOURCES, name, caseSensitive);
+  }
+}
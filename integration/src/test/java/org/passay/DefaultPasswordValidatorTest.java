@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cryptacular.bean.EncodingHashBean;
 import org.cryptacular.spec.CodecSpec;
 import org.cryptacular.spec.DigestSpec;
@@ -935,6 +936,48 @@ public class DefaultPasswordValidatorTest
   }
 
 
+  /**
+   * Test that messages are resolved on first access and then retained.
+   */
+  @Test
+  public void lazyMessages()
+  {
+    final AtomicInteger resolveCount = new AtomicInteger();
+    final MessageResolver resolver = detail -> {
+      resolveCount.incrementAndGet();
+      return detail.getErrorCode();
+    };
+    final DefaultPasswordValidator pv = new DefaultPasswordValidator(resolver, new LengthRule(8, 16));
+    final ValidationResult result = pv.validate(new PasswordData("short"));
+    assertThat(result.isValid()).isFalse();
+    assertThat(result.getDetails().size()).isEqualTo(1);
+    assertThat(resolveCount.get()).isEqualTo(0);
+    assertThat(result.getMessages()).containsExactly(LengthRule.ERROR_CODE_MIN);
+    assertThat(result.getMessages()).containsExactly(LengthRule.ERROR_CODE_MIN);
+    assertThat(resolveCount.get()).isEqualTo(1);
+  }
+
+
+  /**
+   * Test that the entropy of a result does not depend on the password data once validation completes.
+   */
+  @Test
+  public void entropyAfterClear()
+  {
+    final DefaultPasswordValidator pv = new DefaultPasswordValidator(
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER,
+      new LengthRule(8, 16),
+      new CharacterRule(EnglishCharacterData.Digit, 1));
+    for (Origin origin : new Origin[] {Origin.User, Origin.Generated}) {
+      final double entropy = pv.validate(new PasswordData("p4ssw0rd!", origin)).getEntropy();
+      final PasswordData cleared = new PasswordData("p4ssw0rd!", origin);
+      final ValidationResult result = pv.validate(cleared);
+      cleared.clear();
+      assertThat(result.getEntropy()).isEqualTo(entropy);
+    }
+  }
+
+
   /**
    * Converts one or more error codes to a string array.
    *
@@ -0,0 +1,35 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted for each search of a {@link FlightRecorderDictionary}. The searched word is never
+ * recorded.
+ *
+ * @author  Middleware Services
+ */
+@Name("org.passay.DictionarySearch")
+@Label("Dictionary Search")
+@Category("Passay")
+@Description("Search of a dictionary for a word")
+public class DictionarySearchEvent extends Event
+{
+  // CheckStyle:VisibilityModifier OFF
+  /** Dictionary class. */
+  @Label("Dictionary")
+  Class<?> dictionary;
+
+  /** Number of words in the dictionary. */
+  @Label("Size")
+  long size;
+
+  /** Whether the word was found. */
+  @Label("Found")
+  boolean found;
+  // CheckStyle:VisibilityModifier ON
+}
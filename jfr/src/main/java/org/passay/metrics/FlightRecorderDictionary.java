@@ -0,0 +1,70 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import org.passay.PassayUtils;
+import org.passay.dictionary.Dictionary;
+
+/**
+ * Dictionary that emits a {@link DictionarySearchEvent} for every search of the dictionary it decorates.
+ *
+ * @author  Middleware Services
+ */
+public class FlightRecorderDictionary implements Dictionary
+{
+
+  /** Decorated dictionary. */
+  private final Dictionary dictionary;
+
+
+  /**
+   * Creates a new flight recorder dictionary.
+   *
+   * @param  d  dictionary to decorate
+   */
+  public FlightRecorderDictionary(final Dictionary d)
+  {
+    dictionary = PassayUtils.assertNotNullArg(d, "Dictionary cannot be null");
+  }
+
+
+  /**
+   * Returns the decorated dictionary.
+   *
+   * @return  decorated dictionary
+   */
+  public Dictionary getDictionary()
+  {
+    return dictionary;
+  }
+
+
+  @Override
+  public boolean search(final CharSequence word)
+  {
+    final DictionarySearchEvent event = new DictionarySearchEvent();
+    event.begin();
+    final boolean found = dictionary.search(word);
+    event.end();
+    if (event.shouldCommit()) {
+      event.dictionary = dictionary.getClass();
+      event.size = dictionary.size();
+      event.found = found;
+      event.commit();
+    }
+    return found;
+  }
+
+
+  @Override
+  public long size()
+  {
+    return dictionary.size();
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode() + "::" + "dictionary=" + dictionary;
+  }
+}
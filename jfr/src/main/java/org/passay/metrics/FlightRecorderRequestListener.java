@@ -0,0 +1,65 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.io.IOException;
+import java.net.URL;
+import jdk.jfr.EventType;
+import org.passay.rule.HaveIBeenPwnedRule;
+
+/**
+ * Request listener that emits a {@link HaveIBeenPwnedEvent} for every request made to the API by the rules it is set
+ * on. Requires passay-crypt on the class path:
+ * <pre>
+   HaveIBeenPwnedRule rule = new HaveIBeenPwnedRule("my-application");
+   rule.setRequestListener(new FlightRecorderRequestListener());
+ * </pre>
+ *
+ * @author  Middleware Services
+ */
+public class FlightRecorderRequestListener implements HaveIBeenPwnedRule.RequestListener
+{
+
+  /** Type of request events. */
+  private static final EventType REQUEST_EVENT = EventType.getEventType(HaveIBeenPwnedEvent.class);
+
+  /** Event of the request in progress on each thread. */
+  private final ThreadLocal<HaveIBeenPwnedEvent> events = new ThreadLocal<>();
+
+
+  @Override
+  public void requestStarted()
+  {
+    if (!REQUEST_EVENT.isEnabled()) {
+      return;
+    }
+    final HaveIBeenPwnedEvent event = new HaveIBeenPwnedEvent();
+    event.begin();
+    events.set(event);
+  }
+
+
+  @Override
+  public void requestCompleted(final URL url, final int status, final int lines, final IOException error)
+  {
+    final HaveIBeenPwnedEvent event = events.get();
+    events.remove();
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.api = url != null ? url.toString() : null;
+      event.status = status;
+      event.lines = lines;
+      event.error = error != null ? error.getClass() : null;
+      event.commit();
+    }
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode();
+  }
+}
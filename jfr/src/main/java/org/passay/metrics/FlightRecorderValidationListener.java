@@ -0,0 +1,196 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import jdk.jfr.EventType;
+import org.passay.RuleResult;
+import org.passay.RuleResultDetail;
+import org.passay.ValidationListener;
+import org.passay.ValidationResult;
+import org.passay.rule.Rule;
+
+/**
+ * Validation listener that emits a {@link ValidationEvent} for every validation and a {@link RuleEvent} for every rule
+ * evaluated by the validator it listens to. Rules are not decorated, so everything that depends on the class of a rule,
+ * such as entropy estimates, policy evaluation order and incremental validation, is unaffected by recording. Combine
+ * with {@link FlightRecorderDictionary} to record the cost of individual dictionary searches:
+ * <pre>
+   PasswordValidator validator = new DefaultPasswordValidator(
+     false,
+     DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+     DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+     new FlightRecorderValidationListener(),
+     rules);
+ * </pre>
+ * Contention on the lock shared by file backed word lists is recorded by the built in
+ * <code>jdk.JavaMonitorEnter</code> event, whose monitor class is
+ * <code>org.passay.dictionary.AbstractFileWordList$ReadLock</code>. Events never carry password material.
+ * <p>
+ * Nothing is allocated and no thread state is touched while neither event is enabled. A validation nested in a rule
+ * on the same thread, such as a rule that delegates to another validator with this listener, is recorded as a
+ * separate event without disturbing the event of the enclosing rule. Validations that are in progress when recording
+ * starts or stops may be recorded incompletely.
+ *
+ * @author  Middleware Services
+ */
+public class FlightRecorderValidationListener implements ValidationListener
+{
+
+  /** Type of validation events. */
+  private static final EventType VALIDATION_EVENT = EventType.getEventType(ValidationEvent.class);
+
+  /** Type of rule events. */
+  private static final EventType RULE_EVENT = EventType.getEventType(RuleEvent.class);
+
+  /** Validations in progress on each thread, innermost first. */
+  private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+
+  @Override
+  public void validationStarted()
+  {
+    if (!isRecording()) {
+      return;
+    }
+    final Deque<Frame> stack = frames.get();
+    // validations only nest in rules, so a frame outside of a rule was left behind when recording stopped
+    if (!stack.isEmpty() && !stack.peek().inRule) {
+      stack.clear();
+    }
+    final Frame frame = new Frame();
+    if (VALIDATION_EVENT.isEnabled()) {
+      frame.validation = new ValidationEvent();
+      frame.validation.begin();
+    }
+    stack.push(frame);
+  }
+
+
+  @Override
+  public void ruleStarted(final Rule rule)
+  {
+    if (!isRecording()) {
+      return;
+    }
+    final Frame frame = frames.get().peek();
+    if (frame == null) {
+      return;
+    }
+    // rule of a nested validation that started before recording
+    if (frame.inRule) {
+      frame.unrecorded++;
+      return;
+    }
+    frame.inRule = true;
+    if (RULE_EVENT.isEnabled()) {
+      frame.rule = new RuleEvent();
+      frame.rule.begin();
+    }
+  }
+
+
+  @Override
+  public void ruleValidated(final Rule rule, final RuleResult result, final long duration)
+  {
+    if (!isRecording()) {
+      return;
+    }
+    final Frame frame = frames.get().peek();
+    if (frame == null || !frame.inRule) {
+      return;
+    }
+    if (frame.unrecorded > 0) {
+      frame.unrecorded--;
+      return;
+    }
+    final RuleEvent event = frame.rule;
+    frame.rule = null;
+    frame.inRule = false;
+    frame.rules++;
+    if (event != null) {
+      event.end();
+    }
+    if (event != null && event.shouldCommit()) {
+      event.rule = rule.getClass();
+      event.valid = result.isValid();
+      if (!result.isValid()) {
+        final StringBuilder codes = new StringBuilder();
+        for (RuleResultDetail detail : result.getDetails()) {
+          if (codes.length() > 0) {
+            codes.append(',');
+          }
+          codes.append(detail.getErrorCode());
+        }
+        event.errorCodes = codes.toString();
+      }
+      event.commit();
+    }
+  }
+
+
+  @Override
+  public void validated(final ValidationResult result, final long duration)
+  {
+    if (!isRecording()) {
+      return;
+    }
+    final Deque<Frame> stack = frames.get();
+    final Frame frame = stack.peek();
+    // a frame in a rule belongs to the validation enclosing a nested validation that started before recording
+    if (frame == null || frame.inRule) {
+      return;
+    }
+    stack.pop();
+    final ValidationEvent event = frame.validation;
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.rules = frame.rules;
+      event.valid = result.isValid();
+      event.failures = result.getDetails().size();
+      event.commit();
+    }
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getClass().getName() + "@" + hashCode();
+  }
+
+
+  /**
+   * Returns whether any recording has validation or rule events enabled.
+   *
+   * @return  whether events of this listener are enabled
+   */
+  private static boolean isRecording()
+  {
+    return VALIDATION_EVENT.isEnabled() || RULE_EVENT.isEnabled();
+  }
+
+
+  /** Events of a validation in progress on a thread. */
+  private static final class Frame
+  {
+
+    /** Event of the validation, null if validation events are disabled. */
+    private ValidationEvent validation;
+
+    /** Event of the rule being evaluated, null if rule events are disabled. */
+    private RuleEvent rule;
+
+    /** Whether a rule is being evaluated. */
+    private boolean inRule;
+
+    /** Number of rules started by nested validations that are not recorded. */
+    private int unrecorded;
+
+    /** Number of rules evaluated by the validation. */
+    private int rules;
+  }
+}
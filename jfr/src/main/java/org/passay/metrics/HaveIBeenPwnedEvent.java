@@ -0,0 +1,39 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted for each request a <code>HaveIBeenPwnedRule</code> makes to the API, see
+ * {@link FlightRecorderRequestListener}. The requested range is derived from the password and is never recorded.
+ *
+ * @author  Middleware Services
+ */
+@Name("org.passay.HaveIBeenPwned")
+@Label("Have I Been Pwned Request")
+@Category("Passay")
+@Description("Request to the Have I Been Pwned range API")
+public class HaveIBeenPwnedEvent extends Event
+{
+  // CheckStyle:VisibilityModifier OFF
+  /** URL of the API. */
+  @Label("API")
+  String api;
+
+  /** HTTP status of the response, -1 if no response was received. */
+  @Label("Status")
+  int status;
+
+  /** Number of response lines read. */
+  @Label("Lines")
+  int lines;
+
+  /** Class of the exception that failed the request. */
+  @Label("Error")
+  Class<?> error;
+  // CheckStyle:VisibilityModifier ON
+}
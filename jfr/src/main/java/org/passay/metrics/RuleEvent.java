@@ -0,0 +1,36 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted for each rule evaluated by a validator with a {@link FlightRecorderValidationListener}.
+ * Requests made by a <code>HaveIBeenPwnedRule</code> are timed by the event of that rule and, with a
+ * {@link FlightRecorderRequestListener}, recorded individually as a {@link HaveIBeenPwnedEvent}.
+ *
+ * @author  Middleware Services
+ */
+@Name("org.passay.Rule")
+@Label("Password Rule")
+@Category("Passay")
+@Description("Evaluation of a single password rule")
+public class RuleEvent extends Event
+{
+  // CheckStyle:VisibilityModifier OFF
+  /** Rule class. */
+  @Label("Rule")
+  Class<?> rule;
+
+  /** Whether the password satisfies the rule. */
+  @Label("Valid")
+  boolean valid;
+
+  /** Error codes of the failure details, separated by commas. */
+  @Label("Error Codes")
+  String errorCodes;
+  // CheckStyle:VisibilityModifier ON
+}
@@ -0,0 +1,35 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted for each password validated by a validator with a
+ * {@link FlightRecorderValidationListener}.
+ *
+ * @author  Middleware Services
+ */
+@Name("org.passay.Validation")
+@Label("Password Validation")
+@Category("Passay")
+@Description("Validation of a password against every rule of a validator")
+public class ValidationEvent extends Event
+{
+  // CheckStyle:VisibilityModifier OFF
+  /** Number of rules evaluated, which is less than the number of rules when the validator fails fast. */
+  @Label("Rules")
+  int rules;
+
+  /** Whether the password is valid. */
+  @Label("Valid")
+  boolean valid;
+
+  /** Number of failure details. */
+  @Label("Failures")
+  int failures;
+  // CheckStyle:VisibilityModifier ON
+}
@@ -0,0 +1,271 @@
+/* See LICENSE for licensing and NOTICE for copyright. */
+package org.passay.metrics;
+
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.passay.DefaultPasswordValidator;
+import org.passay.FailureRuleResult;
+import org.passay.PasswordData;
+import org.passay.PasswordPolicy;
+import org.passay.PasswordValidator;
+import org.passay.SuccessRuleResult;
+import org.passay.ValidationResult;
+import org.passay.ValidationSession;
+import org.passay.data.EnglishCharacterData;
+import org.passay.dictionary.ArrayWordList;
+import org.passay.dictionary.WordListDictionary;
+import org.passay.rule.CharacterCharacteristicsRule;
+import org.passay.rule.CharacterRule;
+import org.passay.rule.DictionaryRule;
+import org.passay.rule.LengthRule;
+import org.passay.rule.Rule;
+import org.passay.support.Origin;
+import org.testng.annotations.Test;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit test for {@link FlightRecorderValidationListener}, {@link FlightRecorderDictionary} and
+ * {@link FlightRecorderRequestListener}.
+ *
+ * @author  Middleware Services
+ */
+public class FlightRecorderTest
+{
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void events() throws Exception
+  {
+    final PasswordValidator validator = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      new FlightRecorderValidationListener(),
+      Arrays.asList(
+        new LengthRule(8, 16),
+        new CharacterRule(EnglishCharacterData.Digit, 1),
+        new DictionaryRule(
+          new FlightRecorderDictionary(
+            new WordListDictionary(new ArrayWordList(new String[] {"password", "secret"}))))));
+
+    final Path file = Files.createTempFile("passay", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(ValidationEvent.class).withoutThreshold();
+        recording.enable(RuleEvent.class).withoutThreshold();
+        recording.enable(DictionarySearchEvent.class).withoutThreshold();
+        recording.start();
+        assertThat(validator.validate(new PasswordData("Sup3rSecret")).isValid()).isTrue();
+        assertThat(validator.validate(new PasswordData("secret")).isValid()).isFalse();
+        recording.stop();
+        recording.dump(file);
+      }
+      final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+      final List<RecordedEvent> validations = named(events, "org.passay.Validation");
+      assertThat(validations).hasSize(2);
+      assertThat(validations.get(1).getBoolean("valid")).isFalse();
+      assertThat(validations.get(1).getInt("failures")).isEqualTo(3);
+      assertThat(validations.get(1).getInt("rules")).isEqualTo(3);
+
+      final List<RecordedEvent> rules = named(events, "org.passay.Rule");
+      assertThat(rules).hasSize(6);
+      assertThat(rules.stream().map(e -> e.getClass("rule").getName()).distinct())
+        .containsExactly(LengthRule.class.getName(), CharacterRule.class.getName(), DictionaryRule.class.getName());
+      assertThat(rules.get(3).getString("errorCodes")).isEqualTo(LengthRule.ERROR_CODE_MIN);
+      assertThat(rules.get(5).getString("errorCodes")).isEqualTo(DictionaryRule.ERROR_CODE);
+
+      final List<RecordedEvent> searches = named(events, "org.passay.DictionarySearch");
+      assertThat(searches).isNotEmpty();
+      assertThat(searches.get(0).getClass("dictionary").getName()).isEqualTo(WordListDictionary.class.getName());
+      assertThat(searches.get(0).getLong("size")).isEqualTo(2);
+      assertThat(searches.stream().anyMatch(e -> e.getBoolean("found"))).isTrue();
+
+      // no event carries the password
+      for (RecordedEvent event : events) {
+        assertThat(event.toString()).doesNotContain("Sup3rSecret");
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+
+  /**
+   * Recording does not change entropy estimates, policy evaluation order or incremental validation, all of which
+   * depend on the class of each rule.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void rulesAreNotHidden() throws Exception
+  {
+    final List<Rule> rules = Arrays.asList(
+      new DictionaryRule(new WordListDictionary(new ArrayWordList(new String[] {"password", "secret"}))),
+      new CharacterCharacteristicsRule(
+        2,
+        new CharacterRule(EnglishCharacterData.UpperCase, 1),
+        new CharacterRule(EnglishCharacterData.Digit, 1)),
+      new LengthRule(8, 16));
+    final DefaultPasswordValidator plain = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER,
+      rules);
+    final DefaultPasswordValidator recorded = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER,
+      new FlightRecorderValidationListener(),
+      rules);
+
+    try (Recording recording = new Recording()) {
+      recording.enable(ValidationEvent.class).withoutThreshold();
+      recording.enable(RuleEvent.class).withoutThreshold();
+      recording.start();
+      final PasswordData generated = new PasswordData("Sup3rSecret", Origin.Generated);
+      assertThat(recorded.validate(generated).getEntropy()).isEqualTo(plain.validate(generated).getEntropy());
+
+      final PasswordPolicy policy = PasswordPolicy.compile(
+        true,
+        DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+        DefaultPasswordValidator.DEFAULT_ENTROPY_PROVIDER,
+        new FlightRecorderValidationListener(),
+        rules);
+      assertThat(policy.getEvaluationOrder()).isEqualTo(PasswordPolicy.compile(true, rules).getEvaluationOrder());
+      assertThat(policy.getEvaluationOrder().get(0)).isInstanceOf(LengthRule.class);
+      assertThat(policy.getUniqueCharacters()).isEqualTo(PasswordPolicy.compile(rules).getUniqueCharacters());
+
+      final ValidationSession session = new ValidationSession(recorded);
+      session.append("Sup3rSecret");
+      assertThat(session.validate().isValid()).isTrue();
+      recording.stop();
+    }
+  }
+
+
+  /**
+   * A validation nested in a rule is recorded separately and leaves the event of the enclosing rule intact.
+   *
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void nestedValidation() throws Exception
+  {
+    final FlightRecorderValidationListener listener = new FlightRecorderValidationListener();
+    final PasswordValidator inner = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      listener,
+      Arrays.asList(new CharacterRule(EnglishCharacterData.Digit, 1)));
+    final Rule delegating = passwordData -> {
+      final ValidationResult result = inner.validate(passwordData);
+      return result.isValid() ? new SuccessRuleResult() : new FailureRuleResult(result.getDetails());
+    };
+    final PasswordValidator outer = new DefaultPasswordValidator(
+      false,
+      DefaultPasswordValidator.NULL_MESSAGE_RESOLVER,
+      DefaultPasswordValidator.NO_ENTROPY_PROVIDER,
+      listener,
+      Arrays.asList(new LengthRule(8, 16), delegating, new LengthRule(1, 32)));
+
+    // validations while not recording leave nothing behind
+    assertThat(outer.validate(new PasswordData("Sup3rSecret")).isValid()).isTrue();
+
+    final Path file = Files.createTempFile("passay", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(ValidationEvent.class).withoutThreshold();
+        recording.enable(RuleEvent.class).withoutThreshold();
+        recording.start();
+        assertThat(outer.validate(new PasswordData("SuperSecret")).isValid()).isFalse();
+        recording.stop();
+        recording.dump(file);
+      }
+      final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+      final List<RecordedEvent> validations = named(events, "org.passay.Validation");
+      assertThat(validations).hasSize(2);
+      assertThat(validations.stream().map(e -> e.getInt("rules"))).containsExactlyInAnyOrder(1, 3);
+      assertThat(validations.stream().map(e -> e.getInt("failures"))).containsExactlyInAnyOrder(1, 1);
+
+      final List<RecordedEvent> rules = named(events, "org.passay.Rule");
+      assertThat(rules).hasSize(4);
+      // the event of the delegating rule survives the nested validation, recorded under its hidden lambda class
+      assertThat(rules.stream().map(e -> e.getClass("rule").getName()))
+        .filteredOn(name -> !name.equals(LengthRule.class.getName()) && !name.equals(CharacterRule.class.getName()))
+        .hasSize(1)
+        .allMatch(name -> name.startsWith(FlightRecorderTest.class.getName()));
+      assertThat(rules.stream().filter(e -> !e.getBoolean("valid")).map(e -> e.getString("errorCodes")))
+        .containsExactlyInAnyOrder(
+          EnglishCharacterData.Digit.getErrorCode(),
+          EnglishCharacterData.Digit.getErrorCode());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+
+  /**
+   * @throws  Exception  On test failure.
+   */
+  @Test
+  public void requestEvents() throws Exception
+  {
+    final FlightRecorderRequestListener listener = new FlightRecorderRequestListener();
+    final URL api = new URL("https://api.pwnedpasswords.com/range/");
+    final Path file = Files.createTempFile("passay", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(HaveIBeenPwnedEvent.class).withoutThreshold();
+        recording.start();
+        listener.requestStarted();
+        listener.requestCompleted(api, 200, 6, null);
+        listener.requestStarted();
+        listener.requestCompleted(api, -1, 0, new SocketTimeoutException());
+        // completion without a start is ignored
+        listener.requestCompleted(api, 200, 1, null);
+        recording.stop();
+        recording.dump(file);
+      }
+      final List<RecordedEvent> requests = named(RecordingFile.readAllEvents(file), "org.passay.HaveIBeenPwned");
+      assertThat(requests).hasSize(2);
+      assertThat(requests.get(0).getString("api")).isEqualTo(api.toString());
+      assertThat(requests.get(0).getInt("status")).isEqualTo(200);
+      assertThat(requests.get(0).getInt("lines")).isEqualTo(6);
+      assertThat(requests.get(0).getClass("error")).isNull();
+      assertThat(requests.get(1).getInt("status")).isEqualTo(-1);
+      assertThat(requests.get(1).getClass("error").getName()).isEqualTo(SocketTimeoutException.class.getName());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+
+  /**
+   * Returns the events with the supplied name in the order they were committed, which holds for a single thread.
+   *
+   * @param  events  to filter
+   * @param  name  of the event type
+   *
+   * @return  matching events
+   */
+  private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name)
+  {
+    return events.stream()
+      .filter(e -> name.equals(e.getEventType().getName()))
+      .collect(Collectors.toList());
+  }
+}
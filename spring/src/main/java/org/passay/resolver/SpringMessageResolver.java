@@ -5,8 +5,7 @@ import java.util.Locale;
 import org.passay.PassayUtils;
 import org.passay.RuleResultDetail;
 import org.springframework.context.MessageSource;
-import org.springframework.context.NoSuchMessageException;
-import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.context.i18n.LocaleContextHolder;
 
 /**
  * Provides implementation for resolving validation message using Spring's {@link MessageSource}.
@@ -17,11 +16,14 @@ import org.springframework.context.support.MessageSourceAccessor;
 public class SpringMessageResolver implements MessageResolver
 {
 
-  /** An accessor for Spring's {@link MessageSource} */
-  private final MessageSourceAccessor messageSourceAccessor;
+  /** The {@link MessageResolver} for fallback, shared so that its parsed message templates are reused */
+  private static final MessageResolver FALLBACK_MESSAGE_RESOLVER = new PropertiesMessageResolver();
 
-  /** The {@link MessageResolver} for fallback */
-  private final MessageResolver fallbackMessageResolver = new PropertiesMessageResolver();
+  /** Spring's {@link MessageSource} */
+  private final MessageSource messageSource;
+
+  /** The locale to use for message access, null to use the locale associated with the current thread */
+  private final Locale messageLocale;
 
 
   /**
@@ -30,8 +32,7 @@ public class SpringMessageResolver implements MessageResolver
    */
   public SpringMessageResolver(final MessageSource messageSource)
   {
-    messageSourceAccessor = new MessageSourceAccessor(
-      PassayUtils.assertNotNullArg(messageSource, "Message source cannot be null"));
+    this(messageSource, null);
   }
 
 
@@ -43,15 +44,15 @@ public class SpringMessageResolver implements MessageResolver
    */
   public SpringMessageResolver(final MessageSource messageSource, final Locale locale)
   {
-    messageSourceAccessor = new MessageSourceAccessor(
-      PassayUtils.assertNotNullArg(messageSource, "Message source cannot be null"),
-      locale);
+    this.messageSource = PassayUtils.assertNotNullArg(messageSource, "Message source cannot be null");
+    this.messageLocale = locale;
   }
 
 
   /**
    * Resolves the message for the supplied rule result detail using Spring's {@link MessageSource}.
    * (If the message can't retrieve from a {@link MessageSource}, return default message provided by passay)
+   * Missing messages are detected without a {@link org.springframework.context.NoSuchMessageException} being created.
    *
    * @param detail rule result detail
    *
@@ -61,10 +62,20 @@ public class SpringMessageResolver implements MessageResolver
   public String resolve(final RuleResultDetail detail)
   {
     PassayUtils.assertNotNullArg(detail, "Rule result detail cannot be null");
-    try {
-      return messageSourceAccessor.getMessage(detail.getErrorCode(), detail.getValues());
-    } catch (NoSuchMessageException e) {
-      return fallbackMessageResolver.resolve(detail);
-    }
+    final Locale locale = messageLocale != null ? messageLocale : LocaleContextHolder.getLocale();
+    final String message = messageSource.getMessage(detail.getErrorCode(), detail.getValues(), null, locale);
+    return message != null ? message : FALLBACK_MESSAGE_RESOLVER.resolve(detail);
+  }
+
+
+  /**
+   * Returns a resolver with the locale associated with the current thread, unless this resolver has a locale.
+   *
+   * @return message resolver with a locale
+   */
+  @Override
+  public MessageResolver forCurrentThread()
+  {
+    return messageLocale != null ? this : new SpringMessageResolver(messageSource, LocaleContextHolder.getLocale());
   }
 }
@@ -45,6 +45,29 @@ public class SpringMessageResolverTest
     }
   }
 
+  /**
+   * Perform test for resolving messages after the locale of the validating thread has changed.
+   */
+  @Test
+  public void testWithLocaleAtValidation()
+  {
+    final StaticMessageSource messageSource = new StaticMessageSource();
+    messageSource.addMessage("TOO_SHORT", Locale.JAPAN, "to short {0}-{1} for jp");
+    messageSource.addMessage("TOO_SHORT", Locale.FRANCE, "to short {0}-{1} for fr");
+
+    final ValidationResult result;
+    try {
+      LocaleContextHolder.setLocale(Locale.FRANCE);
+      final DefaultPasswordValidator validator =
+        new DefaultPasswordValidator(new SpringMessageResolver(messageSource), new LengthRule(8));
+      result = validator.validate(new PasswordData("pass"));
+      LocaleContextHolder.setLocale(Locale.JAPAN);
+      assertThat(result.getMessages().get(0)).isEqualTo("to short 8-8 for fr");
+    } finally {
+      LocaleContextHolder.resetLocaleContext();
+    }
+  }
+
   /**
    * Perform test for using specified locale.
    */